@@ -0,0 +1,86 @@
+package com.gestor.bench;
+
+import com.gestor.datos.IndiceOcupacion;
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.ReservaSimple;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parte en memoria de ReservaDAO.consultarConflictos(): validar una serie
+ * propuesta contra las reservas existentes de la cancha.
+ *
+ * - bucleAnterior: el algoritmo original (cada propuesta contra cada existente con solapa()).
+ * - indiceOcupacion: el actual (IndiceOcupacion.estaLibre() sobre los días ya cargados).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictosBench {
+
+    @Param({"100", "1000", "5000"})
+    public int reservasExistentes;
+
+    @Param({"4", "26", "52"})
+    public int largoSerie;
+
+    private List<ReservaSimple> existentes;
+    private List<ReservaSimple> propuestas;
+    private IndiceOcupacion indice;
+    private int idCancha;
+
+    @Setup
+    public void preparar() {
+        Cancha cancha = DatosBench.cancha(1);
+        idCancha = cancha.getIdCancha();
+        existentes = DatosBench.reservasDeCancha(cancha, reservasExistentes, 7L);
+        propuestas = DatosBench.serieSemanal(cancha, largoSerie, LocalTime.of(19, 0));
+
+        LocalDateTime ultima = existentes.get(existentes.size() - 1).getFechaHoraInicio();
+        int dias = (int) Math.max(ultima.toLocalDate().toEpochDay(),
+                DatosBench.INICIO.plusWeeks(largoSerie).toEpochDay()) - (int) DatosBench.INICIO.toEpochDay() + 1;
+        indice = DatosBench.indiceCon(existentes, idCancha, dias);
+    }
+
+    @Benchmark
+    public List<LocalDateTime> bucleAnterior() {
+        List<LocalDateTime> conflictos = new ArrayList<>();
+        for (ReservaSimple propuesta : propuestas) {
+            for (ReservaSimple existente : existentes) {
+                if (propuesta.solapa(existente)) {
+                    conflictos.add(propuesta.getFechaHoraInicio());
+                    break;
+                }
+            }
+        }
+        return conflictos;
+    }
+
+    @Benchmark
+    public List<LocalDateTime> indiceOcupacion() {
+        List<LocalDateTime> conflictos = new ArrayList<>();
+        for (ReservaSimple propuesta : propuestas) {
+            if (!indice.estaLibre(idCancha, propuesta.getFechaHoraInicio(), propuesta.getDuracionMinutos())) {
+                conflictos.add(propuesta.getFechaHoraInicio());
+            }
+        }
+        return conflictos;
+    }
+}
@@ -0,0 +1,90 @@
+package com.gestor.bench;
+
+import com.gestor.datos.IndiceOcupacion;
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.Cliente;
+import com.gestor.negocio.HorarioLaboral;
+import com.gestor.negocio.ReservaSimple;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generador de datos "realistas" para los benchmarks: turnos de 60 o 90 minutos
+ * entre las 08:00 y las 23:00, sin solapamientos dentro de la misma cancha
+ * (como los deja la BD). Usa una semilla fija para que las corridas sean comparables.
+ */
+final class DatosBench {
+
+    static final LocalDate INICIO = LocalDate.of(2025, 3, 3); // Un lunes
+    static final LocalTime APERTURA = LocalTime.of(8, 0);
+    static final LocalTime CIERRE = LocalTime.of(23, 0);
+
+    private DatosBench() {}
+
+    static Cancha cancha(int id) {
+        return new Cancha(id, "Cancha " + id, "Fútbol 5", 12000.0);
+    }
+
+    static Cliente cliente() {
+        return new Cliente(1, "Cliente Bench", "000");
+    }
+
+    static HorarioLaboral horario(DayOfWeek dia, int duracionTurno) {
+        return new HorarioLaboral(dia, APERTURA, CIERRE, duracionTurno);
+    }
+
+    /**
+     * Genera 'cantidad' reservas para una cancha, repartidas día por día desde INICIO.
+     * Cada día se llena con turnos de 60/90 minutos (con huecos al azar) hasta el cierre.
+     */
+    static List<ReservaSimple> reservasDeCancha(Cancha cancha, int cantidad, long semilla) {
+        Random rnd = new Random(semilla);
+        List<ReservaSimple> reservas = new ArrayList<>(cantidad);
+        LocalDate dia = INICIO;
+        LocalDateTime t = LocalDateTime.of(dia, APERTURA);
+        while (reservas.size() < cantidad) {
+            int duracion = rnd.nextBoolean() ? 60 : 90;
+            if (t.plusMinutes(duracion).toLocalTime().isAfter(CIERRE) || !t.toLocalDate().equals(dia)) {
+                dia = dia.plusDays(1);
+                t = LocalDateTime.of(dia, APERTURA);
+                continue;
+            }
+            if (rnd.nextInt(4) != 0) { // ~75% de ocupación
+                reservas.add(new ReservaSimple(reservas.size() + 1, t, cancha, null, duracion));
+            }
+            t = t.plusMinutes(duracion);
+        }
+        return reservas;
+    }
+
+    /**
+     * Propuestas de una serie fija semanal (mismo día y hora durante 'semanas').
+     */
+    static List<ReservaSimple> serieSemanal(Cancha cancha, int semanas, LocalTime hora) {
+        List<ReservaSimple> serie = new ArrayList<>(semanas);
+        for (int i = 0; i < semanas; i++) {
+            serie.add(new ReservaSimple(0, LocalDateTime.of(INICIO.plusWeeks(i), hora), cancha, null, 60));
+        }
+        return serie;
+    }
+
+    /**
+     * Carga las reservas en un índice de ocupación (como lo haría ReservaDAO).
+     */
+    static IndiceOcupacion indiceCon(List<ReservaSimple> reservas, int idCancha, int dias) {
+        IndiceOcupacion indice = new IndiceOcupacion(0);
+        long version = indice.versionActual();
+        for (int d = 0; d < dias; d++) {
+            indice.cargarDia(idCancha, INICIO.plusDays(d), IndiceOcupacion.nuevoDia(), version);
+        }
+        for (ReservaSimple r : reservas) {
+            indice.ocupar(idCancha, r.getFechaHoraInicio(), r.getDuracionMinutos());
+        }
+        return indice;
+    }
+}
@@ -0,0 +1,98 @@
+package com.gestor.bench;
+
+import com.gestor.datos.IndiceOcupacion;
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.HorarioLaboral;
+import com.gestor.negocio.ReservaSimple;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Bucle de turnos de ReservaDAO.consultarDisponibilidad() para un día.
+ *
+ * - bucleAnterior: el original (LocalTime + una ReservaSimple "dummy" por turno + solapa()).
+ * - indiceOcupacion: el actual (IndiceOcupacion.turnosLibres() con el día cargado).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DisponibilidadBench {
+
+    /** Reservas que ya tiene la cancha ese día (0 = vacía, ~10 = casi llena con turnos de 60/90). */
+    @Param({"0", "4", "10"})
+    public int reservasDelDia;
+
+    @Param({"30", "60"})
+    public int duracionTurno;
+
+    private Cancha cancha;
+    private LocalDate fecha;
+    private HorarioLaboral horario;
+    private List<ReservaSimple> delDia;
+    private IndiceOcupacion indice;
+
+    @Setup
+    public void preparar() {
+        cancha = DatosBench.cancha(1);
+        fecha = DatosBench.INICIO;
+        horario = DatosBench.horario(fecha.getDayOfWeek(), duracionTurno);
+
+        delDia = new ArrayList<>();
+        for (ReservaSimple r : DatosBench.reservasDeCancha(cancha, Math.max(1, reservasDelDia * 2), 11L)) {
+            if (delDia.size() < reservasDelDia && r.getFechaHoraInicio().toLocalDate().equals(fecha)) {
+                delDia.add(r);
+            }
+        }
+        indice = DatosBench.indiceCon(delDia, cancha.getIdCancha(), 1);
+    }
+
+    @Benchmark
+    public List<LocalTime> bucleAnterior() {
+        List<LocalTime> libres = new ArrayList<>();
+        LocalTime t = horario.getHoraApertura();
+        LocalTime finDia = horario.getHoraCierre();
+        int duracion = horario.getDuracionTurnoMinutos();
+
+        while (t.isBefore(finDia)) {
+            Cancha canchaDummy = new Cancha();
+            canchaDummy.setIdCancha(cancha.getIdCancha());
+            ReservaSimple turno = new ReservaSimple(0, LocalDateTime.of(fecha, t), canchaDummy, null, duracion);
+
+            boolean ocupado = false;
+            for (ReservaSimple r : delDia) {
+                if (turno.solapa(r)) {
+                    ocupado = true;
+                    break;
+                }
+            }
+            if (!ocupado) {
+                libres.add(t);
+            }
+            t = t.plusMinutes(duracion);
+        }
+        return libres;
+    }
+
+    @Benchmark
+    public List<LocalTime> indiceOcupacion() {
+        return indice.turnosLibres(cancha.getIdCancha(), fecha, horario);
+    }
+}
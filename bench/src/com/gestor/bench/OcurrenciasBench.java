@@ -0,0 +1,63 @@
+package com.gestor.bench;
+
+import com.gestor.negocio.Recurrencia;
+import com.gestor.negocio.ReservaFija;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * ReservaFija.generarOcurrencias() para series de distinta longitud, y la
+ * consulta de "próxima ocurrencia" de Recurrencia a mitad de la serie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OcurrenciasBench {
+
+    /** Largo de la serie en semanas (1 mes, 1 semestre, 1 año, 2 años). */
+    @Param({"4", "26", "52", "104"})
+    public int semanas;
+
+    private ReservaFija fija;
+    private LocalDate desde;
+    private LocalDate hasta;
+    private LocalDate mitad;
+    private Recurrencia recurrencia;
+
+    @Setup
+    public void preparar() {
+        desde = DatosBench.INICIO;
+        hasta = desde.plusWeeks(semanas);
+        fija = new ReservaFija(0, LocalDateTime.of(desde.plusDays(2), DatosBench.APERTURA),
+                DatosBench.cancha(1), DatosBench.cliente(), DayOfWeek.WEDNESDAY, hasta, 0.1);
+        recurrencia = fija.getRecurrencia();
+        mitad = desde.plusWeeks(semanas / 2).plusDays(1);
+    }
+
+    @Benchmark
+    public List<LocalDate> generarOcurrencias() {
+        return fija.generarOcurrencias(desde, hasta);
+    }
+
+    @Benchmark
+    public LocalDate siguienteOcurrencia() {
+        return recurrencia.siguienteDesde(mitad);
+    }
+}
@@ -0,0 +1,71 @@
+package com.gestor.bench;
+
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.ReservaSimple;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reserva.solapa(): una reserva propuesta contra todas las de una cancha
+ * (es lo que hace cualquier chequeo de conflictos hecho "a mano").
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolapaBench {
+
+    @Param({"10", "100", "1000"})
+    public int reservasPorCancha;
+
+    private List<ReservaSimple> existentes;
+    private ReservaSimple propuesta;
+    private ReservaSimple propuestaOtraCancha;
+
+    @Setup
+    public void preparar() {
+        Cancha cancha = DatosBench.cancha(1);
+        existentes = DatosBench.reservasDeCancha(cancha, reservasPorCancha, 42L);
+        // A mitad del rango: algunas comparaciones dan true, la mayoría false
+        LocalDateTime medio = existentes.get(existentes.size() / 2).getFechaHoraInicio().plusMinutes(30);
+        propuesta = new ReservaSimple(0, medio, cancha, null, 60);
+        propuestaOtraCancha = new ReservaSimple(0, medio.with(LocalTime.NOON), DatosBench.cancha(2), null, 60);
+    }
+
+    @Benchmark
+    public int solapaMismaCancha() {
+        int solapadas = 0;
+        for (ReservaSimple r : existentes) {
+            if (propuesta.solapa(r)) {
+                solapadas++;
+            }
+        }
+        return solapadas;
+    }
+
+    @Benchmark
+    public int solapaOtraCancha() {
+        int solapadas = 0;
+        for (ReservaSimple r : existentes) {
+            if (propuestaOtraCancha.solapa(r)) {
+                solapadas++;
+            }
+        }
+        return solapadas;
+    }
+}
@@ -0,0 +1,103 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.Cliente;
+import com.gestor.negocio.ReglaTarifa;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Mapa de identidad compartido de canchas y clientes: una sola instancia por ID
+ * en toda la aplicación. Todos los DAO resuelven las filas leídas a través de
+ * este caché, así un día con miles de reservas comparte un objeto por cancha
+ * y por cliente (y la GUI muestra esos mismos objetos).
+ *
+ * CanchaDAO y ClienteDAO lo mantienen al día en sus altas, modificaciones y bajas.
+ * Las instancias del caché se tratan como fotos inmutables: las lecturas corren
+ * fuera del EDT mientras la GUI muestra esos objetos, así que nunca se modifican.
+ * Si una lectura trae datos distintos (cambio desde otra terminal), se crea una
+ * instancia nueva y reemplaza a la anterior en el caché.
+ */
+final class CacheEntidades {
+
+    private static final MapaIdentidad<Cancha> CANCHAS = new MapaIdentidad<>(64);
+    private static final MapaIdentidad<Cliente> CLIENTES = new MapaIdentidad<>(1024);
+
+    static {
+        Metricas.registrarCache(new MetricaCache("Canchas", CANCHAS::aciertos, CANCHAS::fallos, CANCHAS::tamano), "Canchas");
+        Metricas.registrarCache(new MetricaCache("Clientes", CLIENTES::aciertos, CLIENTES::fallos, CLIENTES::tamano), "Clientes");
+    }
+
+    private CacheEntidades() {}
+
+    /**
+     * Devuelve la instancia única de la cancha, creándola si no está.
+     * Si los datos leídos difieren, la reemplaza por una instancia nueva (no la modifica).
+     */
+    static Cancha cancha(int id, String nombre, String deporte, double precioPorHora) {
+        Cancha c = CANCHAS.obtenerOCrear(id, k -> new Cancha(k, nombre, deporte, precioPorHora));
+        if (!Objects.equals(c.getNombre(), nombre) || !Objects.equals(c.getDeporte(), deporte)
+                || c.getPrecioPorHora() != precioPorHora) {
+            Cancha nueva = new Cancha(id, nombre, deporte, precioPorHora);
+            nueva.setReglasTarifa(c.getReglasTarifa()); // Las reglas no vienen en esta fila
+            CANCHAS.poner(id, nueva);
+            return nueva;
+        }
+        return c;
+    }
+
+    /**
+     * Devuelve la instancia única del cliente, creándola si no está.
+     * Si los datos leídos difieren, la reemplaza por una instancia nueva (no la modifica).
+     */
+    static Cliente cliente(int id, String nombre, String telefono) {
+        Cliente cl = CLIENTES.obtenerOCrear(id, k -> new Cliente(k, nombre, telefono));
+        if (!Objects.equals(cl.getNombreCliente(), nombre) || !Objects.equals(cl.getTelefono(), telefono)) {
+            Cliente nuevo = new Cliente(id, nombre, telefono);
+            CLIENTES.poner(id, nuevo);
+            return nuevo;
+        }
+        return cl;
+    }
+
+    /**
+     * Devuelve la cancha con esas reglas de tarifa. Si ya las tiene, es la misma instancia;
+     * si no, crea otra con las reglas y reemplaza a la anterior (no la modifica).
+     */
+    static Cancha conReglas(Cancha c, List<ReglaTarifa> reglas) {
+        // Las listas de TarifaDAO son inmutables: List.copyOf devuelve la misma si no cambió
+        if (c.getReglasTarifa() == List.copyOf(reglas)) {
+            return c;
+        }
+        Cancha nueva = new Cancha(c.getIdCancha(), c.getNombre(), c.getDeporte(), c.getPrecioPorHora());
+        nueva.setReglasTarifa(reglas);
+        CANCHAS.poner(nueva.getIdCancha(), nueva);
+        return nueva;
+    }
+
+    /** La cancha recién dada de alta pasa a ser la instancia única de su ID. */
+    static void registrarCancha(Cancha cancha) {
+        CANCHAS.poner(cancha.getIdCancha(), cancha);
+    }
+
+    static void invalidarCancha(int idCancha) {
+        CANCHAS.quitar(idCancha);
+    }
+
+    /** El cliente recién dado de alta pasa a ser la instancia única de su ID. */
+    static void registrarCliente(Cliente cliente) {
+        CLIENTES.poner(cliente.getIdCliente(), cliente);
+    }
+
+    static void invalidarCliente(int idCliente) {
+        CLIENTES.quitar(idCliente);
+    }
+
+    /**
+     * Vacía el caché (las próximas lecturas crean instancias nuevas).
+     */
+    static void invalidarTodo() {
+        CANCHAS.limpiar();
+        CLIENTES.limpiar();
+    }
+}
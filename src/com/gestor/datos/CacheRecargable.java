@@ -0,0 +1,89 @@
+package com.gestor.datos;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Valor que se lee entero de la BD con una sola consulta y se reutiliza hasta que
+ * alguien escribe y lo invalida (horarios, reglas de tarifa).
+ *
+ * Una invalidación no se pierde aunque llegue mientras otro hilo está cargando:
+ * cada invalidación aumenta la generación, y la carga solo se publica si la
+ * generación no cambió desde que empezó. Si cambió, el valor leído se devuelve a
+ * quien lo pidió (es tan nuevo como su pedido) pero no queda en el caché.
+ *
+ * @param <T> Tipo del valor cacheado (inmutable: se reemplaza entero, nunca se modifica)
+ */
+class CacheRecargable<T> {
+
+    private final Supplier<T> cargador; // Devuelve null si la BD no respondió (no se cachea)
+    private final MetricaOperacion metricaCarga;
+    private final AtomicReference<T> valor = new AtomicReference<>();
+    private final AtomicLong generacion = new AtomicLong();
+    private final LongAdder aciertos = new LongAdder();
+    private final LongAdder fallos = new LongAdder();
+
+    CacheRecargable(Supplier<T> cargador, MetricaOperacion metricaCarga) {
+        this.cargador = cargador;
+        this.metricaCarga = metricaCarga;
+    }
+
+    /**
+     * Devuelve el valor, cargándolo si hace falta (una sola carga a la vez).
+     * @return El valor, o null si la BD no respondió.
+     */
+    T obtener() {
+        T actual = valor.get();
+        if (actual != null) {
+            aciertos.increment();
+            return actual;
+        }
+        synchronized (this) {
+            actual = valor.get();
+            if (actual != null) {
+                aciertos.increment();
+                return actual;
+            }
+            fallos.increment();
+            long generacionLeida = generacion.get();
+            long inicioNs = System.nanoTime();
+            actual = cargador.get();
+            metricaCarga.registrar(inicioNs);
+            if (actual != null && generacion.get() == generacionLeida) {
+                valor.set(actual);
+                // Una invalidación entre la comprobación y el set ya aumentó la
+                // generación: si la vemos acá, deshacemos la publicación nosotros
+                if (generacion.get() != generacionLeida) {
+                    valor.compareAndSet(actual, null);
+                }
+            }
+            return actual;
+        }
+    }
+
+    /**
+     * Descarta el valor. La próxima lectura vuelve a consultar la BD, y una carga
+     * que esté en curso no llega a publicarse.
+     */
+    void invalidar() {
+        generacion.incrementAndGet(); // Antes de vaciar: ver obtener()
+        valor.set(null);
+    }
+
+    /**
+     * @return El valor cacheado sin cargarlo ni contar estadísticas (null si no hay).
+     */
+    T actual() {
+        return valor.get();
+    }
+
+    long aciertos() {
+        return aciertos.sum();
+    }
+
+    long fallos() {
+        return fallos.sum();
+    }
+}
@@ -0,0 +1,199 @@
+package com.gestor.datos;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de PreparedStatement de UNA conexión física (vive mientras viva la conexión).
+ *
+ * Con useCursorFetch el driver prepara las sentencias en el servidor: preparar
+ * la misma SQL en cada llamada cuesta un viaje extra y un parseo en MySQL.
+ * Acá la sentencia se prepara una vez; close() no la cierra sino que la deja
+ * limpia (parámetros, lote, fetch size) para el próximo prepareStatement(sql).
+ *
+ * No es seguro para varios hilos: lo usa el hilo que tiene prestada la conexión.
+ * El tamaño se ajusta con -Dgestor.pool.sentencias (64 por defecto; 0 = sin caché).
+ */
+final class CacheSentencias {
+
+    static final int CAPACIDAD = Integer.getInteger("gestor.pool.sentencias", 64);
+
+    // Contadores de todas las conexiones juntas
+    private static final LongAdder ACIERTOS = new LongAdder();
+    private static final LongAdder FALLOS = new LongAdder();
+    private static final AtomicInteger ABIERTAS = new AtomicInteger();
+
+    static {
+        Metricas.registrarCache(new MetricaCache("Sentencias", ACIERTOS::sum, FALLOS::sum, ABIERTAS::get), "Sentencias");
+    }
+
+    // Orden de acceso: la primera es la menos usada últimamente
+    private final LinkedHashMap<String, Entrada> entradas = new LinkedHashMap<>(32, 0.75f, true);
+
+    /**
+     * Devuelve la sentencia de esa SQL, reutilizándola si ya estaba preparada y libre.
+     *
+     * @param conexion La conexión física
+     * @param sql La SQL
+     * @param clavesGeneradas Statement.RETURN_GENERATED_KEYS / NO_GENERATED_KEYS, o -1 si no se indicó
+     */
+    PreparedStatement preparar(Connection conexion, String sql, int clavesGeneradas) throws SQLException {
+        if (CAPACIDAD <= 0) {
+            return prepararReal(conexion, sql, clavesGeneradas);
+        }
+        String clave = clavesGeneradas < 0 ? sql : clavesGeneradas + "|" + sql;
+        Entrada e = entradas.get(clave);
+        if (e != null && !e.enUso) {
+            ACIERTOS.increment();
+            e.enUso = true;
+            return e.proxy;
+        }
+        FALLOS.increment();
+        PreparedStatement real = prepararReal(conexion, sql, clavesGeneradas);
+        if (e != null) {
+            // La misma SQL ya está abierta en esta conexión (ej. anidada): esta va sin caché
+            return real;
+        }
+        e = new Entrada(clave, real);
+        e.enUso = true;
+        entradas.put(clave, e);
+        ABIERTAS.incrementAndGet();
+        expulsarSobrantes();
+        return e.proxy;
+    }
+
+    /**
+     * La conexión vuelve al pool: las sentencias que el DAO no cerró quedan libres.
+     */
+    void liberarTodas() {
+        for (Entrada e : new ArrayList<>(entradas.values())) {
+            if (e.enUso) {
+                devolver(e);
+            }
+        }
+    }
+
+    /**
+     * Cierra todas las sentencias (la conexión física se descarta).
+     */
+    void cerrar() {
+        for (Entrada e : entradas.values()) {
+            cerrarReal(e);
+        }
+        entradas.clear();
+    }
+
+    // -----------------------------------------------------------
+    // Internos
+    // -----------------------------------------------------------
+
+    private static PreparedStatement prepararReal(Connection conexion, String sql, int clavesGeneradas) throws SQLException {
+        return clavesGeneradas < 0 ? conexion.prepareStatement(sql) : conexion.prepareStatement(sql, clavesGeneradas);
+    }
+
+    /** Deja la sentencia como recién preparada para el próximo uso. */
+    private void devolver(Entrada e) {
+        e.enUso = false;
+        if (e.expulsada) {
+            cerrarReal(e);
+            return;
+        }
+        try {
+            e.real.clearParameters();
+            e.real.clearBatch();
+            e.real.setFetchSize(0);
+            e.real.setQueryTimeout(0);
+            e.real.setMaxRows(0);
+        } catch (SQLException ex) {
+            // Quedó en un estado inválido: se descarta y la próxima vez se prepara de nuevo
+            entradas.remove(e.clave);
+            cerrarReal(e);
+        }
+    }
+
+    /** Cierra las menos usadas si se superó la capacidad (las que están en uso se cierran al devolverlas). */
+    private void expulsarSobrantes() {
+        Iterator<Map.Entry<String, Entrada>> it = entradas.entrySet().iterator();
+        while (entradas.size() > CAPACIDAD && it.hasNext()) {
+            Entrada e = it.next().getValue();
+            it.remove();
+            if (e.enUso) {
+                e.expulsada = true;
+            } else {
+                cerrarReal(e);
+            }
+        }
+    }
+
+    private static void cerrarReal(Entrada e) {
+        if (e.cerrada) {
+            return;
+        }
+        e.cerrada = true;
+        ABIERTAS.decrementAndGet();
+        try {
+            e.real.close();
+        } catch (SQLException ignored) {
+            // La conexión ya no sirve; no hay nada que hacer
+        }
+    }
+
+    /**
+     * Una sentencia preparada y su envoltorio: close() la devuelve al caché.
+     */
+    private final class Entrada implements InvocationHandler {
+        final String clave;
+        final PreparedStatement real;
+        final PreparedStatement proxy;
+        boolean enUso = false;
+        boolean expulsada = false;
+        boolean cerrada = false;
+
+        Entrada(String clave, PreparedStatement real) {
+            this.clave = clave;
+            this.real = real;
+            this.proxy = (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    if (enUso) {
+                        devolver(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return !enUso || real.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "SentenciaReutilizable[" + real + "]";
+                default:
+                    break;
+            }
+            if (!enUso) {
+                throw new SQLException("La sentencia ya fue cerrada.");
+            }
+            try {
+                return metodo.invoke(real, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,11 +1,7 @@
 package com.gestor.datos;
 
 import com.gestor.negocio.Cancha; // Importa el modelo de la capa de negocio
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,31 +11,47 @@ import java.util.List;
  */
 public class CanchaDAO {
 
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_OBTENER_TODAS = Metricas.operacion("CanchaDAO.obtenerTodas");
+    private static final MetricaOperacion M_AGREGAR_CANCHA = Metricas.operacion("CanchaDAO.agregarCancha");
+    private static final MetricaOperacion M_MODIFICAR_CANCHA = Metricas.operacion("CanchaDAO.modificarCancha");
+    private static final MetricaOperacion M_ELIMINAR_CANCHA = Metricas.operacion("CanchaDAO.eliminarCancha");
+
+    private static final String SQL_TODAS = "SELECT id_cancha, nombre, deporte, precio_por_hora FROM cancha ORDER BY nombre";
+    private static final String SQL_INSERTAR = "INSERT INTO cancha (nombre, deporte, precio_por_hora) VALUES (?, ?, ?)";
+    private static final String SQL_MODIFICAR = "UPDATE cancha SET nombre = ?, deporte = ?, precio_por_hora = ? WHERE id_cancha = ?";
+    private static final String SQL_ELIMINAR = "DELETE FROM cancha WHERE id_cancha = ?";
+    // La tabla reserva no tiene claves foráneas (está particionada, ver migraciones/V7.sql)
+    private static final String SQL_TIENE_RESERVAS =
+            "SELECT EXISTS(SELECT 1 FROM reserva WHERE id_cancha = ?) "
+            + "OR EXISTS(SELECT 1 FROM reserva_archivo WHERE id_cancha = ?) "
+            + "OR EXISTS(SELECT 1 FROM reserva_serie WHERE id_cancha = ?) AS tiene";
+
+    private final TarifaDAO tarifaDAO = new TarifaDAO();
+
+    // Una sola instancia por ID (mapa de identidad compartido)
+    static final EjecutorJdbc.MapeadorFila<Cancha> MAPEADOR = rs -> CacheEntidades.cancha(
+            rs.getInt("id_cancha"),
+            rs.getString("nombre"),
+            rs.getString("deporte"),
+            rs.getDouble("precio_por_hora")
+    );
+
     /**
-     * Obtiene todas las canchas de la base de datos.
+     * Obtiene todas las canchas de la base de datos, con sus reglas de tarifa.
      * @return Una lista de objetos Cancha.
      */
     public List<Cancha> obtenerTodas() {
-        List<Cancha> canchas = new ArrayList<>();
-        String sql = "SELECT id_cancha, nombre, deporte, precio_por_hora FROM cancha ORDER BY nombre";
-
-        try (Connection cn = ConexionDB.conectar();
-             Statement st = cn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
-
-            while (rs.next()) {
-                Cancha c = new Cancha(
-                    rs.getInt("id_cancha"),
-                    rs.getString("nombre"),
-                    rs.getString("deporte"),
-                    rs.getDouble("precio_por_hora")
-                );
-                canchas.add(c);
-            }
+        long inicioNs = System.nanoTime();
+        try {
+            return tarifaDAO.aplicarReglas(EjecutorJdbc.consultar(SQL_TODAS, MAPEADOR));
         } catch (SQLException e) {
-            System.err.println("Error al cargar canchas: " + e.getMessage());
+            M_OBTENER_TODAS.error();
+            EjecutorJdbc.informarError("Error al cargar canchas", e);
+            return new ArrayList<>();
+        } finally {
+            M_OBTENER_TODAS.registrar(inicioNs);
         }
-        return canchas;
     }
 
     /**
@@ -48,28 +60,22 @@ public class CanchaDAO {
      * @return El ID autogenerado por la base de datos, o -1 si falló.
      */
     public int agregarCancha(Cancha cancha) {
-        String sql = "INSERT INTO cancha (nombre, deporte, precio_por_hora) VALUES (?, ?, ?)";
-        int idGenerado = -1;
-
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setString(1, cancha.getNombre());
-            ps.setString(2, cancha.getDeporte());
-            ps.setDouble(3, cancha.getPrecioPorHora());
-
-            ps.executeUpdate();
-
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    idGenerado = rs.getInt(1);
-                    cancha.setIdCancha(idGenerado); // Actualiza el ID en el objeto original
-                }
+        long inicioNs = System.nanoTime();
+        try {
+            int idGenerado = EjecutorJdbc.insertar(SQL_INSERTAR,
+                    cancha.getNombre(), cancha.getDeporte(), cancha.getPrecioPorHora());
+            if (idGenerado != -1) {
+                cancha.setIdCancha(idGenerado); // Actualiza el ID en el objeto original
+                CacheEntidades.registrarCancha(cancha);
             }
+            return idGenerado;
         } catch (SQLException e) {
-            System.err.println("Error al guardar la cancha: " + e.getMessage());
+            M_AGREGAR_CANCHA.error();
+            EjecutorJdbc.informarError("Error al guardar la cancha", e);
+            return -1;
+        } finally {
+            M_AGREGAR_CANCHA.registrar(inicioNs);
         }
-        return idGenerado;
     }
 
     /**
@@ -78,46 +84,63 @@ public class CanchaDAO {
      * @return true si la actualización fue exitosa, false si no
      */
     public boolean modificarCancha(Cancha cancha) {
-        String sql = "UPDATE cancha SET nombre = ?, deporte = ?, precio_por_hora = ? WHERE id_cancha = ?";
-        
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, cancha.getNombre());
-            ps.setString(2, cancha.getDeporte());
-            ps.setDouble(3, cancha.getPrecioPorHora());
-            ps.setInt(4, cancha.getIdCancha());
-
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0; // Devuelve true si se actualizó al menos 1 fila
+        long inicioNs = System.nanoTime();
+        try {
+            int filasAfectadas = EjecutorJdbc.actualizar(SQL_MODIFICAR,
+                    cancha.getNombre(), cancha.getDeporte(), cancha.getPrecioPorHora(), cancha.getIdCancha());
+            if (filasAfectadas > 0) {
+                // El objeto modificado pasa a ser la instancia única de su ID
+                CacheEntidades.registrarCancha(cancha);
+                return true;
+            }
+            CacheEntidades.invalidarCancha(cancha.getIdCancha());
+            return false;
 
         } catch (SQLException e) {
-            System.err.println("Error al modificar la cancha: " + e.getMessage());
+            M_MODIFICAR_CANCHA.error();
+            EjecutorJdbc.informarError("Error al modificar la cancha", e);
+            // No sabemos si la fila cambió: la próxima lectura crea la instancia desde la BD
+            CacheEntidades.invalidarCancha(cancha.getIdCancha());
             return false;
+        } finally {
+            M_MODIFICAR_CANCHA.registrar(inicioNs);
         }
     }
 
     /**
      * Elimina una cancha de la base de datos.
-     * Fallará si la cancha tiene reservas asociadas (por restricción de Foreign Key).
+     * No se elimina si la cancha tiene reservas (vigentes, archivadas o fijas): reserva está
+     * particionada desde V7 y no tiene Foreign Keys, así que se controla acá con la fila bloqueada.
      * @param idCancha El ID de la cancha a eliminar
      * @return true si la eliminación fue exitosa, false si no
      */
     public boolean eliminarCancha(int idCancha) {
-        String sql = "DELETE FROM cancha WHERE id_cancha = ?";
-        
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setInt(1, idCancha);
-            int filasAfectadas = ps.executeUpdate();
+        long inicioNs = System.nanoTime();
+        try {
+            int filasAfectadas = EjecutorJdbc.enTransaccion(cn -> {
+                // Con la fila bloqueada no puede entrar una reserva nueva mientras se controla
+                if (!PipelineReservas.bloquearCancha(cn, idCancha)) {
+                    return 0;
+                }
+                Boolean tieneReservas = EjecutorJdbc.consultarUno(cn, SQL_TIENE_RESERVAS,
+                        rs -> rs.getBoolean("tiene"), idCancha, idCancha, idCancha);
+                if (Boolean.TRUE.equals(tieneReservas)) {
+                    System.err.println("No se puede eliminar la cancha ID " + idCancha + ": tiene reservas asociadas.");
+                    return 0;
+                }
+                return EjecutorJdbc.actualizar(cn, SQL_ELIMINAR, idCancha);
+            });
+            if (filasAfectadas > 0) {
+                CacheEntidades.invalidarCancha(idCancha);
+            }
             return filasAfectadas > 0; // Devuelve true si se eliminó al menos 1 fila
 
         } catch (SQLException e) {
-            // Esto es importante: si la cancha tiene reservas, la BD lanzará un error
-            // de restricción (Foreign Key constraint violation), que será capturado aquí.
-            System.err.println("Error al eliminar la cancha (puede tener reservas asociadas): " + e.getMessage());
+            M_ELIMINAR_CANCHA.error();
+            EjecutorJdbc.informarError("Error al eliminar la cancha", e);
             return false;
+        } finally {
+            M_ELIMINAR_CANCHA.registrar(inicioNs);
         }
     }
 }
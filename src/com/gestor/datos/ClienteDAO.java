@@ -2,64 +2,124 @@ package com.gestor.datos;
 
 import com.gestor.negocio.Cliente; // Importa el modelo de la capa de negocio
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.sql.Statement;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ClienteDAO {
 
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_OBTENER_TODOS = Metricas.operacion("ClienteDAO.obtenerTodos");
+    private static final MetricaOperacion M_BUSCAR = Metricas.operacion("ClienteDAO.buscar");
+    private static final MetricaOperacion M_AGREGAR_CLIENTE = Metricas.operacion("ClienteDAO.agregarCliente");
+    private static final MetricaOperacion M_MODIFICAR_CLIENTE = Metricas.operacion("ClienteDAO.modificarCliente");
+    private static final MetricaOperacion M_ELIMINAR_CLIENTE = Metricas.operacion("ClienteDAO.eliminarCliente");
+
+    private static final String SQL_TODOS = "SELECT id, nombre, telefono FROM cliente ORDER BY nombre";
+    private static final String SQL_INSERTAR = "INSERT INTO cliente (nombre, telefono) VALUES (?, ?)";
+    private static final String SQL_MODIFICAR = "UPDATE cliente SET nombre = ?, telefono = ? WHERE id = ?";
+    private static final String SQL_ELIMINAR = "DELETE FROM cliente WHERE id = ?";
+    private static final String SQL_BLOQUEAR = "SELECT id FROM cliente WHERE id = ? FOR UPDATE";
+    // La tabla reserva no tiene claves foráneas (está particionada, ver migraciones/V7.sql)
+    private static final String SQL_TIENE_RESERVAS =
+            "SELECT EXISTS(SELECT 1 FROM reserva WHERE id_cliente = ?) "
+            + "OR EXISTS(SELECT 1 FROM reserva_archivo WHERE id_cliente = ?) "
+            + "OR EXISTS(SELECT 1 FROM reserva_serie WHERE id_cliente = ?) AS tiene";
+
+    // Una sola instancia por ID (mapa de identidad compartido)
+    static final EjecutorJdbc.MapeadorFila<Cliente> MAPEADOR = rs -> CacheEntidades.cliente(
+            rs.getInt("id"),
+            rs.getString("nombre"),
+            rs.getString("telefono")
+    );
+
     /**
      * Obtiene todos los clientes de la BD.
      */
     public List<Cliente> obtenerTodos() {
-        List<Cliente> clientes = new ArrayList<>();
-        String sql = "SELECT id, nombre, telefono FROM cliente ORDER BY nombre";
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.consultar(SQL_TODOS, MAPEADOR);
+        } catch (SQLException e) {
+            M_OBTENER_TODOS.error();
+            EjecutorJdbc.informarError("Error al cargar clientes", e);
+            return new ArrayList<>();
+        } finally {
+            M_OBTENER_TODOS.registrar(inicioNs);
+        }
+    }
 
-        // Usa la conexión de ConexionDB
-        try (Connection cn = ConexionDB.conectar();
-             Statement st = cn.createStatement();
-             ResultSet rs = st.executeQuery(sql)) {
+    /**
+     * Busca clientes por prefijo, de a una página (paginación por "keyset").
+     * Si el prefijo empieza con un dígito o '+' se busca por teléfono; si no, por nombre.
+     * El orden es (columna buscada, id), así la página siguiente arranca justo después
+     * del último cliente devuelto sin usar OFFSET (usa idx_cliente_nombre / idx_cliente_telefono).
+     *
+     * @param prefijo Texto inicial del nombre o teléfono (vacío o null = todos)
+     * @param despuesDe Último cliente de la página anterior, o null para la primera
+     * @param limite Cantidad máxima de clientes a devolver
+     * @return Los clientes de la página (vacía si no hay más o hay un error)
+     */
+    public List<Cliente> buscar(String prefijo, Cliente despuesDe, int limite) {
+        long inicioNs = System.nanoTime();
+        try {
+            String texto = (prefijo == null) ? "" : prefijo.trim();
+            boolean porTelefono = !texto.isEmpty() && (Character.isDigit(texto.charAt(0)) || texto.charAt(0) == '+');
+            String columna = porTelefono ? "telefono" : "nombre";
 
-            while (rs.next()) {
-                Cliente cli = new Cliente(
-                    rs.getInt("id"),
-                    rs.getString("nombre"),
-                    rs.getString("telefono")
-                );
-                clientes.add(cli);
+            // Hay pocas variantes de la SQL (columna x filtro x cursor): todas se reutilizan
+            StringBuilder sql = new StringBuilder("SELECT id, nombre, telefono FROM cliente WHERE 1 = 1");
+            List<Object> parametros = new ArrayList<>();
+            if (!texto.isEmpty()) {
+                sql.append(" AND ").append(columna).append(" LIKE ?");
+                parametros.add(escaparLike(texto) + "%");
+            }
+            if (despuesDe != null) {
+                sql.append(" AND (").append(columna).append(" > ? OR (").append(columna).append(" = ? AND id > ?))");
+                String valor = porTelefono ? despuesDe.getTelefono() : despuesDe.getNombreCliente();
+                parametros.add(valor);
+                parametros.add(valor);
+                parametros.add(despuesDe.getIdCliente());
             }
-        } catch (Exception e) {
-            System.err.println("Error al cargar clientes: " + e.getMessage());
+            sql.append(" ORDER BY ").append(columna).append(", id LIMIT ?");
+            parametros.add(Math.max(1, limite));
+
+            return EjecutorJdbc.consultar(sql.toString(), MAPEADOR, parametros.toArray());
+        } catch (SQLException e) {
+            M_BUSCAR.error();
+            EjecutorJdbc.informarError("Error al buscar clientes", e);
+            return new ArrayList<>();
+        } finally {
+            M_BUSCAR.registrar(inicioNs);
         }
-        return clientes;
+    }
+
+    /**
+     * Escapa los comodines de LIKE para que el prefijo se busque literalmente.
+     */
+    private static String escaparLike(String texto) {
+        return texto.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     /**
      * Agrega un nuevo cliente a la BD.
      */
     public int agregarCliente(Cliente cliente) {
-        String sql = "INSERT INTO cliente (nombre, telefono) VALUES (?, ?)";
-        int idGenerado = -1;
-
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            ps.setString(1, cliente.getNombreCliente());
-            ps.setString(2, cliente.getTelefono());
-            ps.executeUpdate();
-
-            try (ResultSet rs = ps.getGeneratedKeys()) {
-                if (rs.next()) {
-                    idGenerado = rs.getInt(1);
-                    cliente.setIdCliente(idGenerado); // Importante: actualiza el ID en el objeto
-                }
+        long inicioNs = System.nanoTime();
+        try {
+            int idGenerado = EjecutorJdbc.insertar(SQL_INSERTAR, cliente.getNombreCliente(), cliente.getTelefono());
+            if (idGenerado != -1) {
+                cliente.setIdCliente(idGenerado); // Importante: actualiza el ID en el objeto
+                CacheEntidades.registrarCliente(cliente);
             }
-        } catch (Exception e) {
-            System.err.println("Error al guardar cliente: " + e.getMessage());
+            return idGenerado;
+        } catch (SQLException e) {
+            M_AGREGAR_CLIENTE.error();
+            EjecutorJdbc.informarError("Error al guardar cliente", e);
+            return -1;
+        } finally {
+            M_AGREGAR_CLIENTE.registrar(inicioNs);
         }
-        return idGenerado;
     }
     
     /**
@@ -68,45 +128,71 @@ public class ClienteDAO {
      * @return true si la actualización fue exitosa, false si no
      */
     public boolean modificarCliente(Cliente cliente) {
-        String sql = "UPDATE cliente SET nombre = ?, telefono = ? WHERE id = ?";
-        
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setString(1, cliente.getNombreCliente());
-            ps.setString(2, cliente.getTelefono());
-            ps.setInt(3, cliente.getIdCliente());
-
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0; // Devuelve true si se actualizó al menos 1 fila
+        long inicioNs = System.nanoTime();
+        try {
+            int filasAfectadas = EjecutorJdbc.actualizar(SQL_MODIFICAR,
+                    cliente.getNombreCliente(), cliente.getTelefono(), cliente.getIdCliente());
+            if (filasAfectadas > 0) {
+                // El objeto modificado pasa a ser la instancia única de su ID
+                CacheEntidades.registrarCliente(cliente);
+                return true;
+            }
+            CacheEntidades.invalidarCliente(cliente.getIdCliente());
+            return false;
 
-        } catch (Exception e) {
-            System.err.println("Error al modificar el cliente: " + e.getMessage());
+        } catch (SQLException e) {
+            M_MODIFICAR_CLIENTE.error();
+            EjecutorJdbc.informarError("Error al modificar el cliente", e);
+            // No sabemos si la fila cambió: la próxima lectura crea la instancia desde la BD
+            CacheEntidades.invalidarCliente(cliente.getIdCliente());
             return false;
+        } finally {
+            M_MODIFICAR_CLIENTE.registrar(inicioNs);
         }
     }
 
     /**
      * Elimina un cliente de la base de datos.
-     * Fallará si el cliente tiene reservas asociadas (por restricción de Foreign Key).
+     * No se elimina si el cliente tiene reservas (vigentes, archivadas o fijas): reserva está
+     * particionada desde V7 y no tiene Foreign Keys, así que se controla acá con la fila bloqueada.
      * @param idCliente El ID del cliente a eliminar
      * @return true si la eliminación fue exitosa, false si no
      */
     public boolean eliminarCliente(int idCliente) {
-        String sql = "DELETE FROM cliente WHERE id = ?";
-        
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setInt(1, idCliente);
-            int filasAfectadas = ps.executeUpdate();
+        long inicioNs = System.nanoTime();
+        try {
+            int filasAfectadas = EjecutorJdbc.enTransaccion(cn -> {
+                // Con la fila bloqueada no puede entrar una reserva nueva mientras se controla
+                if (!bloquear(cn, idCliente)) {
+                    return 0;
+                }
+                Boolean tieneReservas = EjecutorJdbc.consultarUno(cn, SQL_TIENE_RESERVAS,
+                        rs -> rs.getBoolean("tiene"), idCliente, idCliente, idCliente);
+                if (Boolean.TRUE.equals(tieneReservas)) {
+                    System.err.println("No se puede eliminar el cliente ID " + idCliente + ": tiene reservas asociadas.");
+                    return 0;
+                }
+                return EjecutorJdbc.actualizar(cn, SQL_ELIMINAR, idCliente);
+            });
+            if (filasAfectadas > 0) {
+                CacheEntidades.invalidarCliente(idCliente);
+            }
             return filasAfectadas > 0; // Devuelve true si se eliminó al menos 1 fila
 
-        } catch (Exception e) {
-            // Esto es importante: si el cliente tiene reservas, la BD lanzará un error
-            // de restricción (Foreign Key constraint violation), que será capturado aquí.
-            System.err.println("Error al eliminar el cliente (puede tener reservas asociadas): " + e.getMessage());
+        } catch (SQLException e) {
+            M_ELIMINAR_CLIENTE.error();
+            EjecutorJdbc.informarError("Error al eliminar el cliente", e);
             return false;
+        } finally {
+            M_ELIMINAR_CLIENTE.registrar(inicioNs);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Bloquea la fila del cliente hasta el fin de la transacción.
+     * @return false si el cliente no existe
+     */
+    private static boolean bloquear(Connection cn, int idCliente) throws SQLException {
+        return EjecutorJdbc.consultarUno(cn, SQL_BLOQUEAR, rs -> Boolean.TRUE, idCliente) != null;
+    }
+}
@@ -4,18 +4,88 @@ import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
+/**
+ * Punto único de acceso a la base de datos.
+ * Las conexiones salen de un pool acotado: los DAO siguen usando
+ * try-with-resources y close() devuelve la conexión al pool.
+ *
+ * El pool se puede ajustar con propiedades del sistema (-Dgestor.pool.max=20, etc.):
+ * gestor.pool.min, gestor.pool.max, gestor.pool.esperaMs,
+ * gestor.pool.validacionMs, gestor.pool.fugaMs, gestor.pool.trazaFugas
+ */
 public class ConexionDB {
-    private static final String URL = "jdbc:mysql://localhost:3306/gestor_deportivo?useSSL=false&serverTimezone=UTC";
+    private static final String URL = "jdbc:mysql://localhost:3306/gestor_deportivo?useSSL=false&serverTimezone=UTC"
+            + "&rewriteBatchedStatements=true"  // Los lotes (addBatch) viajan como un único INSERT multi-fila
+            + "&useCursorFetch=true";           // Con setFetchSize(n) las filas llegan de a n (cursor del servidor)
     private static final String USER = "root";
     private static final String PASSWORD = "";
 
+    private static final PoolConexiones POOL = new PoolConexiones(
+            URL, USER, PASSWORD,
+            Integer.getInteger("gestor.pool.min", 2),
+            Integer.getInteger("gestor.pool.max", 10),
+            Long.getLong("gestor.pool.esperaMs", 5000L),
+            Long.getLong("gestor.pool.validacionMs", 1000L),
+            Long.getLong("gestor.pool.fugaMs", 60000L)
+    );
+
+    /**
+     * Filas por viaje al recorrer resultados grandes (setFetchSize). Propiedad gestor.jdbc.fetchSize.
+     */
+    public static final int TAMANO_FETCH = Integer.getInteger("gestor.jdbc.fetchSize", 1000);
+
+    // Tiempo de obtención de una conexión (espera en el pool + validación o apertura)
+    private static final MetricaOperacion M_CONECTAR = Metricas.operacion("ConexionDB.conectar");
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(POOL::cerrar, "pool-conexiones-cierre"));
+        Metricas.registrarPool(POOL::obtenerEstadisticas);
+    }
+
+    /**
+     * Presta una conexión del pool. Debe cerrarse (try-with-resources) para devolverla.
+     */
     public static Connection conectar() throws SQLException {
+        long inicio = System.nanoTime();
+        try {
+            return POOL.prestar();
+        } catch (SQLException | RuntimeException e) {
+            M_CONECTAR.error();
+            throw e;
+        } finally {
+            M_CONECTAR.registrar(inicio);
+        }
+    }
+
+    /**
+     * Abre una conexión propia, fuera del pool: close() la cierra de verdad.
+     * Para tareas que dejan estado en la sesión que el pool no sabe limpiar al
+     * devolverla (bloqueos con nombre, LOCK TABLES); al cerrarla el servidor lo libera.
+     */
+    static Connection conectarSinPool() throws SQLException {
         return DriverManager.getConnection(URL, USER, PASSWORD);
     }
 
-    /*
-    ESTO NO SE USA AL FINAL
-    static Connection getConexion() {
-        throw new UnsupportedOperationException("Not supported yet."); // Generated from nbfs://nbhost/SystemFileSystem/Templates/Classes/Code/GeneratedMethodBody
-    }*/ 
+    /**
+     * Abre las conexiones mínimas del pool. Se llama al arrancar, después
+     * de que SetUpDB haya creado la base de datos.
+     */
+    public static void inicializarPool() {
+        int abiertas = POOL.precalentar();
+        System.out.println("Pool de conexiones listo (" + abiertas + " conexiones precalentadas).");
+    }
+
+    /**
+     * Devuelve las estadísticas actuales del pool (para dimensionarlo).
+     */
+    public static EstadisticasPool obtenerEstadisticas() {
+        return POOL.obtenerEstadisticas();
+    }
+
+    /**
+     * Cierra todas las conexiones del pool.
+     */
+    public static void cerrarPool() {
+        POOL.cerrar();
+    }
 }
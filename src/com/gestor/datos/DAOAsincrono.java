@@ -0,0 +1,234 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.Cliente;
+import com.gestor.negocio.GrillaDisponibilidad;
+import com.gestor.negocio.Reserva;
+import com.gestor.negocio.ReservaSimple;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Fachada asíncrona sobre ReservaDAO, CanchaDAO y ClienteDAO.
+ *
+ * Cada llamada corre en su propio hilo virtual y devuelve un CompletableFuture,
+ * así pueden haber muchas consultas/reservas en vuelo sin ocupar un hilo de
+ * plataforma cada una. Un semáforo limita cuántas tocan la BD a la vez
+ * (por defecto, el tamaño máximo del pool): las demás esperan en su hilo
+ * virtual, que es barato, en vez de agotar la espera del pool.
+ *
+ * Los valores centinela de los DAO (-1, false) se convierten en un future
+ * completado con OperacionFallidaException.
+ */
+public class DAOAsincrono implements AutoCloseable {
+
+    private final ReservaDAO reservaDAO;
+    private final CanchaDAO canchaDAO;
+    private final ClienteDAO clienteDAO;
+
+    private final ExecutorService ejecutor;
+    private final Semaphore concurrencia;
+
+    /**
+     * Crea la fachada con concurrencia igual al tamaño máximo del pool.
+     */
+    public DAOAsincrono() {
+        this(ConexionDB.obtenerEstadisticas().getTamanoMaximo());
+    }
+
+    /**
+     * @param maximoConcurrente Cantidad máxima de operaciones usando la BD a la vez
+     */
+    public DAOAsincrono(int maximoConcurrente) {
+        this.reservaDAO = new ReservaDAO();
+        this.canchaDAO = new CanchaDAO();
+        this.clienteDAO = new ClienteDAO();
+        this.ejecutor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("dao-async-", 0).factory());
+        this.concurrencia = new Semaphore(Math.max(1, maximoConcurrente), true);
+    }
+
+    // -----------------------------------------------------------
+    // Reservas
+    // -----------------------------------------------------------
+
+    /**
+     * @return El ID (Simple) o la cantidad de reservas (Fija).
+     */
+    public CompletableFuture<Integer> registrarReserva(Reserva reserva) {
+        if (reserva instanceof ReservaSimple) {
+            // Va directo al pipeline de reservas: no ocupa un hilo mientras espera su lote
+            return reservaDAO.encolarReserva((ReservaSimple) reserva).thenApply(resultado -> {
+                if (!resultado.isAceptada()) {
+                    throw new OperacionFallidaException(resultado.getMotivo());
+                }
+                return resultado.getIdReserva();
+            });
+        }
+        return ejecutar(() -> exigirId(reservaDAO.registrarReserva(reserva), "No se pudo registrar la reserva."));
+    }
+
+    public CompletableFuture<Void> cancelarReservaUnica(int idReserva) {
+        return ejecutar(() -> {
+            exigir(reservaDAO.cancelarReservaUnica(idReserva), "No se pudo cancelar la reserva ID " + idReserva + ".");
+            return null;
+        });
+    }
+
+    /**
+     * @return El número de reservas eliminadas.
+     */
+    public CompletableFuture<Integer> cancelarReservaGrupo(int idReservaDeGrupo) {
+        return ejecutar(() -> exigirId(reservaDAO.cancelarReservaGrupo(idReservaDeGrupo),
+                "No se pudo cancelar la serie de la reserva ID " + idReservaDeGrupo + "."));
+    }
+
+    /**
+     * @return El número de turnos cancelados.
+     */
+    public CompletableFuture<Integer> cancelarSerie(int idGrupo) {
+        return ejecutar(() -> exigirId(reservaDAO.cancelarSerie(idGrupo), "No se pudo cancelar la serie " + idGrupo + "."));
+    }
+
+    public CompletableFuture<Void> cancelarTurnoDeSerie(int idSerie, LocalDate fecha) {
+        return ejecutar(() -> {
+            exigir(reservaDAO.cancelarTurnoDeSerie(idSerie, fecha),
+                    "No se pudo cancelar el turno del " + fecha + " de la serie " + idSerie + ".");
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<Reserva>> obtenerReservasPorFecha(LocalDate fecha) {
+        return ejecutar(() -> reservaDAO.obtenerReservasPorFecha(fecha));
+    }
+
+    public CompletableFuture<List<Reserva>> obtenerReservasPorRango(LocalDate desde, LocalDate hasta, Integer idCancha) {
+        return ejecutar(() -> reservaDAO.obtenerReservasPorRango(desde, hasta, idCancha));
+    }
+
+    public CompletableFuture<List<LocalTime>> consultarDisponibilidad(int idCancha, LocalDate fecha) {
+        return ejecutar(() -> reservaDAO.consultarDisponibilidad(idCancha, fecha));
+    }
+
+    public CompletableFuture<GrillaDisponibilidad> consultarDisponibilidadGeneral(LocalDate fecha, String deporte) {
+        return ejecutar(() -> reservaDAO.consultarDisponibilidadGeneral(fecha, deporte));
+    }
+
+    public CompletableFuture<List<LocalDateTime>> consultarConflictos(List<ReservaSimple> reservasPropuestas) {
+        return ejecutar(() -> reservaDAO.consultarConflictos(reservasPropuestas));
+    }
+
+    // -----------------------------------------------------------
+    // Canchas
+    // -----------------------------------------------------------
+
+    public CompletableFuture<List<Cancha>> obtenerCanchas() {
+        return ejecutar(canchaDAO::obtenerTodas);
+    }
+
+    /**
+     * @return El ID generado (también queda asignado en 'cancha').
+     */
+    public CompletableFuture<Integer> agregarCancha(Cancha cancha) {
+        return ejecutar(() -> exigirId(canchaDAO.agregarCancha(cancha), "No se pudo guardar la cancha."));
+    }
+
+    public CompletableFuture<Void> modificarCancha(Cancha cancha) {
+        return ejecutar(() -> {
+            exigir(canchaDAO.modificarCancha(cancha), "No se pudo modificar la cancha.");
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> eliminarCancha(int idCancha) {
+        return ejecutar(() -> {
+            exigir(canchaDAO.eliminarCancha(idCancha), "No se pudo eliminar la cancha ID " + idCancha + ".");
+            return null;
+        });
+    }
+
+    // -----------------------------------------------------------
+    // Clientes
+    // -----------------------------------------------------------
+
+    public CompletableFuture<List<Cliente>> obtenerClientes() {
+        return ejecutar(clienteDAO::obtenerTodos);
+    }
+
+    /**
+     * @return El ID generado (también queda asignado en 'cliente').
+     */
+    public CompletableFuture<Integer> agregarCliente(Cliente cliente) {
+        return ejecutar(() -> exigirId(clienteDAO.agregarCliente(cliente), "No se pudo guardar el cliente."));
+    }
+
+    public CompletableFuture<Void> modificarCliente(Cliente cliente) {
+        return ejecutar(() -> {
+            exigir(clienteDAO.modificarCliente(cliente), "No se pudo modificar el cliente.");
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> eliminarCliente(int idCliente) {
+        return ejecutar(() -> {
+            exigir(clienteDAO.eliminarCliente(idCliente), "No se pudo eliminar el cliente ID " + idCliente + ".");
+            return null;
+        });
+    }
+
+    // -----------------------------------------------------------
+    // Infraestructura
+    // -----------------------------------------------------------
+
+    /**
+     * Deja de aceptar operaciones. Las que ya están en vuelo terminan normalmente.
+     */
+    @Override
+    public void close() {
+        ejecutor.shutdown();
+    }
+
+    /**
+     * Corre 'trabajo' en un hilo virtual, respetando el límite de concurrencia.
+     */
+    private <T> CompletableFuture<T> ejecutar(Callable<T> trabajo) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                concurrencia.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+            try {
+                return trabajo.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                concurrencia.release();
+            }
+        }, ejecutor);
+    }
+
+    private static int exigirId(int resultado, String mensaje) {
+        if (resultado == -1) {
+            throw new OperacionFallidaException(mensaje);
+        }
+        return resultado;
+    }
+
+    private static void exigir(boolean exito, String mensaje) {
+        if (!exito) {
+            throw new OperacionFallidaException(mensaje);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.gestor.datos;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Núcleo común de ejecución JDBC de los DAO.
+ *
+ * Concentra lo que cada DAO repetía: pedir la conexión, preparar, asignar
+ * parámetros, mapear filas y cerrar. Al pasar todo por acá:
+ * - las sentencias se piden siempre con la misma SQL, así el pool las reutiliza
+ *   (ver CacheSentencias) en lugar de prepararlas en cada llamada,
+ * - el timeout y el fetch size se aplican en un solo lugar,
+ * - los errores se informan con el mismo formato (SQLState y código de MySQL).
+ *
+ * Los métodos que reciben una Connection trabajan dentro de la transacción del
+ * llamador; los que no, piden y devuelven su propia conexión.
+ * Los errores se propagan como SQLException: cada DAO decide su valor centinela.
+ *
+ * Timeout por sentencia: -Dgestor.jdbc.timeoutSeg (30 por defecto; 0 = sin límite).
+ */
+final class EjecutorJdbc {
+
+    static final int TIMEOUT_SEG = Integer.getInteger("gestor.jdbc.timeoutSeg", 30);
+
+    /** Convierte la fila actual del ResultSet en un objeto. */
+    @FunctionalInterface
+    interface MapeadorFila<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    /** Procesa la fila actual sin construir un objeto (acumula en el estado del llamador). */
+    @FunctionalInterface
+    interface ProcesadorFila {
+        void procesar(ResultSet rs) throws SQLException;
+    }
+
+    /** Asigna los parámetros de un elemento de un lote. */
+    @FunctionalInterface
+    interface AsignadorParametros<E> {
+        void asignar(PreparedStatement ps, E elemento) throws SQLException;
+    }
+
+    /** Trabajo que corre dentro de una transacción. */
+    @FunctionalInterface
+    interface Transaccion<T> {
+        T ejecutar(Connection cn) throws SQLException;
+    }
+
+    private EjecutorJdbc() {}
+
+    // -----------------------------------------------------------
+    // Con conexión propia
+    // -----------------------------------------------------------
+
+    /**
+     * Ejecuta una consulta y mapea todas las filas.
+     */
+    static <T> List<T> consultar(String sql, MapeadorFila<T> mapeador, Object... parametros) throws SQLException {
+        try (Connection cn = ConexionDB.conectar()) {
+            return consultar(cn, sql, mapeador, parametros);
+        }
+    }
+
+    /**
+     * Ejecuta una consulta y mapea la primera fila.
+     * @return El objeto, o null si la consulta no devolvió filas.
+     */
+    static <T> T consultarUno(String sql, MapeadorFila<T> mapeador, Object... parametros) throws SQLException {
+        try (Connection cn = ConexionDB.conectar()) {
+            return consultarUno(cn, sql, mapeador, parametros);
+        }
+    }
+
+    /**
+     * Ejecuta un UPDATE / DELETE.
+     * @return Las filas afectadas.
+     */
+    static int actualizar(String sql, Object... parametros) throws SQLException {
+        try (Connection cn = ConexionDB.conectar()) {
+            return actualizar(cn, sql, parametros);
+        }
+    }
+
+    /**
+     * Ejecuta un INSERT con clave autogenerada.
+     * @return La clave generada, o -1 si el INSERT no generó ninguna.
+     */
+    static int insertar(String sql, Object... parametros) throws SQLException {
+        try (Connection cn = ConexionDB.conectar();
+             PreparedStatement ps = preparar(cn, sql, true)) {
+            asignar(ps, parametros);
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    /**
+     * Corre 'trabajo' en una transacción: confirma si termina bien y deshace si lanza una excepción.
+     */
+    static <T> T enTransaccion(Transaccion<T> trabajo) throws SQLException {
+        try (Connection cn = ConexionDB.conectar()) {
+            cn.setAutoCommit(false);
+            try {
+                T resultado = trabajo.ejecutar(cn);
+                cn.commit();
+                return resultado;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    cn.rollback();
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex);
+                }
+                throw e;
+            }
+            // Al devolverse, el pool restaura autocommit
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Con la conexión (y transacción) del llamador
+    // -----------------------------------------------------------
+
+    static <T> List<T> consultar(Connection cn, String sql, MapeadorFila<T> mapeador, Object... parametros) throws SQLException {
+        List<T> resultado = new ArrayList<>();
+        try (PreparedStatement ps = preparar(cn, sql, false)) {
+            asignar(ps, parametros);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    resultado.add(mapeador.mapear(rs));
+                }
+            }
+        }
+        return resultado;
+    }
+
+    static <T> T consultarUno(Connection cn, String sql, MapeadorFila<T> mapeador, Object... parametros) throws SQLException {
+        try (PreparedStatement ps = preparar(cn, sql, false)) {
+            asignar(ps, parametros);
+            ps.setMaxRows(1);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapeador.mapear(rs) : null;
+            }
+        }
+    }
+
+    static int actualizar(Connection cn, String sql, Object... parametros) throws SQLException {
+        try (PreparedStatement ps = preparar(cn, sql, false)) {
+            asignar(ps, parametros);
+            return ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Ejecuta una consulta y entrega cada fila a 'procesador' (para lecturas que
+     * acumulan en arreglos o mapas y no necesitan un objeto por fila).
+     * @return La cantidad de filas procesadas.
+     */
+    static long procesar(Connection cn, String sql, ProcesadorFila procesador, Object... parametros) throws SQLException {
+        return leer(cn, sql, 0, procesador, parametros);
+    }
+
+    /**
+     * Recorre una consulta grande entregando cada fila a 'consumidor' a medida que llega,
+     * de a ConexionDB.TAMANO_FETCH filas (cursor del servidor), sin armar la lista.
+     * @return La cantidad de filas recorridas.
+     */
+    static <T> long recorrer(Connection cn, String sql, MapeadorFila<T> mapeador, Consumer<? super T> consumidor,
+                             Object... parametros) throws SQLException {
+        return leer(cn, sql, ConexionDB.TAMANO_FETCH, rs -> consumidor.accept(mapeador.mapear(rs)), parametros);
+    }
+
+    /**
+     * Como recorrer(), pero entrega la fila tal cual (sin armar un objeto por fila):
+     * para volcados grandes que escriben las columnas directamente.
+     * @return La cantidad de filas recorridas.
+     */
+    static long recorrerFilas(Connection cn, String sql, ProcesadorFila procesador, Object... parametros) throws SQLException {
+        return leer(cn, sql, ConexionDB.TAMANO_FETCH, procesador, parametros);
+    }
+
+    /**
+     * Inserta los elementos con JDBC batch, de a 'tamanoLote' filas por executeBatch().
+     * Con rewriteBatchedStatements (ver ConexionDB) cada lote viaja como un único INSERT multi-fila.
+     * @return Las claves generadas, en el mismo orden que 'elementos'.
+     * @throws SQLException si falla o si algún lote no devolvió todas sus claves
+     */
+    static <E> int[] insertarEnLote(Connection cn, String sql, List<E> elementos, AsignadorParametros<? super E> asignador,
+                                    int tamanoLote) throws SQLException {
+        int[] claves = new int[elementos.size()];
+        try (PreparedStatement ps = preparar(cn, sql, true)) {
+            int inicioLote = 0;
+            for (int i = 0; i < elementos.size(); i++) {
+                asignador.asignar(ps, elementos.get(i));
+                ps.addBatch();
+                if ((i + 1 - inicioLote) < tamanoLote && i < elementos.size() - 1) {
+                    continue;
+                }
+                ps.executeBatch();
+                int j = inicioLote;
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (j <= i && rs.next()) {
+                        claves[j++] = rs.getInt(1);
+                    }
+                }
+                if (j != i + 1) {
+                    throw new SQLException("El lote insertó " + (j - inicioLote) + " de " + (i + 1 - inicioLote) + " filas.");
+                }
+                inicioLote = i + 1;
+            }
+        }
+        return claves;
+    }
+
+    /**
+     * Ejecuta la misma sentencia (UPDATE, DELETE o INSERT sin claves) para cada elemento, por lotes.
+     * @return El total de filas afectadas que informó el servidor.
+     */
+    static <E> long ejecutarEnLote(Connection cn, String sql, List<E> elementos, AsignadorParametros<? super E> asignador,
+                                   int tamanoLote) throws SQLException {
+        long total = 0;
+        try (PreparedStatement ps = preparar(cn, sql, false)) {
+            int enLote = 0;
+            for (int i = 0; i < elementos.size(); i++) {
+                asignador.asignar(ps, elementos.get(i));
+                ps.addBatch();
+                if (++enLote < tamanoLote && i < elementos.size() - 1) {
+                    continue;
+                }
+                for (int n : ps.executeBatch()) {
+                    if (n > 0) total += n; // SUCCESS_NO_INFO (-2) no informa filas
+                }
+                enLote = 0;
+            }
+        }
+        return total;
+    }
+
+    // -----------------------------------------------------------
+    // Parámetros y errores
+    // -----------------------------------------------------------
+
+    /**
+     * Asigna los parámetros en orden (1, 2, ...). Los tipos de java.time viajan con setObject;
+     * null se envía como NULL.
+     */
+    static void asignar(PreparedStatement ps, Object... parametros) throws SQLException {
+        for (int i = 0; i < parametros.length; i++) {
+            Object valor = parametros[i];
+            int indice = i + 1;
+            if (valor == null) {
+                ps.setNull(indice, Types.NULL);
+            } else if (valor instanceof Integer) {
+                ps.setInt(indice, (Integer) valor);
+            } else if (valor instanceof String) {
+                ps.setString(indice, (String) valor);
+            } else if (valor instanceof Double) {
+                ps.setDouble(indice, (Double) valor);
+            } else if (valor instanceof Long) {
+                ps.setLong(indice, (Long) valor);
+            } else {
+                ps.setObject(indice, valor);
+            }
+        }
+    }
+
+    /**
+     * Informe uniforme de un error de BD (por System.err, como el resto de la aplicación).
+     */
+    static void informarError(String contexto, SQLException e) {
+        System.err.println(contexto + ": " + e.getMessage()
+                + " [SQLState " + e.getSQLState() + ", código " + e.getErrorCode() + "]");
+    }
+
+    private static long leer(Connection cn, String sql, int tamanoFetch, ProcesadorFila procesador,
+                             Object... parametros) throws SQLException {
+        long filas = 0;
+        try (PreparedStatement ps = preparar(cn, sql, false)) {
+            asignar(ps, parametros);
+            if (tamanoFetch > 0) {
+                ps.setFetchSize(tamanoFetch);
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    procesador.procesar(rs);
+                    filas++;
+                }
+            }
+        }
+        return filas;
+    }
+
+    private static PreparedStatement preparar(Connection cn, String sql, boolean clavesGeneradas) throws SQLException {
+        PreparedStatement ps = clavesGeneradas
+                ? cn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : cn.prepareStatement(sql);
+        if (TIMEOUT_SEG > 0) {
+            try {
+                ps.setQueryTimeout(TIMEOUT_SEG);
+            } catch (SQLException e) {
+                ps.close();
+                throw e;
+            }
+        }
+        return ps;
+    }
+}
@@ -0,0 +1,66 @@
+package com.gestor.datos;
+
+/**
+ * Foto (inmutable) del estado del pool de conexiones.
+ * Sirve para dimensionar el pool: si 'timeouts' o 'esperaPromedioMs' crecen,
+ * hace falta aumentar el tamaño máximo.
+ */
+public class EstadisticasPool {
+
+    private final int tamanoMinimo;
+    private final int tamanoMaximo;
+    private final int conexionesTotales;
+    private final int conexionesActivas;
+    private final int conexionesLibres;
+    private final int hilosEsperando;
+    private final long prestamosTotales;
+    private final long timeouts;
+    private final long conexionesCreadas;
+    private final long conexionesDescartadas;
+    private final long fugasDetectadas;
+    private final double esperaPromedioMs;
+    private final double esperaMaximaMs;
+
+    public EstadisticasPool(int tamanoMinimo, int tamanoMaximo, int conexionesTotales, int conexionesActivas,
+                            int conexionesLibres, int hilosEsperando, long prestamosTotales, long timeouts,
+                            long conexionesCreadas, long conexionesDescartadas, long fugasDetectadas,
+                            double esperaPromedioMs, double esperaMaximaMs) {
+        this.tamanoMinimo = tamanoMinimo;
+        this.tamanoMaximo = tamanoMaximo;
+        this.conexionesTotales = conexionesTotales;
+        this.conexionesActivas = conexionesActivas;
+        this.conexionesLibres = conexionesLibres;
+        this.hilosEsperando = hilosEsperando;
+        this.prestamosTotales = prestamosTotales;
+        this.timeouts = timeouts;
+        this.conexionesCreadas = conexionesCreadas;
+        this.conexionesDescartadas = conexionesDescartadas;
+        this.fugasDetectadas = fugasDetectadas;
+        this.esperaPromedioMs = esperaPromedioMs;
+        this.esperaMaximaMs = esperaMaximaMs;
+    }
+
+    public int getTamanoMinimo() { return tamanoMinimo; }
+    public int getTamanoMaximo() { return tamanoMaximo; }
+    public int getConexionesTotales() { return conexionesTotales; }
+    public int getConexionesActivas() { return conexionesActivas; }
+    public int getConexionesLibres() { return conexionesLibres; }
+    public int getHilosEsperando() { return hilosEsperando; }
+    public long getPrestamosTotales() { return prestamosTotales; }
+    public long getTimeouts() { return timeouts; }
+    public long getConexionesCreadas() { return conexionesCreadas; }
+    public long getConexionesDescartadas() { return conexionesDescartadas; }
+    public long getFugasDetectadas() { return fugasDetectadas; }
+    public double getEsperaPromedioMs() { return esperaPromedioMs; }
+    public double getEsperaMaximaMs() { return esperaMaximaMs; }
+
+    @Override
+    public String toString() {
+        return String.format(java.util.Locale.ROOT,
+                "total=%d (min=%d, max=%d), activas=%d, libres=%d, esperando=%d, prestamos=%d, "
+                + "timeouts=%d, creadas=%d, descartadas=%d, fugas=%d, espera prom=%.2f ms, espera max=%.2f ms",
+                conexionesTotales, tamanoMinimo, tamanoMaximo, conexionesActivas, conexionesLibres,
+                hilosEsperando, prestamosTotales, timeouts, conexionesCreadas, conexionesDescartadas,
+                fugasDetectadas, esperaPromedioMs, esperaMaximaMs);
+    }
+}
@@ -0,0 +1,294 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.ReservaSimple;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exporta el historial de reservas (con cancha y cliente) a un archivo CSV,
+ * opcionalmente comprimido con gzip.
+ *
+ * Las filas pasan de la BD al archivo a medida que llegan (cursor del servidor, de a
+ * ConexionDB.TAMANO_FETCH) y se escriben columna por columna, sin armar objetos
+ * Reserva: la memoria usada no depende de la cantidad de filas.
+ * Se escribe en un archivo temporal junto al destino que se renombra al terminar,
+ * así un error no deja el destino a medias.
+ * Incluye las reservas archivadas (ver MantenimientoReservas): primero se recorre
+ * reserva_archivo y después reserva; como el archivo solo tiene meses anteriores a los
+ * de la tabla reserva, el orden por fecha se mantiene sin ordenar la unión.
+ * Las tres lecturas van en una sola transacción de solo lectura (REPEATABLE READ): ven
+ * la misma foto aunque en el medio se archive un mes o entren reservas nuevas.
+ * Los turnos de las series (reserva_serie) se expanden en memoria y se intercalan por
+ * fecha; van sin id_reserva y con el ID de la serie como id_grupo_fija.
+ */
+public class ExportadorReservas {
+
+    /**
+     * Recibe el progreso de una exportación (desde el hilo que exporta).
+     */
+    public interface Avance {
+        /**
+         * @param filas Filas escritas hasta ahora
+         * @param totalEstimado Filas esperadas según el resumen diario, o -1 si no se sabe
+         */
+        void informar(long filas, long totalEstimado);
+    }
+
+    private static final MetricaOperacion M_EXPORTAR = Metricas.operacion("ExportadorReservas.exportar");
+
+    // Consulta = SQL_COLUMNAS + tabla + SQL_EXPORTAR, una vez por cada tabla de TABLAS
+    private static final String SQL_COLUMNAS =
+            "SELECT r.id_reserva, r.fecha_hora_inicio, r.duracion_minutos, r.id_grupo_fija, r.costo_total, "
+            + "c.nombre AS cancha_nombre, c.deporte, cl.nombre AS cliente_nombre, cl.telefono "
+            + "FROM ";
+    private static final String SQL_EXPORTAR =
+            " r "
+            + "JOIN cancha c ON r.id_cancha = c.id_cancha "
+            + "JOIN cliente cl ON r.id_cliente = cl.id "
+            + "WHERE r.fecha_hora_inicio >= ? AND r.fecha_hora_inicio < ? ";
+    private static final String SQL_ORDEN = "ORDER BY r.fecha_hora_inicio, r.id_reserva";
+    private static final String[] TABLAS = {"reserva_archivo", "reserva"}; // En orden de fecha
+    // El total para el porcentaje sale del resumen diario, sin contar la tabla reserva
+    private static final String SQL_ESTIMAR =
+            "SELECT COALESCE(SUM(cantidad_reservas), 0) AS total FROM resumen_diario WHERE fecha >= ? AND fecha < ? ";
+
+    private static final String ENCABEZADO =
+            "id_reserva,fecha,hora,duracion_minutos,cancha,deporte,cliente,telefono,tipo,id_grupo_fija,costo_total";
+    private static final String FIN_DE_LINEA = "\r\n"; // RFC 4180
+
+    private static final int FILAS_POR_AVISO = 5000;
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    /**
+     * Exporta las reservas que empiezan en [desde, hasta), ordenadas por fecha.
+     *
+     * @param destino Archivo a crear (si existe, se reemplaza)
+     * @param idCancha Solo las de esa cancha, o null para todas
+     * @param gzip true para comprimir el archivo
+     * @param avance Recibe el progreso cada FILAS_POR_AVISO filas y al terminar (puede ser null)
+     * @return La cantidad de reservas exportadas, o -1 si hubo un error
+     */
+    public long exportar(Path destino, LocalDate desde, LocalDate hasta, Integer idCancha, boolean gzip, Avance avance) {
+        long inicioNs = System.nanoTime();
+        Path temporal = null;
+        try {
+            Object[] parametros = (idCancha != null)
+                    ? new Object[]{desde.atStartOfDay(), hasta.atStartOfDay(), idCancha}
+                    : new Object[]{desde.atStartOfDay(), hasta.atStartOfDay()};
+            String filtro = SQL_EXPORTAR + (idCancha != null ? "AND r.id_cancha = ? " : "") + SQL_ORDEN;
+            long[] escritas = {0};
+            long totalEstimado = estimarFilas(desde, hasta, idCancha);
+
+            Path carpeta = destino.toAbsolutePath().getParent();
+            temporal = Files.createTempFile(carpeta, destino.getFileName().toString() + ".", ".tmp");
+
+            long filas;
+            try (Writer salida = abrir(temporal, gzip); Connection cn = ConexionDB.conectar()) {
+                salida.write(ENCABEZADO);
+                salida.write(FIN_DE_LINEA);
+                StringBuilder linea = new StringBuilder(256);
+                int aislamiento = cn.getTransactionIsolation();
+                cn.setReadOnly(true);
+                cn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                cn.setAutoCommit(false);
+                try {
+                    // Las series se leen antes: cada cursor de abajo ocupa la conexión hasta el final
+                    SerieReserva.Expansion turnos = new SerieReserva.Expansion(
+                            SerieReserva.leer(cn, desde, hasta, idCancha), desde, hasta);
+                    Consumer<ReservaSimple> escribirTurno = turno -> {
+                        linea.setLength(0);
+                        armarLinea(turno, linea);
+                        escribir(salida, linea, ++escritas[0], totalEstimado, avance);
+                    };
+                    try {
+                        for (String tabla : TABLAS) {
+                            EjecutorJdbc.recorrerFilas(cn, SQL_COLUMNAS + tabla + filtro, rs -> {
+                                turnos.entregarAntesDe(rs.getObject("fecha_hora_inicio", LocalDateTime.class), escribirTurno);
+                                linea.setLength(0);
+                                armarLinea(rs, linea);
+                                escribir(salida, linea, ++escritas[0], totalEstimado, avance);
+                            }, parametros);
+                        }
+                        turnos.entregarResto(escribirTurno);
+                    } catch (UncheckedIOException e) {
+                        throw e.getCause();
+                    }
+                    cn.commit();
+                } catch (SQLException | IOException | RuntimeException e) {
+                    try {
+                        cn.rollback();
+                    } catch (SQLException ex) {
+                        e.addSuppressed(ex);
+                    }
+                    throw e;
+                } finally {
+                    // El pool restaura autocommit y solo lectura al devolverla, pero no el aislamiento
+                    try {
+                        cn.setTransactionIsolation(aislamiento);
+                    } catch (SQLException e) {
+                        System.err.println("No se pudo restaurar el aislamiento de la conexión: " + e.getMessage());
+                    }
+                }
+            }
+            filas = escritas[0];
+
+            mover(temporal, destino);
+            temporal = null;
+            if (avance != null) {
+                avance.informar(filas, filas);
+            }
+            return filas;
+
+        } catch (SQLException e) {
+            M_EXPORTAR.error();
+            EjecutorJdbc.informarError("Error al exportar reservas", e);
+            return -1;
+        } catch (IOException e) {
+            M_EXPORTAR.error();
+            System.err.println("Error al escribir la exportación en " + destino + ": " + e.getMessage());
+            return -1;
+        } finally {
+            if (temporal != null) {
+                try {
+                    Files.deleteIfExists(temporal);
+                } catch (IOException ignored) {}
+            }
+            M_EXPORTAR.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Filas esperadas según resumen_diario, o -1 si no se pudo leer (no impide exportar).
+     */
+    private long estimarFilas(LocalDate desde, LocalDate hasta, Integer idCancha) {
+        try {
+            Long total = (idCancha != null)
+                    ? EjecutorJdbc.consultarUno(SQL_ESTIMAR + "AND id_cancha = ?", rs -> rs.getLong("total"), desde, hasta, idCancha)
+                    : EjecutorJdbc.consultarUno(SQL_ESTIMAR, rs -> rs.getLong("total"), desde, hasta);
+            return (total != null) ? total : -1;
+        } catch (SQLException e) {
+            EjecutorJdbc.informarError("No se pudo estimar el tamaño de la exportación", e);
+            return -1;
+        }
+    }
+
+    private static Writer abrir(Path archivo, boolean gzip) throws IOException {
+        OutputStream salida = Files.newOutputStream(archivo);
+        try {
+            if (gzip) {
+                salida = new GZIPOutputStream(salida, TAMANO_BUFFER);
+            }
+            return new BufferedWriter(new OutputStreamWriter(salida, StandardCharsets.UTF_8), TAMANO_BUFFER);
+        } catch (IOException e) {
+            salida.close();
+            throw e;
+        }
+    }
+
+    private static void mover(Path temporal, Path destino) throws IOException {
+        try {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporal, destino, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Escribe una línea ya armada y avisa el avance cada FILAS_POR_AVISO filas.
+     */
+    private static void escribir(Writer salida, StringBuilder linea, long filas, long totalEstimado, Avance avance) {
+        try {
+            salida.append(linea);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (filas % FILAS_POR_AVISO == 0 && avance != null) {
+            avance.informar(filas, totalEstimado);
+        }
+    }
+
+    private static void armarLinea(ResultSet rs, StringBuilder linea) throws SQLException {
+        LocalDateTime inicio = rs.getObject("fecha_hora_inicio", LocalDateTime.class);
+        int idGrupo = rs.getInt("id_grupo_fija");
+        boolean esFija = !rs.wasNull();
+        BigDecimal costo = rs.getBigDecimal("costo_total");
+
+        linea.append(rs.getInt("id_reserva")).append(',')
+             .append(inicio.toLocalDate()).append(',')
+             .append(inicio.toLocalTime()).append(',')
+             .append(rs.getInt("duracion_minutos")).append(',');
+        campo(linea, rs.getString("cancha_nombre")).append(',');
+        campo(linea, rs.getString("deporte")).append(',');
+        campo(linea, rs.getString("cliente_nombre")).append(',');
+        campo(linea, rs.getString("telefono")).append(',');
+        linea.append(esFija ? "Fija" : "Simple").append(',');
+        if (esFija) {
+            linea.append(idGrupo);
+        }
+        linea.append(',')
+             .append(costo != null ? costo.toPlainString() : "")
+             .append(FIN_DE_LINEA);
+    }
+
+    /**
+     * Línea de un turno de serie: sin id_reserva (no tiene fila en la tabla reserva).
+     */
+    private static void armarLinea(ReservaSimple turno, StringBuilder linea) {
+        LocalDateTime inicio = turno.getFechaHoraInicio();
+        linea.append(',')
+             .append(inicio.toLocalDate()).append(',')
+             .append(inicio.toLocalTime()).append(',')
+             .append(turno.getDuracionMinutos()).append(',');
+        campo(linea, turno.getCancha().getNombre()).append(',');
+        campo(linea, turno.getCancha().getDeporte()).append(',');
+        campo(linea, turno.getCliente().getNombreCliente()).append(',');
+        campo(linea, turno.getCliente().getTelefono()).append(',');
+        linea.append("Fija,")
+             .append(turno.getIdGrupoFija()).append(',')
+             .append(turno.calcularCostoTotal().toPlainString())
+             .append(FIN_DE_LINEA);
+    }
+
+    /**
+     * Agrega un texto como campo CSV: entre comillas solo si hace falta, con las comillas internas duplicadas.
+     */
+    private static StringBuilder campo(StringBuilder linea, String valor) {
+        if (valor == null) {
+            return linea;
+        }
+        boolean entreComillas = false;
+        for (int i = 0; i < valor.length() && !entreComillas; i++) {
+            char c = valor.charAt(i);
+            entreComillas = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!entreComillas) {
+            return linea.append(valor);
+        }
+        linea.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (c == '"') {
+                linea.append('"');
+            }
+            linea.append(c);
+        }
+        return linea.append('"');
+    }
+}
@@ -0,0 +1,123 @@
+package com.gestor.datos;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas logarítmicas (4 por cada potencia de 2).
+ *
+ * Registrar una medición es un cálculo de bits y un incremento atómico:
+ * sin bloqueos ni objetos nuevos, así puede quedar activo en producción.
+ * A cambio, los percentiles son aproximados: el error relativo es menor al 12,5 %
+ * (se devuelve el punto medio de la cubeta), más que suficiente para ver
+ * dónde se va el tiempo.
+ */
+final class HistogramaLatencia {
+
+    private static final int SUBCUBETAS_BITS = 2;
+    private static final int SUBCUBETAS = 1 << SUBCUBETAS_BITS;
+    // Valores 0..3 van directo a su cubeta; después, 4 cubetas por cada exponente 2..62
+    private static final int CUBETAS = SUBCUBETAS * 62;
+
+    private final AtomicLongArray cubetas = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder sumaNs = new LongAdder();
+    private final LongAccumulator maximoNs = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * Registra una duración en nanosegundos.
+     */
+    void registrar(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        cubetas.incrementAndGet(indice(nanos));
+        cantidad.increment();
+        sumaNs.add(nanos);
+        maximoNs.accumulate(nanos);
+    }
+
+    long getCantidad() {
+        return cantidad.sum();
+    }
+
+    double getPromedioMs() {
+        long n = cantidad.sum();
+        return n == 0 ? 0.0 : sumaNs.sum() / 1_000_000.0 / n;
+    }
+
+    double getMaximoMs() {
+        return maximoNs.get() / 1_000_000.0;
+    }
+
+    /**
+     * Percentil aproximado, en milisegundos.
+     * @param percentil Entre 0 y 100 (ej. 99 para p99)
+     * @return El valor, o 0 si todavía no hay mediciones.
+     */
+    double percentilMs(double percentil) {
+        return percentilesMs(percentil)[0];
+    }
+
+    /**
+     * Varios percentiles sobre la MISMA foto del histograma (coherentes entre sí).
+     */
+    double[] percentilesMs(double... percentiles) {
+        long[] foto = new long[CUBETAS];
+        long total = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            foto[i] = cubetas.get(i);
+            total += foto[i];
+        }
+        double[] resultado = new double[percentiles.length];
+        if (total == 0) {
+            return resultado;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            // Rango (1..total) de la medición que corresponde al percentil
+            long objetivo = Math.max(1, (long) Math.ceil(percentiles[p] / 100.0 * total));
+            long acumulado = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                acumulado += foto[i];
+                if (acumulado >= objetivo) {
+                    resultado[p] = Math.min(puntoMedio(i), maximoNs.get()) / 1_000_000.0;
+                    break;
+                }
+            }
+        }
+        return resultado;
+    }
+
+    // -----------------------------------------------------------
+    // Cubetas
+    // -----------------------------------------------------------
+
+    /** Cubeta de un valor: exponente (posición del bit más alto) y los 2 bits siguientes. */
+    static int indice(long valor) {
+        if (valor < SUBCUBETAS) {
+            return (int) valor;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(valor);
+        int sub = (int) (valor >>> (exponente - SUBCUBETAS_BITS)) & (SUBCUBETAS - 1);
+        return (exponente - 1) * SUBCUBETAS + sub;
+    }
+
+    /** Menor valor que cae en la cubeta. */
+    static long limiteInferior(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS + 1;
+        int sub = indice % SUBCUBETAS;
+        return (long) (SUBCUBETAS + sub) << (exponente - SUBCUBETAS_BITS);
+    }
+
+    private static long puntoMedio(int indice) {
+        if (indice < SUBCUBETAS) {
+            return indice;
+        }
+        long ancho = 1L << (indice / SUBCUBETAS + 1 - SUBCUBETAS_BITS);
+        return limiteInferior(indice) + ancho / 2;
+    }
+}
@@ -1,53 +1,169 @@
 package com.gestor.datos;
 
 import com.gestor.negocio.HorarioLaboral;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
 import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 public class HorarioDAO {
 
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_OBTENER_HORARIO = Metricas.operacion("HorarioDAO.obtenerHorario");
+    private static final MetricaOperacion M_OBTENER_TODOS = Metricas.operacion("HorarioDAO.obtenerTodos");
+    private static final MetricaOperacion M_ACTUALIZAR_HORARIO = Metricas.operacion("HorarioDAO.actualizarHorario");
+    // Solo las lecturas reales de la BD (los fallos del caché)
+    private static final MetricaOperacion M_CARGAR_HORARIOS = Metricas.operacion("HorarioDAO.cargarTodos");
+
+    /*
+     * Caché compartido por todas las instancias de HorarioDAO.
+     * Los 7 días se leen juntos en una sola consulta y se reutilizan hasta que
+     * actualizarHorario() escribe (o alguien llama a invalidarCache()).
+     * Se reemplaza el mapa completo (nunca se modifica); una carga que se cruza con
+     * una escritura no se publica (ver CacheRecargable).
+     */
+    private static final CacheRecargable<Map<DayOfWeek, HorarioLaboral>> CACHE =
+            new CacheRecargable<>(HorarioDAO::cargarTodos, M_CARGAR_HORARIOS);
+
+    private static final String SQL_TODOS =
+            "SELECT dia_semana, hora_apertura, hora_cierre, duracion_turno_min FROM horario_laboral";
+    private static final String SQL_GUARDAR =
+            "INSERT INTO horario_laboral (dia_semana, hora_apertura, hora_cierre, duracion_turno_min) "
+            + "VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE hora_apertura = VALUES(hora_apertura), "
+            + "hora_cierre = VALUES(hora_cierre), duracion_turno_min = VALUES(duracion_turno_min)";
+
+    static {
+        Metricas.registrarCache(new MetricaCache("Horarios", CACHE::aciertos, CACHE::fallos,
+                () -> { Map<DayOfWeek, HorarioLaboral> c = CACHE.actual(); return c != null ? c.size() : 0; }), "Horarios");
+    }
+
     // Obtiene el horario laboral (apertura, cierre, turno) para un día de la semana.
-     
+
     public HorarioLaboral obtenerHorario(DayOfWeek dia) {
-        
-        String sql = "SELECT * FROM horario_laboral WHERE dia_semana = ?";
-        
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            // dia.name() devuelve "MONDAY", "TUESDAY", etc.
-            ps.setString(1, dia.name()); 
-            
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    // Construye el objeto de negocio HorarioLaboral
-                    return new HorarioLaboral(
-                        dia,
-                        rs.getTime("hora_apertura").toLocalTime(),
-                        rs.getTime("hora_cierre").toLocalTime(),
-                        rs.getInt("duracion_turno_min")
-                    );
-                }
+        long inicioNs = System.nanoTime();
+        try {
+            Map<DayOfWeek, HorarioLaboral> horarios = obtenerCache();
+
+            // Si no se encuentra un horario para ese día (o hay un error), devuelve null.
+            // ReservaDAO está preparado para manejar esto (imprimirá "No hay horario laboral...").
+            return (horarios != null) ? horarios.get(dia) : null;
+        } finally {
+            M_OBTENER_HORARIO.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Obtiene los horarios de todos los días definidos, ordenados de lunes a domingo.
+     * @return Lista de HorarioLaboral (vacía si hay error).
+     */
+    public List<HorarioLaboral> obtenerTodos() {
+        long inicioNs = System.nanoTime();
+        try {
+            Map<DayOfWeek, HorarioLaboral> horarios = obtenerCache();
+            if (horarios == null) {
+                return new ArrayList<>();
             }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener horario laboral: " + e.getMessage());
+            // EnumMap itera en el orden del enum (MONDAY..SUNDAY)
+            return new ArrayList<>(horarios.values());
+        } finally {
+            M_OBTENER_TODOS.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Crea o actualiza el horario de un día (dia_semana es UNIQUE en la tabla)
+     * y descarta el caché para que la próxima lectura vea el cambio.
+     * @param horario El horario a guardar
+     * @return true si se guardó, false si hubo un error
+     */
+    public boolean actualizarHorario(HorarioLaboral horario) {
+        long inicioNs = System.nanoTime();
+        try {
+            if (horario == null || horario.getDiaDeLaSemana() == null
+                    || horario.getHoraApertura() == null || horario.getHoraCierre() == null) {
+                System.err.println("Error al actualizar horario: datos incompletos.");
+                return false;
+            }
+            if (!horario.getHoraApertura().isBefore(horario.getHoraCierre()) || horario.getDuracionTurnoMinutos() <= 0) {
+                System.err.println("Error al actualizar horario: la apertura debe ser anterior al cierre y el turno mayor a 0.");
+                return false;
+            }
+
+            try {
+                EjecutorJdbc.actualizar(SQL_GUARDAR,
+                        horario.getDiaDeLaSemana().name(),
+                        Time.valueOf(horario.getHoraApertura()),
+                        Time.valueOf(horario.getHoraCierre()),
+                        horario.getDuracionTurnoMinutos());
+                return true;
+
+            } catch (SQLException e) {
+                M_ACTUALIZAR_HORARIO.error();
+                EjecutorJdbc.informarError("Error al actualizar horario laboral", e);
+                return false;
+            } finally {
+                // Aunque falle, invalidamos: no sabemos si la BD quedó igual que el caché
+                invalidarCache();
+            }
+        } finally {
+            M_ACTUALIZAR_HORARIO.registrar(inicioNs);
         }
-        
-        // Si no se encuentra un horario para ese día (o hay un error), devuelve null.
-        // ReservaDAO está preparado para manejar esto (imprimirá "No hay horario laboral...").
-        return null; 
     }
 
-    public void actualizarHorario(HorarioLaboral horario) {
-        // Esta función todavía no funciona.
+    /**
+     * Descarta el caché de horarios. La próxima lectura vuelve a consultar la BD.
+     */
+    public static void invalidarCache() {
+        CACHE.invalidar();
     }
 
-    //public List<HorarioLaboral> obtenerTodos() {};
+    /**
+     * Devuelve el caché, cargándolo con una única consulta si hace falta.
+     * @return El mapa día -> horario, o null si la BD no respondió.
+     */
+    private static Map<DayOfWeek, HorarioLaboral> obtenerCache() {
+        return CACHE.obtener();
+    }
 
-    // HorarioLaboral obtenerHorarioPorDia(DayOfWeek dayOfWeek) {}
-}
+    private static Map<DayOfWeek, HorarioLaboral> cargarTodos() {
+        Map<DayOfWeek, HorarioLaboral> horarios = new EnumMap<>(DayOfWeek.class);
+        try {
+            for (HorarioLaboral h : EjecutorJdbc.consultar(SQL_TODOS, HorarioDAO::mapear)) {
+                if (h != null) {
+                    horarios.put(h.getDiaDeLaSemana(), h);
+                }
+            }
+        } catch (SQLException e) {
+            M_CARGAR_HORARIOS.error();
+            EjecutorJdbc.informarError("Error al obtener horario laboral", e);
+            return null; // No cacheamos el error: se reintenta en la próxima llamada
+        }
+        return Collections.unmodifiableMap(horarios);
+    }
 
+    /**
+     * Construye el objeto de negocio HorarioLaboral, o null si el día guardado no es válido.
+     */
+    private static HorarioLaboral mapear(ResultSet rs) throws SQLException {
+        DayOfWeek dia;
+        try {
+            // dia_semana guarda dia.name(): "MONDAY", "TUESDAY", etc.
+            dia = DayOfWeek.valueOf(rs.getString("dia_semana").trim().toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Día de la semana inválido en horario_laboral: " + rs.getString("dia_semana"));
+            return null;
+        }
+        return new HorarioLaboral(
+            dia,
+            rs.getTime("hora_apertura").toLocalTime(),
+            rs.getTime("hora_cierre").toLocalTime(),
+            rs.getInt("duracion_turno_min")
+        );
+    }
+}
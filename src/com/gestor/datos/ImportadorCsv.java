@@ -0,0 +1,434 @@
+package com.gestor.datos;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Importación masiva de clientes y canchas desde archivos CSV (o .csv.gz).
+ *
+ * - El archivo se lee en streaming (ver LectorCsv): un registro por vez.
+ * - Cada registro se valida igual que en los formularios; los inválidos se rechazan
+ *   con su número de línea y el motivo, sin cortar la importación.
+ * - Los que ya existen en la BD (o aparecieron antes en el mismo archivo) se saltean.
+ *   Clientes: mismo nombre y teléfono; canchas: mismo nombre (sin importar mayúsculas,
+ *   acentos ni espacios de más; del teléfono solo cuentan los dígitos).
+ * - Se guardan con JDBC batch, en transacciones de FILAS_POR_TRANSACCION filas: si la
+ *   BD falla, lo confirmado hasta ese momento queda y se informa dónde se cortó.
+ *
+ * La primera línea puede ser un encabezado con los nombres de las columnas (en cualquier
+ * orden); si no lo es, se toman en el orden nombre, telefono / nombre, deporte, precio.
+ */
+public class ImportadorCsv {
+
+    /**
+     * Recibe el progreso de una importación (desde el hilo que importa).
+     */
+    public interface Avance {
+        /**
+         * @param leidos Registros leídos hasta ahora
+         * @param porcentaje Parte del archivo leída (0 a 100)
+         */
+        void informar(long leidos, int porcentaje);
+    }
+
+    private static final MetricaOperacion M_IMPORTAR_CLIENTES = Metricas.operacion("ImportadorCsv.importarClientes");
+    private static final MetricaOperacion M_IMPORTAR_CANCHAS = Metricas.operacion("ImportadorCsv.importarCanchas");
+
+    private static final String SQL_INSERTAR_CLIENTE = "INSERT INTO cliente (nombre, telefono) VALUES (?, ?)";
+    private static final String SQL_INSERTAR_CANCHA = "INSERT INTO cancha (nombre, deporte, precio_por_hora) VALUES (?, ?, ?)";
+    private static final String SQL_CLAVES_CLIENTES = "SELECT nombre, telefono FROM cliente";
+    private static final String SQL_CLAVES_CANCHAS = "SELECT nombre FROM cancha";
+
+    // Filas por executeBatch() (un INSERT multi-fila con rewriteBatchedStatements) y por commit
+    private static final int TAMANO_LOTE = 1000;
+    private static final int FILAS_POR_TRANSACCION = 5000;
+    private static final int REGISTROS_POR_AVISO = 5000;
+
+    // Largos de las columnas (ver migraciones/V1.sql)
+    private static final int LARGO_NOMBRE = 100;
+    private static final int LARGO_TELEFONO = 50;
+    private static final int LARGO_DEPORTE = 60;
+    private static final BigDecimal PRECIO_MAXIMO = new BigDecimal("99999999.99"); // DECIMAL(10,2)
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+"); // Acentos ya separados por NFD
+
+    /**
+     * Importa clientes (columnas: nombre, telefono).
+     */
+    public ResultadoImportacion importarClientes(Path archivo, Avance avance) {
+        long inicioNs = System.nanoTime();
+        try {
+            return importar(archivo, avance, new FormatoClientes(), M_IMPORTAR_CLIENTES);
+        } finally {
+            M_IMPORTAR_CLIENTES.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Importa canchas (columnas: nombre, deporte, precio).
+     * El precio acepta coma o punto decimal ("1500,50", "1.500,50" o "1500.50").
+     */
+    public ResultadoImportacion importarCanchas(Path archivo, Avance avance) {
+        long inicioNs = System.nanoTime();
+        try {
+            return importar(archivo, avance, new FormatoCanchas(), M_IMPORTAR_CANCHAS);
+        } finally {
+            M_IMPORTAR_CANCHAS.registrar(inicioNs);
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Importación genérica
+    // -----------------------------------------------------------
+
+    /**
+     * Qué columnas tiene cada tipo de archivo, cómo se valida una fila y cómo se guarda.
+     */
+    private interface Formato {
+        /** Nombres de columna aceptados en el encabezado, en el orden por defecto (sin encabezado). */
+        String[][] columnas();
+        /** Valida los valores (en el orden de columnas()) y devuelve los parámetros del INSERT. */
+        Object[] validar(String[] valores) throws IllegalArgumentException;
+        /** Clave para detectar duplicados, a partir de los parámetros validados. */
+        String clave(Object[] fila);
+        String sqlClavesExistentes();
+        String claveExistente(ResultSet rs) throws SQLException;
+        String sqlInsertar();
+    }
+
+    private ResultadoImportacion importar(Path archivo, Avance avance, Formato formato, MetricaOperacion metrica) {
+        ResultadoImportacion resultado = new ResultadoImportacion();
+        long tamano;
+        Set<String> claves;
+        try {
+            tamano = Files.size(archivo);
+            claves = leerClavesExistentes(formato);
+        } catch (IOException e) {
+            metrica.error();
+            resultado.setError("No se pudo leer " + archivo + ": " + e.getMessage());
+            return resultado;
+        } catch (SQLException e) {
+            metrica.error();
+            EjecutorJdbc.informarError("Error al leer los registros existentes", e);
+            resultado.setError("Error de base de datos: " + e.getMessage());
+            return resultado;
+        }
+
+        long[] bytesLeidos = {0};
+        List<Object[]> pendientes = new ArrayList<>(FILAS_POR_TRANSACCION);
+        try (LectorCsv lector = new LectorCsv(new InputStreamReader(abrir(archivo, bytesLeidos), StandardCharsets.UTF_8))) {
+            int[] posiciones = null; // columna del archivo para cada columna del formato
+            List<String> registro;
+            while ((registro = lector.leer()) != null) {
+                if (registro.size() == 1 && registro.get(0).isBlank()) {
+                    continue; // Línea vacía
+                }
+                if (posiciones == null) {
+                    posiciones = ubicarColumnas(formato.columnas(), registro);
+                    if (posiciones != null) {
+                        continue; // Era el encabezado
+                    }
+                    posiciones = posicionesPorDefecto(formato.columnas().length);
+                }
+
+                resultado.contarLeido();
+                try {
+                    Object[] fila = formato.validar(valores(registro, posiciones));
+                    if (claves.add(formato.clave(fila))) {
+                        pendientes.add(fila);
+                    } else {
+                        resultado.contarDuplicado();
+                    }
+                } catch (IllegalArgumentException e) {
+                    resultado.rechazar(lector.getLineaRegistro(), e.getMessage());
+                }
+
+                if (pendientes.size() == FILAS_POR_TRANSACCION) {
+                    guardar(formato, pendientes, resultado);
+                }
+                if (avance != null && resultado.getLeidos() % REGISTROS_POR_AVISO == 0) {
+                    avance.informar(resultado.getLeidos(), porcentaje(bytesLeidos[0], tamano));
+                }
+            }
+            guardar(formato, pendientes, resultado);
+            if (avance != null) {
+                avance.informar(resultado.getLeidos(), 100);
+            }
+
+        } catch (IOException e) {
+            metrica.error();
+            System.err.println("Error al leer " + archivo + ": " + e.getMessage());
+            resultado.setError(e.getMessage());
+        } catch (SQLException e) {
+            metrica.error();
+            EjecutorJdbc.informarError("Error al importar " + archivo, e);
+            resultado.setError("Error de base de datos después de " + resultado.getImportados()
+                    + " registros importados: " + e.getMessage());
+        }
+        return resultado;
+    }
+
+    /**
+     * Guarda las filas pendientes en una transacción (por lotes) y vacía la lista.
+     */
+    private void guardar(Formato formato, List<Object[]> pendientes, ResultadoImportacion resultado) throws SQLException {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        EjecutorJdbc.enTransaccion(cn -> EjecutorJdbc.ejecutarEnLote(cn, formato.sqlInsertar(), pendientes,
+                EjecutorJdbc::asignar, TAMANO_LOTE));
+        resultado.contarImportados(pendientes.size());
+        pendientes.clear();
+    }
+
+    private Set<String> leerClavesExistentes(Formato formato) throws SQLException {
+        Set<String> claves = new HashSet<>();
+        try (Connection cn = ConexionDB.conectar()) {
+            EjecutorJdbc.recorrerFilas(cn, formato.sqlClavesExistentes(), rs -> claves.add(formato.claveExistente(rs)));
+        }
+        return claves;
+    }
+
+    /**
+     * Si el registro es un encabezado, devuelve en qué columna está cada campo del formato;
+     * si no (no nombra ninguna columna conocida), null.
+     */
+    private static int[] ubicarColumnas(String[][] columnas, List<String> registro) {
+        Map<String, Integer> encabezado = new HashMap<>();
+        for (int i = 0; i < registro.size(); i++) {
+            encabezado.putIfAbsent(normalizar(registro.get(i)), i);
+        }
+        int[] posiciones = new int[columnas.length];
+        boolean alguna = false;
+        for (int c = 0; c < columnas.length; c++) {
+            posiciones[c] = -1;
+            for (String nombre : columnas[c]) {
+                Integer i = encabezado.get(nombre);
+                if (i != null) {
+                    posiciones[c] = i;
+                    alguna = true;
+                    break;
+                }
+            }
+        }
+        return alguna ? posiciones : null;
+    }
+
+    private static int[] posicionesPorDefecto(int cantidad) {
+        int[] posiciones = new int[cantidad];
+        for (int i = 0; i < cantidad; i++) {
+            posiciones[i] = i;
+        }
+        return posiciones;
+    }
+
+    private static String[] valores(List<String> registro, int[] posiciones) {
+        String[] valores = new String[posiciones.length];
+        for (int i = 0; i < posiciones.length; i++) {
+            int p = posiciones[i];
+            valores[i] = (p >= 0 && p < registro.size()) ? registro.get(p).strip() : "";
+        }
+        return valores;
+    }
+
+    /**
+     * Abre el archivo (descomprimiendo si termina en .gz), contando los bytes leídos del disco.
+     */
+    private static InputStream abrir(Path archivo, long[] bytesLeidos) throws IOException {
+        InputStream entrada = new FilterInputStream(Files.newInputStream(archivo)) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    bytesLeidos[0]++;
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    bytesLeidos[0] += n;
+                }
+                return n;
+            }
+        };
+        if (archivo.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".gz")) {
+            try {
+                return new GZIPInputStream(entrada, 64 * 1024);
+            } catch (IOException e) {
+                entrada.close();
+                throw e;
+            }
+        }
+        return entrada;
+    }
+
+    private static int porcentaje(long parte, long total) {
+        return (total > 0) ? (int) Math.min(100, parte * 100 / total) : -1;
+    }
+
+    /**
+     * Minúsculas, sin acentos y con los espacios internos reducidos a uno (para comparar nombres).
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String t = texto.strip();
+        for (int i = 0; i < t.length(); i++) {
+            if (t.charAt(i) > 0x7F) { // Solo se descompone si hay algo fuera de ASCII (lo más común es que no)
+                t = MARCAS.matcher(Normalizer.normalize(t, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        StringBuilder sb = new StringBuilder(t.length());
+        boolean espacio = false;
+        for (int i = 0; i < t.length(); i++) {
+            char c = t.charAt(i);
+            if (Character.isWhitespace(c)) {
+                espacio = true;
+                continue;
+            }
+            if (espacio) {
+                sb.append(' ');
+                espacio = false;
+            }
+            sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    private static String soloDigitos(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(texto.length());
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= '0' && c <= '9') {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String requerido(String valor, String campo, int largoMaximo) {
+        if (valor.isEmpty()) {
+            throw new IllegalArgumentException("Falta " + campo + ".");
+        }
+        return opcional(valor, campo, largoMaximo);
+    }
+
+    private static String opcional(String valor, String campo, int largoMaximo) {
+        if (valor.length() > largoMaximo) {
+            throw new IllegalArgumentException(campo + " tiene más de " + largoMaximo + " caracteres.");
+        }
+        return valor.isEmpty() ? null : valor;
+    }
+
+    // -----------------------------------------------------------
+    // Formatos
+    // -----------------------------------------------------------
+
+    private static final class FormatoClientes implements Formato {
+        @Override
+        public String[][] columnas() {
+            return new String[][]{{"nombre", "cliente"}, {"telefono", "tel"}};
+        }
+
+        @Override
+        public Object[] validar(String[] v) {
+            return new Object[]{requerido(v[0], "el nombre", LARGO_NOMBRE), opcional(v[1], "El teléfono", LARGO_TELEFONO)};
+        }
+
+        @Override
+        public String clave(Object[] fila) {
+            return normalizar((String) fila[0]) + '\u0000' + soloDigitos((String) fila[1]);
+        }
+
+        @Override
+        public String sqlClavesExistentes() { return SQL_CLAVES_CLIENTES; }
+
+        @Override
+        public String claveExistente(ResultSet rs) throws SQLException {
+            return normalizar(rs.getString("nombre")) + '\u0000' + soloDigitos(rs.getString("telefono"));
+        }
+
+        @Override
+        public String sqlInsertar() { return SQL_INSERTAR_CLIENTE; }
+    }
+
+    private static final class FormatoCanchas implements Formato {
+        @Override
+        public String[][] columnas() {
+            return new String[][]{{"nombre", "cancha"}, {"deporte"}, {"precio_por_hora", "precio", "precio/hora", "precio por hora"}};
+        }
+
+        @Override
+        public Object[] validar(String[] v) {
+            String nombre = requerido(v[0], "el nombre", LARGO_NOMBRE);
+            String deporte = requerido(v[1], "el deporte", LARGO_DEPORTE);
+            if (v[2].isEmpty()) {
+                throw new IllegalArgumentException("Falta el precio.");
+            }
+            BigDecimal precio;
+            try {
+                precio = new BigDecimal(numeroDecimal(v[2]));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("El precio '" + v[2] + "' no es un número.");
+            }
+            if (precio.signum() < 0 || precio.compareTo(PRECIO_MAXIMO) > 0) {
+                throw new IllegalArgumentException("El precio " + v[2] + " está fuera de rango.");
+            }
+            return new Object[]{nombre, deporte, precio};
+        }
+
+        @Override
+        public String clave(Object[] fila) { return normalizar((String) fila[0]); }
+
+        @Override
+        public String sqlClavesExistentes() { return SQL_CLAVES_CANCHAS; }
+
+        @Override
+        public String claveExistente(ResultSet rs) throws SQLException {
+            return normalizar(rs.getString("nombre"));
+        }
+
+        @Override
+        public String sqlInsertar() { return SQL_INSERTAR_CANCHA; }
+
+        /**
+         * "1.500,50" / "1500,50" / "1500.50" -> "1500.50": el último separador es el decimal.
+         */
+        private static String numeroDecimal(String texto) {
+            String t = texto.replace("$", "").replace(" ", "");
+            int coma = t.lastIndexOf(',');
+            int punto = t.lastIndexOf('.');
+            if (coma > punto) {
+                return t.replace(".", "").replace(',', '.');
+            }
+            return (coma >= 0) ? t.replace(",", "") : t;
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.HorarioLaboral;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Índice en memoria de la ocupación de cada cancha, por día.
+ * Cada (cancha, día) guarda un mapa de bits con un bit por minuto (1440 bits = 23 longs).
+ * Preguntar "¿está libre [inicio, fin)?" es un AND sobre unas pocas palabras de 64 bits,
+ * sin crear objetos Reserva ni recorrer listas.
+ *
+ * Los días se cargan desde la BD (ver ReservaDAO) y luego se mantienen al día con
+ * ocupar()/liberar() en cada alta o baja exitosa. Para ver cambios hechos desde otras
+ * terminales, cada día cargado vence después de 'ttlMs' y se vuelve a leer.
+ *
+ * Los días vencidos se barren al cargar días nuevos (como mucho una vez por 'ttlMs'),
+ * y el índice nunca guarda más de MAX_DIAS días: al pasarse, se descartan los vencidos
+ * y, si no alcanza, los cargados hace más tiempo. Con 23 longs por día, el tope ronda 1 MB.
+ */
+public class IndiceOcupacion {
+
+    public static final int MINUTOS_POR_DIA = 24 * 60;
+    private static final int PALABRAS_POR_DIA = (MINUTOS_POR_DIA + 63) / 64;
+    // Tope de días (cancha, fecha) en memoria; al superarlo se recorta a 3/4
+    static final int MAX_DIAS = 4096;
+
+    private final long ttlMs;
+    private final ConcurrentHashMap<Long, DiaOcupacion> dias = new ConcurrentHashMap<>();
+
+    // Se incrementa en cada ocupar/liberar. Permite detectar si hubo cambios
+    // mientras se cargaba un día desde la BD (en ese caso el día queda vencido).
+    private final AtomicLong version = new AtomicLong();
+
+    // Momento (ms) a partir del cual cargarDia() vuelve a barrer los días vencidos
+    private final AtomicLong proximoBarrido = new AtomicLong();
+
+    /**
+     * @param ttlMs Tiempo que un día cargado se considera vigente (0 o negativo = sin vencimiento)
+     */
+    public IndiceOcupacion(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /** Ocupación de una cancha en un día. */
+    private static final class DiaOcupacion {
+        final long[] bits;
+        final long cargadoEn;
+        final boolean confiable; // false si hubo cambios mientras se leía de la BD
+
+        DiaOcupacion(long[] bits, boolean confiable) {
+            this.bits = bits;
+            this.cargadoEn = System.currentTimeMillis();
+            this.confiable = confiable;
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Carga
+    // -----------------------------------------------------------
+
+    /**
+     * Indica si el día está cargado y vigente (si no, hay que leerlo de la BD).
+     */
+    public boolean estaCargado(int idCancha, LocalDate fecha) {
+        DiaOcupacion dia = dias.get(clave(idCancha, fecha));
+        return dia != null && vigente(dia);
+    }
+
+    /**
+     * Copia de la ocupación de un día cargado y vigente, o null si hay que leerlo de la BD.
+     * Las consultas que deciden (conflictos, disponibilidad) trabajan sobre copias: si otro
+     * hilo descarta el día mientras tanto (invalidar, barrido), no lo confunden con uno libre.
+     */
+    public long[] copiaDia(int idCancha, LocalDate fecha) {
+        DiaOcupacion dia = dias.get(clave(idCancha, fecha));
+        if (dia == null || !vigente(dia)) {
+            return null;
+        }
+        synchronized (dia) {
+            return dia.bits.clone();
+        }
+    }
+
+    /**
+     * Devuelve la versión actual. Se toma ANTES de consultar la BD y se pasa a cargarDia().
+     */
+    public long versionActual() {
+        return version.get();
+    }
+
+    /**
+     * Crea un mapa de bits vacío para un día (para llenarlo con marcar()).
+     */
+    public static long[] nuevoDia() {
+        return new long[PALABRAS_POR_DIA];
+    }
+
+    /**
+     * Reemplaza la ocupación de un día con los bits leídos de la BD.
+     * Si hubo ocupar()/liberar() desde 'versionLeida', los datos pueden estar
+     * desactualizados: se usan para la consulta en curso pero quedan vencidos,
+     * así la próxima consulta los vuelve a leer.
+     */
+    public void cargarDia(int idCancha, LocalDate fecha, long[] bits, long versionLeida) {
+        boolean confiable = version.get() == versionLeida;
+        dias.put(clave(idCancha, fecha), new DiaOcupacion(bits.clone(), confiable));
+
+        long ahora = System.currentTimeMillis();
+        long proximo = proximoBarrido.get();
+        boolean tocaBarrer = ttlMs > 0 && ahora >= proximo && proximoBarrido.compareAndSet(proximo, ahora + ttlMs);
+        if (tocaBarrer || dias.size() > MAX_DIAS) {
+            barrer();
+        }
+    }
+
+    /**
+     * Descarta los días vencidos y, si siguen sobrando, los cargados hace más tiempo
+     * hasta dejar 3/4 de MAX_DIAS. remove(clave, día) no toca un día recién recargado.
+     */
+    private void barrer() {
+        dias.entrySet().removeIf(e -> !vigente(e.getValue()));
+        int sobran = dias.size() - MAX_DIAS * 3 / 4;
+        if (sobran <= 0 || dias.size() <= MAX_DIAS) {
+            return;
+        }
+        List<Map.Entry<Long, DiaOcupacion>> porAntiguedad = new ArrayList<>(dias.entrySet());
+        porAntiguedad.sort(Comparator.comparingLong(e -> e.getValue().cargadoEn));
+        for (int i = 0; i < sobran && i < porAntiguedad.size(); i++) {
+            Map.Entry<Long, DiaOcupacion> e = porAntiguedad.get(i);
+            dias.remove(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Descarta un día del índice.
+     */
+    public void invalidar(int idCancha, LocalDate fecha) {
+        dias.remove(clave(idCancha, fecha));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Descarta todo el índice.
+     */
+    public void invalidarTodo() {
+        dias.clear();
+        version.incrementAndGet();
+    }
+
+    // -----------------------------------------------------------
+    // Consultas
+    // -----------------------------------------------------------
+
+    /**
+     * ¿Está libre la cancha en [inicio, inicio + minutos)?
+     * Los días involucrados deben estar cargados (ver estaCargado()); un día
+     * no cargado se considera libre. Para decidir, mejor estaLibreEn() sobre copias.
+     */
+    public boolean estaLibre(int idCancha, LocalDateTime inicio, int minutos) {
+        LocalDate fecha = inicio.toLocalDate();
+        int desde = inicio.getHour() * 60 + inicio.getMinute();
+        int restantes = Math.max(0, minutos);
+
+        // Una reserva que cruza la medianoche ocupa también el día siguiente
+        while (restantes > 0) {
+            int hasta = Math.min(MINUTOS_POR_DIA, desde + restantes);
+            DiaOcupacion dia = dias.get(clave(idCancha, fecha));
+            if (dia != null) {
+                synchronized (dia) {
+                    if (hayBitsEnRango(dia.bits, desde, hasta)) {
+                        return false;
+                    }
+                }
+            }
+            restantes -= (hasta - desde);
+            desde = 0;
+            fecha = fecha.plusDays(1);
+        }
+        return true;
+    }
+
+    /**
+     * Lista los turnos libres de un día según el horario laboral.
+     * El día debe estar cargado (ver estaCargado()); uno no cargado aparece todo libre.
+     */
+    public List<LocalTime> turnosLibres(int idCancha, LocalDate fecha, HorarioLaboral horario) {
+        DiaOcupacion dia = dias.get(clave(idCancha, fecha));
+        long[] bits = null;
+        if (dia != null) {
+            synchronized (dia) {
+                bits = dia.bits.clone(); // Copia chica (23 longs): no bloquea durante el recorrido
+            }
+        }
+        return turnosLibresEn(bits, horario);
+    }
+
+    /**
+     * Lista los turnos libres de un día (bits = null: el día está vacío) según el horario laboral.
+     */
+    public static List<LocalTime> turnosLibresEn(long[] bits, HorarioLaboral horario) {
+        List<LocalTime> libres = new ArrayList<>();
+        int[] turnos = minutosDeTurnos(horario);
+        int duracion = horario.getDuracionTurnoMinutos();
+        for (int t : turnos) {
+            int fin = Math.min(MINUTOS_POR_DIA, t + duracion);
+            if (bits == null || !hayBitsEnRango(bits, t, fin)) {
+                libres.add(LocalTime.of(t / 60, t % 60));
+            }
+        }
+        return libres;
+    }
+
+    /**
+     * Minuto del día en que empieza cada turno según el horario laboral.
+     * Mismo criterio que antes: un turno se ofrece si EMPIEZA antes del cierre.
+     */
+    public static int[] minutosDeTurnos(HorarioLaboral horario) {
+        int duracion = horario.getDuracionTurnoMinutos();
+        int apertura = minutoDelDia(horario.getHoraApertura());
+        int cierre = minutoDelDia(horario.getHoraCierre());
+        if (duracion <= 0 || apertura >= cierre) {
+            return new int[0];
+        }
+        int[] turnos = new int[(cierre - apertura + duracion - 1) / duracion];
+        for (int i = 0; i < turnos.length; i++) {
+            turnos[i] = apertura + i * duracion;
+        }
+        return turnos;
+    }
+
+    // -----------------------------------------------------------
+    // Actualización (después de un alta o una baja exitosa)
+    // -----------------------------------------------------------
+
+    /**
+     * Marca [inicio, inicio + minutos) como ocupado en los días cargados.
+     */
+    public void ocupar(int idCancha, LocalDateTime inicio, int minutos) {
+        actualizar(idCancha, inicio, minutos, true);
+    }
+
+    /**
+     * Marca [inicio, inicio + minutos) como libre en los días cargados.
+     * No puede haber dos reservas solapadas en la misma cancha, así que
+     * liberar el intervalo no borra la ocupación de otra reserva.
+     */
+    public void liberar(int idCancha, LocalDateTime inicio, int minutos) {
+        actualizar(idCancha, inicio, minutos, false);
+    }
+
+    private void actualizar(int idCancha, LocalDateTime inicio, int minutos, boolean ocupado) {
+        version.incrementAndGet();
+        LocalDate fecha = inicio.toLocalDate();
+        int desde = inicio.getHour() * 60 + inicio.getMinute();
+        int restantes = Math.max(0, minutos);
+
+        while (restantes > 0) {
+            int hasta = Math.min(MINUTOS_POR_DIA, desde + restantes);
+            DiaOcupacion dia = dias.get(clave(idCancha, fecha));
+            if (dia != null) { // Si el día no está cargado, se leerá de la BD cuando haga falta
+                synchronized (dia) {
+                    if (ocupado) {
+                        marcar(dia.bits, desde, hasta);
+                    } else {
+                        desmarcar(dia.bits, desde, hasta);
+                    }
+                }
+            }
+            restantes -= (hasta - desde);
+            desde = 0;
+            fecha = fecha.plusDays(1);
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Operaciones sobre el mapa de bits (por palabras de 64 bits)
+    // -----------------------------------------------------------
+
+    /**
+     * Marca los minutos [desde, hasta) en el mapa de bits.
+     */
+    public static void marcar(long[] bits, int desde, int hasta) {
+        if (desde >= hasta) return;
+        int pDesde = desde >>> 6;
+        int pHasta = (hasta - 1) >>> 6;
+        long mascaraDesde = -1L << desde;          // Java usa solo los 6 bits bajos del desplazamiento
+        long mascaraHasta = -1L >>> (-hasta);      // Bits [0, hasta % 64) o la palabra completa
+        if (pDesde == pHasta) {
+            bits[pDesde] |= (mascaraDesde & mascaraHasta);
+            return;
+        }
+        bits[pDesde] |= mascaraDesde;
+        for (int i = pDesde + 1; i < pHasta; i++) {
+            bits[i] = -1L;
+        }
+        bits[pHasta] |= mascaraHasta;
+    }
+
+    /**
+     * Desmarca los minutos [desde, hasta) en el mapa de bits.
+     */
+    public static void desmarcar(long[] bits, int desde, int hasta) {
+        if (desde >= hasta) return;
+        int pDesde = desde >>> 6;
+        int pHasta = (hasta - 1) >>> 6;
+        long mascaraDesde = -1L << desde;
+        long mascaraHasta = -1L >>> (-hasta);
+        if (pDesde == pHasta) {
+            bits[pDesde] &= ~(mascaraDesde & mascaraHasta);
+            return;
+        }
+        bits[pDesde] &= ~mascaraDesde;
+        for (int i = pDesde + 1; i < pHasta; i++) {
+            bits[i] = 0L;
+        }
+        bits[pHasta] &= ~mascaraHasta;
+    }
+
+    /**
+     * ¿Hay algún minuto ocupado en [desde, hasta)?
+     */
+    public static boolean hayBitsEnRango(long[] bits, int desde, int hasta) {
+        if (desde >= hasta) return false;
+        int pDesde = desde >>> 6;
+        int pHasta = (hasta - 1) >>> 6;
+        long mascaraDesde = -1L << desde;
+        long mascaraHasta = -1L >>> (-hasta);
+        if (pDesde == pHasta) {
+            return (bits[pDesde] & mascaraDesde & mascaraHasta) != 0;
+        }
+        if ((bits[pDesde] & mascaraDesde) != 0) return true;
+        for (int i = pDesde + 1; i < pHasta; i++) {
+            if (bits[i] != 0) return true;
+        }
+        return (bits[pHasta] & mascaraHasta) != 0;
+    }
+
+    /**
+     * ¿Está libre [inicio, inicio + minutos) en un arreglo de días consecutivos
+     * (bitsPorDia[0] = primerDia)? Los días fuera del arreglo se consideran libres.
+     * Lo usan las validaciones que leen la ocupación dentro de su propia transacción.
+     */
+    public static boolean estaLibreEn(long[][] bitsPorDia, LocalDate primerDia, LocalDateTime inicio, int minutos) {
+        int dia = (int) (inicio.toLocalDate().toEpochDay() - primerDia.toEpochDay());
+        int desde = inicio.getHour() * 60 + inicio.getMinute();
+        int restantes = Math.max(0, minutos);
+        while (restantes > 0) {
+            int hasta = Math.min(MINUTOS_POR_DIA, desde + restantes);
+            if (dia >= 0 && dia < bitsPorDia.length && hayBitsEnRango(bitsPorDia[dia], desde, hasta)) {
+                return false;
+            }
+            restantes -= (hasta - desde);
+            desde = 0;
+            dia++;
+        }
+        return true;
+    }
+
+    /**
+     * Marca [inicio, inicio + minutos) en un arreglo de días consecutivos
+     * (bitsPorDia[0] = primerDia), partiendo el intervalo si cruza la medianoche.
+     */
+    public static void marcarEn(long[][] bitsPorDia, LocalDate primerDia, LocalDateTime inicio, int minutos) {
+        int dia = (int) (inicio.toLocalDate().toEpochDay() - primerDia.toEpochDay());
+        int desde = inicio.getHour() * 60 + inicio.getMinute();
+        int restantes = Math.max(0, minutos);
+        while (restantes > 0) {
+            int hasta = Math.min(MINUTOS_POR_DIA, desde + restantes);
+            if (dia >= 0 && dia < bitsPorDia.length) {
+                marcar(bitsPorDia[dia], desde, hasta);
+            }
+            restantes -= (hasta - desde);
+            desde = 0;
+            dia++;
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Utilidades
+    // -----------------------------------------------------------
+
+    /**
+     * Clave primitiva: ID de cancha en los 32 bits altos, día (epoch) en los bajos.
+     */
+    private static long clave(int idCancha, LocalDate fecha) {
+        return ((long) idCancha << 32) | (fecha.toEpochDay() & 0xFFFFFFFFL);
+    }
+
+    private static int minutoDelDia(LocalTime t) {
+        return t.getHour() * 60 + t.getMinute();
+    }
+
+    private boolean vigente(DiaOcupacion dia) {
+        return dia.confiable && (ttlMs <= 0 || System.currentTimeMillis() - dia.cargadoEn < ttlMs);
+    }
+}
@@ -0,0 +1,136 @@
+package com.gestor.datos;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lector de CSV en streaming: devuelve un registro por vez y solo guarda en memoria
+ * el registro actual y un buffer fijo.
+ *
+ * - Separador ',' o ';' (se detecta en la primera línea: Excel en español usa ';').
+ * - Campos entre comillas con comillas duplicadas y saltos de línea adentro (RFC 4180).
+ * - Fin de línea LF o CRLF; se ignora el BOM de UTF-8 del principio.
+ */
+final class LectorCsv implements Closeable {
+
+    private static final int TAMANO_BUFFER = 64 * 1024;
+
+    private final Reader entrada;
+    private final char[] buffer = new char[TAMANO_BUFFER];
+    private int posicion = 0;
+    private int limite = 0;
+    private final char separador;
+
+    private long linea = 1;          // Línea física que se está leyendo
+    private long lineaRegistro = 0;  // Línea donde empezó el último registro devuelto
+
+    LectorCsv(Reader entrada) throws IOException {
+        this.entrada = entrada;
+        llenar();
+        if (limite > 0 && buffer[0] == '\uFEFF') {
+            posicion = 1;
+        }
+        this.separador = detectarSeparador();
+    }
+
+    /** Línea del archivo en la que empieza el último registro leído (para informar errores). */
+    long getLineaRegistro() { return lineaRegistro; }
+
+    /**
+     * Lee el próximo registro.
+     * @return Los campos (sin comillas), o null al final del archivo
+     * @throws IOException si falla la lectura o hay comillas sin cerrar
+     */
+    List<String> leer() throws IOException {
+        int c = siguiente();
+        if (c == -1) {
+            return null;
+        }
+        lineaRegistro = linea;
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        while (true) {
+            if (entreComillas) {
+                if (c == -1) {
+                    throw new IOException("Comillas sin cerrar desde la línea " + lineaRegistro + ".");
+                }
+                if (c == '"') {
+                    c = siguiente();
+                    if (c == '"') {
+                        campo.append('"'); // Comilla duplicada = una comilla
+                    } else {
+                        entreComillas = false;
+                        continue; // 'c' es el carácter que sigue al campo
+                    }
+                } else {
+                    if (c == '\n') {
+                        linea++;
+                    }
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                if (c == '\n') {
+                    linea++;
+                }
+                campos.add(campo.toString());
+                return campos;
+            } else if (c != '\r') {
+                campo.append((char) c);
+            }
+            c = siguiente();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    private int siguiente() throws IOException {
+        if (posicion >= limite) {
+            if (limite < 0) {
+                return -1; // Ya se llegó al final
+            }
+            llenar();
+            if (limite <= 0) {
+                limite = -1;
+                return -1;
+            }
+        }
+        return buffer[posicion++];
+    }
+
+    private void llenar() throws IOException {
+        posicion = 0;
+        limite = entrada.read(buffer, 0, buffer.length);
+    }
+
+    /**
+     * Cuenta ',' y ';' fuera de comillas en la primera línea (que ya está en el buffer).
+     */
+    private char detectarSeparador() {
+        int comas = 0;
+        int puntoYComas = 0;
+        boolean entreComillas = false;
+        for (int i = posicion; i < limite && (entreComillas || buffer[i] != '\n'); i++) {
+            char c = buffer[i];
+            if (c == '"') {
+                entreComillas = !entreComillas;
+            } else if (!entreComillas && c == ',') {
+                comas++;
+            } else if (!entreComillas && c == ';') {
+                puntoYComas++;
+            }
+        }
+        return (puntoYComas > comas) ? ';' : ',';
+    }
+}
@@ -0,0 +1,265 @@
+package com.gestor.datos;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mantenimiento de las particiones mensuales de la tabla reserva (ver migraciones/V7.sql).
+ *
+ * - Crea por adelantado las particiones de los próximos MESES_ADELANTE meses, partiendo
+ *   p_futuro (que normalmente está vacía, así que no se copian filas).
+ * - Los meses anteriores a los últimos MESES_VIGENTES se sacan de reserva con EXCHANGE
+ *   PARTITION (la partición pasa entera a la tabla reserva_canje, sin copiar filas) y se
+ *   borra la partición vacía; recién después se copian de reserva_canje a reserva_archivo.
+ *   El canje y el DROP van bajo LOCK TABLES: ninguna reserva de ese mes puede entrar
+ *   entre los dos y perderse. Con -Dgestor.reservas.archivar=false se borran sin copiarlos.
+ *
+ * Así la tabla reserva solo guarda los meses vigentes, y las consultas por rango de
+ * fechas (reservas del día, ocupación, conflictos) leen únicamente las particiones de
+ * ese rango. El resumen diario no cambia al archivar: los reportes siguen completos.
+ *
+ * Corre en segundo plano al arrancar y cada -Dgestor.reservas.mantenimientoHoras (24 por
+ * defecto; 0 = nunca), o a mano: java com.gestor.datos.MantenimientoReservas
+ * Un bloqueo con nombre (GET_LOCK) evita que dos terminales lo corran a la vez.
+ * Usa una conexión propia, fuera del pool: si GET_LOCK o LOCK TABLES no se pudieran
+ * liberar, se liberan al cerrarla en vez de pasar al próximo DAO que la pida.
+ */
+public class MantenimientoReservas {
+
+    // Meses (además del actual) que quedan en la tabla reserva; 0 = no se archiva nunca
+    static final int MESES_VIGENTES = Integer.getInteger("gestor.reservas.mesesVigentes", 24);
+    // Meses futuros con partición propia (las reservas fijas se cargan con meses de anticipación)
+    static final int MESES_ADELANTE = Integer.getInteger("gestor.reservas.mesesAdelante", 12);
+    static final boolean ARCHIVAR = Boolean.parseBoolean(System.getProperty("gestor.reservas.archivar", "true"));
+    private static final long PERIODO_HORAS = Long.getLong("gestor.reservas.mantenimientoHoras", 24L);
+    private static final long DEMORA_INICIAL_SEG = 30; // No compite con las cargas del arranque
+
+    private static final MetricaOperacion M_MANTENER = Metricas.operacion("MantenimientoReservas.mantener");
+
+    private static final String PARTICION_FUTURO = "p_futuro";
+    private static final DateTimeFormatter FORMATO_NOMBRE = DateTimeFormatter.ofPattern("'p'yyyyMM");
+    private static final String BLOQUEO = MigradorEsquema.BASE + ".particiones";
+
+    private static final String SQL_PARTICIONES =
+            "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'reserva' ORDER BY PARTITION_ORDINAL_POSITION";
+    private static final String SQL_PRIMERA_RESERVA = "SELECT MIN(fecha_hora_inicio) AS primera FROM reserva";
+    private static final String COLUMNAS =
+            "id_reserva, id_cancha, id_cliente, fecha_hora_inicio, duracion_minutos, tipo, costo_total, id_grupo_fija";
+    // Tabla sin particionar con la misma estructura que reserva, para EXCHANGE PARTITION
+    private static final String TABLA_CANJE = "reserva_canje";
+    private static final String SQL_EXISTE_CANJE =
+            "SELECT COUNT(*) AS existe FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = '" + TABLA_CANJE + "'";
+    private static final String SQL_ARCHIVAR =
+            "INSERT IGNORE INTO reserva_archivo (" + COLUMNAS + ") SELECT " + COLUMNAS + " FROM " + TABLA_CANJE;
+
+    /**
+     * Programa el mantenimiento periódico en un hilo de fondo (lo llama el arranque).
+     */
+    public static void programar() {
+        if (PERIODO_HORAS <= 0) {
+            return;
+        }
+        ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "mantenimiento-reservas");
+            t.setDaemon(true);
+            return t;
+        });
+        programador.scheduleWithFixedDelay(() -> new MantenimientoReservas().mantener(),
+                DEMORA_INICIAL_SEG, TimeUnit.HOURS.toSeconds(PERIODO_HORAS), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Crea las particiones que faltan y archiva (o borra) las vencidas, según el mes actual.
+     * @return true si terminó bien (o si otra terminal lo está haciendo), false si hubo un error
+     */
+    public boolean mantener() {
+        return mantener(YearMonth.now());
+    }
+
+    boolean mantener(YearMonth mesActual) {
+        long inicioNs = System.nanoTime();
+        try (Connection cn = ConexionDB.conectarSinPool()) {
+            if (!tomarBloqueo(cn)) {
+                return true; // Otra terminal lo está corriendo
+            }
+            try {
+                List<YearMonth> meses = leerParticiones(cn);
+                if (meses == null) {
+                    System.err.println("La tabla reserva no está particionada (falta la migración V7).");
+                    return false;
+                }
+                crearParticiones(cn, meses, mesActual.plusMonths(MESES_ADELANTE));
+                if (MESES_VIGENTES > 0) {
+                    vencerParticiones(cn, meses, mesActual.minusMonths(MESES_VIGENTES));
+                }
+                return true;
+            } finally {
+                liberarBloqueo(cn);
+            }
+        } catch (SQLException e) {
+            M_MANTENER.error();
+            EjecutorJdbc.informarError("Error en el mantenimiento de particiones de reserva", e);
+            return false;
+        } finally {
+            M_MANTENER.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Los meses con partición propia, en orden (sin p_futuro), o null si la tabla no está particionada.
+     */
+    private static List<YearMonth> leerParticiones(Connection cn) throws SQLException {
+        List<String> nombres = EjecutorJdbc.consultar(cn, SQL_PARTICIONES, rs -> {
+            String nombre = rs.getString("PARTITION_NAME");
+            return (nombre != null) ? nombre : "";
+        });
+        if (nombres.isEmpty() || nombres.get(0).isEmpty()) {
+            return null;
+        }
+        List<YearMonth> meses = new ArrayList<>();
+        for (String nombre : nombres) {
+            if (nombre.equals(PARTICION_FUTURO)) {
+                continue;
+            }
+            try {
+                meses.add(YearMonth.parse(nombre, FORMATO_NOMBRE));
+            } catch (DateTimeParseException e) {
+                System.err.println("Partición de reserva con un nombre desconocido (se ignora): " + nombre);
+            }
+        }
+        return meses;
+    }
+
+    /**
+     * Parte p_futuro en los meses que faltan hasta 'hasta' (inclusive). La primera vez
+     * arranca desde el mes de la reserva más vieja, así todo el historial queda por mes.
+     */
+    private static void crearParticiones(Connection cn, List<YearMonth> meses, YearMonth hasta) throws SQLException {
+        YearMonth desde;
+        if (!meses.isEmpty()) {
+            desde = meses.get(meses.size() - 1).plusMonths(1);
+        } else {
+            LocalDateTime primera = EjecutorJdbc.consultarUno(cn, SQL_PRIMERA_RESERVA,
+                    rs -> rs.getObject("primera", LocalDateTime.class));
+            YearMonth mesActual = hasta.minusMonths(MESES_ADELANTE);
+            desde = (primera != null && YearMonth.from(primera).isBefore(mesActual)) ? YearMonth.from(primera) : mesActual;
+        }
+        if (desde.isAfter(hasta)) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("ALTER TABLE reserva REORGANIZE PARTITION ")
+                .append(PARTICION_FUTURO).append(" INTO (");
+        for (YearMonth mes = desde; !mes.isAfter(hasta); mes = mes.plusMonths(1)) {
+            sql.append("PARTITION ").append(nombreParticion(mes))
+               .append(" VALUES LESS THAN ('").append(mes.plusMonths(1).atDay(1)).append(" 00:00:00'), ");
+            meses.add(mes);
+        }
+        sql.append("PARTITION ").append(PARTICION_FUTURO).append(" VALUES LESS THAN (MAXVALUE))");
+        ejecutar(cn, sql.toString());
+        System.out.println("Particiones de reserva creadas: " + desde + " a " + hasta + ".");
+    }
+
+    /**
+     * Archiva (o borra) las particiones de los meses anteriores a 'corte'.
+     * Cada mes va por separado: si algo falla, los ya procesados quedan hechos y el resto
+     * se reintenta en la próxima corrida.
+     */
+    private static void vencerParticiones(Connection cn, List<YearMonth> meses, YearMonth corte) throws SQLException {
+        if (ARCHIVAR) {
+            // Una corrida anterior que falló después del canje dejó sus filas en reserva_canje
+            Integer existe = EjecutorJdbc.consultarUno(cn, SQL_EXISTE_CANJE, rs -> rs.getInt("existe"));
+            if (existe != null && existe > 0) {
+                System.out.println("Reservas pendientes de archivar de una corrida anterior: " + copiarCanje(cn) + ".");
+            }
+        }
+        for (YearMonth mes : meses) {
+            if (!mes.isBefore(corte)) {
+                break;
+            }
+            String particion = nombreParticion(mes);
+            if (!ARCHIVAR) {
+                ejecutar(cn, "ALTER TABLE reserva DROP PARTITION " + particion);
+                System.out.println("Reservas de " + mes + " borradas (sin archivo).");
+                continue;
+            }
+            // LOCK TABLES no deja crear tablas: reserva_canje se prepara antes
+            ejecutar(cn, "CREATE TABLE " + TABLA_CANJE + " LIKE reserva");
+            ejecutar(cn, "ALTER TABLE " + TABLA_CANJE + " REMOVE PARTITIONING");
+            ejecutar(cn, "LOCK TABLES reserva WRITE, " + TABLA_CANJE + " WRITE");
+            try {
+                // La partición más vieja también contiene lo anterior a su mes (RANGE): pasa todo
+                ejecutar(cn, "ALTER TABLE reserva EXCHANGE PARTITION " + particion + " WITH TABLE " + TABLA_CANJE);
+                ejecutar(cn, "ALTER TABLE reserva DROP PARTITION " + particion);
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    ejecutar(cn, "UNLOCK TABLES");
+                } catch (SQLException ex) {
+                    e.addSuppressed(ex); // Se liberan igual al cerrar la conexión propia
+                }
+                throw e;
+            }
+            ejecutar(cn, "UNLOCK TABLES");
+            System.out.println("Reservas de " + mes + " archivadas: " + copiarCanje(cn) + ".");
+        }
+    }
+
+    /**
+     * Copia reserva_canje a reserva_archivo y la borra (INSERT IGNORE no duplica lo ya copiado).
+     * @return La cantidad de reservas archivadas
+     */
+    private static int copiarCanje(Connection cn) throws SQLException {
+        int archivadas = EjecutorJdbc.actualizar(cn, SQL_ARCHIVAR);
+        ejecutar(cn, "DROP TABLE " + TABLA_CANJE);
+        return archivadas;
+    }
+
+    private static String nombreParticion(YearMonth mes) {
+        return FORMATO_NOMBRE.format(mes);
+    }
+
+    private static void ejecutar(Connection cn, String ddl) throws SQLException {
+        try (Statement st = cn.createStatement()) {
+            st.execute(ddl);
+        }
+    }
+
+    private static boolean tomarBloqueo(Connection cn) throws SQLException {
+        Integer obtenido = EjecutorJdbc.consultarUno(cn, "SELECT GET_LOCK(?, 0) AS obtenido",
+                rs -> rs.getInt("obtenido"), BLOQUEO);
+        return obtenido != null && obtenido == 1;
+    }
+
+    private static void liberarBloqueo(Connection cn) {
+        try {
+            EjecutorJdbc.consultarUno(cn, "SELECT RELEASE_LOCK(?) AS liberado", rs -> Boolean.TRUE, BLOQUEO);
+        } catch (SQLException e) {
+            // Se libera igual al cerrar la conexión (es propia, no vuelve al pool)
+            System.err.println("Error al liberar el bloqueo de particiones: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Corre el mantenimiento una vez (por ejemplo, desde cron o después de migrar a V7).
+     */
+    public static void main(String[] args) {
+        SetUpDB.verificarYCrearBD();
+        boolean ok = new MantenimientoReservas().mantener();
+        ConexionDB.cerrarPool();
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.gestor.datos;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * Mapa de identidad con claves int primitivas (sin Integer ni nodos por entrada).
+ * Direccionamiento abierto con sondeo lineal; al borrar se corren las entradas
+ * siguientes hacia atrás, así no quedan "lápidas".
+ * Es seguro para varios hilos (métodos sincronizados: las operaciones son muy cortas).
+ *
+ * @param <T> Tipo de la entidad (Cancha, Cliente)
+ */
+class MapaIdentidad<T> {
+
+    private static final int VACIO = 0; // Los IDs autoincrementales de MySQL empiezan en 1
+
+    private int[] claves;
+    private Object[] valores;
+    private int cantidad = 0;
+    // Estadísticas de obtenerOCrear (se cuentan dentro del mismo bloqueo)
+    private long aciertos = 0;
+    private long fallos = 0;
+
+    MapaIdentidad(int capacidadInicial) {
+        int capacidad = Integer.highestOneBit(Math.max(16, capacidadInicial) * 2 - 1);
+        claves = new int[capacidad];
+        valores = new Object[capacidad];
+    }
+
+    /**
+     * @return La entidad con ese ID, o null si no está.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T obtener(int id) {
+        if (id == VACIO) return null;
+        int i = buscar(id);
+        return claves[i] == id ? (T) valores[i] : null;
+    }
+
+    /**
+     * Devuelve la entidad con ese ID; si no está, la crea con 'crear' y la guarda.
+     */
+    @SuppressWarnings("unchecked")
+    synchronized T obtenerOCrear(int id, IntFunction<T> crear) {
+        if (id == VACIO) return crear.apply(id);
+        int i = buscar(id);
+        if (claves[i] == id) {
+            aciertos++;
+            return (T) valores[i];
+        }
+        fallos++;
+        T nuevo = crear.apply(id);
+        insertarEn(i, id, nuevo);
+        return nuevo;
+    }
+
+    /**
+     * Guarda (o reemplaza) la entidad con ese ID.
+     */
+    synchronized void poner(int id, T valor) {
+        if (id == VACIO) return;
+        int i = buscar(id);
+        if (claves[i] == id) {
+            valores[i] = valor;
+        } else {
+            insertarEn(i, id, valor);
+        }
+    }
+
+    /**
+     * Quita la entidad con ese ID (si estaba).
+     */
+    synchronized void quitar(int id) {
+        if (id == VACIO) return;
+        int i = buscar(id);
+        if (claves[i] != id) {
+            return;
+        }
+        // Borrado con corrimiento hacia atrás (mantiene válidas las cadenas de sondeo)
+        int mascara = claves.length - 1;
+        int hueco = i;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (claves[j] == VACIO) {
+                break;
+            }
+            int ideal = posicionIdeal(claves[j]);
+            // ¿La entrada j puede ocupar el hueco? Sí, si 'ideal' no está en (hueco, j]
+            boolean moverla = (hueco <= j) ? (ideal <= hueco || ideal > j) : (ideal <= hueco && ideal > j);
+            if (moverla) {
+                claves[hueco] = claves[j];
+                valores[hueco] = valores[j];
+                hueco = j;
+            }
+        }
+        claves[hueco] = VACIO;
+        valores[hueco] = null;
+        cantidad--;
+    }
+
+    synchronized void limpiar() {
+        Arrays.fill(claves, VACIO);
+        Arrays.fill(valores, null);
+        cantidad = 0;
+    }
+
+    synchronized int tamano() {
+        return cantidad;
+    }
+
+    synchronized long aciertos() {
+        return aciertos;
+    }
+
+    synchronized long fallos() {
+        return fallos;
+    }
+
+    // -----------------------------------------------------------
+    // Internos
+    // -----------------------------------------------------------
+
+    /** Posición donde está 'id', o la primera vacía de su cadena de sondeo. */
+    private int buscar(int id) {
+        int mascara = claves.length - 1;
+        int i = posicionIdeal(id);
+        while (claves[i] != VACIO && claves[i] != id) {
+            i = (i + 1) & mascara;
+        }
+        return i;
+    }
+
+    private int posicionIdeal(int id) {
+        // Hash de Fibonacci: toma los bits altos del producto, así IDs consecutivos se reparten
+        return (id * 0x9E3779B9) >>> (Integer.numberOfLeadingZeros(claves.length) + 1);
+    }
+
+    private void insertarEn(int i, int id, Object valor) {
+        claves[i] = id;
+        valores[i] = valor;
+        cantidad++;
+        if (cantidad * 4 > claves.length * 3) { // Factor de carga 0,75
+            crecer();
+        }
+    }
+
+    private void crecer() {
+        int[] clavesViejas = claves;
+        Object[] valoresViejos = valores;
+        claves = new int[clavesViejas.length * 2];
+        valores = new Object[valoresViejos.length * 2];
+        for (int k = 0; k < clavesViejas.length; k++) {
+            if (clavesViejas[k] != VACIO) {
+                int i = buscar(clavesViejas[k]);
+                claves[i] = clavesViejas[k];
+                valores[i] = valoresViejos[k];
+            }
+        }
+    }
+}
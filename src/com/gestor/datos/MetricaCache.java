@@ -0,0 +1,41 @@
+package com.gestor.datos;
+
+import java.util.Locale;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Adapta los contadores de un caché a JMX. Los contadores los lleva el propio
+ * caché (ya sincronizado); acá solo se leen cuando alguien consulta.
+ */
+final class MetricaCache implements MetricaCacheMXBean {
+
+    private final String nombre;
+    private final LongSupplier aciertos;
+    private final LongSupplier fallos;
+    private final IntSupplier tamano;
+
+    MetricaCache(String nombre, LongSupplier aciertos, LongSupplier fallos, IntSupplier tamano) {
+        this.nombre = nombre;
+        this.aciertos = aciertos;
+        this.fallos = fallos;
+        this.tamano = tamano;
+    }
+
+    @Override public long getAciertos() { return aciertos.getAsLong(); }
+    @Override public long getFallos() { return fallos.getAsLong(); }
+    @Override public int getTamano() { return tamano.getAsInt(); }
+
+    @Override
+    public double getTasaAciertos() {
+        long a = getAciertos();
+        long total = a + getFallos();
+        return total == 0 ? 0.0 : (double) a / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "Caché %s: aciertos=%d, fallos=%d, tasa=%.1f %%, tamaño=%d",
+                nombre, getAciertos(), getFallos(), getTasaAciertos() * 100, getTamano());
+    }
+}
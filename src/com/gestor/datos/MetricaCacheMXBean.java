@@ -0,0 +1,16 @@
+package com.gestor.datos;
+
+/**
+ * Vista JMX de un caché de la capa de datos (identidad de canchas/clientes, horarios).
+ */
+public interface MetricaCacheMXBean {
+
+    long getAciertos();
+
+    long getFallos();
+
+    /** Aciertos / (aciertos + fallos), entre 0 y 1. */
+    double getTasaAciertos();
+
+    int getTamano();
+}
@@ -0,0 +1,58 @@
+package com.gestor.datos;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de una operación: cantidad de llamadas, errores e histograma de latencias.
+ *
+ * Uso en un DAO (sin objetos por llamada):
+ * <pre>
+ *   private static final MetricaOperacion M_BUSCAR = Metricas.operacion("ClienteDAO.buscar");
+ *
+ *   long inicio = System.nanoTime();
+ *   try { ... } catch (SQLException e) { M_BUSCAR.error(); ... }
+ *   finally { M_BUSCAR.registrar(inicio); }
+ * </pre>
+ */
+final class MetricaOperacion implements MetricaOperacionMXBean {
+
+    private final String nombre;
+    private final HistogramaLatencia latencias = new HistogramaLatencia();
+    private final LongAdder errores = new LongAdder();
+
+    MetricaOperacion(String nombre) {
+        this.nombre = nombre;
+    }
+
+    /**
+     * Registra una llamada que empezó en 'inicioNs' (System.nanoTime()) y termina ahora.
+     */
+    void registrar(long inicioNs) {
+        latencias.registrar(System.nanoTime() - inicioNs);
+    }
+
+    /**
+     * Cuenta un error de la operación (la llamada igual se registra con registrar()).
+     */
+    void error() {
+        errores.increment();
+    }
+
+    @Override public String getNombre() { return nombre; }
+    @Override public long getLlamadas() { return latencias.getCantidad(); }
+    @Override public long getErrores() { return errores.sum(); }
+    @Override public double getPromedioMs() { return latencias.getPromedioMs(); }
+    @Override public double getP50Ms() { return latencias.percentilMs(50); }
+    @Override public double getP95Ms() { return latencias.percentilMs(95); }
+    @Override public double getP99Ms() { return latencias.percentilMs(99); }
+    @Override public double getMaximoMs() { return latencias.getMaximoMs(); }
+
+    @Override
+    public String toString() {
+        double[] p = latencias.percentilesMs(50, 95, 99);
+        return String.format(Locale.ROOT,
+                "%s: llamadas=%d, errores=%d, prom=%.2f ms, p50=%.2f ms, p95=%.2f ms, p99=%.2f ms, max=%.2f ms",
+                nombre, getLlamadas(), getErrores(), getPromedioMs(), p[0], p[1], p[2], getMaximoMs());
+    }
+}
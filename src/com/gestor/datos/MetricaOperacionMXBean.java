@@ -0,0 +1,25 @@
+package com.gestor.datos;
+
+/**
+ * Vista JMX de las métricas de una operación de la capa de datos
+ * (un método público de un DAO, o la obtención de una conexión).
+ * Los tiempos están en milisegundos.
+ */
+public interface MetricaOperacionMXBean {
+
+    String getNombre();
+
+    long getLlamadas();
+
+    long getErrores();
+
+    double getPromedioMs();
+
+    double getP50Ms();
+
+    double getP95Ms();
+
+    double getP99Ms();
+
+    double getMaximoMs();
+}
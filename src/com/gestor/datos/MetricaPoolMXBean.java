@@ -0,0 +1,31 @@
+package com.gestor.datos;
+
+/**
+ * Vista JMX del pool de conexiones (ver EstadisticasPool).
+ * El histograma del tiempo de obtención está en la operación "ConexionDB.conectar".
+ */
+public interface MetricaPoolMXBean {
+
+    int getTamanoMaximo();
+
+    int getConexionesTotales();
+
+    int getConexionesActivas();
+
+    int getConexionesLibres();
+
+    int getHilosEsperando();
+
+    /** Conexiones activas / tamaño máximo, entre 0 y 1. */
+    double getUso();
+
+    long getPrestamosTotales();
+
+    long getTimeouts();
+
+    long getFugasDetectadas();
+
+    double getEsperaPromedioMs();
+
+    double getEsperaMaximaMs();
+}
@@ -0,0 +1,149 @@
+package com.gestor.datos;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Registro central de métricas de la capa de datos.
+ *
+ * - Cada método público de los DAO tiene su MetricaOperacion (llamadas, errores
+ *   y percentiles de latencia); "ConexionDB.conectar" mide cuánto se tarda en
+ *   obtener una conexión del pool.
+ * - El pool y los cachés se publican con sus propios contadores.
+ *
+ * Todo se expone como MBeans bajo el dominio "com.gestor" (se ve con jconsole o
+ * VisualVM) y además se vuelca periódicamente a la salida estándar.
+ * El período se ajusta con -Dgestor.metricas.volcadoSeg (0 = sin volcado; por defecto 300).
+ */
+public final class Metricas {
+
+    private static final String DOMINIO = "com.gestor";
+    private static final long PERIODO_VOLCADO_SEG = Long.getLong("gestor.metricas.volcadoSeg", 300L);
+
+    // Ordenados por nombre para que el volcado sea legible
+    private static final Map<String, MetricaOperacion> OPERACIONES = new ConcurrentSkipListMap<>();
+    private static final Map<String, MetricaCache> CACHES = new ConcurrentHashMap<>();
+    private static volatile MetricaPool pool = null;
+
+    static {
+        if (PERIODO_VOLCADO_SEG > 0) {
+            ScheduledExecutorService volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metricas-volcado");
+                t.setDaemon(true);
+                return t;
+            });
+            volcador.scheduleAtFixedRate(Metricas::volcar, PERIODO_VOLCADO_SEG, PERIODO_VOLCADO_SEG, TimeUnit.SECONDS);
+        }
+    }
+
+    private Metricas() {}
+
+    /**
+     * Devuelve (creándola y publicándola la primera vez) la métrica de una operación.
+     * Se guarda en un campo static final del DAO: registrar una llamada no busca en el mapa.
+     * @param nombre "Clase.metodo", ej. "ClienteDAO.buscar"
+     */
+    static MetricaOperacion operacion(String nombre) {
+        return OPERACIONES.computeIfAbsent(nombre, n -> {
+            MetricaOperacion m = new MetricaOperacion(n);
+            publicar("type=Operacion,name=" + n, m, MetricaOperacionMXBean.class);
+            return m;
+        });
+    }
+
+    /**
+     * Publica los contadores de un caché.
+     */
+    static void registrarCache(MetricaCache cache, String nombre) {
+        if (CACHES.putIfAbsent(nombre, cache) == null) {
+            publicar("type=Cache,name=" + nombre, cache, MetricaCacheMXBean.class);
+        }
+    }
+
+    /**
+     * Publica las estadísticas del pool de conexiones.
+     */
+    static void registrarPool(Supplier<EstadisticasPool> estadisticas) {
+        MetricaPool m = new MetricaPool(estadisticas);
+        pool = m;
+        publicar("type=Pool,name=ConexionDB", m, MetricaPoolMXBean.class);
+    }
+
+    /**
+     * Resumen legible de todas las métricas (lo mismo que se vuelca periódicamente).
+     */
+    public static String resumen() {
+        StringBuilder sb = new StringBuilder("---- Métricas de la capa de datos ----");
+        for (MetricaOperacion m : OPERACIONES.values()) {
+            if (m.getLlamadas() > 0) {
+                sb.append(System.lineSeparator()).append(m);
+            }
+        }
+        MetricaPool p = pool;
+        if (p != null) {
+            sb.append(System.lineSeparator()).append("Pool: ").append(p.estadisticas.get());
+        }
+        for (MetricaCache c : CACHES.values()) {
+            sb.append(System.lineSeparator()).append(c);
+        }
+        return sb.toString();
+    }
+
+    private static void volcar() {
+        try {
+            System.out.println(resumen());
+        } catch (RuntimeException e) {
+            // Que un error al volcar no cancele las ejecuciones siguientes
+            System.err.println("Error al volcar las métricas: " + e);
+        }
+    }
+
+    private static <T> void publicar(String claves, T bean, Class<T> interfaz) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nombre = new ObjectName(DOMINIO + ":" + claves);
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(new StandardMBean(bean, interfaz, true), nombre);
+            }
+        } catch (JMException | RuntimeException e) {
+            // Sin JMX la aplicación sigue funcionando; solo se pierde esa vista
+            System.err.println("No se pudo publicar la métrica '" + claves + "' por JMX: " + e.getMessage());
+        }
+    }
+
+    /** Adapta EstadisticasPool (una foto) a atributos JMX que se leen en el momento. */
+    private static final class MetricaPool implements MetricaPoolMXBean {
+        private final Supplier<EstadisticasPool> estadisticas;
+
+        MetricaPool(Supplier<EstadisticasPool> estadisticas) {
+            this.estadisticas = estadisticas;
+        }
+
+        @Override public int getTamanoMaximo() { return estadisticas.get().getTamanoMaximo(); }
+        @Override public int getConexionesTotales() { return estadisticas.get().getConexionesTotales(); }
+        @Override public int getConexionesActivas() { return estadisticas.get().getConexionesActivas(); }
+        @Override public int getConexionesLibres() { return estadisticas.get().getConexionesLibres(); }
+        @Override public int getHilosEsperando() { return estadisticas.get().getHilosEsperando(); }
+        @Override public long getPrestamosTotales() { return estadisticas.get().getPrestamosTotales(); }
+        @Override public long getTimeouts() { return estadisticas.get().getTimeouts(); }
+        @Override public long getFugasDetectadas() { return estadisticas.get().getFugasDetectadas(); }
+        @Override public double getEsperaPromedioMs() { return estadisticas.get().getEsperaPromedioMs(); }
+        @Override public double getEsperaMaximaMs() { return estadisticas.get().getEsperaMaximaMs(); }
+
+        @Override
+        public double getUso() {
+            EstadisticasPool e = estadisticas.get();
+            return e.getTamanoMaximo() == 0 ? 0.0 : (double) e.getConexionesActivas() / e.getTamanoMaximo();
+        }
+    }
+}
@@ -0,0 +1,304 @@
+package com.gestor.datos;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Migraciones versionadas del esquema de la base de datos.
+ *
+ * Cada migración es un script 'migraciones/V<n>.sql' del classpath (junto a esta clase),
+ * numerados desde 1 sin huecos; el primer comentario del script es su descripción.
+ * La tabla schema_version guarda las aplicadas con el checksum (CRC32) de su script.
+ *
+ * Con el esquema al día el arranque hace UNA consulta (las filas de schema_version).
+ * Si hay pendientes se toma un bloqueo con nombre (GET_LOCK), así dos terminales
+ * que arrancan juntas no aplican la misma migración dos veces.
+ *
+ * MySQL no tiene CREATE INDEX / ADD COLUMN IF NOT EXISTS: los errores 1050, 1060 y 1061
+ * (tabla, columna o índice que ya existe) y 1091 (clave que ya se borró) se toleran.
+ * Así las bases creadas con el viejo 'schema.sql' se ponen al día sin tocar nada.
+ */
+final class MigradorEsquema {
+
+    static final String BASE = "gestor_deportivo";
+
+    private static final String CARPETA = "migraciones/";
+    private static final String BLOQUEO = BASE + ".migraciones";
+    private static final int ESPERA_BLOQUEO_SEG = 60;
+
+    // 1050: la tabla ya existe, 1060: columna duplicada, 1061: índice duplicado,
+    // 1091: la clave a borrar no existe (DROP FOREIGN KEY / DROP INDEX repetido)
+    private static final Set<Integer> ERRORES_TOLERADOS = Set.of(1050, 1060, 1061, 1091);
+    // 1049: la base no existe, 1146: la tabla no existe (primer arranque)
+    private static final Set<Integer> ERRORES_SIN_ESQUEMA = Set.of(1049, 1146);
+
+    private static final String SQL_VERSIONES = "SELECT version, checksum FROM " + BASE + ".schema_version";
+    private static final String SQL_CREAR_VERSIONES =
+            "CREATE TABLE IF NOT EXISTS `schema_version` ("
+            + "  `version` int(11) NOT NULL,"
+            + "  `descripcion` varchar(200) NOT NULL,"
+            + "  `checksum` bigint(20) NOT NULL,"
+            + "  `aplicada_en` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,"
+            + "  `duracion_ms` int(11) NOT NULL,"
+            + "  PRIMARY KEY (`version`)"
+            + ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci";
+    private static final String SQL_REGISTRAR =
+            "INSERT INTO schema_version (version, descripcion, checksum, duracion_ms) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Un script de migración ya leído.
+     */
+    static final class Migracion {
+        final int version;
+        final String descripcion;
+        final String script;
+        final long checksum;
+
+        Migracion(int version, String descripcion, String script, long checksum) {
+            this.version = version;
+            this.descripcion = descripcion;
+            this.script = script;
+            this.checksum = checksum;
+        }
+    }
+
+    private MigradorEsquema() {}
+
+    /**
+     * Pone el esquema al día.
+     *
+     * @param cn Una conexión al SERVIDOR (la base puede no existir todavía)
+     * @return La cantidad de migraciones aplicadas (0 si ya estaba al día)
+     * @throws SQLException si falla una migración o si una ya aplicada cambió
+     * @throws IOException si no se pueden leer los scripts
+     */
+    static int migrar(Connection cn) throws SQLException, IOException {
+        List<Migracion> migraciones = cargarMigraciones();
+
+        // Camino rápido: una consulta y la comparación de checksums en memoria
+        Map<Integer, Long> aplicadas = leerAplicadas(cn);
+        if (aplicadas != null && pendientes(migraciones, aplicadas).isEmpty()) {
+            return 0;
+        }
+
+        try (Statement st = cn.createStatement()) {
+            st.execute("CREATE DATABASE IF NOT EXISTS " + BASE);
+        }
+        cn.setCatalog(BASE);
+
+        tomarBloqueo(cn);
+        try {
+            try (Statement st = cn.createStatement()) {
+                st.execute(SQL_CREAR_VERSIONES);
+            }
+            // Otra terminal pudo aplicar algunas mientras se esperaba el bloqueo
+            List<Migracion> pendientes = pendientes(migraciones, leerAplicadas(cn));
+            for (Migracion m : pendientes) {
+                aplicar(cn, m);
+            }
+            return pendientes.size();
+        } finally {
+            liberarBloqueo(cn);
+        }
+    }
+
+    /**
+     * Lee los scripts V1.sql, V2.sql, ... hasta el primero que falte.
+     */
+    static List<Migracion> cargarMigraciones() throws IOException {
+        List<Migracion> migraciones = new ArrayList<>();
+        for (int version = 1; ; version++) {
+            String script;
+            try (InputStream in = MigradorEsquema.class.getResourceAsStream(CARPETA + "V" + version + ".sql")) {
+                if (in == null) {
+                    break;
+                }
+                // Fin de línea normalizado: el checksum no cambia si el repositorio se clona en Windows
+                script = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace("\r\n", "\n");
+            }
+            CRC32 crc = new CRC32();
+            crc.update(script.getBytes(StandardCharsets.UTF_8));
+            migraciones.add(new Migracion(version, descripcionDe(script, version), script, crc.getValue()));
+        }
+        if (migraciones.isEmpty()) {
+            throw new IOException("No se encontraron migraciones en " + CARPETA);
+        }
+        return migraciones;
+    }
+
+    /**
+     * Versión -> checksum de las migraciones aplicadas, o null si todavía no hay esquema.
+     */
+    private static Map<Integer, Long> leerAplicadas(Connection cn) throws SQLException {
+        Map<Integer, Long> aplicadas = new HashMap<>();
+        try (Statement st = cn.createStatement();
+             ResultSet rs = st.executeQuery(SQL_VERSIONES)) {
+            while (rs.next()) {
+                aplicadas.put(rs.getInt("version"), rs.getLong("checksum"));
+            }
+        } catch (SQLException e) {
+            if (ERRORES_SIN_ESQUEMA.contains(e.getErrorCode())) {
+                return null;
+            }
+            throw e;
+        }
+        return aplicadas;
+    }
+
+    /**
+     * Las migraciones que faltan aplicar, en orden.
+     * @throws SQLException si el script de una migración ya aplicada cambió
+     */
+    private static List<Migracion> pendientes(List<Migracion> migraciones, Map<Integer, Long> aplicadas) throws SQLException {
+        List<Migracion> pendientes = new ArrayList<>();
+        for (Migracion m : migraciones) {
+            Long checksum = (aplicadas != null) ? aplicadas.get(m.version) : null;
+            if (checksum == null) {
+                pendientes.add(m);
+            } else if (checksum != m.checksum) {
+                throw new SQLException("La migración V" + m.version + " (" + m.descripcion + ") cambió después de aplicarse "
+                        + "(checksum " + checksum + " en la BD, " + m.checksum + " en el script). "
+                        + "Los cambios de esquema van en una migración nueva.");
+            }
+        }
+        return pendientes;
+    }
+
+    private static void aplicar(Connection cn, Migracion m) throws SQLException {
+        System.out.println("Aplicando migración V" + m.version + ": " + m.descripcion + "...");
+        long inicio = System.currentTimeMillis();
+
+        // DDL en MySQL no es transaccional: si una sentencia falla, la migración no queda
+        // registrada y se reintenta entera en el próximo arranque (de ahí los errores tolerados).
+        try (Statement st = cn.createStatement()) {
+            for (String sentencia : dividirSentencias(m.script)) {
+                try {
+                    st.execute(sentencia);
+                } catch (SQLException e) {
+                    if (!ERRORES_TOLERADOS.contains(e.getErrorCode())) {
+                        throw new SQLException("Falló la migración V" + m.version + ": " + e.getMessage(),
+                                e.getSQLState(), e.getErrorCode(), e);
+                    }
+                    System.out.println("  (ya aplicado) " + e.getMessage());
+                }
+            }
+        }
+
+        try (PreparedStatement ps = cn.prepareStatement(SQL_REGISTRAR)) {
+            ps.setInt(1, m.version);
+            ps.setString(2, m.descripcion);
+            ps.setLong(3, m.checksum);
+            ps.setInt(4, (int) (System.currentTimeMillis() - inicio));
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Separa un script en sentencias por ';', ignorando los que aparecen dentro de
+     * comillas o de comentarios (-- , # y bloques).
+     */
+    static List<String> dividirSentencias(String script) {
+        List<String> sentencias = new ArrayList<>();
+        StringBuilder actual = new StringBuilder();
+        int n = script.length();
+        int i = 0;
+        while (i < n) {
+            char c = script.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                // Literal o identificador: se copia entero (con escapes \ y comillas dobladas)
+                int fin = i + 1;
+                while (fin < n) {
+                    char d = script.charAt(fin);
+                    if (d == '\\' && c != '`') {
+                        fin += 2;
+                    } else if (d == c) {
+                        if (fin + 1 < n && script.charAt(fin + 1) == c) {
+                            fin += 2;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        fin++;
+                    }
+                }
+                fin = Math.min(fin + 1, n);
+                actual.append(script, i, fin);
+                i = fin;
+            } else if (c == '#' || (c == '-' && script.startsWith("--", i)
+                    && (i + 2 == n || Character.isWhitespace(script.charAt(i + 2))))) {
+                int fin = script.indexOf('\n', i);
+                i = (fin < 0) ? n : fin;
+            } else if (c == '/' && script.startsWith("/*", i)) {
+                int fin = script.indexOf("*/", i + 2);
+                i = (fin < 0) ? n : fin + 2;
+                actual.append(' ');
+            } else if (c == ';') {
+                agregarSiNoVacia(sentencias, actual);
+                i++;
+            } else {
+                actual.append(c);
+                i++;
+            }
+        }
+        agregarSiNoVacia(sentencias, actual);
+        return sentencias;
+    }
+
+    private static void agregarSiNoVacia(List<String> sentencias, StringBuilder actual) {
+        String sentencia = actual.toString().trim();
+        if (!sentencia.isEmpty()) {
+            sentencias.add(sentencia);
+        }
+        actual.setLength(0);
+    }
+
+    /** El texto del primer comentario '--' del script. */
+    private static String descripcionDe(String script, int version) {
+        for (String linea : script.split("\n")) {
+            String l = linea.trim();
+            if (l.startsWith("--")) {
+                String descripcion = l.substring(2).trim();
+                return descripcion.length() > 200 ? descripcion.substring(0, 200) : descripcion;
+            }
+            if (!l.isEmpty()) {
+                break;
+            }
+        }
+        return "V" + version;
+    }
+
+    private static void tomarBloqueo(Connection cn) throws SQLException {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, BLOQUEO);
+            ps.setInt(2, ESPERA_BLOQUEO_SEG);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) {
+                    throw new SQLException("Otra terminal está migrando el esquema; no se obtuvo el bloqueo en "
+                            + ESPERA_BLOQUEO_SEG + " s.");
+                }
+            }
+        }
+    }
+
+    private static void liberarBloqueo(Connection cn) {
+        try (PreparedStatement ps = cn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, BLOQUEO);
+            ps.executeQuery().close();
+        } catch (SQLException e) {
+            // Se libera igual al cerrar la conexión
+            System.err.println("Error al liberar el bloqueo de migraciones: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.gestor.datos;
+
+/**
+ * Indica que una operación de un DAO falló (el DAO devolvió -1 o false).
+ * La usa DAOAsincrono para completar el CompletableFuture con error en lugar
+ * de entregar el valor centinela. El detalle del error ya quedó en System.err.
+ */
+public class OperacionFallidaException extends RuntimeException {
+
+    public OperacionFallidaException(String mensaje) {
+        super(mensaje);
+    }
+}
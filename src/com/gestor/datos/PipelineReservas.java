@@ -0,0 +1,272 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.ReservaSimple;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pipeline de reservas simples con "group commit" por cancha.
+ *
+ * Las solicitudes se encolan por cancha. Un único hilo (virtual) por cancha
+ * drena su cola de a lotes: mientras un lote está en la BD, las solicitudes
+ * nuevas se acumulan y viajan todas juntas en el lote siguiente.
+ *
+ * Cada lote es UNA transacción:
+ *   1. SELECT ... FOR UPDATE sobre la fila de la cancha (serializa a todos los
+ *      que escriben reservas en esa cancha, también desde otras terminales),
+ *   2. lee la ocupación actual de los días involucrados (solo esos, ver armarVentanas),
+ *   3. valida el lote en memoria, en orden de llegada (las aceptadas ocupan su
+ *      horario para las siguientes del mismo lote),
+ *   4. inserta las aceptadas con JDBC batch y confirma.
+ * Así dos solicitudes por el mismo horario nunca pueden quedar ambas guardadas.
+ * En el paso 1 también se bloquean (en modo compartido) los clientes del lote: la tabla
+ * reserva está particionada y no tiene claves foráneas (ver migraciones/V7.sql).
+ *
+ * La validación de horario laboral se hace antes de encolar (ver ReservaDAO).
+ */
+class PipelineReservas {
+
+    // Un lote completo: bloqueo, lectura de ocupación, inserción y commit
+    private static final MetricaOperacion M_LOTE = Metricas.operacion("PipelineReservas.procesarLote");
+
+    private static final String SQL_BLOQUEAR_CANCHA = "SELECT id_cancha FROM cancha WHERE id_cancha = ? FOR UPDATE";
+    // Compartido: varias transacciones pueden reservar para el mismo cliente, pero nadie lo borra mientras tanto
+    private static final String SQL_BLOQUEAR_CLIENTE = "SELECT id FROM cliente WHERE id = ? LOCK IN SHARE MODE";
+
+    private final IndiceOcupacion ocupacion;
+    private final int tamanoMaximoLote;
+    private final ConcurrentHashMap<Integer, ColaCancha> colas = new ConcurrentHashMap<>();
+    private final ExecutorService ejecutor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("pipeline-reservas-", 0).factory());
+
+    PipelineReservas(IndiceOcupacion ocupacion, int tamanoMaximoLote) {
+        this.ocupacion = ocupacion;
+        this.tamanoMaximoLote = Math.max(1, tamanoMaximoLote);
+    }
+
+    /**
+     * Encola una reserva simple. El future se completa cuando su lote se confirma
+     * (o se rechaza); nunca se completa con excepción.
+     */
+    CompletableFuture<ResultadoReserva> encolar(ReservaSimple reserva) {
+        Solicitud solicitud = new Solicitud(reserva);
+        int idCancha = reserva.getCancha().getIdCancha();
+        ColaCancha cola = colas.computeIfAbsent(idCancha, ColaCancha::new);
+        cola.pendientes.add(solicitud);
+        if (cola.enProceso.compareAndSet(false, true)) {
+            ejecutor.execute(() -> drenar(cola));
+        }
+        return solicitud.resultado;
+    }
+
+    /**
+     * Bloquea la fila de la cancha hasta el fin de la transacción.
+     * @return false si la cancha no existe
+     */
+    static boolean bloquearCancha(Connection cn, int idCancha) throws SQLException {
+        return EjecutorJdbc.consultarUno(cn, SQL_BLOQUEAR_CANCHA, rs -> Boolean.TRUE, idCancha) != null;
+    }
+
+    /**
+     * Bloquea (en modo compartido) la fila del cliente hasta el fin de la transacción,
+     * así no se puede eliminar mientras se le insertan reservas (ver ClienteDAO.eliminarCliente).
+     * @return false si el cliente no existe
+     */
+    static boolean bloquearCliente(Connection cn, int idCliente) throws SQLException {
+        return EjecutorJdbc.consultarUno(cn, SQL_BLOQUEAR_CLIENTE, rs -> Boolean.TRUE, idCliente) != null;
+    }
+
+    // -----------------------------------------------------------
+    // Procesamiento
+    // -----------------------------------------------------------
+
+    private void drenar(ColaCancha cola) {
+        while (true) {
+            List<Solicitud> lote = new ArrayList<>();
+            Solicitud s;
+            while (lote.size() < tamanoMaximoLote && (s = cola.pendientes.poll()) != null) {
+                lote.add(s);
+            }
+            if (lote.isEmpty()) {
+                cola.enProceso.set(false);
+                // Alguien pudo encolar entre el poll() vacío y el set(false)
+                if (cola.pendientes.isEmpty() || !cola.enProceso.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            long inicioNs = System.nanoTime();
+            try {
+                procesarLote(cola.idCancha, lote);
+            } catch (RuntimeException e) {
+                M_LOTE.error();
+                System.err.println("Error inesperado en el pipeline de reservas: " + e);
+            } finally {
+                M_LOTE.registrar(inicioNs);
+                // Ninguna solicitud queda sin respuesta
+                for (Solicitud pendiente : lote) {
+                    pendiente.resultado.complete(ResultadoReserva.rechazada("Error inesperado al procesar la reserva."));
+                }
+            }
+        }
+    }
+
+    private void procesarLote(int idCancha, List<Solicitud> lote) {
+        // Solo se leen los días que toca el lote, agrupados en ventanas de días seguidos:
+        // una reserva para la semana próxima y otra para el año que viene son dos lecturas
+        // cortas, no un año entero.
+        TreeMap<LocalDate, Ventana> ventanas = armarVentanas(lote);
+
+        List<Solicitud> aceptadas = new ArrayList<>();
+        List<ReservaSimple> aInsertar = new ArrayList<>();
+        long version = ocupacion.versionActual();
+
+        boolean canchaExiste;
+        try {
+            canchaExiste = EjecutorJdbc.enTransaccion(cn -> {
+                if (!bloquearCancha(cn, idCancha)) {
+                    return false; // No se escribió nada: confirmar solo libera el bloqueo
+                }
+                for (Ventana v : ventanas.values()) {
+                    v.bits = ReservaDAO.leerOcupacion(cn, idCancha, v.desde, v.hastaExclusivo);
+                }
+
+                Map<Integer, Boolean> clientes = new HashMap<>(); // id -> existe (se bloquea una vez por lote)
+                for (Solicitud s : lote) {
+                    LocalDateTime inicio = s.reserva.getFechaHoraInicio();
+                    int minutos = s.reserva.getDuracionMinutos();
+                    Ventana v = ventanas.floorEntry(inicio.toLocalDate()).getValue();
+                    int idCliente = s.reserva.getCliente().getIdCliente();
+                    Boolean clienteExiste = clientes.get(idCliente);
+                    if (clienteExiste == null) {
+                        clienteExiste = bloquearCliente(cn, idCliente);
+                        clientes.put(idCliente, clienteExiste);
+                    }
+                    if (!clienteExiste) {
+                        s.resultado.complete(ResultadoReserva.rechazada("El cliente " + idCliente + " no existe."));
+                    } else if (IndiceOcupacion.estaLibreEn(v.bits, v.desde, inicio, minutos)) {
+                        IndiceOcupacion.marcarEn(v.bits, v.desde, inicio, minutos);
+                        aceptadas.add(s);
+                        aInsertar.add(s.reserva);
+                    } else {
+                        s.resultado.complete(ResultadoReserva.rechazada("Conflicto de disponibilidad en " + inicio + "."));
+                    }
+                }
+
+                if (!aInsertar.isEmpty()) {
+                    ReservaDAO.insertarEnLote(cn, aInsertar);
+                }
+                return true;
+            });
+        } catch (SQLException e) {
+            // enTransaccion ya hizo rollback
+            M_LOTE.error();
+            EjecutorJdbc.informarError("Error en lote de reservas de la cancha " + idCancha + ", se hizo rollback", e);
+            for (ReservaSimple r : aInsertar) {
+                r.setIdReserva(0); // Los IDs asignados antes del rollback no existen
+            }
+            rechazarTodas(lote, "Error de base de datos: " + e.getMessage());
+            return;
+        }
+        if (!canchaExiste) {
+            rechazarTodas(lote, "La cancha " + idCancha + " no existe.");
+            return;
+        }
+
+        // Los bits leídos bajo el bloqueo (más las aceptadas) son la ocupación vigente:
+        // se instalan en el índice compartido (si hubo cambios mientras tanto, quedan vencidos).
+        // El primer día de cada ventana se leyó solo por el desborde de medianoche: no se instala.
+        for (Ventana v : ventanas.values()) {
+            for (int dia = 1; dia < v.bits.length; dia++) {
+                ocupacion.cargarDia(idCancha, v.desde.plusDays(dia), v.bits[dia], version);
+            }
+        }
+        for (Solicitud s : aceptadas) {
+            s.resultado.complete(ResultadoReserva.aceptada(s.reserva.getIdReserva()));
+        }
+    }
+
+    /**
+     * Agrupa los días que necesita cada solicitud (el anterior al inicio, por las reservas
+     * que cruzan la medianoche, hasta el día en que termina) en ventanas de días seguidos.
+     * @return Las ventanas por su primer día (no se superponen)
+     */
+    private static TreeMap<LocalDate, Ventana> armarVentanas(List<Solicitud> lote) {
+        List<Ventana> necesarias = new ArrayList<>();
+        for (Solicitud s : lote) {
+            necesarias.add(new Ventana(s.reserva.getFechaHoraInicio().toLocalDate().minusDays(1),
+                    s.reserva.getFechaHoraFin().toLocalDate().plusDays(1)));
+        }
+        necesarias.sort(Comparator.comparing((Ventana v) -> v.desde));
+
+        TreeMap<LocalDate, Ventana> ventanas = new TreeMap<>();
+        Ventana actual = null;
+        for (Ventana v : necesarias) {
+            if (actual != null && !v.desde.isAfter(actual.hastaExclusivo)) {
+                if (v.hastaExclusivo.isAfter(actual.hastaExclusivo)) {
+                    actual.hastaExclusivo = v.hastaExclusivo;
+                }
+            } else {
+                actual = v;
+                ventanas.put(v.desde, v);
+            }
+        }
+        return ventanas;
+    }
+
+    private static void rechazarTodas(List<Solicitud> lote, String motivo) {
+        for (Solicitud s : lote) {
+            s.resultado.complete(ResultadoReserva.rechazada(motivo));
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Clases internas
+    // -----------------------------------------------------------
+
+    /** Cola de solicitudes de una cancha + marca de "hay un hilo drenándola". */
+    private static final class ColaCancha {
+        final int idCancha;
+        final ConcurrentLinkedQueue<Solicitud> pendientes = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean enProceso = new AtomicBoolean(false);
+
+        ColaCancha(int idCancha) {
+            this.idCancha = idCancha;
+        }
+    }
+
+    /** Días seguidos [desde, hastaExclusivo) que se leen juntos; bits[0] = desde. */
+    private static final class Ventana {
+        final LocalDate desde;
+        LocalDate hastaExclusivo;
+        long[][] bits;
+
+        Ventana(LocalDate desde, LocalDate hastaExclusivo) {
+            this.desde = desde;
+            this.hastaExclusivo = hastaExclusivo;
+        }
+    }
+
+    private static final class Solicitud {
+        final ReservaSimple reserva;
+        final CompletableFuture<ResultadoReserva> resultado = new CompletableFuture<>();
+
+        Solicitud(ReservaSimple reserva) {
+            this.reserva = reserva;
+        }
+    }
+}
@@ -0,0 +1,377 @@
+package com.gestor.datos;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Mantiene conexiones físicas abiertas y entrega a los DAO un "envoltorio"
+ * cuyo close() devuelve la conexión al pool en lugar de cerrarla.
+ * Incluye pre-calentamiento, validación al prestar, espera máxima y
+ * detección de fugas (conexiones prestadas que nunca se devuelven).
+ * Con -Dgestor.pool.trazaFugas=true cada préstamo guarda su pila de llamadas, así el
+ * aviso de fuga muestra quién pidió la conexión (cuesta un Throwable por préstamo).
+ * Las sentencias preparadas se reutilizan por conexión física (CacheSentencias)
+ * y todas se miden con TrazaSql.
+ */
+class PoolConexiones {
+
+    static final boolean TRAZA_FUGAS = Boolean.getBoolean("gestor.pool.trazaFugas");
+
+    private final String url;
+    private final String usuario;
+    private final String password;
+
+    private final int tamanoMinimo;
+    private final int tamanoMaximo;
+    private final long esperaMaximaMs;
+    private final long umbralValidacionMs; // Si la conexión estuvo inactiva menos que esto, no se valida
+    private final long umbralFugaMs;
+
+    // Permisos = cantidad máxima de conexiones prestadas a la vez
+    private final Semaphore permisos;
+    // Conexiones físicas libres (LIFO: la más reciente primero, suele estar "caliente")
+    private final LinkedBlockingDeque<ConexionFisica> libres = new LinkedBlockingDeque<>();
+    // Conexiones prestadas actualmente (para detección de fugas)
+    private final Set<Prestamo> prestadas = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService vigilante;
+    private volatile boolean cerrado = false;
+
+    // ---- Estadísticas ----
+    private final AtomicInteger totalFisicas = new AtomicInteger();
+    private final AtomicInteger esperando = new AtomicInteger();
+    private final AtomicLong prestamosTotales = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final AtomicLong fugasDetectadas = new AtomicLong();
+    private final AtomicLong esperaAcumuladaNs = new AtomicLong();
+    private final AtomicLong esperaMaximaNs = new AtomicLong();
+
+    PoolConexiones(String url, String usuario, String password,
+                   int tamanoMinimo, int tamanoMaximo, long esperaMaximaMs,
+                   long umbralValidacionMs, long umbralFugaMs) {
+        this.url = url;
+        this.usuario = usuario;
+        this.password = password;
+        this.tamanoMaximo = Math.max(1, tamanoMaximo);
+        this.tamanoMinimo = Math.max(0, Math.min(tamanoMinimo, this.tamanoMaximo));
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.umbralValidacionMs = umbralValidacionMs;
+        this.umbralFugaMs = umbralFugaMs;
+        this.permisos = new Semaphore(this.tamanoMaximo, true);
+
+        this.vigilante = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-conexiones-vigilante");
+            t.setDaemon(true);
+            return t;
+        });
+        if (umbralFugaMs > 0) {
+            long periodo = Math.max(1000, umbralFugaMs / 2);
+            vigilante.scheduleAtFixedRate(this::detectarFugas, periodo, periodo, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Abre las conexiones mínimas por adelantado para que el primer clic
+     * no pague el handshake TCP + autenticación.
+     * @return La cantidad de conexiones abiertas.
+     */
+    int precalentar() {
+        int abiertas = 0;
+        while (totalFisicas.get() < tamanoMinimo) {
+            try {
+                libres.offerFirst(abrirFisica());
+                abiertas++;
+            } catch (SQLException e) {
+                System.err.println("Error al precalentar el pool de conexiones: " + e.getMessage());
+                break;
+            }
+        }
+        return abiertas;
+    }
+
+    /**
+     * Presta una conexión. Espera como máximo 'esperaMaximaMs' a que se libere una.
+     * @return Un envoltorio de Connection; close() la devuelve al pool.
+     * @throws SQLException si se agota la espera o no se puede abrir la conexión.
+     */
+    Connection prestar() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado.");
+        }
+
+        long inicio = System.nanoTime();
+        esperando.incrementAndGet();
+        boolean obtenido;
+        try {
+            obtenido = permisos.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido esperando una conexión del pool.", e);
+        } finally {
+            esperando.decrementAndGet();
+        }
+        if (!obtenido) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Tiempo de espera agotado (" + esperaMaximaMs + " ms) para obtener una conexión. "
+                    + "Pool: " + obtenerEstadisticas());
+        }
+        long espera = System.nanoTime() - inicio;
+        esperaAcumuladaNs.addAndGet(espera);
+        esperaMaximaNs.accumulateAndGet(espera, Math::max);
+
+        try {
+            ConexionFisica fisica = obtenerFisicaValida();
+            prestamosTotales.incrementAndGet();
+            Prestamo prestamo = new Prestamo(fisica);
+            prestadas.add(prestamo);
+            return prestamo.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Toma una conexión libre y la valida (si estuvo inactiva suficiente tiempo).
+     * Si no hay libres, abre una nueva. El semáforo garantiza el límite máximo.
+     */
+    private ConexionFisica obtenerFisicaValida() throws SQLException {
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            if (esValida(fisica)) {
+                return fisica;
+            }
+            descartar(fisica);
+        }
+        return abrirFisica();
+    }
+
+    private boolean esValida(ConexionFisica fisica) {
+        long inactiva = System.currentTimeMillis() - fisica.ultimoUso;
+        if (inactiva < umbralValidacionMs) {
+            return true; // Se usó hace muy poco, evitamos un ping innecesario
+        }
+        try {
+            return fisica.conexion.isValid(2);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private ConexionFisica abrirFisica() throws SQLException {
+        Connection cn = DriverManager.getConnection(url, usuario, password);
+        totalFisicas.incrementAndGet();
+        creadas.incrementAndGet();
+        return new ConexionFisica(cn);
+    }
+
+    private void descartar(ConexionFisica fisica) {
+        totalFisicas.decrementAndGet();
+        descartadas.incrementAndGet();
+        fisica.sentencias.cerrar();
+        try {
+            fisica.conexion.close();
+        } catch (SQLException ignored) {
+            // La conexión ya estaba rota, no hay nada que hacer
+        }
+    }
+
+    /**
+     * Devuelve una conexión física al pool, restaurando su estado por defecto.
+     */
+    private void devolver(Prestamo prestamo) {
+        prestadas.remove(prestamo);
+        ConexionFisica fisica = prestamo.fisica;
+        try {
+            fisica.sentencias.liberarTodas();
+            Connection cn = fisica.conexion;
+            if (cn.isClosed()) {
+                descartar(fisica);
+                return;
+            }
+            // Si el DAO dejó una transacción abierta, la deshacemos
+            if (!cn.getAutoCommit()) {
+                cn.rollback();
+                cn.setAutoCommit(true);
+            }
+            if (cn.isReadOnly()) {
+                cn.setReadOnly(false);
+            }
+            if (cerrado) {
+                descartar(fisica);
+                return;
+            }
+            fisica.ultimoUso = System.currentTimeMillis();
+            libres.offerFirst(fisica);
+        } catch (SQLException e) {
+            System.err.println("Conexión descartada al devolverla al pool: " + e.getMessage());
+            descartar(fisica);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Revisa las conexiones prestadas y avisa (una vez) por las que superan el umbral.
+     * Solo avisa: no recupera el permiso ni cierra la conexión. Un préstamo largo no es
+     * necesariamente una fuga (una exportación grande recorre su cursor durante minutos),
+     * y quitárselo le cortaría la conexión en uso o se la daría a otro hilo a la vez.
+     * El permiso vuelve cuando el dueño la cierra; si nunca la cierra, el pool queda
+     * con un permiso menos hasta reiniciar la aplicación.
+     */
+    private void detectarFugas() {
+        long ahora = System.currentTimeMillis();
+        for (Prestamo p : prestadas) {
+            if (!p.fugaReportada && ahora - p.desde > umbralFugaMs) {
+                p.fugaReportada = true;
+                fugasDetectadas.incrementAndGet();
+                System.err.println("Posible fuga de conexión: prestada hace " + (ahora - p.desde)
+                        + " ms al hilo '" + p.hilo + "' y todavía no fue devuelta."
+                        + (p.origen == null ? " (con -Dgestor.pool.trazaFugas=true se muestra desde dónde)" : ""));
+                if (p.origen != null) {
+                    p.origen.printStackTrace();
+                }
+            }
+        }
+    }
+
+    EstadisticasPool obtenerEstadisticas() {
+        long prestamos = prestamosTotales.get();
+        return new EstadisticasPool(
+                tamanoMinimo,
+                tamanoMaximo,
+                totalFisicas.get(),
+                prestadas.size(),
+                libres.size(),
+                esperando.get(),
+                prestamos,
+                timeouts.get(),
+                creadas.get(),
+                descartadas.get(),
+                fugasDetectadas.get(),
+                prestamos == 0 ? 0.0 : esperaAcumuladaNs.get() / 1_000_000.0 / prestamos,
+                esperaMaximaNs.get() / 1_000_000.0
+        );
+    }
+
+    /**
+     * Cierra todas las conexiones libres. Las prestadas se cierran al devolverse.
+     */
+    void cerrar() {
+        cerrado = true;
+        vigilante.shutdownNow();
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            descartar(fisica);
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Clases internas
+    // -----------------------------------------------------------
+
+    /** Conexión física real + momento de su último uso + sus sentencias preparadas. */
+    private static final class ConexionFisica {
+        final Connection conexion;
+        final CacheSentencias sentencias = new CacheSentencias();
+        volatile long ultimoUso = System.currentTimeMillis();
+
+        ConexionFisica(Connection conexion) {
+            this.conexion = conexion;
+        }
+    }
+
+    private static boolean esPrepararReutilizable(Method metodo, Object[] args) {
+        if (!"prepareStatement".equals(metodo.getName()) || args == null) {
+            return false;
+        }
+        Class<?>[] tipos = metodo.getParameterTypes();
+        return (tipos.length == 1 && tipos[0] == String.class)
+                || (tipos.length == 2 && tipos[0] == String.class && tipos[1] == int.class);
+    }
+
+    /**
+     * Un préstamo concreto de una conexión física.
+     * El proxy intercepta close()/isClosed() y delega el resto a la conexión real.
+     */
+    private final class Prestamo implements InvocationHandler {
+        final ConexionFisica fisica;
+        final Connection proxy;
+        final long desde = System.currentTimeMillis();
+        final String hilo = Thread.currentThread().getName();
+        // Se captura al prestar para poder mostrar quién no devolvió la conexión (solo con TRAZA_FUGAS)
+        final Throwable origen = TRAZA_FUGAS ? new Throwable("Conexión prestada desde aquí") : null;
+        volatile boolean devuelto = false;
+        volatile boolean fugaReportada = false;
+
+        Prestamo(ConexionFisica fisica) {
+            this.fisica = fisica;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!devuelto) {
+                            devuelto = true;
+                            devolver(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelto || fisica.conexion.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "ConexionAgrupada[" + fisica.conexion + "]";
+                default:
+                    break;
+            }
+            if (devuelto) {
+                throw new SQLException("La conexión ya fue devuelta al pool.");
+            }
+            Object resultado;
+            if (esPrepararReutilizable(metodo, args)) {
+                // prepareStatement(sql) y prepareStatement(sql, claves): se reutilizan por conexión
+                int claves = (args.length == 2) ? (Integer) args[1] : -1;
+                resultado = fisica.sentencias.preparar(fisica.conexion, (String) args[0], claves);
+            } else {
+                try {
+                    resultado = metodo.invoke(fisica.conexion, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+            // Las sentencias salen envueltas para medirlas (ver TrazaSql)
+            Class<? extends Statement> interfaz = TrazaSql.interfazDe(metodo);
+            if (interfaz != null && resultado instanceof Statement) {
+                String sql = (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : null;
+                return TrazaSql.envolver((Statement) resultado, interfaz, sql, proxy);
+            }
+            return resultado;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.gestor.datos;
+
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Comando para recalcular la tabla resumen_diario desde las reservas (incluidas las archivadas
+ * y los turnos de las series).
+ *
+ * Uso (con el mismo classpath que la aplicación):
+ *   java com.gestor.datos.ReconstruirResumen                      todo
+ *   java com.gestor.datos.ReconstruirResumen 2026                 un año
+ *   java com.gestor.datos.ReconstruirResumen 2026-03              un mes
+ *   java com.gestor.datos.ReconstruirResumen 2026-03-01 2026-04-01  un rango [desde, hasta)
+ */
+public class ReconstruirResumen {
+
+    public static void main(String[] args) {
+        LocalDate desde = null;
+        LocalDate hasta = null;
+        try {
+            if (args.length == 1 && args[0].length() == 4) {
+                Year anio = Year.parse(args[0]);
+                desde = anio.atDay(1);
+                hasta = anio.plusYears(1).atDay(1);
+            } else if (args.length == 1) {
+                YearMonth mes = YearMonth.parse(args[0]);
+                desde = mes.atDay(1);
+                hasta = mes.plusMonths(1).atDay(1);
+            } else if (args.length == 2) {
+                desde = LocalDate.parse(args[0]);
+                hasta = LocalDate.parse(args[1]);
+            } else if (args.length > 2) {
+                System.err.println("Uso: ReconstruirResumen [AAAA | AAAA-MM | AAAA-MM-DD AAAA-MM-DD]");
+                System.exit(2);
+            }
+        } catch (DateTimeParseException e) {
+            System.err.println("Fecha inválida: " + e.getParsedString());
+            System.exit(2);
+        }
+
+        SetUpDB.verificarYCrearBD();
+        int filas = new ReporteDAO().reconstruirResumen(desde, hasta);
+        ConexionDB.cerrarPool();
+        if (filas < 0) {
+            System.exit(1);
+        }
+        System.out.println("Resumen diario reconstruido" + (desde != null ? " del " + desde + " al " + hasta + " (exclusivo)" : "")
+                + ": " + filas + " fila(s).");
+    }
+}
@@ -0,0 +1,162 @@
+package com.gestor.datos;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.Year;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reportes de uso y recaudación por mes o por año.
+ * Se responden solo con la tabla resumen_diario (una fila por cancha y día), que
+ * ReservaDAO mantiene al día en cada alta y baja: nunca se recorre la tabla reserva.
+ */
+public class ReporteDAO {
+
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_POR_CANCHA = Metricas.operacion("ReporteDAO.obtenerPorCancha");
+    private static final MetricaOperacion M_POR_DEPORTE = Metricas.operacion("ReporteDAO.obtenerPorDeporte");
+    private static final MetricaOperacion M_MENSUAL = Metricas.operacion("ReporteDAO.obtenerMensual");
+    private static final MetricaOperacion M_RECONSTRUIR = Metricas.operacion("ReporteDAO.reconstruirResumen");
+
+    private static final String SQL_SUMAS =
+            "SUM(r.minutos_reservados) AS minutos, SUM(r.cantidad_reservas) AS reservas, SUM(r.recaudacion) AS recaudacion "
+            + "FROM resumen_diario r ";
+    // Rango semiabierto sobre la PK / idx_resumen_fecha
+    private static final String SQL_RANGO = "WHERE r.fecha >= ? AND r.fecha < ? ";
+
+    private static final String SQL_POR_CANCHA =
+            "SELECT r.id_cancha, c.nombre, c.deporte, " + SQL_SUMAS
+            + "JOIN cancha c ON c.id_cancha = r.id_cancha " + SQL_RANGO
+            + "GROUP BY r.id_cancha, c.nombre, c.deporte ORDER BY c.nombre";
+    private static final String SQL_POR_DEPORTE =
+            "SELECT c.deporte, " + SQL_SUMAS
+            + "JOIN cancha c ON c.id_cancha = r.id_cancha " + SQL_RANGO
+            + "GROUP BY c.deporte ORDER BY c.deporte";
+    private static final String SQL_MENSUAL =
+            "SELECT YEAR(r.fecha) AS anio, MONTH(r.fecha) AS mes, " + SQL_SUMAS + SQL_RANGO
+            + "GROUP BY YEAR(r.fecha), MONTH(r.fecha) ORDER BY anio, mes";
+    private static final String SQL_MENSUAL_DEPORTE =
+            "SELECT YEAR(r.fecha) AS anio, MONTH(r.fecha) AS mes, " + SQL_SUMAS
+            + "JOIN cancha c ON c.id_cancha = r.id_cancha " + SQL_RANGO + "AND c.deporte = ? "
+            + "GROUP BY YEAR(r.fecha), MONTH(r.fecha) ORDER BY anio, mes";
+
+    /**
+     * Uso y recaudación de cada cancha en un mes.
+     * @return Una fila por cancha con reservas (vacía si hay error)
+     */
+    public List<ResumenUso> obtenerPorCancha(YearMonth mes) {
+        return obtenerPorCancha(mes.atDay(1), mes.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Uso y recaudación de cada cancha en un año.
+     * @return Una fila por cancha con reservas (vacía si hay error)
+     */
+    public List<ResumenUso> obtenerPorCancha(Year anio) {
+        return obtenerPorCancha(anio.atDay(1), anio.plusYears(1).atDay(1));
+    }
+
+    /**
+     * Uso y recaudación de cada deporte en un mes (ej. cuánto facturó pádel en marzo).
+     * @return Una fila por deporte con reservas (vacía si hay error)
+     */
+    public List<ResumenUso> obtenerPorDeporte(YearMonth mes) {
+        return obtenerPorDeporte(mes.atDay(1), mes.plusMonths(1).atDay(1));
+    }
+
+    /**
+     * Uso y recaudación de cada deporte en un año.
+     * @return Una fila por deporte con reservas (vacía si hay error)
+     */
+    public List<ResumenUso> obtenerPorDeporte(Year anio) {
+        return obtenerPorDeporte(anio.atDay(1), anio.plusYears(1).atDay(1));
+    }
+
+    /**
+     * Totales de cada mes de un año.
+     * @param deporte Solo las canchas de ese deporte, o null para todas
+     * @return Una fila por mes con reservas, en orden (vacía si hay error)
+     */
+    public List<ResumenUso> obtenerMensual(Year anio, String deporte) {
+        long inicioNs = System.nanoTime();
+        LocalDate desde = anio.atDay(1);
+        LocalDate hasta = anio.plusYears(1).atDay(1);
+        try {
+            EjecutorJdbc.MapeadorFila<ResumenUso> mapeador = rs -> mapear(rs, null, null, deporte,
+                    YearMonth.of(rs.getInt("anio"), rs.getInt("mes")));
+            return (deporte == null)
+                    ? EjecutorJdbc.consultar(SQL_MENSUAL, mapeador, desde, hasta)
+                    : EjecutorJdbc.consultar(SQL_MENSUAL_DEPORTE, mapeador, desde, hasta, deporte);
+        } catch (SQLException e) {
+            M_MENSUAL.error();
+            EjecutorJdbc.informarError("Error al obtener el resumen mensual", e);
+            return new ArrayList<>();
+        } finally {
+            M_MENSUAL.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Recalcula todo el resumen a partir de la tabla reserva (por ejemplo, después de
+     * cargar reservas a mano en la BD). Corre en una transacción.
+     * @return Filas (cancha x día) escritas, o -1 si hubo un error
+     */
+    public int reconstruirResumen() {
+        return reconstruirResumen(null, null);
+    }
+
+    /**
+     * Recalcula el resumen de [desde, hastaExclusivo) a partir de la tabla reserva.
+     * Corre en una transacción; con ambos null recalcula todo.
+     * @return Filas (cancha x día) escritas, o -1 si hubo un error
+     */
+    public int reconstruirResumen(LocalDate desde, LocalDate hastaExclusivo) {
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.enTransaccion(cn -> ResumenDiario.reconstruir(cn, desde, hastaExclusivo));
+        } catch (SQLException e) {
+            M_RECONSTRUIR.error();
+            EjecutorJdbc.informarError("Error al reconstruir el resumen diario", e);
+            return -1;
+        } finally {
+            M_RECONSTRUIR.registrar(inicioNs);
+        }
+    }
+
+    private List<ResumenUso> obtenerPorCancha(LocalDate desde, LocalDate hasta) {
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.consultar(SQL_POR_CANCHA, rs -> mapear(rs,
+                    rs.getInt("id_cancha"), rs.getString("nombre"), rs.getString("deporte"), null), desde, hasta);
+        } catch (SQLException e) {
+            M_POR_CANCHA.error();
+            EjecutorJdbc.informarError("Error al obtener el resumen por cancha", e);
+            return new ArrayList<>();
+        } finally {
+            M_POR_CANCHA.registrar(inicioNs);
+        }
+    }
+
+    private List<ResumenUso> obtenerPorDeporte(LocalDate desde, LocalDate hasta) {
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.consultar(SQL_POR_DEPORTE, rs -> mapear(rs,
+                    null, null, rs.getString("deporte"), null), desde, hasta);
+        } catch (SQLException e) {
+            M_POR_DEPORTE.error();
+            EjecutorJdbc.informarError("Error al obtener el resumen por deporte", e);
+            return new ArrayList<>();
+        } finally {
+            M_POR_DEPORTE.registrar(inicioNs);
+        }
+    }
+
+    private static ResumenUso mapear(ResultSet rs, Integer idCancha, String cancha, String deporte, YearMonth mes)
+            throws SQLException {
+        return new ResumenUso(idCancha, cancha, deporte, mes,
+                rs.getLong("minutos"), rs.getLong("reservas"), rs.getBigDecimal("recaudacion"));
+    }
+}
@@ -2,12 +2,13 @@ package com.gestor.datos;
 
 import com.gestor.negocio.Cliente;
 import com.gestor.negocio.Cancha;
+import com.gestor.negocio.GrillaDisponibilidad;
 import com.gestor.negocio.HorarioLaboral; // Asegúrate que este import esté
 import com.gestor.negocio.Reserva;
 import com.gestor.negocio.ReservaFija;
 import com.gestor.negocio.ReservaSimple;
+import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
@@ -17,7 +18,11 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 /**
  * Clase DAO para manejar toda la lógica de persistencia de Reservas en MySQL.
@@ -25,6 +30,58 @@ import java.util.List;
  */
 public class ReservaDAO {
 
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_REGISTRAR_RESERVA = Metricas.operacion("ReservaDAO.registrarReserva");
+    private static final MetricaOperacion M_ENCOLAR_RESERVA = Metricas.operacion("ReservaDAO.encolarReserva");
+    private static final MetricaOperacion M_CANCELAR_RESERVA_UNICA = Metricas.operacion("ReservaDAO.cancelarReservaUnica");
+    private static final MetricaOperacion M_CANCELAR_RESERVA_GRUPO = Metricas.operacion("ReservaDAO.cancelarReservaGrupo");
+    private static final MetricaOperacion M_CANCELAR_TURNO_SERIE = Metricas.operacion("ReservaDAO.cancelarTurnoDeSerie");
+    private static final MetricaOperacion M_CANCELAR_SERIE = Metricas.operacion("ReservaDAO.cancelarSerie");
+    private static final MetricaOperacion M_OBTENER_RESERVAS_POR_FECHA = Metricas.operacion("ReservaDAO.obtenerReservasPorFecha");
+    private static final MetricaOperacion M_OBTENER_RESERVAS_POR_RANGO = Metricas.operacion("ReservaDAO.obtenerReservasPorRango");
+    private static final MetricaOperacion M_RECORRER_RESERVAS_POR_RANGO = Metricas.operacion("ReservaDAO.recorrerReservasPorRango");
+    private static final MetricaOperacion M_CONSULTAR_DISPONIBILIDAD = Metricas.operacion("ReservaDAO.consultarDisponibilidad");
+    private static final MetricaOperacion M_CONSULTAR_DISPONIBILIDAD_GENERAL = Metricas.operacion("ReservaDAO.consultarDisponibilidadGeneral");
+    private static final MetricaOperacion M_CONSULTAR_CONFLICTOS = Metricas.operacion("ReservaDAO.consultarConflictos");
+    // Lecturas de BD para llenar el índice de ocupación (las usan disponibilidad y conflictos)
+    private static final MetricaOperacion M_CARGAR_OCUPACION = Metricas.operacion("ReservaDAO.cargarOcupacion");
+
+    private static final String SQL_INSERTAR_RESERVA =
+            "INSERT INTO reserva (id_cancha, id_cliente, fecha_hora_inicio, duracion_minutos, tipo, costo_total, id_grupo_fija) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // FOR UPDATE: lo leído es exactamente lo que se borra (y se descuenta del resumen diario)
+    private static final String SQL_INTERVALOS_RESERVA =
+            "SELECT id_cancha, fecha_hora_inicio, duracion_minutos, costo_total FROM reserva WHERE id_reserva = ? FOR UPDATE";
+    private static final String SQL_INTERVALOS_GRUPO =
+            "SELECT id_cancha, fecha_hora_inicio, duracion_minutos, costo_total FROM reserva WHERE id_grupo_fija = ? FOR UPDATE";
+    private static final String SQL_BORRAR_RESERVA = "DELETE FROM reserva WHERE id_reserva = ?";
+    private static final String SQL_GRUPO_DE_RESERVA = "SELECT id_grupo_fija FROM reserva WHERE id_reserva = ?";
+    private static final String SQL_BORRAR_GRUPO = "DELETE FROM reserva WHERE id_grupo_fija = ?";
+    // Rango semiabierto: usa idx_reserva_cancha_inicio
+    private static final String SQL_OCUPACION =
+            "SELECT fecha_hora_inicio, duracion_minutos FROM reserva "
+            + "WHERE id_cancha = ? AND fecha_hora_inicio >= ? AND fecha_hora_inicio < ?";
+
+    // Filas por executeBatch() al insertar varias reservas (evita paquetes gigantes)
+    private static final int TAMANO_LOTE = 500;
+
+    /*
+     * Índice de ocupación compartido por todas las instancias del DAO.
+     * Responde disponibilidad y conflictos sin ir a MySQL una vez cargado el día.
+     * Vence cada 'gestor.ocupacion.ttlMs' (60 s por defecto) para ver cambios de otras terminales.
+     */
+    private static final IndiceOcupacion OCUPACION =
+            new IndiceOcupacion(Long.getLong("gestor.ocupacion.ttlMs", 60000L));
+
+    /*
+     * Pipeline de reservas simples: encola por cancha y confirma de a lotes,
+     * con la fila de la cancha bloqueada (ver PipelineReservas).
+     * Tamaño máximo de lote: 'gestor.pipeline.lote' (200 por defecto).
+     */
+    private static final PipelineReservas PIPELINE =
+            new PipelineReservas(OCUPACION, Integer.getInteger("gestor.pipeline.lote", 200));
+
     // (NUEVO) Referencia al DAO de Horarios
     private final HorarioDAO horarioDAO;
 
@@ -41,15 +98,73 @@ public class ReservaDAO {
      * @return El ID (si es Simple) o la cantidad de reservas (si es Fija). -1 si hay error.
      */
     public int registrarReserva(Reserva reserva) {
-        
-        // --- VALIDACIÓN DE HORARIO LABORAL ---
+        long inicioNs = System.nanoTime();
+        try {
+            // --- VALIDACIÓN DE HORARIO LABORAL ---
+            String errorHorario = validarHorario(reserva);
+            if (errorHorario != null) {
+                System.err.println(errorHorario);
+                return -1;
+            }
+
+            if (reserva instanceof ReservaSimple) {
+                // Pasa por el pipeline: validación y alta atómicas con la cancha bloqueada
+                ResultadoReserva resultado = PIPELINE.encolar((ReservaSimple) reserva).join();
+                if (!resultado.isAceptada()) {
+                    System.err.println("No se registró la reserva simple: " + resultado.getMotivo());
+                    return -1;
+                }
+                return resultado.getIdReserva();
+
+            } else if (reserva instanceof ReservaFija) {
+                // ReservaFija ya tiene su propia validación de conflictos interna
+                return registrarReservaFija((ReservaFija) reserva);
+            }
+            return -1;
+        } finally {
+            M_REGISTRAR_RESERVA.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Versión asíncrona del alta de una reserva simple (para muchas solicitudes en vuelo).
+     * Las solicitudes de una misma cancha se validan y confirman juntas, en lotes.
+     *
+     * @param reserva La reserva a registrar
+     * @return Un future con el resultado (aceptada con su ID, o rechazada con el motivo)
+     */
+    public CompletableFuture<ResultadoReserva> encolarReserva(ReservaSimple reserva) {
+        long inicioNs = System.nanoTime();
+        try {
+            if (reserva.getCancha() == null || reserva.getCliente() == null) {
+                M_ENCOLAR_RESERVA.registrar(inicioNs);
+                return CompletableFuture.completedFuture(ResultadoReserva.rechazada("La reserva no tiene cancha o cliente."));
+            }
+            String errorHorario = validarHorario(reserva);
+            if (errorHorario != null) {
+                M_ENCOLAR_RESERVA.registrar(inicioNs);
+                return CompletableFuture.completedFuture(ResultadoReserva.rechazada(errorHorario));
+            }
+            // Se mide hasta que el lote se confirma, no solo el encolado
+            return PIPELINE.encolar(reserva).whenComplete((r, ex) -> M_ENCOLAR_RESERVA.registrar(inicioNs));
+        } catch (RuntimeException e) {
+            M_ENCOLAR_RESERVA.error();
+            M_ENCOLAR_RESERVA.registrar(inicioNs);
+            throw e;
+        }
+    }
+
+    /**
+     * Valida que la reserva esté dentro del horario laboral de su día.
+     * @return null si es válida, o el mensaje de error
+     */
+    private String validarHorario(Reserva reserva) {
         LocalDate fechaReserva = reserva.getFechaHoraInicio().toLocalDate();
         DayOfWeek dia = fechaReserva.getDayOfWeek();
         HorarioLaboral horario = horarioDAO.obtenerHorario(dia);
 
         if (horario == null) {
-            System.err.println("Error: No hay horario laboral definido para " + dia + ". No se puede registrar la reserva.");
-            return -1; // Indica error (cerrado ese día)
+            return "Error: No hay horario laboral definido para " + dia + ". No se puede registrar la reserva.";
         }
 
         LocalDateTime inicioReservaDT = reserva.getFechaHoraInicio();
@@ -60,121 +175,85 @@ public class ReservaDAO {
 
         // Check 1: La hora de INICIO no puede ser antes de la apertura
         if (inicioReservaDT.isBefore(aperturaDT)) {
-            System.err.println("Error: La reserva (" + inicioReservaDT.toLocalTime() + ") no puede ser antes de la hora de apertura (" + horario.getHoraApertura() + ").");
-            return -1;
+            return "Error: La reserva (" + inicioReservaDT.toLocalTime() + ") no puede ser antes de la hora de apertura (" + horario.getHoraApertura() + ").";
         }
 
         // Check 2: La hora de FIN no puede ser después del cierre
         // (isAfter compara el LocalDateTime completo)
         if (finReservaDT.isAfter(cierreDT)) {
-            System.err.println("Error: El fin de la reserva (" + finReservaDT.toLocalTime() + " del " + finReservaDT.toLocalDate() + ") no puede ser después de la hora de cierre (" + horario.getHoraCierre() + " del " + fechaReserva + ").");
-            return -1;
-        }
-
-
-        if (reserva instanceof ReservaSimple) {
-            
-            // 1. Convertir a lista para usar el validador de conflictos
-            List<ReservaSimple> aChequear = new ArrayList<>();
-            aChequear.add((ReservaSimple) reserva);
-            
-            // 2. Validar conflictos ANTES de guardar
-            List<LocalDateTime> conflictos = consultarConflictos(aChequear);
-            if (!conflictos.isEmpty()) {
-                System.err.println("Conflicto de disponibilidad detectado para reserva simple en: " + conflictos.get(0));
-                return -1; // Indica conflicto
-            }
-            
-            // 3. Si no hay conflictos, registrar
-            return registrarReservaSimple((ReservaSimple) reserva, null, null); // Sin transacción, sin grupo
-            
-        } else if (reserva instanceof ReservaFija) {
-            // ReservaFija ya tiene su propia validación de conflictos interna
-            return registrarReservaFija((ReservaFija) reserva);
+            return "Error: El fin de la reserva (" + finReservaDT.toLocalTime() + " del " + finReservaDT.toLocalDate() + ") no puede ser después de la hora de cierre (" + horario.getHoraCierre() + " del " + fechaReserva + ").";
         }
-        return -1;
+        return null;
     }
 
     /**
-     * Registra una única ReservaSimple.
-     * Acepta un idGrupoFija para enlazar reservas fijas.
+     * Inserta varias reservas con JDBC batch. Con rewriteBatchedStatements (ver ConexionDB)
+     * cada lote viaja como un único INSERT multi-fila. En la misma transacción suma las
+     * reservas al resumen diario (ver ResumenDiario).
      *
-     * @param reserva La reserva simple a guardar
-     * @param cn La conexión existente (si es parte de una transacción) o null
-     * @param idGrupoFija El ID del grupo al que pertenece, o null si es simple
-     * @return El ID generado, o -1 si falla
+     * @param cn La conexión de la transacción en curso
+     * @param reservas Las reservas a insertar (se les asigna el ID generado)
+     * @return Los IDs generados, en el mismo orden que la lista
      */
-    private int registrarReservaSimple(ReservaSimple reserva, Connection cn, Integer idGrupoFija) {
-        // SQL MODIFICADO: Agrega id_grupo_fija
-        String sql = "INSERT INTO reserva (id_cancha, id_cliente, fecha_hora_inicio, duracion_minutos, tipo, costo_total, id_grupo_fija) "
-                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        int idGenerado = -1;
-        
-        Connection connLocal = null;
-        PreparedStatement ps = null;
-        ResultSet rs = null;
+    static int[] insertarEnLote(Connection cn, List<ReservaSimple> reservas) throws SQLException {
+        // Todas las reservas en la BD son 'simples'; la fecha viaja como LocalDateTime (evita el bug de TimeZone)
+        int[] ids = EjecutorJdbc.insertarEnLote(cn, SQL_INSERTAR_RESERVA, reservas, (ps, res) -> EjecutorJdbc.asignar(ps,
+                res.getCancha().getIdCancha(),
+                res.getCliente().getIdCliente(),
+                res.getFechaHoraInicio(),
+                res.getDuracionMinutos(),
+                "Simple",
+                res.calcularCostoTotal(),
+                res.getIdGrupoFija()), TAMANO_LOTE);
+
+        for (int i = 0; i < ids.length; i++) {
+            ReservaSimple guardada = reservas.get(i);
+            guardada.setIdReserva(ids[i]);
+            guardada.setCostoTotal(guardada.calcularCostoTotal());
+        }
 
-        try {
-            if (cn == null) {
-                // No estamos en una transacción, creamos una conexión nueva
-                connLocal = ConexionDB.conectar();
-            } else {
-                // Estamos en una transacción, usamos la conexión provista
-                connLocal = cn;
-            }
+        ResumenDiario resumen = new ResumenDiario();
+        for (ReservaSimple res : reservas) {
+            resumen.sumar(res.getCancha().getIdCancha(), res.getFechaHoraInicio().toLocalDate(),
+                    res.getDuracionMinutos(), res.calcularCostoTotal());
+        }
+        resumen.aplicar(cn);
+        return ids;
+    }
 
-            ps = connLocal.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
-            ps.setInt(1, reserva.getCancha().getIdCancha());
-            ps.setInt(2, reserva.getCliente().getIdCliente());
-            // ps.setTimestamp(3, Timestamp.valueOf(reserva.getFechaHoraInicio())); // (CORREGIDO) Causa bug de TimeZone
-            ps.setObject(3, reserva.getFechaHoraInicio()); // (SOLUCIÓN) Usa el tipo de Java 8+
-            ps.setInt(4, reserva.getDuracionMinutos());
-            ps.setString(5, "Simple"); // Todas las reservas en la BD son 'simples'
-            
-            // (CORREGIDO) Asegurarnos de calcular el costo simple
-            double costo = reserva.calcularCostoTotal();
-            ps.setDouble(6, costo); 
-            reserva.setCostoTotal(costo); // Actualiza el costo en el objeto
-
-            // Asignar el ID de grupo
-            if (idGrupoFija == null) {
-                ps.setNull(7, java.sql.Types.INTEGER);
-            } else {
-                ps.setInt(7, idGrupoFija);
+    /**
+     * Reserva un nuevo ID de grupo para una serie de reservas fijas.
+     * Usa una secuencia propia (tabla secuencia_grupo_fija) en un solo viaje,
+     * así no hace falta insertar la primera reserva y luego actualizarla.
+     */
+    private int reservarIdGrupo(Connection cn) throws SQLException {
+        String sql = "UPDATE secuencia_grupo_fija SET valor = LAST_INSERT_ID(valor + 1) WHERE id = 1";
+        try (Statement st = cn.createStatement()) {
+            if (st.executeUpdate(sql, Statement.RETURN_GENERATED_KEYS) == 0) {
+                throw new SQLException("La tabla secuencia_grupo_fija no está inicializada.");
             }
-
-            int filas = ps.executeUpdate();
-            if (filas > 0) {
-                rs = ps.getGeneratedKeys();
-                if (rs.next()) {
-                    idGenerado = rs.getInt(1);
-                    reserva.setIdReserva(idGenerado); // Actualiza el objeto
+            // LAST_INSERT_ID(expr) viaja en el paquete OK, el driver lo expone como clave generada
+            try (ResultSet rs = st.getGeneratedKeys()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    return rs.getInt(1);
                 }
             }
-        } catch (SQLException e) {
-            System.err.println("Error al registrar reserva simple: " + e.getMessage());
-            return -1; // Indica error
-        } finally {
-            try {
-                if (rs != null) rs.close();
-                if (ps != null) ps.close();
-                // SOLO cerramos la conexión si la creamos localmente
-                if (cn == null && connLocal != null) {
-                    connLocal.close();
+            try (ResultSet rs = st.executeQuery("SELECT LAST_INSERT_ID()")) {
+                if (rs.next()) {
+                    return rs.getInt(1);
                 }
-            } catch (SQLException e) {
-                System.err.println("Error al cerrar recursos: " + e.getMessage());
             }
         }
-        return idGenerado;
+        throw new SQLException("No se pudo reservar un ID de grupo para la reserva fija.");
     }
 
     /**
-     * Registra una ReservaFija expandiéndola en múltiples ReservasSimples
-     * y enlazándolas con un ID de grupo dentro de una transacción.
+     * Registra una ReservaFija como UNA fila de reserva_serie (ver SerieReserva), con su
+     * ID de grupo. Las ocurrencias se generan solo para validarlas (horario y conflictos)
+     * y sumarlas al resumen diario: no se insertan en la tabla reserva.
      *
      * @param fija La plantilla de ReservaFija
-     * @return La cantidad de reservas insertadas, o -1 si hay un conflicto o error.
+     * @return La cantidad de turnos de la serie, o -1 si hay un conflicto o error.
      */
     private int registrarReservaFija(ReservaFija fija) {
         // 1. Generar todas las fechas (lógica de negocio)
@@ -191,14 +270,13 @@ public class ReservaDAO {
         List<ReservaSimple> reservasAGuardar = new ArrayList<>();
         LocalTime hora = fija.getFechaHoraInicio().toLocalTime();
         int duracion = fija.getDuracionMinutos();
-        // (CORREGIDO) El costo total de la ReservaFija es el costo *por turno*
-        double costoConDescuento = fija.calcularCostoTotal();
 
         // 2. Crear la lista de reservas individuales
         for (LocalDate fecha : ocurrencias) {
             LocalDateTime fechaHoraOcurrencia = LocalDateTime.of(fecha, hora);
             ReservaSimple individual = new ReservaSimple(0, fechaHoraOcurrencia, fija.getCancha(), fija.getCliente(), duracion, null);
-            individual.setCostoTotal(costoConDescuento); 
+            // Cada turno lleva su propio costo (la tarifa cambia por día y temporada), con el descuento
+            individual.setCostoTotal(fija.costoDeOcurrencia(fecha));
             reservasAGuardar.add(individual);
         }
 
@@ -238,130 +316,271 @@ public class ReservaDAO {
         }
 
         // 4. Guardar todas las reservas en una transacción
-        Connection cn = null;
-        int reservasGuardadas = 0;
-        int idGrupoGenerado = -1; // ID de la primera reserva
-        
+        int idCancha = fija.getCancha().getIdCancha();
+        LocalDate consultaDesde = reservasAGuardar.get(0).getFechaHoraInicio().toLocalDate().minusDays(1);
+        LocalDate consultaHasta = reservasAGuardar.get(reservasAGuardar.size() - 1).getFechaHoraFin().toLocalDate().plusDays(1);
         try {
-            cn = ConexionDB.conectar();
-            cn.setAutoCommit(false); // Iniciar transacción
-
-            // 1. Guardar la PRIMERA reserva para obtener su ID
-            ReservaSimple primeraReserva = reservasAGuardar.get(0);
-            idGrupoGenerado = registrarReservaSimple(primeraReserva, cn, null); // ID de grupo nulo al principio
-            
-            if (idGrupoGenerado == -1) {
-                throw new SQLException("Falló al insertar la primera reserva del grupo.");
-            }
-            reservasGuardadas++;
-            
-            // 2. Actualizar esa primera reserva para que su id_grupo_fija sea su propio ID
-            String sqlUpdate = "UPDATE reserva SET id_grupo_fija = ? WHERE id_reserva = ?";
-            try (PreparedStatement psUpdate = cn.prepareStatement(sqlUpdate)) {
-                psUpdate.setInt(1, idGrupoGenerado);
-                psUpdate.setInt(2, idGrupoGenerado);
-                psUpdate.executeUpdate();
+            // El ID de grupo se reserva ANTES de abrir la transacción, para no
+            // retener el bloqueo de la fila de la secuencia mientras se inserta la serie.
+            int idGrupo;
+            try (Connection cn = ConexionDB.conectar()) {
+                idGrupo = reservarIdGrupo(cn);
             }
 
-            // 3. Guardar el RESTO de las reservas, usando el idGrupoGenerado
-            for (int i = 1; i < reservasAGuardar.size(); i++) {
-                ReservaSimple res = reservasAGuardar.get(i);
-                int id = registrarReservaSimple(res, cn, idGrupoGenerado); // Pasa el ID del grupo
-                if (id != -1) {
-                    reservasGuardadas++;
-                } else {
-                    throw new SQLException("Falló al insertar una de las reservas fijas (ocurrencia " + (i+1) + ").");
+            Boolean guardada = EjecutorJdbc.enTransaccion(cn -> {
+                // Bloquea la cancha (igual que el pipeline de reservas simples) y vuelve a
+                // validar contra la ocupación leída dentro de la transacción: entre el chequeo
+                // de arriba y este punto otra terminal pudo ocupar alguno de los horarios.
+                if (!PipelineReservas.bloquearCancha(cn, idCancha)) {
+                    throw new SQLException("La cancha " + idCancha + " no existe.");
+                }
+                // Sin claves foráneas en reserva (tabla particionada): el cliente se controla acá
+                if (!PipelineReservas.bloquearCliente(cn, fija.getCliente().getIdCliente())) {
+                    throw new SQLException("El cliente " + fija.getCliente().getIdCliente() + " no existe.");
+                }
+                long[][] ocupados = leerOcupacion(cn, idCancha, consultaDesde, consultaHasta);
+                for (ReservaSimple res : reservasAGuardar) {
+                    if (!IndiceOcupacion.estaLibreEn(ocupados, consultaDesde, res.getFechaHoraInicio(), res.getDuracionMinutos())) {
+                        System.err.println("Conflicto de disponibilidad detectado al confirmar la serie en: " + res.getFechaHoraInicio());
+                        return false; // No se escribió nada: confirmar solo libera el bloqueo
+                    }
+                    IndiceOcupacion.marcarEn(ocupados, consultaDesde, res.getFechaHoraInicio(), res.getDuracionMinutos());
+                }
+
+                // Una fila para toda la serie (su ID es el id_grupo_fija de las ocurrencias)
+                SerieReserva.insertar(cn, idGrupo, fija, reservasAGuardar);
+                ResumenDiario resumen = new ResumenDiario();
+                for (ReservaSimple res : reservasAGuardar) {
+                    resumen.sumar(idCancha, res.getFechaHoraInicio().toLocalDate(),
+                            res.getDuracionMinutos(), res.calcularCostoTotal());
                 }
+                resumen.aplicar(cn);
+                return true;
+            });
+            if (!guardada) {
+                return -1; // Indica conflicto
             }
 
-            cn.commit(); // Todo salió bien, confirmar cambios
-            return reservasGuardadas;
+            for (ReservaSimple res : reservasAGuardar) {
+                OCUPACION.ocupar(res.getCancha().getIdCancha(), res.getFechaHoraInicio(), res.getDuracionMinutos());
+            }
+            fija.setIdGrupoFija(idGrupo);
+            return reservasAGuardar.size();
 
         } catch (SQLException e) {
-            System.err.println("Error en transacción de reserva fija, haciendo rollback: " + e.getMessage());
-            try {
-                if (cn != null) cn.rollback(); // Deshacer cambios
-            } catch (SQLException ex) {
-                System.err.println("Error al hacer rollback: " + ex.getMessage());
-            }
+            // enTransaccion ya hizo rollback
+            M_REGISTRAR_RESERVA.error();
+            EjecutorJdbc.informarError("Error en transacción de reserva fija", e);
             return -1; // Indica error
-        } finally {
-            try {
-                if (cn != null) {
-                    cn.setAutoCommit(true); // Devolver la conexión al estado normal
-                    cn.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error al cerrar conexión post-transacción: " + e.getMessage());
-            }
         }
     }
 
 
     /**
      * Cancela una reserva ÚNICA de la BD.
+     * El borrado y el descuento del resumen diario van en una sola transacción.
      *
      * @param idReserva El ID de la reserva a cancelar
      * @return true si tuvo éxito, false si no
      */
     public boolean cancelarReservaUnica(int idReserva) {
-        String sql = "DELETE FROM reserva WHERE id_reserva = ?";
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-
-            ps.setInt(1, idReserva);
-            int filasAfectadas = ps.executeUpdate();
-            return filasAfectadas > 0;
+        long inicioNs = System.nanoTime();
+        try {
+            List<Intervalo> borrados = EjecutorJdbc.enTransaccion(
+                    cn -> borrar(cn, SQL_INTERVALOS_RESERVA, SQL_BORRAR_RESERVA, idReserva));
+            liberarIntervalos(borrados);
+            return !borrados.isEmpty();
 
         } catch (SQLException e) {
-            System.err.println("Error al cancelar reserva: " + e.getMessage());
+            M_CANCELAR_RESERVA_UNICA.error();
+            EjecutorJdbc.informarError("Error al cancelar reserva", e);
             return false;
+        } finally {
+            M_CANCELAR_RESERVA_UNICA.registrar(inicioNs);
         }
     }
 
     /**
-     * Cancela una serie COMPLETA de reservas fijas (todas las que tengan el mismo id_grupo_fija).
+     * Cancela una serie COMPLETA de reservas fijas (todas las que tengan el mismo id_grupo_fija,
+     * y la fila de reserva_serie con ese ID si la hay).
+     * El borrado y el descuento del resumen diario van en una sola transacción.
      *
-     * @param idReservaDeGrupo El ID de CUALQUIER reserva que pertenezca al grupo
-     * @return El número de reservas eliminadas, o -1 si hay error.
+     * @param idReservaDeGrupo El ID de CUALQUIER reserva (de la tabla reserva) que pertenezca al grupo
+     * @return El número de reservas eliminadas, o -1 si hay error (o la reserva no existe).
      */
     public int cancelarReservaGrupo(int idReservaDeGrupo) {
-        // 1. Encontrar el ID del grupo
-        Integer idGrupo = null;
-        String sqlFindGroup = "SELECT id_grupo_fija FROM reserva WHERE id_reserva = ?";
-        
-        try (Connection cn = ConexionDB.conectar()) {
-             
-            try (PreparedStatement psFind = cn.prepareStatement(sqlFindGroup)) {
-                psFind.setInt(1, idReservaDeGrupo);
-                try (ResultSet rs = psFind.executeQuery()) {
-                    if (rs.next()) {
-                        idGrupo = rs.getInt("id_grupo_fija");
-                        if (rs.wasNull()) {
-                            idGrupo = null;
-                        }
-                    }
+        long inicioNs = System.nanoTime();
+        try {
+            List<Intervalo> borrados = EjecutorJdbc.enTransaccion(cn -> {
+
+                // 1. Encontrar el ID del grupo
+                Integer idGrupo = EjecutorJdbc.consultarUno(cn, SQL_GRUPO_DE_RESERVA, rs -> {
+                    int id = rs.getInt("id_grupo_fija");
+                    return rs.wasNull() ? null : id;
+                }, idReservaDeGrupo);
+
+                // Si no tiene grupo, es una reserva simple, solo borramos esa
+                if (idGrupo == null) {
+                    return borrar(cn, SQL_INTERVALOS_RESERVA, SQL_BORRAR_RESERVA, idReservaDeGrupo);
                 }
-            }
 
-            // Si no tiene grupo, es una reserva simple, solo borramos esa
-            if (idGrupo == null) {
-                return cancelarReservaUnica(idReservaDeGrupo) ? 1 : -1;
-            }
-            
-            // 2. Borrar todas las reservas con ese ID de grupo (INCLUYENDO LA PRIMERA)
-            // (CORREGIDO) El ID de grupo es el ID de la primera reserva.
-            String sqlDeleteGroup = "DELETE FROM reserva WHERE id_grupo_fija = ? OR id_reserva = ?";
-            try (PreparedStatement psDelete = cn.prepareStatement(sqlDeleteGroup)) {
-                psDelete.setInt(1, idGrupo);
-                psDelete.setInt(2, idGrupo); // Borra también la reserva "líder" del grupo
-                int filasAfectadas = psDelete.executeUpdate();
-                return filasAfectadas; // Devuelve cuántas se borraron
-            }
-            
+                // 2. Borrar todas las reservas con ese ID de grupo (INCLUYENDO LA PRIMERA)
+                return borrarGrupo(cn, idGrupo);
+            });
+            liberarIntervalos(borrados);
+            return borrados.isEmpty() ? -1 : borrados.size(); // Devuelve cuántas se borraron
+
+        } catch (SQLException e) {
+            M_CANCELAR_RESERVA_GRUPO.error();
+            EjecutorJdbc.informarError("Error al cancelar grupo de reserva", e);
+            return -1;
+        } finally {
+            M_CANCELAR_RESERVA_GRUPO.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Cancela una serie COMPLETA a partir de su ID de grupo (el de reserva_serie, o el
+     * id_grupo_fija de las reservas de una serie vieja). Para los turnos de una serie,
+     * que no tienen ID de reserva propio.
+     *
+     * @param idGrupo El ID de la serie
+     * @return El número de turnos cancelados, o -1 si hay error (o la serie no existe).
+     */
+    public int cancelarSerie(int idGrupo) {
+        long inicioNs = System.nanoTime();
+        try {
+            List<Intervalo> borrados = EjecutorJdbc.enTransaccion(cn -> borrarGrupo(cn, idGrupo));
+            liberarIntervalos(borrados);
+            return borrados.isEmpty() ? -1 : borrados.size();
+
         } catch (SQLException e) {
-            System.err.println("Error al cancelar grupo de reserva: " + e.getMessage());
+            M_CANCELAR_SERIE.error();
+            EjecutorJdbc.informarError("Error al cancelar la serie " + idGrupo, e);
             return -1;
+        } finally {
+            M_CANCELAR_SERIE.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Cancela UN turno de una serie: la fecha queda como excepción 'Omitida' en
+     * reserva_serie_excepcion y se descuenta del resumen diario, en una sola transacción.
+     *
+     * @param idSerie El ID de la serie (el id_grupo_fija del turno)
+     * @param fecha El día del turno
+     * @return true si tuvo éxito, false si no (o si la serie no tiene turno ese día)
+     */
+    public boolean cancelarTurnoDeSerie(int idSerie, LocalDate fecha) {
+        long inicioNs = System.nanoTime();
+        try {
+            Intervalo cancelado = EjecutorJdbc.enTransaccion(cn -> {
+                SerieReserva serie = SerieReserva.bloquear(cn, idSerie, fecha, fecha.plusDays(1));
+                if (serie == null || !serie.tieneTurno(fecha)) {
+                    return null;
+                }
+                Intervalo turno = new Intervalo(serie.getCancha().getIdCancha(), serie.inicio(fecha),
+                        serie.getDuracionMinutos(), serie.costo(fecha));
+                SerieReserva.omitir(cn, idSerie, fecha);
+                ResumenDiario resumen = new ResumenDiario();
+                resumen.restar(turno.idCancha, fecha, turno.minutos, turno.costo);
+                resumen.aplicar(cn);
+                return turno;
+            });
+            if (cancelado == null) {
+                System.err.println("La serie " + idSerie + " no tiene un turno el " + fecha + ".");
+                return false;
+            }
+            liberarIntervalos(List.of(cancelado));
+            return true;
+
+        } catch (SQLException e) {
+            M_CANCELAR_TURNO_SERIE.error();
+            EjecutorJdbc.informarError("Error al cancelar el turno de la serie " + idSerie, e);
+            return false;
+        } finally {
+            M_CANCELAR_TURNO_SERIE.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Borra un grupo con la transacción del llamador: las reservas con ese id_grupo_fija
+     * (series viejas, o reservas sueltas de una serie) y la fila de reserva_serie con sus
+     * turnos. Todo se descuenta del resumen diario.
+     * @return Las reservas y turnos borrados
+     */
+    private static List<Intervalo> borrarGrupo(Connection cn, int idGrupo) throws SQLException {
+        // Todas las filas de un grupo viejo llevan id_grupo_fija (la primera se actualizaba
+        // con su propio ID), así que no hace falta "OR id_reserva". Los grupos nuevos salen
+        // de secuencia_grupo_fija y NO coinciden con un id_reserva.
+        List<Intervalo> borrados = borrar(cn, SQL_INTERVALOS_GRUPO, SQL_BORRAR_GRUPO, idGrupo);
+
+        SerieReserva serie = SerieReserva.bloquear(cn, idGrupo);
+        if (serie == null) {
+            return borrados;
+        }
+        ResumenDiario resumen = new ResumenDiario();
+        int idCancha = serie.getCancha().getIdCancha();
+        for (LocalDate fecha : serie.fechas(LocalDate.MIN, LocalDate.MAX)) {
+            Intervalo turno = new Intervalo(idCancha, serie.inicio(fecha), serie.getDuracionMinutos(), serie.costo(fecha));
+            resumen.restar(idCancha, fecha, turno.minutos, turno.costo);
+            borrados.add(turno);
+        }
+        SerieReserva.borrar(cn, idGrupo);
+        resumen.aplicar(cn);
+        return borrados;
+    }
+
+    /**
+     * Borra las reservas de 'id' (una o un grupo) y las descuenta del resumen diario,
+     * con la transacción del llamador.
+     * @return Las reservas borradas (para liberar sus horarios en el índice de ocupación)
+     */
+    private static List<Intervalo> borrar(Connection cn, String sqlIntervalos, String sqlBorrar, int id) throws SQLException {
+        List<Intervalo> intervalos = EjecutorJdbc.consultar(cn, sqlIntervalos, ReservaDAO::mapearIntervalo, id);
+        if (intervalos.isEmpty() || EjecutorJdbc.actualizar(cn, sqlBorrar, id) == 0) {
+            return new ArrayList<>();
+        }
+        ResumenDiario resumen = new ResumenDiario();
+        for (Intervalo i : intervalos) {
+            resumen.restar(i.idCancha, i.inicio.toLocalDate(), i.minutos, i.costo);
+        }
+        resumen.aplicar(cn);
+        return intervalos;
+    }
+
+    /**
+     * Horario ocupado por una reserva (cancha + inicio + duración) y su costo.
+     */
+    private static final class Intervalo {
+        final int idCancha;
+        final LocalDateTime inicio;
+        final int minutos;
+        final BigDecimal costo;
+
+        Intervalo(int idCancha, LocalDateTime inicio, int minutos, BigDecimal costo) {
+            this.idCancha = idCancha;
+            this.inicio = inicio;
+            this.minutos = minutos;
+            this.costo = costo;
+        }
+    }
+
+    /**
+     * Mapea una fila (id_cancha, fecha_hora_inicio, duracion_minutos, costo_total).
+     */
+    private static Intervalo mapearIntervalo(ResultSet rs) throws SQLException {
+        return new Intervalo(
+            rs.getInt("id_cancha"),
+            rs.getObject("fecha_hora_inicio", LocalDateTime.class),
+            rs.getInt("duracion_minutos"),
+            rs.getBigDecimal("costo_total")
+        );
+    }
+
+    private void liberarIntervalos(List<Intervalo> intervalos) {
+        for (Intervalo i : intervalos) {
+            OCUPACION.liberar(i.idCancha, i.inicio, i.minutos);
         }
     }
 
@@ -369,221 +588,407 @@ public class ReservaDAO {
     /**
      * Obtiene todas las reservas para una fecha específica.
      * Ahora también obtiene el id_grupo_fija.
+     * Solo trae las de ese día (antes traía todas las reservas futuras).
      *
      * @param fecha La fecha a consultar
      * @return Una lista de objetos Reserva (simples)
      */
     public List<Reserva> obtenerReservasPorFecha(LocalDate fecha) {
-        List<Reserva> reservas = new ArrayList<>();
-        // SQL MODIFICADO: Añade 'r.id_grupo_fija' y 'r.costo_total'
-        String sql = "SELECT r.*, c.nombre as cancha_nombre, c.deporte, c.precio_por_hora, cl.nombre as cliente_nombre, cl.telefono "
-                   + "FROM reserva r "
-                   + "JOIN cancha c ON r.id_cancha = c.id_cancha "
-                   + "JOIN cliente cl ON r.id_cliente = cl.id "
-                   + "WHERE DATE(r.fecha_hora_inicio) >= ? "
-                   + "ORDER BY r.fecha_hora_inicio";
-
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sql)) {
-            
-            ps.setDate(1, java.sql.Date.valueOf(fecha));
-            
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    Cancha c = new Cancha(
-                        rs.getInt("id_cancha"), 
-                        rs.getString("cancha_nombre"), 
-                        rs.getString("deporte"), 
-                        rs.getDouble("precio_por_hora")
-                    );
-                    Cliente cl = new Cliente(
-                        rs.getInt("id_cliente"),
-                        rs.getString("cliente_nombre"),
-                        rs.getString("telefono")
-                    );
-
-                    // Leer id_grupo_fija
-                    Integer idGrupo = rs.getInt("id_grupo_fija");
-                    if (rs.wasNull()) {
-                        idGrupo = null;
-                    }
+        long inicioNs = System.nanoTime();
+        try {
+            return obtenerReservasPorRango(fecha, fecha.plusDays(1), null);
+        } finally {
+            M_OBTENER_RESERVAS_POR_FECHA.registrar(inicioNs);
+        }
+    }
 
-                    // Crear ReservaSimple usando el constructor que acepta el ID de grupo
-                    ReservaSimple r = new ReservaSimple(
-                        rs.getInt("id_reserva"),
-                        // rs.getTimestamp("fecha_hora_inicio").toLocalDateTime(), // (CORREGIDO) Causa bug de TimeZone
-                        rs.getObject("fecha_hora_inicio", LocalDateTime.class), // (SOLUCIÓN) Usa el tipo de Java 8+
-                        c,
-                        cl,
-                        rs.getInt("duracion_minutos"),
-                        idGrupo // <-- Pasa el ID de grupo
-                    );
-                    
-                    // (NUEVO) Asigna el costo real guardado en la BD
-                    r.setCostoTotal(rs.getDouble("costo_total"));
-                    
-                    reservas.add(r);
-                }
+    /**
+     * Obtiene las reservas que empiezan en el rango [desde, hasta).
+     * El filtro es por rango de fecha_hora_inicio (sin DATE()), así MySQL
+     * puede usar los índices idx_reserva_inicio / idx_reserva_cancha_inicio.
+     *
+     * @param desde Primer día incluido
+     * @param hasta Día siguiente al último incluido (exclusivo)
+     * @param idCancha Para filtrar por una cancha, o null para todas
+     * @return Una lista de objetos Reserva (simples), ordenada por inicio
+     */
+    public List<Reserva> obtenerReservasPorRango(LocalDate desde, LocalDate hasta, Integer idCancha) {
+        long inicioNs = System.nanoTime();
+        try {
+            List<Reserva> reservas = new ArrayList<>();
+            recorrerReservasPorRango(desde, hasta, idCancha, reservas::add);
+            return reservas;
+        } finally {
+            M_OBTENER_RESERVAS_POR_RANGO.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Igual que obtenerReservasPorRango, pero entrega cada reserva a 'consumidor' a medida
+     * que llega de la BD, sin armar la lista completa. Las filas se traen de a
+     * ConexionDB.TAMANO_FETCH (cursor del servidor), así la memoria no crece con el resultado.
+     * Los turnos de las series (reserva_serie) se expanden en memoria y se intercalan en
+     * orden; llegan con ID de reserva 0 y el ID de la serie como grupo.
+     *
+     * @param consumidor Recibe cada reserva, en orden de fecha (corre en el hilo que llama)
+     * @return true si se recorrió todo, false si hubo un error de BD
+     */
+    public boolean recorrerReservasPorRango(LocalDate desde, LocalDate hasta, Integer idCancha, Consumer<Reserva> consumidor) {
+        long inicioNs = System.nanoTime();
+        try {
+            if (desde == null || hasta == null || !desde.isBefore(hasta)) {
+                return true; // Rango vacío
             }
-        } catch (SQLException e) {
-            System.err.println("Error al obtener reservas por fecha: " + e.getMessage());
+
+            // SQL MODIFICADO: Añade 'r.id_grupo_fija' y 'r.costo_total'
+            String sql = "SELECT r.*, c.nombre as cancha_nombre, c.deporte, c.precio_por_hora, cl.nombre as cliente_nombre, cl.telefono "
+                       + "FROM reserva r "
+                       + "JOIN cancha c ON r.id_cancha = c.id_cancha "
+                       + "JOIN cliente cl ON r.id_cliente = cl.id "
+                       + "WHERE r.fecha_hora_inicio >= ? AND r.fecha_hora_inicio < ? "
+                       + (idCancha != null ? "AND r.id_cancha = ? " : "")
+                       + "ORDER BY r.fecha_hora_inicio";
+
+            Object[] parametros = (idCancha != null)
+                    ? new Object[]{desde.atStartOfDay(), hasta.atStartOfDay(), idCancha}
+                    : new Object[]{desde.atStartOfDay(), hasta.atStartOfDay()};
+
+            try (Connection cn = ConexionDB.conectar()) {
+                // Las series se leen antes: el cursor de abajo ocupa la conexión hasta el final
+                SerieReserva.Expansion turnos = new SerieReserva.Expansion(
+                        SerieReserva.leer(cn, desde, hasta, idCancha), desde, hasta);
+                EjecutorJdbc.recorrer(cn, sql, ReservaDAO::mapearReserva, r -> {
+                    turnos.entregarAntesDe(r.getFechaHoraInicio(), consumidor);
+                    consumidor.accept(r);
+                }, parametros);
+                turnos.entregarResto(consumidor);
+            } catch (SQLException e) {
+                M_RECORRER_RESERVAS_POR_RANGO.error();
+                EjecutorJdbc.informarError("Error al obtener reservas por fecha", e);
+                return false;
+            }
+            return true;
+        } finally {
+            M_RECORRER_RESERVAS_POR_RANGO.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Arma una reserva a partir de una fila de reserva + cancha + cliente.
+     */
+    private static ReservaSimple mapearReserva(ResultSet rs) throws SQLException {
+        // Una sola instancia por cancha y por cliente (mapa de identidad compartido)
+        Cancha c = CacheEntidades.cancha(
+            rs.getInt("id_cancha"), 
+            rs.getString("cancha_nombre"), 
+            rs.getString("deporte"), 
+            rs.getDouble("precio_por_hora")
+        );
+        Cliente cl = CacheEntidades.cliente(
+            rs.getInt("id_cliente"),
+            rs.getString("cliente_nombre"),
+            rs.getString("telefono")
+        );
+
+        // Leer id_grupo_fija
+        Integer idGrupo = rs.getInt("id_grupo_fija");
+        if (rs.wasNull()) {
+            idGrupo = null;
         }
-        return reservas;
+
+        // Crear ReservaSimple usando el constructor que acepta el ID de grupo
+        ReservaSimple r = new ReservaSimple(
+            rs.getInt("id_reserva"),
+            rs.getObject("fecha_hora_inicio", LocalDateTime.class), // Tipo de Java 8+ (evita el bug de TimeZone)
+            c,
+            cl,
+            rs.getInt("duracion_minutos"),
+            idGrupo
+        );
+
+        // Costo real guardado en la BD
+        r.setCostoTotal(rs.getBigDecimal("costo_total"));
+        return r;
     }
 
     /**
      * Consulta los horarios disponibles usando la tabla `horario_laboral`
+     * y el índice de ocupación en memoria (solo va a MySQL si el día no está cargado).
      *
      * @param idCancha El ID de la cancha
      * @param fecha La fecha a consultar
      * @return Una lista de LocalTime con las horas de inicio libres
      */
     public List<LocalTime> consultarDisponibilidad(int idCancha, LocalDate fecha) {
-        List<LocalTime> libres = new ArrayList<>();
-        
-        // 1. Obtener el horario laboral para ESE día
-        HorarioLaboral horario = horarioDAO.obtenerHorario(fecha.getDayOfWeek());
-        if (horario == null) {
-            System.err.println("No hay horario laboral definido para " + fecha.getDayOfWeek());
-            return libres; // Devuelve lista vacía
-        }
+        long inicioNs = System.nanoTime();
+        try {
+            // 1. Obtener el horario laboral para ESE día
+            HorarioLaboral horario = horarioDAO.obtenerHorario(fecha.getDayOfWeek());
+            if (horario == null) {
+                System.err.println("No hay horario laboral definido para " + fecha.getDayOfWeek());
+                return new ArrayList<>(); // Devuelve lista vacía
+            }
 
-        // 2. Obtener todas las reservas existentes para esa cancha y día
-        String sqlReservas = "SELECT fecha_hora_inicio, duracion_minutos FROM reserva "
-                           + "WHERE id_cancha = ? AND DATE(fecha_hora_inicio) = ?";
-        
-        List<Reserva> reservasDelDia = new ArrayList<>();
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sqlReservas)) {
-             
-            ps.setInt(1, idCancha);
-            ps.setDate(2, java.sql.Date.valueOf(fecha));
-            
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    // (MODIFICADO) Creamos una cancha 'dummy' pero con el ID correcto
-                    // para que 'solapa' funcione en la capa de negocio.
-                    Cancha canchaDummy = new Cancha();
-                    canchaDummy.setIdCancha(idCancha);
-                    
-                    reservasDelDia.add(new ReservaSimple(
-                        0, 
-                        // rs.getTimestamp("fecha_hora_inicio").toLocalDateTime(), // (CORREGIDO) Causa bug de TimeZone
-                        rs.getObject("fecha_hora_inicio", LocalDateTime.class), // (SOLUCIÓN) Usa el tipo de Java 8+
-                        canchaDummy, null, // (MODIFICADO) Pasamos la cancha dummy
-                        rs.getInt("duracion_minutos")
-                    ));
-                }
+            // 2. Ocupación de esa cancha y día (del índice en memoria, o de MySQL si falta)
+            long[][] ocupados = ocupacionDe(idCancha, fecha, fecha);
+            if (ocupados == null) {
+                return new ArrayList<>(); // Devuelve lista vacía si hay error
             }
-        } catch (SQLException e) {
-            System.err.println("Error consultando disponibilidad: " + e.getMessage());
-            return libres; // Devuelve lista vacía si hay error
+
+            // 3. Recorrer los turnos del día contra el mapa de bits
+            return IndiceOcupacion.turnosLibresEn(ocupados[0], horario);
+        } finally {
+            M_CONSULTAR_DISPONIBILIDAD.registrar(inicioNs);
         }
+    }
 
-        // 3. Iterar por los horarios del día (SEGÚN LA BD)
-        LocalTime t = horario.getHoraApertura();
-        LocalTime finDia = horario.getHoraCierre();
-        int duracionTurno = horario.getDuracionTurnoMinutos();
+    /**
+     * Consulta la disponibilidad de TODAS las canchas (opcionalmente de un deporte)
+     * para una fecha, con una sola consulta por rango y una pasada en memoria.
+     * De paso deja cargado ese día de cada cancha en el índice de ocupación.
+     *
+     * @param fecha La fecha a consultar
+     * @param deporte El deporte a filtrar, o null para todas las canchas
+     * @return La grilla canchas x turnos (vacía si no hay horario o hay error)
+     */
+    public GrillaDisponibilidad consultarDisponibilidadGeneral(LocalDate fecha, String deporte) {
+        long inicioNs = System.nanoTime();
+        try {
+            HorarioLaboral horario = horarioDAO.obtenerHorario(fecha.getDayOfWeek());
+            if (horario == null) {
+                System.err.println("No hay horario laboral definido para " + fecha.getDayOfWeek());
+                return GrillaDisponibilidad.vacia(fecha);
+            }
 
-        while (t.isBefore(finDia)) {
-            LocalDateTime inicioTurno = LocalDateTime.of(fecha, t);
-            
-            boolean ocupado = false;
-            
-            // (MODIFICADO) Crear una reserva "dummy" con el ID de cancha correcto
-            Cancha canchaDummy = new Cancha();
-            canchaDummy.setIdCancha(idCancha);
-            ReservaSimple turnoAChequear = new ReservaSimple(0, inicioTurno, canchaDummy, null, duracionTurno);
-            
-            // 4. Comprobar si solapa con alguna reserva existente
-            for (Reserva r : reservasDelDia) {
-                if (turnoAChequear.solapa(r)) { // Usamos la lógica de negocio de Reserva.java
-                    ocupado = true;
-                    break;
+            // LEFT JOIN: las canchas sin reservas también aparecen (con columnas de reserva en NULL).
+            // Se incluye el día anterior por si alguna reserva cruza la medianoche.
+            String sql = "SELECT c.id_cancha, c.nombre, c.deporte, c.precio_por_hora, r.fecha_hora_inicio, r.duracion_minutos "
+                       + "FROM cancha c "
+                       + "LEFT JOIN reserva r ON r.id_cancha = c.id_cancha "
+                       + "AND r.fecha_hora_inicio >= ? AND r.fecha_hora_inicio < ? "
+                       + (deporte != null ? "WHERE c.deporte = ? " : "")
+                       + "ORDER BY c.nombre, c.id_cancha";
+
+            List<Cancha> canchas = new ArrayList<>();
+            List<long[]> bitsPorCancha = new ArrayList<>();
+            long version = OCUPACION.versionActual();
+
+            Object[] parametros = (deporte != null)
+                    ? new Object[]{fecha.minusDays(1).atStartOfDay(), fecha.plusDays(1).atStartOfDay(), deporte}
+                    : new Object[]{fecha.minusDays(1).atStartOfDay(), fecha.plusDays(1).atStartOfDay()};
+
+            try (Connection cn = ConexionDB.conectar()) {
+                EjecutorJdbc.procesar(cn, sql, rs -> {
+                    int idCancha = rs.getInt("id_cancha");
+                    // Las filas vienen agrupadas por cancha
+                    if (canchas.isEmpty() || canchas.get(canchas.size() - 1).getIdCancha() != idCancha) {
+                        canchas.add(CacheEntidades.cancha(
+                            idCancha,
+                            rs.getString("nombre"),
+                            rs.getString("deporte"),
+                            rs.getDouble("precio_por_hora")
+                        ));
+                        bitsPorCancha.add(IndiceOcupacion.nuevoDia());
+                    }
+
+                    LocalDateTime inicio = rs.getObject("fecha_hora_inicio", LocalDateTime.class);
+                    if (inicio == null) {
+                        return; // Cancha sin reservas en el rango
+                    }
+                    marcarEnDia(bitsPorCancha.get(bitsPorCancha.size() - 1), fecha, inicio, rs.getInt("duracion_minutos"));
+                }, parametros);
+
+                // Turnos de las series de esas canchas (mismo rango: día anterior y el pedido)
+                Map<Integer, long[]> bitsDeCancha = new HashMap<>();
+                for (int c = 0; c < canchas.size(); c++) {
+                    bitsDeCancha.put(canchas.get(c).getIdCancha(), bitsPorCancha.get(c));
+                }
+                List<SerieReserva> series = (deporte != null)
+                        ? SerieReserva.leerDeDeporte(cn, fecha.minusDays(1), fecha.plusDays(1), deporte)
+                        : SerieReserva.leer(cn, fecha.minusDays(1), fecha.plusDays(1), null);
+                for (SerieReserva serie : series) {
+                    long[] bits = bitsDeCancha.get(serie.getCancha().getIdCancha());
+                    if (bits == null) {
+                        continue;
+                    }
+                    for (LocalDate dia : serie.fechas(fecha.minusDays(1), fecha.plusDays(1))) {
+                        marcarEnDia(bits, fecha, serie.inicio(dia), serie.getDuracionMinutos());
+                    }
                 }
+            } catch (SQLException e) {
+                M_CONSULTAR_DISPONIBILIDAD_GENERAL.error();
+                EjecutorJdbc.informarError("Error consultando disponibilidad general", e);
+                return GrillaDisponibilidad.vacia(fecha);
             }
-            
-            if (!ocupado) {
-                libres.add(t);
+
+            // Pasada en memoria: cada turno contra el mapa de bits de cada cancha
+            int[] minutosTurnos = IndiceOcupacion.minutosDeTurnos(horario);
+            int duracion = horario.getDuracionTurnoMinutos();
+            List<LocalTime> turnos = new ArrayList<>();
+            for (int t : minutosTurnos) {
+                turnos.add(LocalTime.of(t / 60, t % 60));
             }
-            
-            t = t.plusMinutes(duracionTurno); // Siguiente turno
+
+            boolean[][] libres = new boolean[canchas.size()][minutosTurnos.length];
+            for (int c = 0; c < canchas.size(); c++) {
+                long[] bits = bitsPorCancha.get(c);
+                for (int t = 0; t < minutosTurnos.length; t++) {
+                    int fin = Math.min(IndiceOcupacion.MINUTOS_POR_DIA, minutosTurnos[t] + duracion);
+                    libres[c][t] = !IndiceOcupacion.hayBitsEnRango(bits, minutosTurnos[t], fin);
+                }
+                OCUPACION.cargarDia(canchas.get(c).getIdCancha(), fecha, bits, version);
+            }
+
+            return new GrillaDisponibilidad(fecha, canchas, turnos, libres);
+        } finally {
+            M_CONSULTAR_DISPONIBILIDAD_GENERAL.registrar(inicioNs);
         }
-        
-        return libres;
+    }
+
+    /**
+     * Marca en el mapa de bits de 'fecha' una reserva que empieza ese día o el anterior.
+     */
+    private static void marcarEnDia(long[] bits, LocalDate fecha, LocalDateTime inicio, int minutos) {
+        int desde = inicio.getHour() * 60 + inicio.getMinute();
+        int hasta = desde + minutos;
+        if (inicio.toLocalDate().isBefore(fecha)) {
+            // Reserva del día anterior: solo cuenta lo que pasa de la medianoche
+            desde = 0;
+            hasta -= IndiceOcupacion.MINUTOS_POR_DIA;
+        }
+        IndiceOcupacion.marcar(bits, desde, Math.min(IndiceOcupacion.MINUTOS_POR_DIA, hasta));
     }
 
     /**
      * Verifica si una lista de reservas propuestas entra en conflicto
      * con CUALQUIER reserva existente en la base de datos.
      * Usado para validar Reservas Fijas (y ahora Simples).
+     * La comprobación se hace contra el índice de ocupación en memoria.
      * @param reservasPropuestas La lista de reservas a verificar
      * @return Una lista de LocalDateTime de los horarios en conflicto (vacía si no hay)
      */
     public List<LocalDateTime> consultarConflictos(List<ReservaSimple> reservasPropuestas) {
-        List<LocalDateTime> conflictos = new ArrayList<>();
-        if (reservasPropuestas == null || reservasPropuestas.isEmpty()) {
+        long inicioNs = System.nanoTime();
+        try {
+            List<LocalDateTime> conflictos = new ArrayList<>();
+            if (reservasPropuestas == null || reservasPropuestas.isEmpty()) {
+                return conflictos;
+            }
+
+            // (MODIFICADO) Obtenemos la cancha del objeto (ya no es null)
+            Cancha canchaPropuesta = reservasPropuestas.get(0).getCancha();
+            if (canchaPropuesta == null) {
+                System.err.println("Error de validación: La reserva propuesta no tiene cancha.");
+                return conflictos; // No se puede validar
+            }
+            int idCancha = canchaPropuesta.getIdCancha();
+
+            // Rango de días cubierto por las propuestas (la lista no tiene por qué venir ordenada)
+            LocalDate fechaInicio = reservasPropuestas.get(0).getFechaHoraInicio().toLocalDate();
+            LocalDate fechaFin = fechaInicio;
+            for (ReservaSimple propuesta : reservasPropuestas) {
+                LocalDate f = propuesta.getFechaHoraInicio().toLocalDate();
+                if (f.isBefore(fechaInicio)) fechaInicio = f;
+                LocalDate fFin = propuesta.getFechaHoraFin().toLocalDate(); // Puede terminar al día siguiente
+                if (fFin.isAfter(fechaFin)) fechaFin = fFin;
+            }
+
+            // 2. Ocupación de esos días: del índice, y los que falten de MySQL (una sola consulta)
+            long[][] ocupados = ocupacionDe(idCancha, fechaInicio, fechaFin);
+            if (ocupados == null) {
+                // Si falla la comprobación, por seguridad, decimos que hay conflicto
+                conflictos.add(LocalDateTime.now()); 
+                return conflictos;
+            }
+
+            // 3. Comprobar cada reserva propuesta contra el mapa de bits
+            for (ReservaSimple propuesta : reservasPropuestas) {
+                if (!IndiceOcupacion.estaLibreEn(ocupados, fechaInicio,
+                        propuesta.getFechaHoraInicio(), propuesta.getDuracionMinutos())) {
+                    conflictos.add(propuesta.getFechaHoraInicio());
+                }
+            }
+
             return conflictos;
+        } finally {
+            M_CONSULTAR_CONFLICTOS.registrar(inicioNs);
         }
+    }
 
-        // (MODIFICADO) Obtenemos la cancha del objeto (ya no es null)
-        Cancha canchaPropuesta = reservasPropuestas.get(0).getCancha();
-        if (canchaPropuesta == null) {
-            System.err.println("Error de validación: La reserva propuesta no tiene cancha.");
-            return conflictos; // No se puede validar
+    /**
+     * Ocupación de una cancha en los días [desde, hasta] (bitsPorDia[0] = desde).
+     * Los días vigentes se copian del índice; los que faltan (o vencieron) se leen de
+     * la BD con UNA consulta por rango y se cargan en el índice.
+     * Se consulta sobre este arreglo y no sobre el índice: otro hilo puede descartar un
+     * día del índice (invalidar, barrido) en el medio, y ahí contaría como libre.
+     *
+     * @return Los bits de cada día, o null si hubo un error de BD
+     */
+    private long[][] ocupacionDe(int idCancha, LocalDate desde, LocalDate hasta) {
+        int cantidadDias = (int) (hasta.toEpochDay() - desde.toEpochDay()) + 1;
+        long[][] ocupados = new long[cantidadDias][];
+        // Buscar el primer y el último día que faltan
+        int primeroFaltante = -1;
+        int ultimoFaltante = -1;
+        for (int i = 0; i < cantidadDias; i++) {
+            ocupados[i] = OCUPACION.copiaDia(idCancha, desde.plusDays(i));
+            if (ocupados[i] == null) {
+                if (primeroFaltante < 0) primeroFaltante = i;
+                ultimoFaltante = i;
+            }
+        }
+        if (primeroFaltante < 0) {
+            return ocupados; // Todo en memoria, no hace falta ir a MySQL
         }
-        int idCancha = canchaPropuesta.getIdCancha();
-        
-        LocalDate fechaInicio = reservasPropuestas.get(0).getFechaHoraInicio().toLocalDate();
-        LocalDate fechaFin = reservasPropuestas.get(reservasPropuestas.size() - 1).getFechaHoraInicio().toLocalDate();
 
-        // 2. Traer TODAS las reservas existentes en ese rango de fechas para esa cancha
-        String sqlExistentes = "SELECT fecha_hora_inicio, duracion_minutos FROM reserva "
-                             + "WHERE id_cancha = ? AND DATE(fecha_hora_inicio) BETWEEN ? AND ?";
-        
-        List<Reserva> reservasExistentes = new ArrayList<>();
-        try (Connection cn = ConexionDB.conectar();
-             PreparedStatement ps = cn.prepareStatement(sqlExistentes)) {
-            
-            ps.setInt(1, idCancha);
-            ps.setDate(2, java.sql.Date.valueOf(fechaInicio));
-            ps.setDate(3, java.sql.Date.valueOf(fechaFin));
-
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    // (MODIFICADO) Creamos una cancha 'dummy' con el ID correcto
-                    Cancha canchaDummy = new Cancha();
-                    canchaDummy.setIdCancha(idCancha);
-                    
-                    reservasExistentes.add(new ReservaSimple(
-                        0, 
-                        // rs.getTimestamp("fecha_hora_inicio").toLocalDateTime(), // (CORREGIDO) Causa bug de TimeZone
-                        rs.getObject("fecha_hora_inicio", LocalDateTime.class), // (SOLUCIÓN) Usa el tipo de Java 8+
-                        canchaDummy, null, // Pasamos la cancha dummy
-                        rs.getInt("duracion_minutos")
-                    ));
-                }
-            }
+        // Se incluye el día anterior por si una reserva de ese día cruza la medianoche
+        LocalDate consultaDesde = desde.plusDays(primeroFaltante - 1);
+        LocalDate consultaHasta = desde.plusDays(ultimoFaltante + 1); // exclusivo
+        long[][] bitsPorDia;
+
+        long version = OCUPACION.versionActual();
+        long inicioNs = System.nanoTime();
+        try (Connection cn = ConexionDB.conectar()) {
+            bitsPorDia = leerOcupacion(cn, idCancha, consultaDesde, consultaHasta);
         } catch (SQLException e) {
-            System.err.println("Error consultando conflictos: " + e.getMessage());
-            // Si falla la comprobación, por seguridad, decimos que hay conflicto
-            conflictos.add(LocalDateTime.now()); 
-            return conflictos;
+            M_CARGAR_OCUPACION.error();
+            EjecutorJdbc.informarError("Error cargando ocupación de la cancha " + idCancha, e);
+            return null;
+        } finally {
+            M_CARGAR_OCUPACION.registrar(inicioNs);
         }
 
-        // 3. Comprobar cada reserva propuesta contra las existentes (lógica en memoria)
-        for (ReservaSimple propuesta : reservasPropuestas) {
-            for (Reserva existente : reservasExistentes) {
-                // Ahora 'solapa' comparará IDs de cancha (propuesta.cancha vs existente.cancha)
-                if (propuesta.solapa(existente)) {
-                    conflictos.add(propuesta.getFechaHoraInicio());
-                    break; // No es necesario seguir comprobando esta propuesta
-                }
+        // Usar y guardar solo los días pedidos que faltaban (el día anterior se leyó solo por el desborde)
+        for (int i = primeroFaltante; i <= ultimoFaltante; i++) {
+            if (ocupados[i] == null) {
+                ocupados[i] = bitsPorDia[i - primeroFaltante + 1];
+                OCUPACION.cargarDia(idCancha, desde.plusDays(i), ocupados[i], version);
             }
         }
-        
-        return conflictos;
+        return ocupados;
     }
-}
 
+    /**
+     * Lee la ocupación de una cancha en los días [desde, hastaExclusivo) con UNA consulta
+     * por rango, más los turnos de las series de la cancha en esos días.
+     * bitsPorDia[0] corresponde a 'desde'; las reservas que cruzan la medianoche
+     * se parten entre los dos días (las del día anterior a 'desde' no se leen).
+     */
+    static long[][] leerOcupacion(Connection cn, int idCancha, LocalDate desde, LocalDate hastaExclusivo) throws SQLException {
+        int cantidadDias = (int) (hastaExclusivo.toEpochDay() - desde.toEpochDay());
+        long[][] bitsPorDia = new long[cantidadDias][];
+        for (int i = 0; i < cantidadDias; i++) {
+            bitsPorDia[i] = IndiceOcupacion.nuevoDia();
+        }
 
+        EjecutorJdbc.procesar(cn, SQL_OCUPACION, rs -> IndiceOcupacion.marcarEn(bitsPorDia, desde,
+                rs.getObject("fecha_hora_inicio", LocalDateTime.class), rs.getInt("duracion_minutos")),
+                idCancha, desde.atStartOfDay(), hastaExclusivo.atStartOfDay());
+        for (SerieReserva serie : SerieReserva.leer(cn, desde, hastaExclusivo, idCancha)) {
+            for (LocalDate dia : serie.fechas(desde, hastaExclusivo)) {
+                IndiceOcupacion.marcarEn(bitsPorDia, desde, serie.inicio(dia), serie.getDuracionMinutos());
+            }
+        }
+        return bitsPorDia;
+    }
+}
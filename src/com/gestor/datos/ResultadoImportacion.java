@@ -0,0 +1,58 @@
+package com.gestor.datos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Resultado de una importación de CSV (ver ImportadorCsv): cuántos registros se leyeron,
+ * cuántos se guardaron, cuántos ya existían y cuáles se rechazaron (con línea y motivo).
+ */
+public final class ResultadoImportacion {
+
+    // Se guardan los motivos de los primeros rechazos; el resto solo se cuenta
+    static final int MAXIMO_RECHAZOS_GUARDADOS = 10000;
+
+    private long leidos;
+    private long importados;
+    private long duplicados;
+    private long rechazados;
+    private final List<String> rechazos = new ArrayList<>();
+    private String error; // null si la importación llegó al final del archivo
+
+    public long getLeidos() { return leidos; }
+    public long getImportados() { return importados; }
+    public long getDuplicados() { return duplicados; }
+    public long getRechazados() { return rechazados; }
+
+    /**
+     * Rechazos en el formato "Línea N: motivo" (a lo sumo MAXIMO_RECHAZOS_GUARDADOS).
+     */
+    public List<String> getRechazos() { return Collections.unmodifiableList(rechazos); }
+
+    /**
+     * Motivo por el que se cortó la importación (archivo ilegible, error de BD), o null si terminó.
+     * Lo importado hasta ese momento queda guardado.
+     */
+    public String getError() { return error; }
+    public boolean isCompleta() { return error == null; }
+
+    void contarLeido() { leidos++; }
+    void contarImportados(int cantidad) { importados += cantidad; }
+    void contarDuplicado() { duplicados++; }
+
+    void rechazar(long linea, String motivo) {
+        rechazados++;
+        if (rechazos.size() < MAXIMO_RECHAZOS_GUARDADOS) {
+            rechazos.add("Línea " + linea + ": " + motivo);
+        }
+    }
+
+    void setError(String error) { this.error = error; }
+
+    @Override
+    public String toString() {
+        return leidos + " leídos, " + importados + " importados, " + duplicados + " ya existían, "
+                + rechazados + " rechazados" + (error != null ? " (interrumpida: " + error + ")" : "");
+    }
+}
@@ -0,0 +1,35 @@
+package com.gestor.datos;
+
+/**
+ * Resultado de una solicitud de reserva procesada por el pipeline de reservas:
+ * aceptada (con el ID generado) o rechazada (con el motivo).
+ */
+public final class ResultadoReserva {
+
+    private final boolean aceptada;
+    private final int idReserva;   // -1 si fue rechazada
+    private final String motivo;   // null si fue aceptada
+
+    private ResultadoReserva(boolean aceptada, int idReserva, String motivo) {
+        this.aceptada = aceptada;
+        this.idReserva = idReserva;
+        this.motivo = motivo;
+    }
+
+    public static ResultadoReserva aceptada(int idReserva) {
+        return new ResultadoReserva(true, idReserva, null);
+    }
+
+    public static ResultadoReserva rechazada(String motivo) {
+        return new ResultadoReserva(false, -1, motivo);
+    }
+
+    public boolean isAceptada() { return aceptada; }
+    public int getIdReserva() { return idReserva; }
+    public String getMotivo() { return motivo; }
+
+    @Override
+    public String toString() {
+        return aceptada ? "Aceptada (ID " + idReserva + ")" : "Rechazada: " + motivo;
+    }
+}
@@ -0,0 +1,151 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.Tarifa;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Cambios pendientes sobre la tabla resumen_diario (cancha x día: minutos, cantidad
+ * de reservas y recaudación), acumulados en memoria y escritos con un único lote.
+ *
+ * ReservaDAO arma uno por cada alta o baja y lo aplica con la conexión de la misma
+ * transacción: el resumen nunca queda desfasado de la tabla reserva. Cada reserva
+ * cuenta entera en el día en que empieza (aunque pase la medianoche); cada turno de
+ * una serie (reserva_serie) cuenta como una reserva.
+ */
+final class ResumenDiario {
+
+    // Suma (o resta) los valores del día; crea la fila si no existe
+    private static final String SQL_ACUMULAR =
+            "INSERT INTO resumen_diario (id_cancha, fecha, minutos_reservados, cantidad_reservas, recaudacion) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE minutos_reservados = minutos_reservados + VALUES(minutos_reservados), "
+            + "cantidad_reservas = cantidad_reservas + VALUES(cantidad_reservas), "
+            + "recaudacion = recaudacion + VALUES(recaudacion)";
+    // Los días que quedaron sin reservas no ocupan lugar
+    private static final String SQL_PURGAR_VACIAS =
+            "DELETE FROM resumen_diario WHERE id_cancha = ? AND fecha = ? AND cantidad_reservas <= 0";
+
+    private static final String SQL_BORRAR_TODO = "DELETE FROM resumen_diario";
+    private static final String SQL_BORRAR_RANGO = SQL_BORRAR_TODO + " WHERE fecha >= ? AND fecha < ?";
+    // Las reservas archivadas (ver MantenimientoReservas) también cuentan
+    private static final String SQL_RECALCULAR =
+            "INSERT INTO resumen_diario (id_cancha, fecha, minutos_reservados, cantidad_reservas, recaudacion) "
+            + "SELECT id_cancha, DATE(fecha_hora_inicio), SUM(duracion_minutos), COUNT(*), SUM(costo_total) FROM (";
+    private static final String SQL_FILAS = "SELECT id_cancha, fecha_hora_inicio, duracion_minutos, costo_total FROM ";
+    private static final String SQL_EN_RANGO = " WHERE fecha_hora_inicio >= ? AND fecha_hora_inicio < ?";
+    private static final String SQL_AGRUPAR = ") r GROUP BY id_cancha, DATE(fecha_hora_inicio)";
+    private static final String SQL_RECALCULAR_TODO =
+            SQL_RECALCULAR + SQL_FILAS + "reserva UNION ALL " + SQL_FILAS + "reserva_archivo" + SQL_AGRUPAR;
+    private static final String SQL_RECALCULAR_RANGO =
+            SQL_RECALCULAR + SQL_FILAS + "reserva" + SQL_EN_RANGO
+            + " UNION ALL " + SQL_FILAS + "reserva_archivo" + SQL_EN_RANGO + SQL_AGRUPAR;
+
+    private static final int TAMANO_LOTE = 500;
+
+    /*
+     * Ordenado por (cancha, fecha): dos transacciones que tocan las mismas filas
+     * las bloquean en el mismo orden y no pueden trabarse entre sí.
+     */
+    private final Map<Clave, Fila> cambios = new TreeMap<>(
+            Comparator.comparingInt((Clave c) -> c.idCancha).thenComparing(c -> c.fecha));
+    private boolean hayBajas = false;
+
+    /** Una reserva nueva. */
+    void sumar(int idCancha, LocalDate fecha, int minutos, BigDecimal costo) {
+        acumular(idCancha, fecha, minutos, 1, Tarifa.redondearMonto(costo));
+    }
+
+    /** Una reserva borrada. */
+    void restar(int idCancha, LocalDate fecha, int minutos, BigDecimal costo) {
+        acumular(idCancha, fecha, -minutos, -1, costo.negate());
+        hayBajas = true;
+    }
+
+    /**
+     * Escribe los cambios con la conexión (y la transacción) del llamador.
+     */
+    void aplicar(Connection cn) throws SQLException {
+        if (cambios.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Clave, Fila>> filas = new ArrayList<>(cambios.entrySet());
+        EjecutorJdbc.ejecutarEnLote(cn, SQL_ACUMULAR, filas, (ps, e) -> EjecutorJdbc.asignar(ps,
+                e.getKey().idCancha,
+                e.getKey().fecha,
+                e.getValue().minutos,
+                e.getValue().reservas,
+                e.getValue().recaudacion), TAMANO_LOTE);
+        if (hayBajas) {
+            EjecutorJdbc.ejecutarEnLote(cn, SQL_PURGAR_VACIAS, filas, (ps, e) -> EjecutorJdbc.asignar(ps,
+                    e.getKey().idCancha, e.getKey().fecha), TAMANO_LOTE);
+        }
+        cambios.clear();
+        hayBajas = false;
+    }
+
+    /**
+     * Recalcula el resumen de [desde, hastaExclusivo) a partir de las tablas reserva y reserva_archivo,
+     * más los turnos de las series (reserva_serie, expandidas en memoria), con la conexión
+     * (y la transacción) del llamador. Sin rango (ambos null), todo.
+     * @return Filas (cancha x día) escritas por la consulta, más los días con turnos de series
+     */
+    static int reconstruir(Connection cn, LocalDate desde, LocalDate hastaExclusivo) throws SQLException {
+        int filas;
+        List<SerieReserva> series;
+        if (desde == null || hastaExclusivo == null) {
+            EjecutorJdbc.actualizar(cn, SQL_BORRAR_TODO);
+            filas = EjecutorJdbc.actualizar(cn, SQL_RECALCULAR_TODO);
+            series = SerieReserva.leerTodas(cn);
+            desde = LocalDate.MIN;
+            hastaExclusivo = LocalDate.MAX;
+        } else {
+            EjecutorJdbc.actualizar(cn, SQL_BORRAR_RANGO, desde, hastaExclusivo);
+            filas = EjecutorJdbc.actualizar(cn, SQL_RECALCULAR_RANGO, desde.atStartOfDay(), hastaExclusivo.atStartOfDay(),
+                    desde.atStartOfDay(), hastaExclusivo.atStartOfDay());
+            series = SerieReserva.leer(cn, desde, hastaExclusivo, null);
+        }
+
+        // Se suman sobre lo recalculado (SQL_ACUMULAR crea o acumula la fila)
+        ResumenDiario turnos = new ResumenDiario();
+        for (SerieReserva serie : series) {
+            int idCancha = serie.getCancha().getIdCancha();
+            for (LocalDate fecha : serie.fechas(desde, hastaExclusivo)) {
+                turnos.acumular(idCancha, fecha, serie.getDuracionMinutos(), 1, serie.costo(fecha));
+            }
+        }
+        filas += turnos.cambios.size();
+        turnos.aplicar(cn);
+        return filas;
+    }
+
+    private void acumular(int idCancha, LocalDate fecha, int minutos, int reservas, BigDecimal recaudacion) {
+        Fila f = cambios.computeIfAbsent(new Clave(idCancha, fecha), k -> new Fila());
+        f.minutos += minutos;
+        f.reservas += reservas;
+        f.recaudacion = f.recaudacion.add(recaudacion);
+    }
+
+    private static final class Clave {
+        final int idCancha;
+        final LocalDate fecha;
+
+        Clave(int idCancha, LocalDate fecha) {
+            this.idCancha = idCancha;
+            this.fecha = fecha;
+        }
+    }
+
+    private static final class Fila {
+        int minutos;
+        int reservas;
+        BigDecimal recaudacion = BigDecimal.ZERO;
+    }
+}
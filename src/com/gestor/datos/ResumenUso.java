@@ -0,0 +1,47 @@
+package com.gestor.datos;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Una fila de un reporte de uso y recaudación (ver ReporteDAO).
+ * Según el reporte agrupa por cancha, por deporte o por mes; lo que no aplica queda en null.
+ */
+public final class ResumenUso {
+
+    private final Integer idCancha;     // null si agrupa varias canchas
+    private final String cancha;        // null si agrupa varias canchas
+    private final String deporte;       // null si agrupa varios deportes
+    private final YearMonth mes;        // null si cubre todo el período consultado
+    private final long minutosReservados;
+    private final long cantidadReservas;
+    private final BigDecimal recaudacion;
+
+    ResumenUso(Integer idCancha, String cancha, String deporte, YearMonth mes,
+               long minutosReservados, long cantidadReservas, BigDecimal recaudacion) {
+        this.idCancha = idCancha;
+        this.cancha = cancha;
+        this.deporte = deporte;
+        this.mes = mes;
+        this.minutosReservados = minutosReservados;
+        this.cantidadReservas = cantidadReservas;
+        this.recaudacion = (recaudacion != null) ? recaudacion : BigDecimal.ZERO;
+    }
+
+    public Integer getIdCancha() { return idCancha; }
+    public String getCancha() { return cancha; }
+    public String getDeporte() { return deporte; }
+    public YearMonth getMes() { return mes; }
+    public long getMinutosReservados() { return minutosReservados; }
+    public long getCantidadReservas() { return cantidadReservas; }
+    public BigDecimal getRecaudacion() { return recaudacion; }
+
+    public double getHorasReservadas() { return minutosReservados / 60.0; }
+
+    @Override
+    public String toString() {
+        String clave = (cancha != null) ? cancha : (deporte != null) ? deporte : "Total";
+        return clave + (mes != null ? " " + mes : "") + ": " + cantidadReservas + " reservas, "
+                + minutosReservados + " min, $" + recaudacion;
+    }
+}
@@ -0,0 +1,383 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.Cliente;
+import com.gestor.negocio.Recurrencia;
+import com.gestor.negocio.ReservaFija;
+import com.gestor.negocio.ReservaSimple;
+import com.gestor.negocio.Tarifa;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Una reserva fija guardada como serie (ver migraciones/V8.sql): la regla de repetición
+ * en una fila de reserva_serie y las fechas que no la siguen en reserva_serie_excepcion.
+ *
+ * Los turnos de la serie no se guardan uno por uno: quien lee un rango de fechas carga
+ * las series que lo tocan (con las excepciones de ese rango) y las expande en memoria
+ * con Recurrencia. En la tabla reserva quedan solo las reservas sueltas.
+ *
+ * Cada turno cuesta costo_turno, salvo las fechas 'Modificada' (la tarifa de ese día era
+ * otra al crear la serie): el costo queda fijo aunque después cambie la tarifa.
+ */
+final class SerieReserva {
+
+    static final String OMITIDA = "Omitida";
+    static final String MODIFICADA = "Modificada";
+
+    private static final String SQL_INSERTAR =
+            "INSERT INTO reserva_serie (id_serie, id_cancha, id_cliente, fecha_inicio, fecha_fin, hora_inicio, "
+            + "duracion_minutos, dias_semana, intervalo_semanas, costo_turno) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERTAR_EXCEPCION =
+            "INSERT INTO reserva_serie_excepcion (id_serie, fecha, tipo, costo) VALUES (?, ?, ?, ?)";
+    // Una fecha 'Modificada' que se cancela pasa a 'Omitida'
+    private static final String SQL_OMITIR =
+            "INSERT INTO reserva_serie_excepcion (id_serie, fecha, tipo, costo) VALUES (?, ?, '" + OMITIDA + "', NULL) "
+            + "ON DUPLICATE KEY UPDATE tipo = VALUES(tipo), costo = NULL";
+    private static final String SQL_BLOQUEAR = "SELECT id_serie FROM reserva_serie WHERE id_serie = ? FOR UPDATE";
+    private static final String SQL_BORRAR = "DELETE FROM reserva_serie WHERE id_serie = ?"; // Excepciones en cascada
+
+    // Consulta = SQL_SERIES + un filtro + SQL_ORDEN. Las excepciones (solo las del rango leído)
+    // vienen por LEFT JOIN: una fila por excepción, o una sola si la serie no tiene.
+    private static final String SQL_SERIES =
+            "SELECT s.*, c.nombre AS cancha_nombre, c.deporte, c.precio_por_hora, cl.nombre AS cliente_nombre, cl.telefono, "
+            + "e.fecha AS fecha_excepcion, e.tipo AS tipo_excepcion, e.costo AS costo_excepcion "
+            + "FROM reserva_serie s "
+            + "JOIN cancha c ON s.id_cancha = c.id_cancha "
+            + "JOIN cliente cl ON s.id_cliente = cl.id "
+            + "LEFT JOIN reserva_serie_excepcion e ON e.id_serie = s.id_serie AND e.fecha >= ? AND e.fecha < ? ";
+    // Series con alguna ocurrencia posible en [desde, hasta): usa idx_serie_cancha_fin / idx_serie_fin
+    private static final String SQL_EN_RANGO = "WHERE s.fecha_fin >= ? AND s.fecha_inicio < ? ";
+    private static final String SQL_DE_CANCHA = "AND s.id_cancha = ? ";
+    private static final String SQL_DE_DEPORTE = "AND c.deporte = ? ";
+    private static final String SQL_POR_ID = "WHERE s.id_serie = ? ";
+    private static final String SQL_ORDEN = "ORDER BY s.id_serie";
+
+    private static final int TAMANO_LOTE = 500;
+
+    // Rango del tipo DATE de MySQL: para leer todas las series sin filtrar por fecha
+    private static final LocalDate FECHA_MINIMA = LocalDate.of(1000, 1, 1);
+    private static final LocalDate FECHA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    private final int idSerie;
+    private final Cancha cancha;
+    private final Cliente cliente;
+    private final LocalDate fechaInicio;
+    private final LocalDate fechaFin;
+    private final LocalTime horaInicio;
+    private final int duracionMinutos;
+    private final int diasSemana;
+    private final int intervaloSemanas;
+    private final BigDecimal costoTurno;
+
+    // Excepciones del rango leído; la recurrencia se arma al terminar de leerlas
+    private final Set<LocalDate> omitidas = new HashSet<>();
+    private final Map<LocalDate, BigDecimal> costosModificados = new HashMap<>();
+    private Recurrencia recurrencia;
+
+    private SerieReserva(ResultSet rs) throws SQLException {
+        this.idSerie = rs.getInt("id_serie");
+        // Una sola instancia por cancha y por cliente (mapa de identidad compartido)
+        this.cancha = CacheEntidades.cancha(
+            rs.getInt("id_cancha"),
+            rs.getString("cancha_nombre"),
+            rs.getString("deporte"),
+            rs.getDouble("precio_por_hora")
+        );
+        this.cliente = CacheEntidades.cliente(
+            rs.getInt("id_cliente"),
+            rs.getString("cliente_nombre"),
+            rs.getString("telefono")
+        );
+        this.fechaInicio = rs.getObject("fecha_inicio", LocalDate.class);
+        this.fechaFin = rs.getObject("fecha_fin", LocalDate.class);
+        this.horaInicio = rs.getObject("hora_inicio", LocalTime.class);
+        this.duracionMinutos = rs.getInt("duracion_minutos");
+        this.diasSemana = rs.getInt("dias_semana");
+        this.intervaloSemanas = rs.getInt("intervalo_semanas");
+        this.costoTurno = rs.getBigDecimal("costo_turno");
+    }
+
+    int getIdSerie() { return idSerie; }
+    Cancha getCancha() { return cancha; }
+    int getDuracionMinutos() { return duracionMinutos; }
+
+    // -----------------------------------------------------------
+    // Expansión en memoria
+    // -----------------------------------------------------------
+
+    /**
+     * Fechas de los turnos de la serie que empiezan en [desde, hastaExclusivo), en orden.
+     * Solo vale dentro del rango con el que se leyó la serie (las excepciones son de ese rango).
+     */
+    List<LocalDate> fechas(LocalDate desde, LocalDate hastaExclusivo) {
+        List<LocalDate> fechas = new ArrayList<>();
+        Iterator<LocalDate> it = recurrencia.iteradorDesde(desde);
+        while (it.hasNext()) {
+            LocalDate f = it.next();
+            if (!f.isBefore(hastaExclusivo)) {
+                break;
+            }
+            fechas.add(f);
+        }
+        return fechas;
+    }
+
+    /** true si la serie tiene un turno (no omitido) ese día. */
+    boolean tieneTurno(LocalDate fecha) {
+        return fecha.equals(recurrencia.siguienteDesde(fecha));
+    }
+
+    LocalDateTime inicio(LocalDate fecha) {
+        return LocalDateTime.of(fecha, horaInicio);
+    }
+
+    BigDecimal costo(LocalDate fecha) {
+        return costosModificados.getOrDefault(fecha, costoTurno);
+    }
+
+    /**
+     * El turno de esa fecha como reserva (sin ID propio: id 0 y el id de la serie como grupo).
+     */
+    ReservaSimple turno(LocalDate fecha) {
+        ReservaSimple r = new ReservaSimple(0, inicio(fecha), cancha, cliente, duracionMinutos, idSerie);
+        r.setCostoTotal(costo(fecha));
+        return r;
+    }
+
+    /**
+     * Los turnos de varias series en [desde, hastaExclusivo), en orden de inicio, generados de a
+     * uno a medida que se piden: la memoria depende de la cantidad de series, no de turnos.
+     * Sirve para intercalarlos con filas de la tabla reserva que llegan ordenadas por fecha.
+     */
+    static final class Expansion {
+
+        private final PriorityQueue<Cursor> cola = new PriorityQueue<>(
+                Comparator.comparing((Cursor c) -> c.inicio).thenComparingInt(c -> c.serie.idSerie));
+        private final LocalDate hastaExclusivo;
+
+        Expansion(List<SerieReserva> series, LocalDate desde, LocalDate hastaExclusivo) {
+            this.hastaExclusivo = hastaExclusivo;
+            for (SerieReserva s : series) {
+                avanzar(new Cursor(s, s.recurrencia.iteradorDesde(desde)));
+            }
+        }
+
+        /** Entrega a 'consumidor' los turnos que empiezan antes de 'limite'. */
+        void entregarAntesDe(LocalDateTime limite, Consumer<? super ReservaSimple> consumidor) {
+            while (!cola.isEmpty() && cola.peek().inicio.isBefore(limite)) {
+                entregarSiguiente(consumidor);
+            }
+        }
+
+        /** Entrega los turnos que quedan. */
+        void entregarResto(Consumer<? super ReservaSimple> consumidor) {
+            while (!cola.isEmpty()) {
+                entregarSiguiente(consumidor);
+            }
+        }
+
+        private void entregarSiguiente(Consumer<? super ReservaSimple> consumidor) {
+            Cursor c = cola.poll();
+            consumidor.accept(c.serie.turno(c.fecha));
+            avanzar(c);
+        }
+
+        private void avanzar(Cursor c) {
+            if (!c.fechas.hasNext()) {
+                return;
+            }
+            LocalDate f = c.fechas.next();
+            if (f.isBefore(hastaExclusivo)) {
+                c.fecha = f;
+                c.inicio = c.serie.inicio(f);
+                cola.add(c);
+            }
+        }
+
+        private static final class Cursor {
+            final SerieReserva serie;
+            final Iterator<LocalDate> fechas;
+            LocalDate fecha;
+            LocalDateTime inicio;
+
+            Cursor(SerieReserva serie, Iterator<LocalDate> fechas) {
+                this.serie = serie;
+                this.fechas = fechas;
+            }
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Lectura
+    // -----------------------------------------------------------
+
+    /**
+     * Series con algún turno posible en [desde, hastaExclusivo), con las excepciones de ese rango.
+     * @param idCancha Solo las de esa cancha, o null para todas
+     */
+    static List<SerieReserva> leer(Connection cn, LocalDate desde, LocalDate hastaExclusivo, Integer idCancha) throws SQLException {
+        if (idCancha != null) {
+            return leer(cn, SQL_SERIES + SQL_EN_RANGO + SQL_DE_CANCHA + SQL_ORDEN,
+                    desde, hastaExclusivo, desde, hastaExclusivo, idCancha);
+        }
+        return leer(cn, SQL_SERIES + SQL_EN_RANGO + SQL_ORDEN, desde, hastaExclusivo, desde, hastaExclusivo);
+    }
+
+    /**
+     * Como leer(), pero solo las series de las canchas de un deporte.
+     */
+    static List<SerieReserva> leerDeDeporte(Connection cn, LocalDate desde, LocalDate hastaExclusivo, String deporte) throws SQLException {
+        return leer(cn, SQL_SERIES + SQL_EN_RANGO + SQL_DE_DEPORTE + SQL_ORDEN,
+                desde, hastaExclusivo, desde, hastaExclusivo, deporte);
+    }
+
+    /** Todas las series, completas (para reconstruir el resumen diario). */
+    static List<SerieReserva> leerTodas(Connection cn) throws SQLException {
+        return leer(cn, FECHA_MINIMA, FECHA_MAXIMA, null);
+    }
+
+    /**
+     * Bloquea la fila de la serie (FOR UPDATE) en la transacción del llamador y la lee
+     * con las excepciones de [desde, hastaExclusivo).
+     * @return La serie, o null si no existe
+     */
+    static SerieReserva bloquear(Connection cn, int idSerie, LocalDate desde, LocalDate hastaExclusivo) throws SQLException {
+        if (EjecutorJdbc.consultarUno(cn, SQL_BLOQUEAR, rs -> Boolean.TRUE, idSerie) == null) {
+            return null;
+        }
+        List<SerieReserva> series = leer(cn, SQL_SERIES + SQL_POR_ID, desde, hastaExclusivo, idSerie);
+        return series.isEmpty() ? null : series.get(0);
+    }
+
+    /** Como bloquear(), con todas las excepciones de la serie. */
+    static SerieReserva bloquear(Connection cn, int idSerie) throws SQLException {
+        return bloquear(cn, idSerie, FECHA_MINIMA, FECHA_MAXIMA);
+    }
+
+    private static List<SerieReserva> leer(Connection cn, String sql, Object... parametros) throws SQLException {
+        List<SerieReserva> series = new ArrayList<>();
+        EjecutorJdbc.procesar(cn, sql, rs -> {
+            // Las filas de una misma serie vienen juntas (ORDER BY id_serie)
+            SerieReserva s = series.isEmpty() ? null : series.get(series.size() - 1);
+            if (s == null || s.idSerie != rs.getInt("id_serie")) {
+                s = new SerieReserva(rs);
+                series.add(s);
+            }
+            LocalDate fecha = rs.getObject("fecha_excepcion", LocalDate.class);
+            if (fecha == null) {
+                return; // Sin excepciones en el rango
+            }
+            if (MODIFICADA.equals(rs.getString("tipo_excepcion")) && rs.getBigDecimal("costo_excepcion") != null) {
+                s.costosModificados.put(fecha, rs.getBigDecimal("costo_excepcion"));
+            } else {
+                s.omitidas.add(fecha);
+            }
+        }, parametros);
+        for (SerieReserva s : series) {
+            s.recurrencia = new Recurrencia(s.fechaInicio, deMascara(s.diasSemana), Math.max(1, s.intervaloSemanas),
+                    s.fechaFin, 0, s.omitidas);
+        }
+        return series;
+    }
+
+    // -----------------------------------------------------------
+    // Escritura (con la transacción del llamador)
+    // -----------------------------------------------------------
+
+    /**
+     * Guarda una serie nueva: la fila de reserva_serie y, como excepciones, las fechas que
+     * la regla daría pero no están en 'turnos' (las excluidas) y las que no cuestan lo mismo
+     * que la mayoría.
+     *
+     * @param turnos Los turnos de la serie, en orden de fecha, con su costo
+     */
+    static void insertar(Connection cn, int idSerie, ReservaFija fija, List<ReservaSimple> turnos) throws SQLException {
+        Recurrencia regla = fija.getRecurrencia();
+        LocalDate inicio = fija.getFechaHoraInicio().toLocalDate();
+        LocalDate fin = turnos.get(turnos.size() - 1).getFechaHoraInicio().toLocalDate();
+
+        // El costo más repetido es el de la serie; el resto va como excepción
+        Map<LocalDate, BigDecimal> costos = new HashMap<>();
+        Map<BigDecimal, Integer> repeticiones = new HashMap<>();
+        BigDecimal costoTurno = null;
+        for (ReservaSimple t : turnos) {
+            BigDecimal costo = Tarifa.redondearMonto(t.calcularCostoTotal()); // Misma escala: clave del mapa
+            costos.put(t.getFechaHoraInicio().toLocalDate(), costo);
+            int n = repeticiones.merge(costo, 1, Integer::sum);
+            if (costoTurno == null || n > repeticiones.get(costoTurno)) {
+                costoTurno = costo;
+            }
+        }
+
+        List<Object[]> excepciones = new ArrayList<>();
+        Recurrencia sinExcepciones = new Recurrencia(inicio, regla.getDias(), regla.getIntervaloSemanas(), fin, 0, null);
+        for (LocalDate fecha : sinExcepciones) {
+            BigDecimal costo = costos.get(fecha);
+            if (costo == null) {
+                excepciones.add(new Object[]{idSerie, fecha, OMITIDA, null});
+            } else if (costo.compareTo(costoTurno) != 0) {
+                excepciones.add(new Object[]{idSerie, fecha, MODIFICADA, costo});
+            }
+        }
+
+        EjecutorJdbc.actualizar(cn, SQL_INSERTAR,
+                idSerie,
+                fija.getCancha().getIdCancha(),
+                fija.getCliente().getIdCliente(),
+                inicio,
+                fin,
+                fija.getFechaHoraInicio().toLocalTime(),
+                fija.getDuracionMinutos(),
+                aMascara(regla.getDias()),
+                regla.getIntervaloSemanas(),
+                costoTurno);
+        EjecutorJdbc.ejecutarEnLote(cn, SQL_INSERTAR_EXCEPCION, excepciones, EjecutorJdbc::asignar, TAMANO_LOTE);
+    }
+
+    /** Marca la fecha como omitida (el turno de ese día se cancela). */
+    static void omitir(Connection cn, int idSerie, LocalDate fecha) throws SQLException {
+        EjecutorJdbc.actualizar(cn, SQL_OMITIR, idSerie, fecha);
+    }
+
+    /** Borra la serie y sus excepciones. @return true si existía */
+    static boolean borrar(Connection cn, int idSerie) throws SQLException {
+        return EjecutorJdbc.actualizar(cn, SQL_BORRAR, idSerie) > 0;
+    }
+
+    // Bit 0 = lunes ... bit 6 = domingo
+    private static int aMascara(Set<DayOfWeek> dias) {
+        int mascara = 0;
+        for (DayOfWeek d : dias) {
+            mascara |= 1 << (d.getValue() - 1);
+        }
+        return mascara;
+    }
+
+    private static Set<DayOfWeek> deMascara(int mascara) {
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if ((mascara & (1 << (d.getValue() - 1))) != 0) {
+                dias.add(d);
+            }
+        }
+        return dias;
+    }
+}
@@ -1,20 +1,16 @@
 package com.gestor.datos;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 
 /**
  * Clase de utilidad para inicializar la base de datos.
- * Se encarga de conectarse al servidor MySQL y ejecutar el script
- * 'schema.sql' para crear la base de datos y las tablas si no existen.
- * Puebla los horarios por defecto.
+ * Se conecta al servidor MySQL y aplica las migraciones pendientes del esquema
+ * (ver MigradorEsquema): crea la base de datos y las tablas la primera vez,
+ * y en los arranques siguientes solo verifica la versión con una consulta.
+ * Los horarios por defecto se cargan en la migración inicial.
  */
 public class SetUpDB {
 
@@ -22,69 +18,32 @@ public class SetUpDB {
     private static final String URL_SERVER = "jdbc:mysql://localhost:3306/?useSSL=false&serverTimezone=UTC";
     private static final String USER = "root";     // Usuario root de MySQL
     private static final String PASSWORD = "";      // Contraseña de root de MySQL
-    private static final String SCRIPT_PATH = "schema.sql"; // Ruta al script en la raíz del proyecto
+
+    private static final MetricaOperacion M_VERIFICAR = Metricas.operacion("SetUpDB.verificarYCrearBD");
 
     /**
      * Método público que inicia la verificación y creación de la BD.
      */
     public static void verificarYCrearBD() {
-        try (Connection cn = DriverManager.getConnection(URL_SERVER, USER, PASSWORD);
-             Statement st = cn.createStatement()) {
+        long inicioNs = System.nanoTime();
+        try (Connection cn = DriverManager.getConnection(URL_SERVER, USER, PASSWORD)) {
 
             System.out.println("Conectado al servidor MySQL. Verificando base de datos...");
-            String sqlScript = new String(Files.readAllBytes(Paths.get(SCRIPT_PATH)));
-
-            // Separar los comandos por punto y coma
-            String[] commands = sqlScript.split(";");
-
-            for (String command : commands) {
-                String trimmedCommand = command.trim();
-                if (!trimmedCommand.isEmpty()) {
-                    st.execute(trimmedCommand);
-                }
+            int aplicadas = MigradorEsquema.migrar(cn);
+            if (aplicadas > 0) {
+                System.out.println("Esquema actualizado: " + aplicadas + " migración(es) aplicada(s).");
+            } else {
+                System.out.println("Esquema al día.");
             }
-            System.out.println("Base de datos y tablas verificadas/creadas.");
-            
-            // 7. Poblar horarios por defecto si la tabla está vacía
-            poblarHorariosPorDefecto(cn);
 
         } catch (SQLException e) {
-            System.err.println("Error de SQL durante el setup: " + e.getMessage());
+            M_VERIFICAR.error();
+            EjecutorJdbc.informarError("Error de SQL durante el setup", e);
         } catch (IOException e) {
-            System.err.println("Error: No se pudo leer el archivo 'schema.sql'. " + e.getMessage());
-            System.err.println("Asegúrate de que 'schema.sql' esté en la raíz del proyecto.");
-        }
-    }
-    
-    private static void poblarHorariosPorDefecto(Connection cn) {
-        String sqlCheck = "SELECT COUNT(*) FROM horario_laboral";
-        String sqlInsert = "INSERT INTO horario_laboral (dia_semana, hora_apertura, hora_cierre, duracion_turno_min) VALUES (?, '08:00:00', '23:00:00', 60)";
-        
-        try (Statement stCheck = cn.createStatement();
-             ResultSet rs = stCheck.executeQuery(sqlCheck)) {
-             
-            if (rs.next() && rs.getInt(1) == 0) {
-                // La tabla está vacía, la poblamos
-                System.out.println("Poblando horarios laborales por defecto...");
-                
-                // Usamos java.time.DayOfWeek para asegurar que insertamos los 7 días
-                String[] dias = {
-                    "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY"
-                };
-                
-                try (PreparedStatement psInsert = cn.prepareStatement(sqlInsert)) {
-                    for (String dia : dias) {
-                        psInsert.setString(1, dia);
-                        psInsert.addBatch();
-                    }
-                    psInsert.executeBatch();
-                    System.out.println("Horarios por defecto creados.");
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error al poblar horarios por defecto: " + e.getMessage());
+            M_VERIFICAR.error();
+            System.err.println("Error: No se pudieron leer las migraciones del esquema. " + e.getMessage());
+        } finally {
+            M_VERIFICAR.registrar(inicioNs);
         }
     }
 }
-
@@ -0,0 +1,231 @@
+package com.gestor.datos;
+
+import com.gestor.negocio.Cancha;
+import com.gestor.negocio.ReglaTarifa;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DAO de las reglas de tarifa (tabla 'tarifa_regla').
+ * Las reglas con id_cancha NULL valen para todas las canchas.
+ */
+public class TarifaDAO {
+
+    // Métricas de cada método público (ver Metricas)
+    private static final MetricaOperacion M_OBTENER_REGLAS = Metricas.operacion("TarifaDAO.obtenerReglas");
+    private static final MetricaOperacion M_AGREGAR_REGLA = Metricas.operacion("TarifaDAO.agregarRegla");
+    private static final MetricaOperacion M_ELIMINAR_REGLA = Metricas.operacion("TarifaDAO.eliminarRegla");
+    // Solo las lecturas reales de la BD (los fallos del caché)
+    private static final MetricaOperacion M_CARGAR_REGLAS = Metricas.operacion("TarifaDAO.cargarTodas");
+
+    // Clave del caché para las reglas generales (los id_cancha empiezan en 1)
+    private static final int GENERALES = 0;
+
+    /*
+     * Caché compartido, igual que el de HorarioDAO: todas las reglas se leen en una
+     * sola consulta y se reutilizan hasta que agregarRegla()/eliminarRegla() escriben.
+     * id_cancha -> reglas que la afectan (primero las generales, después las propias,
+     * así a igual prioridad gana la propia). Las listas son inmutables y no cambian
+     * hasta la próxima carga: Cancha no vuelve a compilar su tarifa si recibe la misma.
+     */
+    private static final CacheRecargable<Map<Integer, List<ReglaTarifa>>> CACHE =
+            new CacheRecargable<>(TarifaDAO::cargarTodas, M_CARGAR_REGLAS);
+
+    private static final String SQL_TODAS =
+            "SELECT id_regla, id_cancha, dias_semana, hora_desde, hora_hasta, vigencia_desde, vigencia_hasta, "
+            + "precio_por_hora, porcentaje, prioridad FROM tarifa_regla ORDER BY id_regla";
+    private static final String SQL_INSERTAR =
+            "INSERT INTO tarifa_regla (id_cancha, dias_semana, hora_desde, hora_hasta, vigencia_desde, vigencia_hasta, "
+            + "precio_por_hora, porcentaje, prioridad) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SQL_ELIMINAR = "DELETE FROM tarifa_regla WHERE id_regla = ?";
+
+    static {
+        Metricas.registrarCache(new MetricaCache("Tarifas", CACHE::aciertos, CACHE::fallos,
+                () -> { Map<Integer, List<ReglaTarifa>> c = CACHE.actual(); return c != null ? c.size() : 0; }), "Tarifas");
+    }
+
+    /**
+     * Reglas que afectan a una cancha (generales + propias).
+     * @return Lista inmutable (vacía si no hay reglas o hubo un error: precio plano).
+     */
+    public List<ReglaTarifa> obtenerReglas(int idCancha) {
+        long inicioNs = System.nanoTime();
+        try {
+            Map<Integer, List<ReglaTarifa>> reglas = obtenerCache();
+            if (reglas == null) {
+                return List.of();
+            }
+            return reglas.getOrDefault(idCancha, reglas.getOrDefault(GENERALES, List.of()));
+        } finally {
+            M_OBTENER_REGLAS.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Devuelve las canchas con sus reglas de tarifa (una sola lectura del caché para todas).
+     * Las canchas del mapa de identidad no se modifican: si sus reglas cambiaron, la lista
+     * trae la instancia nueva que las reemplaza (ver CacheEntidades.conReglas).
+     */
+    public List<Cancha> aplicarReglas(List<Cancha> canchas) {
+        Map<Integer, List<ReglaTarifa>> reglas = obtenerCache();
+        List<ReglaTarifa> generales = (reglas != null) ? reglas.getOrDefault(GENERALES, List.of()) : List.of();
+        List<Cancha> conReglas = new ArrayList<>(canchas.size());
+        for (Cancha c : canchas) {
+            conReglas.add(CacheEntidades.conReglas(c,
+                    (reglas != null) ? reglas.getOrDefault(c.getIdCancha(), generales) : generales));
+        }
+        return conReglas;
+    }
+
+    /**
+     * Guarda una regla nueva.
+     * Las canchas ya cargadas toman el cambio en la próxima lectura de canchas.
+     * @param idCancha Cancha a la que aplica, o null para todas
+     * @return El ID autogenerado, o -1 si falló.
+     */
+    public int agregarRegla(Integer idCancha, ReglaTarifa regla) {
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.insertar(SQL_INSERTAR,
+                    idCancha,
+                    aMascara(regla.getDias()),
+                    regla.getHoraDesde(),
+                    regla.getHoraHasta(),
+                    regla.getVigenciaDesde(),
+                    regla.getVigenciaHasta(),
+                    regla.getPrecioPorHora(),
+                    regla.getPorcentaje(),
+                    regla.getPrioridad());
+        } catch (SQLException e) {
+            M_AGREGAR_REGLA.error();
+            EjecutorJdbc.informarError("Error al guardar la regla de tarifa", e);
+            return -1;
+        } finally {
+            invalidarCache();
+            M_AGREGAR_REGLA.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Elimina una regla.
+     * @return true si se eliminó, false si no existía o hubo un error
+     */
+    public boolean eliminarRegla(int idRegla) {
+        long inicioNs = System.nanoTime();
+        try {
+            return EjecutorJdbc.actualizar(SQL_ELIMINAR, idRegla) > 0;
+        } catch (SQLException e) {
+            M_ELIMINAR_REGLA.error();
+            EjecutorJdbc.informarError("Error al eliminar la regla de tarifa", e);
+            return false;
+        } finally {
+            invalidarCache();
+            M_ELIMINAR_REGLA.registrar(inicioNs);
+        }
+    }
+
+    /**
+     * Descarta el caché de reglas. La próxima lectura vuelve a consultar la BD.
+     */
+    public static void invalidarCache() {
+        CACHE.invalidar();
+    }
+
+    private static Map<Integer, List<ReglaTarifa>> obtenerCache() {
+        return CACHE.obtener();
+    }
+
+    private static Map<Integer, List<ReglaTarifa>> cargarTodas() {
+        List<ReglaTarifa> generales = new ArrayList<>();
+        Map<Integer, List<ReglaTarifa>> propias = new LinkedHashMap<>();
+        try {
+            // id_cancha (GENERALES si es NULL) -> regla
+            for (Map.Entry<Integer, ReglaTarifa> fila : EjecutorJdbc.consultar(SQL_TODAS, TarifaDAO::mapearFila)) {
+                if (fila.getValue() == null) {
+                    continue;
+                }
+                if (fila.getKey() == GENERALES) {
+                    generales.add(fila.getValue());
+                } else {
+                    propias.computeIfAbsent(fila.getKey(), k -> new ArrayList<>()).add(fila.getValue());
+                }
+            }
+        } catch (SQLException e) {
+            M_CARGAR_REGLAS.error();
+            EjecutorJdbc.informarError("Error al obtener las reglas de tarifa", e);
+            return null; // No cacheamos el error: se reintenta en la próxima llamada
+        }
+
+        Map<Integer, List<ReglaTarifa>> porCancha = new HashMap<>();
+        porCancha.put(GENERALES, List.copyOf(generales));
+        for (Map.Entry<Integer, List<ReglaTarifa>> e : propias.entrySet()) {
+            List<ReglaTarifa> todas = new ArrayList<>(generales);
+            todas.addAll(e.getValue());
+            porCancha.put(e.getKey(), List.copyOf(todas));
+        }
+        return Map.copyOf(porCancha);
+    }
+
+    private static Map.Entry<Integer, ReglaTarifa> mapearFila(ResultSet rs) throws SQLException {
+        int idCancha = rs.getInt("id_cancha");
+        if (rs.wasNull()) {
+            idCancha = GENERALES;
+        }
+        return new AbstractMap.SimpleImmutableEntry<>(idCancha, mapear(rs));
+    }
+
+    /**
+     * Construye la regla, o null si los datos guardados no son válidos (se informa y se ignora).
+     */
+    private static ReglaTarifa mapear(ResultSet rs) throws SQLException {
+        Date desde = rs.getDate("vigencia_desde");
+        Date hasta = rs.getDate("vigencia_hasta");
+        int porcentaje = rs.getInt("porcentaje");
+        boolean sinPorcentaje = rs.wasNull();
+        try {
+            return new ReglaTarifa(
+                rs.getInt("id_regla"),
+                deMascara(rs.getInt("dias_semana")),
+                rs.getTime("hora_desde").toLocalTime(),
+                rs.getTime("hora_hasta").toLocalTime(),
+                (desde != null) ? desde.toLocalDate() : null,
+                (hasta != null) ? hasta.toLocalDate() : null,
+                rs.getBigDecimal("precio_por_hora"),
+                sinPorcentaje ? null : porcentaje,
+                rs.getInt("prioridad")
+            );
+        } catch (IllegalArgumentException ex) {
+            System.err.println("Regla de tarifa inválida (id " + rs.getInt("id_regla") + "): " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // Bit 0 = lunes ... bit 6 = domingo
+    private static int aMascara(Set<DayOfWeek> dias) {
+        int mascara = 0;
+        for (DayOfWeek d : dias) {
+            mascara |= 1 << (d.getValue() - 1);
+        }
+        return mascara;
+    }
+
+    private static Set<DayOfWeek> deMascara(int mascara) {
+        Set<DayOfWeek> dias = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek d : DayOfWeek.values()) {
+            if ((mascara & (1 << (d.getValue() - 1))) != 0) {
+                dias.add(d);
+            }
+        }
+        return dias;
+    }
+}
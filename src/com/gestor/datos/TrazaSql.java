@@ -0,0 +1,383 @@
+package com.gestor.datos;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * Traza de las sentencias SQL y registro de consultas lentas.
+ *
+ * Las conexiones que presta el pool envuelven cada Statement / PreparedStatement
+ * en un proxy que mide executeQuery, executeUpdate, executeBatch y execute.
+ * De cada ejecución se conoce la plantilla SQL (con los '?'), la cantidad de
+ * parámetros, las filas (leídas o afectadas) y el tiempo. En las consultas el
+ * tiempo va desde que se ejecuta hasta que se cierra el ResultSet (incluye
+ * traer las filas, que con useCursorFetch llegan de a lotes).
+ *
+ * Todo se suma a las métricas "SQL.consulta", "SQL.actualizacion" y "SQL.lote";
+ * las que superan el umbral se escriben en un log rotativo.
+ *
+ * Propiedades del sistema:
+ *   gestor.sql.traza      true/false (por defecto true)
+ *   gestor.sql.lentaMs    umbral en ms para el log (por defecto 200; 0 = todas)
+ *   gestor.sql.log        patrón del archivo (por defecto logs/consultas-lentas-%g.log)
+ *   gestor.sql.logBytes   tamaño máximo de cada archivo (por defecto 5 MB)
+ *   gestor.sql.logArchivos cantidad de archivos de la rotación (por defecto 5)
+ */
+final class TrazaSql {
+
+    static final boolean ACTIVA = Boolean.parseBoolean(System.getProperty("gestor.sql.traza", "true"));
+    private static final long UMBRAL_NS = Long.getLong("gestor.sql.lentaMs", 200L) * 1_000_000L;
+
+    private static final MetricaOperacion M_CONSULTA = Metricas.operacion("SQL.consulta");
+    private static final MetricaOperacion M_ACTUALIZACION = Metricas.operacion("SQL.actualizacion");
+    private static final MetricaOperacion M_LOTE = Metricas.operacion("SQL.lote");
+
+    private static final DateTimeFormatter F_FECHA_HORA = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+    private static final Logger LOG_LENTAS = crearLog();
+
+    private TrazaSql() {}
+
+    /**
+     * Envuelve un Statement recién creado por una conexión del pool.
+     *
+     * @param sentencia El Statement real
+     * @param interfaz Statement, PreparedStatement o CallableStatement (la que pidió el DAO)
+     * @param sql La plantilla SQL si es una sentencia preparada, o null
+     * @param conexion La conexión del pool (la que devuelve getConnection())
+     */
+    static Statement envolver(Statement sentencia, Class<? extends Statement> interfaz, String sql, Connection conexion) {
+        if (!ACTIVA) {
+            return sentencia;
+        }
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                new Class<?>[]{interfaz}, new SentenciaTrazada(sentencia, sql, conexion));
+    }
+
+    /**
+     * Interfaz del Statement que devuelve un método de Connection, o null si no es uno de los que se trazan.
+     */
+    static Class<? extends Statement> interfazDe(Method metodo) {
+        switch (metodo.getName()) {
+            case "createStatement": return Statement.class;
+            case "prepareStatement": return PreparedStatement.class;
+            case "prepareCall": return CallableStatement.class;
+            default: return null;
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Registro
+    // -----------------------------------------------------------
+
+    private static void registrar(MetricaOperacion metrica, String tipo, String sql, int parametros,
+                                  long filas, long inicioNs, boolean error) {
+        long duracion = System.nanoTime() - inicioNs;
+        metrica.registrar(inicioNs);
+        if (error) {
+            metrica.error();
+        }
+        if (LOG_LENTAS != null && duracion >= UMBRAL_NS) {
+            LOG_LENTAS.warning(String.format(Locale.ROOT, "%s | %9.2f ms | %-11s | filas=%d | parametros=%d%s | %s",
+                    LocalDateTime.now().format(F_FECHA_HORA), duracion / 1_000_000.0, tipo, filas, parametros,
+                    error ? " | ERROR" : "", plantilla(sql)));
+        }
+    }
+
+    /** La sentencia en una sola línea (los DAO la arman concatenando con saltos y sangrías). */
+    private static String plantilla(String sql) {
+        return sql == null ? "(sin SQL)" : sql.trim().replaceAll("\\s+", " ");
+    }
+
+    private static Logger crearLog() {
+        if (!ACTIVA) {
+            return null;
+        }
+        String patron = System.getProperty("gestor.sql.log", "logs/consultas-lentas-%g.log");
+        int limite = Integer.getInteger("gestor.sql.logBytes", 5 * 1024 * 1024);
+        int archivos = Integer.getInteger("gestor.sql.logArchivos", 5);
+        try {
+            Path carpeta = Paths.get(patron).toAbsolutePath().getParent();
+            if (carpeta != null) {
+                Files.createDirectories(carpeta);
+            }
+            FileHandler archivo = new FileHandler(patron, limite, archivos, true);
+            archivo.setFormatter(new Formatter() {
+                @Override
+                public String format(LogRecord registro) {
+                    return registro.getMessage() + System.lineSeparator();
+                }
+            });
+            Logger log = Logger.getLogger("com.gestor.sql.lentas");
+            log.setUseParentHandlers(false); // No repetir en la consola
+            log.setLevel(Level.WARNING);
+            log.addHandler(archivo);
+            return log;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("No se pudo abrir el log de consultas lentas (" + patron + "): " + e.getMessage());
+            return null;
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Proxies
+    // -----------------------------------------------------------
+
+    private static Object delegar(Object destino, Method metodo, Object[] args) throws Throwable {
+        try {
+            return metodo.invoke(destino, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Proxy de un Statement: mide las ejecuciones y cuenta los parámetros (el
+     * índice más alto usado en los setXxx) y las filas de los lotes.
+     */
+    private static final class SentenciaTrazada implements InvocationHandler {
+        private final Statement real;
+        private final String sqlPreparado;
+        private final Connection conexion;
+        private int parametros = 0;
+        private int filasEnLote = 0;
+        private String sqlLote = null;       // Para Statement.addBatch(sql)
+        private ResultadoTrazado abierto = null;
+        private String sqlEjecutado = null;  // Último execute(), para el ResultSet de getResultSet()
+        private long inicioEjecucion = 0;
+
+        SentenciaTrazada(Statement real, String sqlPreparado, Connection conexion) {
+            this.real = real;
+            this.sqlPreparado = sqlPreparado;
+            this.conexion = conexion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            String nombre = metodo.getName();
+            switch (nombre) {
+                case "executeQuery":
+                    return consultar(proxy, metodo, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                    return actualizar(metodo, args);
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return ejecutarLote(metodo, args);
+                case "execute":
+                    return ejecutar(metodo, args);
+                case "addBatch":
+                    filasEnLote++;
+                    if (args != null && args.length == 1 && sqlLote == null) {
+                        sqlLote = (String) args[0];
+                    }
+                    return delegar(real, metodo, args);
+                case "clearBatch":
+                    filasEnLote = 0;
+                    return delegar(real, metodo, args);
+                case "getResultSet":
+                    return envolverResultado(proxy, (ResultSet) delegar(real, metodo, args),
+                            sqlEjecutado != null ? sqlEjecutado : sqlPreparado,
+                            inicioEjecucion != 0 ? inicioEjecucion : System.nanoTime());
+                case "getConnection":
+                    return conexion;
+                case "close":
+                    terminarAbierto();
+                    return delegar(real, metodo, args);
+                case "unwrap":
+                    return real.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return real.isWrapperFor((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SentenciaTrazada[" + real + "]";
+                default:
+                    // setInt(1, ...), setString(2, ...): el índice más alto es la cantidad de parámetros
+                    if (nombre.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer
+                            && metodo.getDeclaringClass() != Statement.class) {
+                        parametros = Math.max(parametros, (Integer) args[0]);
+                    }
+                    return delegar(real, metodo, args);
+            }
+        }
+
+        private Object consultar(Object proxy, Method metodo, Object[] args) throws Throwable {
+            terminarAbierto();
+            String sql = sqlDe(args);
+            long inicio = System.nanoTime();
+            ResultSet rs;
+            try {
+                rs = (ResultSet) delegar(real, metodo, args);
+            } catch (Throwable e) {
+                registrar(M_CONSULTA, "consulta", sql, parametros, 0, inicio, true);
+                throw e;
+            }
+            return envolverResultado(proxy, rs, sql, inicio);
+        }
+
+        private Object actualizar(Method metodo, Object[] args) throws Throwable {
+            terminarAbierto();
+            String sql = sqlDe(args);
+            long inicio = System.nanoTime();
+            try {
+                Object filas = delegar(real, metodo, args);
+                registrar(M_ACTUALIZACION, "actualizacion", sql, parametros, ((Number) filas).longValue(), inicio, false);
+                return filas;
+            } catch (Throwable e) {
+                registrar(M_ACTUALIZACION, "actualizacion", sql, parametros, 0, inicio, true);
+                throw e;
+            }
+        }
+
+        private Object ejecutarLote(Method metodo, Object[] args) throws Throwable {
+            terminarAbierto();
+            String sql = (sqlPreparado != null) ? sqlPreparado : sqlLote;
+            String tipo = "lote x" + filasEnLote;
+            long inicio = System.nanoTime();
+            try {
+                Object resultado = delegar(real, metodo, args);
+                registrar(M_LOTE, tipo, sql, parametros, filasAfectadas(resultado), inicio, false);
+                return resultado;
+            } catch (Throwable e) {
+                registrar(M_LOTE, tipo, sql, parametros, 0, inicio, true);
+                throw e;
+            } finally {
+                filasEnLote = 0;
+                sqlLote = null;
+            }
+        }
+
+        private Object ejecutar(Method metodo, Object[] args) throws Throwable {
+            terminarAbierto();
+            String sql = sqlDe(args);
+            long inicio = System.nanoTime();
+            sqlEjecutado = sql;
+            inicioEjecucion = inicio;
+            try {
+                Object hayResultado = delegar(real, metodo, args);
+                if (!Boolean.TRUE.equals(hayResultado)) {
+                    registrar(M_ACTUALIZACION, "actualizacion", sql, parametros,
+                            Math.max(0, real.getUpdateCount()), inicio, false);
+                }
+                // Si hay ResultSet, se registra al leerlo con getResultSet()
+                return hayResultado;
+            } catch (Throwable e) {
+                registrar(M_ACTUALIZACION, "actualizacion", sql, parametros, 0, inicio, true);
+                throw e;
+            }
+        }
+
+        private Object envolverResultado(Object sentencia, ResultSet rs, String sql, long inicio) {
+            if (rs == null) {
+                return null;
+            }
+            ResultadoTrazado traza = new ResultadoTrazado(rs, (Statement) sentencia, sql, parametros, inicio);
+            abierto = traza;
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class}, traza);
+        }
+
+        /** Si el DAO no cerró el ResultSet anterior, se registra ahora (cerrar el Statement lo cierra). */
+        private void terminarAbierto() {
+            if (abierto != null) {
+                abierto.terminar();
+                abierto = null;
+            }
+        }
+
+        private String sqlDe(Object[] args) {
+            return (args != null && args.length > 0 && args[0] instanceof String) ? (String) args[0] : sqlPreparado;
+        }
+
+        private static long filasAfectadas(Object resultado) {
+            long total = 0;
+            if (resultado instanceof int[]) {
+                for (int n : (int[]) resultado) {
+                    if (n > 0) total += n; // SUCCESS_NO_INFO (-2) no informa filas
+                }
+            } else if (resultado instanceof long[]) {
+                for (long n : (long[]) resultado) {
+                    if (n > 0) total += n;
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Proxy de un ResultSet: cuenta las filas leídas y registra la consulta al cerrarse.
+     */
+    private static final class ResultadoTrazado implements InvocationHandler {
+        private final ResultSet real;
+        private final Statement sentencia;
+        private final String sql;
+        private final int parametros;
+        private final long inicio;
+        private long filas = 0;
+        private boolean terminado = false;
+
+        ResultadoTrazado(ResultSet real, Statement sentencia, String sql, int parametros, long inicio) {
+            this.real = real;
+            this.sentencia = sentencia;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.inicio = inicio;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method metodo, Object[] args) throws Throwable {
+            switch (metodo.getName()) {
+                case "next":
+                    Object hay = delegar(real, metodo, args);
+                    if (Boolean.TRUE.equals(hay)) {
+                        filas++;
+                    }
+                    return hay;
+                case "close":
+                    terminar();
+                    return delegar(real, metodo, args);
+                case "getStatement":
+                    return sentencia;
+                case "unwrap":
+                    return real.unwrap((Class<?>) args[0]);
+                case "isWrapperFor":
+                    return real.isWrapperFor((Class<?>) args[0]);
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ResultadoTrazado[" + real + "]";
+                default:
+                    return delegar(real, metodo, args);
+            }
+        }
+
+        void terminar() {
+            if (!terminado) {
+                terminado = true;
+                registrar(M_CONSULTA, "consulta", sql, parametros, filas, inicio, false);
+            }
+        }
+    }
+}
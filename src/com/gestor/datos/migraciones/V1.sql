@@ -1,10 +1,5 @@
--- 1. Crear la base de datos (si no existe)
-CREATE DATABASE IF NOT EXISTS gestor_deportivo;
+-- Esquema inicial: canchas, clientes, reservas y horario laboral
 
--- 2. Usar esa base de datos
-USE gestor_deportivo;
-
--- 3. Crear la tabla 'cancha' (si no existe)
 CREATE TABLE IF NOT EXISTS `cancha` (
   `id_cancha` int(11) NOT NULL AUTO_INCREMENT,
   `nombre` varchar(100) NOT NULL,
@@ -13,7 +8,6 @@ CREATE TABLE IF NOT EXISTS `cancha` (
   PRIMARY KEY (`id_cancha`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
--- 4. Crear la tabla 'cliente' (si no existe)
 CREATE TABLE IF NOT EXISTS `cliente` (
   `id` int(11) NOT NULL AUTO_INCREMENT,
   `nombre` varchar(100) NOT NULL,
@@ -21,8 +15,6 @@ CREATE TABLE IF NOT EXISTS `cliente` (
   PRIMARY KEY (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
--- 5. Crear la tabla 'reserva' (MODIFICADA para alinear con el DAO)
-
 CREATE TABLE IF NOT EXISTS `reserva` (
   `id_reserva` int(11) NOT NULL AUTO_INCREMENT,
   `id_cancha` int(11) NOT NULL,
@@ -31,16 +23,15 @@ CREATE TABLE IF NOT EXISTS `reserva` (
   `duracion_minutos` int(11) NOT NULL,
   `tipo` varchar(10) NOT NULL,
   `costo_total` decimal(10,2) NOT NULL,
-  `id_grupo_fija` int(11) DEFAULT NULL, 
+  `id_grupo_fija` int(11) DEFAULT NULL,
   PRIMARY KEY (`id_reserva`),
   KEY `id_cancha` (`id_cancha`),
   KEY `id_cliente` (`id_cliente`),
-  KEY `id_grupo_fija_idx` (`id_grupo_fija`), 
+  KEY `id_grupo_fija_idx` (`id_grupo_fija`),
   CONSTRAINT `reserva_ibfk_1` FOREIGN KEY (`id_cancha`) REFERENCES `cancha` (`id_cancha`),
   CONSTRAINT `reserva_ibfk_2` FOREIGN KEY (`id_cliente`) REFERENCES `cliente` (`id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
--- 6. Crear tabla 'horario_laboral'
 CREATE TABLE IF NOT EXISTS `horario_laboral` (
   `id_horario` int(11) NOT NULL AUTO_INCREMENT,
   `dia_semana` varchar(20) NOT NULL, -- Ej: "MONDAY", "TUESDAY"
@@ -51,3 +42,10 @@ CREATE TABLE IF NOT EXISTS `horario_laboral` (
   UNIQUE KEY `dia_semana_unico` (`dia_semana`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- Horarios por defecto (solo si la tabla está vacía: no pisa los que ya cargó el usuario)
+INSERT INTO `horario_laboral` (`dia_semana`, `hora_apertura`, `hora_cierre`, `duracion_turno_min`)
+SELECT d.dia, '08:00:00', '23:00:00', 60
+FROM (SELECT 'MONDAY' AS dia UNION ALL SELECT 'TUESDAY' UNION ALL SELECT 'WEDNESDAY'
+      UNION ALL SELECT 'THURSDAY' UNION ALL SELECT 'FRIDAY' UNION ALL SELECT 'SATURDAY'
+      UNION ALL SELECT 'SUNDAY') d
+WHERE NOT EXISTS (SELECT 1 FROM `horario_laboral`);
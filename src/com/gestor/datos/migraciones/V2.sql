@@ -0,0 +1,12 @@
+-- Secuencia para los IDs de grupo de las reservas fijas
+
+-- Se inicializa por encima de cualquier id_reserva existente, porque los grupos
+-- creados antes de esta tabla usan como ID el de su primera reserva.
+CREATE TABLE IF NOT EXISTS `secuencia_grupo_fija` (
+  `id` tinyint(4) NOT NULL,
+  `valor` int(11) NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT IGNORE INTO `secuencia_grupo_fija` (`id`, `valor`)
+SELECT 1, COALESCE(MAX(`id_reserva`), 0) FROM `reserva`;
@@ -0,0 +1,7 @@
+-- Índices para las consultas de reservas por rango de fechas
+
+-- Disponibilidad y conflictos de una cancha (id_cancha + rango de inicio)
+CREATE INDEX `idx_reserva_cancha_inicio` ON `reserva` (`id_cancha`, `fecha_hora_inicio`);
+
+-- Listado de reservas de un día o rango, de todas las canchas
+CREATE INDEX `idx_reserva_inicio` ON `reserva` (`fecha_hora_inicio`);
@@ -0,0 +1,4 @@
+-- Índices para la búsqueda paginada de clientes (por nombre o teléfono, con id como desempate)
+
+CREATE INDEX `idx_cliente_nombre` ON `cliente` (`nombre`, `id`);
+CREATE INDEX `idx_cliente_telefono` ON `cliente` (`telefono`, `id`);
@@ -0,0 +1,20 @@
+-- Reglas de tarifa por cancha (hora pico, fin de semana, temporada)
+
+-- id_cancha NULL = la regla vale para todas las canchas.
+-- dias_semana es una máscara de bits: bit 0 = lunes ... bit 6 = domingo (127 = todos).
+-- Exactamente uno de precio_por_hora (fijo) o porcentaje (del precio base de la cancha).
+CREATE TABLE IF NOT EXISTS `tarifa_regla` (
+  `id_regla` int(11) NOT NULL AUTO_INCREMENT,
+  `id_cancha` int(11) DEFAULT NULL,
+  `dias_semana` tinyint(4) NOT NULL DEFAULT 127,
+  `hora_desde` time NOT NULL,
+  `hora_hasta` time NOT NULL,
+  `vigencia_desde` date DEFAULT NULL,
+  `vigencia_hasta` date DEFAULT NULL,
+  `precio_por_hora` decimal(10,2) DEFAULT NULL,
+  `porcentaje` int(11) DEFAULT NULL,
+  `prioridad` int(11) NOT NULL DEFAULT 0,
+  PRIMARY KEY (`id_regla`),
+  KEY `idx_tarifa_regla_cancha` (`id_cancha`),
+  CONSTRAINT `tarifa_regla_ibfk_1` FOREIGN KEY (`id_cancha`) REFERENCES `cancha` (`id_cancha`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
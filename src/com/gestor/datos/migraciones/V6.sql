@@ -0,0 +1,20 @@
+-- Resumen diario de uso y recaudación por cancha
+
+-- Una fila por cancha y día (fecha de inicio de la reserva). ReservaDAO la mantiene
+-- en la misma transacción que cada alta o baja; ReconstruirResumen la recalcula.
+CREATE TABLE IF NOT EXISTS `resumen_diario` (
+  `id_cancha` int(11) NOT NULL,
+  `fecha` date NOT NULL,
+  `minutos_reservados` int(11) NOT NULL DEFAULT 0,
+  `cantidad_reservas` int(11) NOT NULL DEFAULT 0,
+  `recaudacion` decimal(12,2) NOT NULL DEFAULT 0.00,
+  PRIMARY KEY (`id_cancha`, `fecha`),
+  KEY `idx_resumen_fecha` (`fecha`),
+  CONSTRAINT `resumen_diario_ibfk_1` FOREIGN KEY (`id_cancha`) REFERENCES `cancha` (`id_cancha`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Carga inicial con las reservas que ya existen
+INSERT IGNORE INTO `resumen_diario` (`id_cancha`, `fecha`, `minutos_reservados`, `cantidad_reservas`, `recaudacion`)
+SELECT `id_cancha`, DATE(`fecha_hora_inicio`), SUM(`duracion_minutos`), COUNT(*), SUM(`costo_total`)
+FROM `reserva`
+GROUP BY `id_cancha`, DATE(`fecha_hora_inicio`);
@@ -0,0 +1,34 @@
+-- Reserva particionada por mes y tabla de archivo para las reservas vencidas
+
+-- MySQL no admite claves foráneas en tablas particionadas: la existencia de la cancha
+-- y del cliente la controlan los DAO (ReservaDAO, CanchaDAO, ClienteDAO).
+-- Los índices id_cancha e id_cliente quedan (los usan esos controles).
+ALTER TABLE `reserva` DROP FOREIGN KEY `reserva_ibfk_1`;
+ALTER TABLE `reserva` DROP FOREIGN KEY `reserva_ibfk_2`;
+
+-- Toda clave única de una tabla particionada tiene que incluir la columna de partición.
+-- id_reserva sigue siendo único por ser AUTO_INCREMENT.
+ALTER TABLE `reserva` DROP PRIMARY KEY, ADD PRIMARY KEY (`id_reserva`, `fecha_hora_inicio`);
+
+-- Una sola partición al principio: MantenimientoReservas la divide por mes
+-- (pAAAAMM = reservas que empiezan en ese mes; p_futuro = lo que quede más adelante).
+ALTER TABLE `reserva` PARTITION BY RANGE COLUMNS(`fecha_hora_inicio`) (
+  PARTITION `p_futuro` VALUES LESS THAN (MAXVALUE)
+);
+
+-- Reservas de los meses vencidos, que MantenimientoReservas saca de la tabla reserva.
+-- Mismas columnas; el resumen diario de esos meses no cambia.
+CREATE TABLE IF NOT EXISTS `reserva_archivo` (
+  `id_reserva` int(11) NOT NULL,
+  `id_cancha` int(11) NOT NULL,
+  `id_cliente` int(11) NOT NULL,
+  `fecha_hora_inicio` datetime NOT NULL,
+  `duracion_minutos` int(11) NOT NULL,
+  `tipo` varchar(10) NOT NULL,
+  `costo_total` decimal(10,2) NOT NULL,
+  `id_grupo_fija` int(11) DEFAULT NULL,
+  PRIMARY KEY (`id_reserva`),
+  KEY `idx_archivo_cancha_inicio` (`id_cancha`, `fecha_hora_inicio`),
+  KEY `idx_archivo_inicio` (`fecha_hora_inicio`),
+  KEY `idx_archivo_cliente` (`id_cliente`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,37 @@
+-- Reservas fijas guardadas como una serie (una fila) con sus excepciones
+
+-- Una fila por serie: la regla de repetición, no cada turno. Las lecturas por rango
+-- (reservas del día, ocupación, exportación) expanden las ocurrencias en memoria.
+-- id_serie sale de secuencia_grupo_fija: es el id_grupo_fija de la serie, así las
+-- reservas sueltas que se desprenden de ella (y los grupos viejos) comparten el número.
+-- No está particionada: admite claves foráneas.
+CREATE TABLE IF NOT EXISTS `reserva_serie` (
+  `id_serie` int(11) NOT NULL,
+  `id_cancha` int(11) NOT NULL,
+  `id_cliente` int(11) NOT NULL,
+  `fecha_inicio` date NOT NULL,
+  `fecha_fin` date NOT NULL,                        -- Última ocurrencia (inclusive)
+  `hora_inicio` time NOT NULL,
+  `duracion_minutos` int(11) NOT NULL,
+  `dias_semana` tinyint(4) NOT NULL,                -- Bit 0 = lunes ... bit 6 = domingo
+  `intervalo_semanas` tinyint(4) NOT NULL DEFAULT 1,
+  `costo_turno` decimal(10,2) NOT NULL,             -- Costo de cada ocurrencia (salvo excepción)
+  PRIMARY KEY (`id_serie`),
+  KEY `idx_serie_cancha_fin` (`id_cancha`, `fecha_fin`),
+  KEY `idx_serie_fin` (`fecha_fin`),
+  KEY `idx_serie_cliente` (`id_cliente`),
+  CONSTRAINT `reserva_serie_ibfk_1` FOREIGN KEY (`id_cancha`) REFERENCES `cancha` (`id_cancha`),
+  CONSTRAINT `reserva_serie_ibfk_2` FOREIGN KEY (`id_cliente`) REFERENCES `cliente` (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- Fechas de una serie que no siguen la regla:
+-- 'Omitida'    = ese día no hay turno (excluido al crearla o cancelado después).
+-- 'Modificada' = el turno existe pero con otro costo (la tarifa de ese día es distinta).
+CREATE TABLE IF NOT EXISTS `reserva_serie_excepcion` (
+  `id_serie` int(11) NOT NULL,
+  `fecha` date NOT NULL,
+  `tipo` varchar(10) NOT NULL,
+  `costo` decimal(10,2) DEFAULT NULL,
+  PRIMARY KEY (`id_serie`, `fecha`),
+  CONSTRAINT `reserva_serie_excepcion_ibfk_1` FOREIGN KEY (`id_serie`) REFERENCES `reserva_serie` (`id_serie`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -1,10 +1,16 @@
 package com.gestor.negocio;
-    
+
+import java.util.List;
+
 public class Cancha {
     private int idCancha;
     private String nombre;
     private String deporte;
     private double precioPorHora;
+    // Reglas de precio (hora pico, fin de semana, temporada); vacía = precio plano
+    private List<ReglaTarifa> reglasTarifa = List.of();
+    // Se compila al primer uso y se descarta al cambiar el precio o las reglas
+    private volatile Tarifa tarifa;
 
     public Cancha() {}
 
@@ -25,7 +31,33 @@ public class Cancha {
     public void setDeporte(String deporte) { this.deporte = deporte; }
 
     public double getPrecioPorHora() { return precioPorHora; }
-    public void setPrecioPorHora(double precioPorHora) { this.precioPorHora = precioPorHora; }
+    public void setPrecioPorHora(double precioPorHora) {
+        this.precioPorHora = precioPorHora;
+        this.tarifa = null;
+    }
+
+    public List<ReglaTarifa> getReglasTarifa() { return reglasTarifa; }
+    public void setReglasTarifa(List<ReglaTarifa> reglas) {
+        List<ReglaTarifa> copia = (reglas == null) ? List.of() : List.copyOf(reglas);
+        // List.copyOf de una lista inmutable devuelve la misma: si el DAO entrega la
+        // lista que ya tenía la cancha, no hace falta volver a compilar
+        if (copia != this.reglasTarifa) {
+            this.reglasTarifa = copia;
+            this.tarifa = null;
+        }
+    }
+
+    /**
+     * Tarifa compilada de la cancha (precio base + reglas). Ver Tarifa.
+     */
+    public Tarifa getTarifa() {
+        Tarifa t = tarifa;
+        if (t == null) {
+            t = Tarifa.compilar(precioPorHora, reglasTarifa);
+            tarifa = t;
+        }
+        return t;
+    }
 
 
     @Override
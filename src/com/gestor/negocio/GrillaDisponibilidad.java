@@ -0,0 +1,54 @@
+package com.gestor.negocio;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Disponibilidad de varias canchas para una fecha: filas = canchas, columnas = turnos.
+ * Los turnos salen del HorarioLaboral del día, que es el mismo para todas las canchas.
+ */
+public class GrillaDisponibilidad {
+
+    private final LocalDate fecha;
+    private final List<Cancha> canchas;
+    private final List<LocalTime> turnos;
+    private final boolean[][] libres; // [indice de cancha][indice de turno]
+
+    public GrillaDisponibilidad(LocalDate fecha, List<Cancha> canchas, List<LocalTime> turnos, boolean[][] libres) {
+        this.fecha = fecha;
+        this.canchas = Collections.unmodifiableList(new ArrayList<>(canchas));
+        this.turnos = Collections.unmodifiableList(new ArrayList<>(turnos));
+        this.libres = libres;
+    }
+
+    /**
+     * Grilla sin canchas ni turnos (por ejemplo, si no hay horario laboral ese día).
+     */
+    public static GrillaDisponibilidad vacia(LocalDate fecha) {
+        return new GrillaDisponibilidad(fecha, new ArrayList<>(), new ArrayList<>(), new boolean[0][0]);
+    }
+
+    public LocalDate getFecha() { return fecha; }
+    public List<Cancha> getCanchas() { return canchas; }
+    public List<LocalTime> getTurnos() { return turnos; }
+
+    public boolean estaLibre(int indiceCancha, int indiceTurno) {
+        return libres[indiceCancha][indiceTurno];
+    }
+
+    /**
+     * Devuelve los turnos libres de una de las canchas de la grilla.
+     */
+    public List<LocalTime> turnosLibres(int indiceCancha) {
+        List<LocalTime> resultado = new ArrayList<>();
+        for (int t = 0; t < turnos.size(); t++) {
+            if (libres[indiceCancha][t]) {
+                resultado.add(turnos.get(t));
+            }
+        }
+        return resultado;
+    }
+}
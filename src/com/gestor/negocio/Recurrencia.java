@@ -0,0 +1,352 @@
+package com.gestor.negocio;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Regla de repetición de una reserva fija.
+ *
+ * Soporta:
+ * - uno o varios días de la semana (ej. martes y jueves),
+ * - cada N semanas (contadas desde la semana de 'inicio', de lunes a domingo),
+ * - fecha de fin (inclusive) y/o cantidad máxima de ocurrencias,
+ * - fechas excluidas (feriados, etc.). Una fecha excluida NO cuenta para el máximo:
+ *   una serie de 10 clases que saltea un feriado sigue teniendo 10 clases.
+ *
+ * Las ocurrencias se generan a demanda (Iterator/Stream) saltando directamente
+ * de una a la siguiente: el costo es proporcional a la cantidad de ocurrencias,
+ * no a la cantidad de días del rango. siguienteDesde() calcula la posición
+ * dentro de la serie sin recorrerla.
+ *
+ * Es inmutable: se puede compartir y recorrer varias veces.
+ */
+public final class Recurrencia implements Iterable<LocalDate> {
+
+    private final LocalDate inicio;
+    private final LocalDate fin;              // null = sin fecha de fin
+    private final int maximoOcurrencias;      // 0 = sin máximo
+    private final int intervaloSemanas;
+    private final Set<DayOfWeek> dias;
+    private final Set<LocalDate> excluidas;
+
+    // Precalculados
+    private final LocalDate lunesBase;        // Lunes de la semana de 'inicio'
+    private final int[] desplazamientos;      // Días desde el lunes (0..6), ordenados
+    private final LocalDate finEfectivo;      // Última fecha posible, teniendo en cuenta el máximo
+
+    /**
+     * @param inicio Primera fecha posible de la serie (inclusive)
+     * @param dias Días de la semana en que se repite (al menos uno)
+     * @param intervaloSemanas 1 = todas las semanas, 2 = semana por medio, etc.
+     * @param fin Última fecha posible (inclusive), o null si la serie se corta por cantidad
+     * @param maximoOcurrencias Cantidad máxima de ocurrencias, o 0 si se corta por fecha
+     * @param excluidas Fechas a saltear (puede ser null)
+     */
+    public Recurrencia(LocalDate inicio, Set<DayOfWeek> dias, int intervaloSemanas,
+                       LocalDate fin, int maximoOcurrencias, Collection<LocalDate> excluidas) {
+        if (inicio == null) {
+            throw new IllegalArgumentException("La recurrencia necesita una fecha de inicio.");
+        }
+        if (dias == null || dias.isEmpty()) {
+            throw new IllegalArgumentException("La recurrencia necesita al menos un día de la semana.");
+        }
+        if (intervaloSemanas < 1) {
+            throw new IllegalArgumentException("El intervalo de semanas debe ser 1 o mayor.");
+        }
+        if (fin == null && maximoOcurrencias <= 0) {
+            throw new IllegalArgumentException("La recurrencia necesita una fecha de fin o una cantidad máxima.");
+        }
+        this.inicio = inicio;
+        this.fin = fin;
+        this.maximoOcurrencias = Math.max(0, maximoOcurrencias);
+        this.intervaloSemanas = intervaloSemanas;
+        this.dias = Collections.unmodifiableSet(EnumSet.copyOf(dias));
+        this.excluidas = (excluidas == null || excluidas.isEmpty())
+                ? Collections.emptySet()
+                : Collections.unmodifiableSet(new HashSet<>(excluidas));
+
+        this.lunesBase = inicio.minusDays(inicio.getDayOfWeek().getValue() - 1);
+        this.desplazamientos = new int[this.dias.size()];
+        int i = 0;
+        for (DayOfWeek d : this.dias) { // EnumSet itera de lunes a domingo
+            desplazamientos[i++] = d.getValue() - 1;
+        }
+        this.finEfectivo = calcularFinEfectivo();
+    }
+
+    /**
+     * Serie semanal clásica: un día por semana entre dos fechas (inclusive).
+     */
+    public static Recurrencia semanal(DayOfWeek dia, LocalDate desde, LocalDate hasta) {
+        return new Recurrencia(desde, EnumSet.of(dia), 1, hasta, 0, null);
+    }
+
+    // --- Getters ---
+    public LocalDate getInicio() { return inicio; }
+    public LocalDate getFin() { return fin; }
+    public int getMaximoOcurrencias() { return maximoOcurrencias; }
+    public int getIntervaloSemanas() { return intervaloSemanas; }
+    public Set<DayOfWeek> getDias() { return dias; }
+    public Set<LocalDate> getExcluidas() { return excluidas; }
+
+    /**
+     * Última fecha posible de la serie (inclusive): 'fin', o la fecha de la última
+     * ocurrencia permitida por el máximo si llega antes.
+     */
+    public LocalDate getFinEfectivo() { return finEfectivo; }
+
+    // -----------------------------------------------------------
+    // Recorrido
+    // -----------------------------------------------------------
+
+    /**
+     * Recorre la serie completa, en orden.
+     */
+    @Override
+    public Iterator<LocalDate> iterator() {
+        return iteradorDesde(inicio);
+    }
+
+    /**
+     * Recorre las ocurrencias a partir de 'fecha' (inclusive), sin recorrer las anteriores.
+     */
+    public Iterator<LocalDate> iteradorDesde(LocalDate fecha) {
+        return new Iterador(fecha.isBefore(inicio) ? inicio : fecha);
+    }
+
+    /**
+     * La serie como Stream (perezoso, ordenado, sin duplicados).
+     */
+    public Stream<LocalDate> stream() {
+        return aStream(iterator());
+    }
+
+    /**
+     * Ocurrencias dentro de [desde, hasta] (ambos inclusive), como Stream perezoso.
+     */
+    public Stream<LocalDate> entre(LocalDate desde, LocalDate hasta) {
+        return aStream(iteradorDesde(desde)).takeWhile(f -> !f.isAfter(hasta));
+    }
+
+    /**
+     * Primera ocurrencia en 'fecha' o después.
+     * @return La fecha, o null si la serie ya terminó.
+     */
+    public LocalDate siguienteDesde(LocalDate fecha) {
+        Iterator<LocalDate> it = iteradorDesde(fecha);
+        return it.hasNext() ? it.next() : null;
+    }
+
+    /**
+     * Cantidad total de ocurrencias, sin recorrer la serie.
+     */
+    public long contar() {
+        long total = 0;
+        for (long n : contarPorDia(inicio, finEfectivo.plusDays(1))) {
+            total += n;
+        }
+        return total;
+    }
+
+    /**
+     * Ocurrencias en [desde, hastaExclusivo), separadas por día de la semana
+     * (índice 0 = lunes ... 6 = domingo). Se calcula en O(días de la semana + exclusiones):
+     * por cada día de la semana, cuántas semanas activas caen en el rango.
+     */
+    public long[] contarPorDia(LocalDate desde, LocalDate hastaExclusivo) {
+        long[] cuenta = new long[7];
+        LocalDate a = desde.isBefore(inicio) ? inicio : desde;
+        LocalDate finExclusivo = finEfectivo.plusDays(1);
+        LocalDate b = hastaExclusivo.isAfter(finExclusivo) ? finExclusivo : hastaExclusivo;
+        if (!a.isBefore(b)) {
+            return cuenta;
+        }
+
+        long diasA = ChronoUnit.DAYS.between(lunesBase, a);
+        long diasB = ChronoUnit.DAYS.between(lunesBase, b);
+        for (int d : desplazamientos) {
+            // Semanas w con lunesBase + 7w + d en [a, b), y de esas, las múltiplos de N
+            long primera = Math.ceilDiv(diasA - d, 7);
+            long ultimaExclusiva = Math.ceilDiv(diasB - d, 7);
+            cuenta[d] = Math.ceilDiv(ultimaExclusiva, intervaloSemanas) - Math.ceilDiv(primera, intervaloSemanas);
+        }
+        for (LocalDate ex : excluidas) {
+            if (!ex.isBefore(a) && ex.isBefore(b) && esDelPatron(ex)) {
+                cuenta[ex.getDayOfWeek().getValue() - 1]--;
+            }
+        }
+        return cuenta;
+    }
+
+    // -----------------------------------------------------------
+    // Aritmética de la serie
+    // -----------------------------------------------------------
+
+    /**
+     * Sin máximo es 'fin'. Con máximo, busca por bisección la fecha en que se completa
+     * (cada paso cuenta en O(1) + exclusiones), y se queda con la menor de las dos.
+     */
+    private LocalDate calcularFinEfectivo() {
+        if (maximoOcurrencias <= 0) {
+            return fin;
+        }
+        // Cada semana activa tiene al menos una fecha del patrón: con (máximo + excluidas + 1)
+        // semanas activas seguro se completa el máximo
+        long bajo = 0;
+        long alto = ((long) maximoOcurrencias + excluidas.size() + 1) * intervaloSemanas * 7;
+        while (bajo < alto) {
+            long medio = (bajo + alto) >>> 1;
+            if (ocurrenciasAntesDe(inicio.plusDays(medio + 1)) >= maximoOcurrencias) {
+                alto = medio;
+            } else {
+                bajo = medio + 1;
+            }
+        }
+        LocalDate porMaximo = inicio.plusDays(bajo);
+        return (fin != null && fin.isBefore(porMaximo)) ? fin : porMaximo;
+    }
+
+    /**
+     * Cantidad de fechas del patrón (sin contar exclusiones) en [inicio, fecha).
+     * Se calcula en O(1): semanas activas completas por días por semana, más la parcial.
+     */
+    private long patronAntesDe(LocalDate fecha) {
+        return patronDesdeBase(fecha) - patronDesdeBase(inicio);
+    }
+
+    /** Fechas del patrón en [lunesBase, fecha). */
+    private long patronDesdeBase(LocalDate fecha) {
+        long dias = ChronoUnit.DAYS.between(lunesBase, fecha);
+        long semana = Math.floorDiv(dias, 7);
+        int desplazamiento = Math.floorMod(dias, 7);
+        long semanasActivasPrevias = (semana + intervaloSemanas - 1) / intervaloSemanas; // ceil(semana / N)
+        long total = semanasActivasPrevias * desplazamientos.length;
+        if (semana % intervaloSemanas == 0) {
+            for (int d : desplazamientos) {
+                if (d < desplazamiento) {
+                    total++;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Cantidad de ocurrencias reales (descontando exclusiones) en [inicio, fecha).
+     * Solo recorre las fechas excluidas, nunca los días del rango.
+     */
+    private long ocurrenciasAntesDe(LocalDate fecha) {
+        long total = patronAntesDe(fecha);
+        for (LocalDate ex : excluidas) {
+            if (!ex.isBefore(inicio) && ex.isBefore(fecha) && esDelPatron(ex)) {
+                total--;
+            }
+        }
+        return total;
+    }
+
+    private boolean esDelPatron(LocalDate fecha) {
+        if (fecha.isBefore(inicio) || !dias.contains(fecha.getDayOfWeek())) {
+            return false;
+        }
+        long semana = ChronoUnit.DAYS.between(lunesBase, fecha) / 7;
+        return semana % intervaloSemanas == 0;
+    }
+
+    private static Stream<LocalDate> aStream(Iterator<LocalDate> it) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(it,
+                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL
+                        | Spliterator.IMMUTABLE), false);
+    }
+
+    @Override
+    public String toString() {
+        return "Recurrencia[" + dias + " cada " + intervaloSemanas + " semana(s) desde " + inicio
+                + (fin != null ? " hasta " + fin : "")
+                + (maximoOcurrencias > 0 ? ", máx. " + maximoOcurrencias : "")
+                + (excluidas.isEmpty() ? "" : ", excluidas " + excluidas.size()) + "]";
+    }
+
+    /**
+     * Iterador que salta de ocurrencia en ocurrencia:
+     * dentro de una semana activa avanza por 'desplazamientos';
+     * al terminarla, salta directo N semanas.
+     */
+    private final class Iterador implements Iterator<LocalDate> {
+        private LocalDate lunes;      // Lunes de la semana activa actual
+        private int indice;           // Próximo desplazamiento a usar dentro de la semana
+        private long entregadas;      // Ocurrencias de la serie anteriores a la próxima
+        private LocalDate siguiente;  // Próxima fecha a entregar (null = terminó)
+
+        Iterador(LocalDate desde) {
+            this.entregadas = ocurrenciasAntesDe(desde);
+
+            // Ubica la primera semana activa en o después de 'desde'
+            long dias = ChronoUnit.DAYS.between(lunesBase, desde);
+            long semana = dias / 7;
+            int desplazamiento = (int) (dias % 7);
+            long resto = semana % intervaloSemanas;
+            if (resto != 0) {
+                semana += intervaloSemanas - resto;
+                desplazamiento = 0;
+            }
+            this.lunes = lunesBase.plusWeeks(semana);
+            this.indice = 0;
+            while (indice < desplazamientos.length && desplazamientos[indice] < desplazamiento) {
+                indice++;
+            }
+            avanzar();
+        }
+
+        /** Calcula 'siguiente' salteando exclusiones y respetando fin / máximo. */
+        private void avanzar() {
+            while (true) {
+                if (maximoOcurrencias > 0 && entregadas >= maximoOcurrencias) {
+                    siguiente = null;
+                    return;
+                }
+                if (indice == desplazamientos.length) {
+                    lunes = lunes.plusWeeks(intervaloSemanas);
+                    indice = 0;
+                }
+                LocalDate candidata = lunes.plusDays(desplazamientos[indice++]);
+                if (fin != null && candidata.isAfter(fin)) {
+                    siguiente = null;
+                    return;
+                }
+                if (!excluidas.contains(candidata)) {
+                    siguiente = candidata;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        @Override
+        public LocalDate next() {
+            if (siguiente == null) {
+                throw new NoSuchElementException();
+            }
+            LocalDate actual = siguiente;
+            entregadas++;
+            avanzar();
+            return actual;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.gestor.negocio;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Regla de precio de una cancha: en qué días, horas y temporada aplica, y qué precio por hora fija.
+ *
+ * El precio es fijo (precioPorHora) o un porcentaje del precio base de la cancha
+ * (ej. 120 = 20 % de recargo en hora pico, 80 = 20 % de descuento). Exactamente uno de los dos.
+ *
+ * - Horas: [horaDesde, horaHasta). Si horaHasta es anterior a horaDesde, la franja da la vuelta
+ *   a la medianoche dentro del mismo día (ej. 22:00 a 02:00 = [00:00, 02:00) y [22:00, 24:00)).
+ *   Si son iguales, aplica todo el día.
+ * - Temporada: [vigenciaDesde, vigenciaHasta], ambos inclusive; null = sin límite.
+ * - Si varias reglas aplican al mismo minuto gana la de mayor prioridad
+ *   (a igual prioridad, la que aparece después en la lista).
+ *
+ * Es inmutable.
+ */
+public final class ReglaTarifa {
+
+    private final int idRegla;
+    private final Set<DayOfWeek> dias;
+    private final LocalTime horaDesde;
+    private final LocalTime horaHasta;
+    private final LocalDate vigenciaDesde;
+    private final LocalDate vigenciaHasta;
+    private final BigDecimal precioPorHora;
+    private final Integer porcentaje;
+    private final int prioridad;
+
+    /**
+     * @param idRegla ID en la BD (0 si todavía no se guardó)
+     * @param dias Días de la semana en que aplica (al menos uno)
+     * @param precioPorHora Precio fijo por hora, o null si se usa 'porcentaje'
+     * @param porcentaje Porcentaje del precio base de la cancha, o null si se usa 'precioPorHora'
+     */
+    public ReglaTarifa(int idRegla, Set<DayOfWeek> dias, LocalTime horaDesde, LocalTime horaHasta,
+                       LocalDate vigenciaDesde, LocalDate vigenciaHasta,
+                       BigDecimal precioPorHora, Integer porcentaje, int prioridad) {
+        if (dias == null || dias.isEmpty()) {
+            throw new IllegalArgumentException("La regla de tarifa necesita al menos un día de la semana.");
+        }
+        if (horaDesde == null || horaHasta == null) {
+            throw new IllegalArgumentException("La regla de tarifa necesita hora de inicio y de fin.");
+        }
+        if ((precioPorHora == null) == (porcentaje == null)) {
+            throw new IllegalArgumentException("La regla de tarifa lleva un precio fijo o un porcentaje (uno solo).");
+        }
+        if (precioPorHora != null && precioPorHora.signum() < 0) {
+            throw new IllegalArgumentException("El precio por hora no puede ser negativo.");
+        }
+        if (porcentaje != null && porcentaje < 0) {
+            throw new IllegalArgumentException("El porcentaje no puede ser negativo.");
+        }
+        if (vigenciaDesde != null && vigenciaHasta != null && vigenciaHasta.isBefore(vigenciaDesde)) {
+            throw new IllegalArgumentException("La vigencia de la regla termina antes de empezar.");
+        }
+        this.idRegla = idRegla;
+        this.dias = Collections.unmodifiableSet(EnumSet.copyOf(dias));
+        this.horaDesde = horaDesde.withSecond(0).withNano(0);
+        this.horaHasta = horaHasta.withSecond(0).withNano(0);
+        this.vigenciaDesde = vigenciaDesde;
+        this.vigenciaHasta = vigenciaHasta;
+        this.precioPorHora = precioPorHora;
+        this.porcentaje = porcentaje;
+        this.prioridad = prioridad;
+    }
+
+    // --- Getters ---
+    public int getIdRegla() { return idRegla; }
+    public Set<DayOfWeek> getDias() { return dias; }
+    public LocalTime getHoraDesde() { return horaDesde; }
+    public LocalTime getHoraHasta() { return horaHasta; }
+    public LocalDate getVigenciaDesde() { return vigenciaDesde; }
+    public LocalDate getVigenciaHasta() { return vigenciaHasta; }
+    public BigDecimal getPrecioPorHora() { return precioPorHora; }
+    public Integer getPorcentaje() { return porcentaje; }
+    public int getPrioridad() { return prioridad; }
+
+    /** true si la franja horaria incluye ese minuto del día (0..1439). */
+    boolean incluyeMinuto(int minutoDelDia) {
+        int desde = horaDesde.getHour() * 60 + horaDesde.getMinute();
+        int hasta = horaHasta.getHour() * 60 + horaHasta.getMinute();
+        if (desde == hasta) {
+            return true;
+        }
+        return (desde < hasta)
+                ? minutoDelDia >= desde && minutoDelDia < hasta
+                : minutoDelDia >= desde || minutoDelDia < hasta;
+    }
+
+    @Override
+    public String toString() {
+        return "ReglaTarifa[" + dias + " " + horaDesde + "-" + horaHasta
+                + (vigenciaDesde != null || vigenciaHasta != null ? " del " + vigenciaDesde + " al " + vigenciaHasta : "")
+                + (precioPorHora != null ? " $" + precioPorHora + "/h" : " " + porcentaje + " %")
+                + ", prioridad " + prioridad + "]";
+    }
+}
@@ -1,5 +1,6 @@
 package com.gestor.negocio;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 public abstract class Reserva {
@@ -41,12 +42,12 @@ public abstract class Reserva {
      */
     public boolean esParteDeGrupo() { return this.idGrupoFija != null; }
     
-    public void setCostoTotal(double costoTotal) {
+    public void setCostoTotal(BigDecimal costoTotal) {
         // Usado por el DAO para setear el costo con descuento
     }
     // --- FIN DE GETTERS/SETTERS ---
 
-    public abstract double calcularCostoTotal();
+    public abstract BigDecimal calcularCostoTotal();
     public abstract int getDuracionMinutos();
 
     public LocalDateTime getFechaHoraFin() {
@@ -1,6 +1,8 @@
 package com.gestor.negocio;
 
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.time.*;
 import java.util.*;
 
@@ -11,6 +13,12 @@ public class ReservaFija extends Reserva {
     private double descuentoAplicado; // 0..1
     private int duracionMinutos = 60; // por simplicidad
 
+    // Opciones de repetición (ver Recurrencia). Por defecto: semanal, un solo día, hasta fechaFin.
+    private Set<DayOfWeek> diasAdicionales = EnumSet.noneOf(DayOfWeek.class);
+    private int intervaloSemanas = 1;
+    private int maximoOcurrencias = 0; // 0 = sin máximo (se corta por fechaFin)
+    private Set<LocalDate> fechasExcluidas = new HashSet<>();
+
     public ReservaFija() {}
 
     public ReservaFija(int idReserva, LocalDateTime fechaHoraInicio, Cancha cancha, Cliente cliente,
@@ -32,23 +40,92 @@ public class ReservaFija extends Reserva {
     public int getDuracionMinutos() { return duracionMinutos; }
     public void setDuracionMinutos(int m) { this.duracionMinutos = m; }
 
+    /** Otros días de la semana en que se repite, además de diaDeLaSemana (ej. martes Y jueves). */
+    public Set<DayOfWeek> getDiasAdicionales() { return EnumSet.copyOf(diasAdicionales); }
+    public void setDiasAdicionales(Set<DayOfWeek> dias) {
+        this.diasAdicionales = (dias == null || dias.isEmpty()) ? EnumSet.noneOf(DayOfWeek.class) : EnumSet.copyOf(dias);
+    }
+    public int getIntervaloSemanas() { return intervaloSemanas; }
+    public void setIntervaloSemanas(int intervaloSemanas) { this.intervaloSemanas = Math.max(1, intervaloSemanas); }
+    public int getMaximoOcurrencias() { return maximoOcurrencias; }
+    public void setMaximoOcurrencias(int maximoOcurrencias) { this.maximoOcurrencias = Math.max(0, maximoOcurrencias); }
+    public Set<LocalDate> getFechasExcluidas() { return new HashSet<>(fechasExcluidas); }
+    public void setFechasExcluidas(Set<LocalDate> fechas) {
+        this.fechasExcluidas = (fechas == null) ? new HashSet<>() : new HashSet<>(fechas);
+    }
+
+    /**
+     * Fechas de la serie dentro de [desde, hasta] (ambos inclusive).
+     * Delega en la Recurrencia de la reserva: no recorre el rango día por día.
+     * Si 'hasta' es null se usa solo el máximo de ocurrencias.
+     */
     public List<LocalDate> generarOcurrencias(LocalDate desde, LocalDate hasta) {
+        if (desde == null || (hasta == null && maximoOcurrencias <= 0)
+                || (diaDeLaSemana == null && diasAdicionales.isEmpty())) {
+            return new ArrayList<>();
+        }
+        if (hasta != null && hasta.isBefore(desde)) {
+            return new ArrayList<>();
+        }
+        Recurrencia rec = getRecurrencia(desde, hasta);
         List<LocalDate> fechas = new ArrayList<>();
-        LocalDate f = desde;
-        while (!f.isAfter(hasta)) {
-            if (f.getDayOfWeek() == diaDeLaSemana) {
-                fechas.add(f);
-            }
-            f = f.plusDays(1);
+        Iterator<LocalDate> it = rec.iteradorDesde(desde);
+        while (it.hasNext()) {
+            fechas.add(it.next());
         }
         return fechas;
     }
 
+    /**
+     * Regla de repetición de esta reserva (desde la fecha de inicio hasta fechaFin).
+     * @throws IllegalArgumentException si faltan datos (día, inicio, o fin/máximo).
+     */
+    public Recurrencia getRecurrencia() {
+        return getRecurrencia(fechaHoraInicio != null ? fechaHoraInicio.toLocalDate() : null, fechaFin);
+    }
+
+    private Recurrencia getRecurrencia(LocalDate desdeSiNoHayInicio, LocalDate hasta) {
+        // Las semanas "cada N" se cuentan desde la fecha de inicio de la reserva
+        LocalDate ancla = (fechaHoraInicio != null) ? fechaHoraInicio.toLocalDate() : desdeSiNoHayInicio;
+        Set<DayOfWeek> todos = EnumSet.noneOf(DayOfWeek.class);
+        if (diaDeLaSemana != null) {
+            todos.add(diaDeLaSemana);
+        }
+        todos.addAll(diasAdicionales);
+        return new Recurrencia(ancla, todos, intervaloSemanas, hasta, maximoOcurrencias, fechasExcluidas);
+    }
+
+    /**
+     * Costo de un turno de la serie (el primero), con el descuento aplicado.
+     */
     @Override
-    public double calcularCostoTotal() {
-        if (cancha == null) return 0.0;
-        double horas = duracionMinutos / 60.0;
-        double total = cancha.getPrecioPorHora() * horas ;
-        return total * (1.0 - descuentoAplicado);
+    public BigDecimal calcularCostoTotal() {
+        if (cancha == null) return BigDecimal.ZERO;
+        if (fechaHoraInicio == null) {
+            BigDecimal total = BigDecimal.valueOf(cancha.getPrecioPorHora()).multiply(BigDecimal.valueOf(duracionMinutos))
+                    .multiply(BigDecimal.ONE.subtract(BigDecimal.valueOf(descuentoAplicado)));
+            return Tarifa.redondearMonto(total.divide(BigDecimal.valueOf(60), MathContext.DECIMAL64));
+        }
+        return costoDeOcurrencia(fechaHoraInicio.toLocalDate());
+    }
+
+    /**
+     * Costo del turno de esa fecha, con el descuento aplicado (la tarifa puede
+     * cambiar según el día de la semana o la temporada).
+     */
+    public BigDecimal costoDeOcurrencia(LocalDate fecha) {
+        if (cancha == null) return BigDecimal.ZERO;
+        LocalDateTime inicio = LocalDateTime.of(fecha, fechaHoraInicio.toLocalTime());
+        return cancha.getTarifa().cotizar(inicio, duracionMinutos, descuentoAplicado);
+    }
+
+    /**
+     * Costo total de la serie (todas las ocurrencias, con descuento), sin generar las fechas.
+     * @throws IllegalArgumentException si faltan datos de la repetición (ver getRecurrencia()).
+     */
+    public BigDecimal cotizarSerie() {
+        if (cancha == null) return BigDecimal.ZERO;
+        return cancha.getTarifa().cotizarSerie(getRecurrencia(), fechaHoraInicio.toLocalTime(),
+                duracionMinutos, descuentoAplicado);
     }
 }
@@ -1,10 +1,13 @@
 package com.gestor.negocio;
 
+import java.math.BigDecimal;
+import java.math.MathContext;
 import java.time.LocalDateTime;
 
 public class ReservaSimple extends Reserva {
 
     private int duracionMinutos;
+    private BigDecimal costoTotal; // El guardado en la BD; null = se cotiza con la tarifa de la cancha
 
     public ReservaSimple() {
         super();
@@ -25,9 +28,16 @@ public class ReservaSimple extends Reserva {
     public void setDuracionMinutos(int duracionMinutos) { this.duracionMinutos = duracionMinutos; }
 
     @Override
-    public double calcularCostoTotal() {
-        if (cancha == null) return 0.0;
-        double horas = duracionMinutos / 60.0;
-        return cancha.getPrecioPorHora() * horas;
+    public void setCostoTotal(BigDecimal costoTotal) { this.costoTotal = costoTotal; }
+
+    @Override
+    public BigDecimal calcularCostoTotal() {
+        if (costoTotal != null) return costoTotal;
+        if (cancha == null) return BigDecimal.ZERO;
+        if (fechaHoraInicio == null || duracionMinutos <= 0) {
+            return Tarifa.redondearMonto(BigDecimal.valueOf(cancha.getPrecioPorHora())
+                    .multiply(BigDecimal.valueOf(duracionMinutos)).divide(BigDecimal.valueOf(60), MathContext.DECIMAL64));
+        }
+        return cancha.getTarifa().cotizar(fechaHoraInicio, duracionMinutos);
     }
 }
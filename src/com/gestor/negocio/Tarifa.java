@@ -0,0 +1,307 @@
+package com.gestor.negocio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Tarifa de una cancha, compilada a partir de su precio base y sus reglas (ver ReglaTarifa).
+ *
+ * Las reglas se resuelven UNA vez, al compilar, en tablas de precios:
+ * - tramos de temporada: los intervalos de fechas en que el conjunto de reglas vigentes no cambia,
+ * - por tramo, una tabla día de la semana x franja horaria con el precio por hora,
+ * - por fila, el acumulado desde las 00:00, así el costo de un turno es una resta.
+ * Las franjas miden el máximo común divisor de las horas de las reglas (60 min si todas
+ * son en punto), así cada franja tiene un único precio.
+ *
+ * Cotizar un turno cuesta una búsqueda binaria del tramo y dos lecturas de tabla.
+ * Una serie se cotiza sin recorrer sus fechas: por tramo, cuántas ocurrencias caen
+ * en cada día de la semana (Recurrencia.contarPorDia) por el costo de ese día.
+ *
+ * El dinero se maneja en centavos (long); cada turno se redondea al centavo
+ * (HALF_EVEN) igual que al guardarlo. Los montos salen como BigDecimal con dos
+ * decimales y así viajan hasta la BD (ver redondearMonto). Es inmutable.
+ */
+public final class Tarifa {
+
+    private static final int MINUTOS_POR_DIA = 24 * 60;
+    private static final BigDecimal SESENTA = BigDecimal.valueOf(60);
+    private static final BigDecimal CIEN = BigDecimal.valueOf(100);
+
+    private final int granularidad;          // Minutos por franja
+    private final int franjas;               // Franjas por día
+    private final long[] inicioTramos;       // epochDay de inicio de cada tramo (el primero: Long.MIN_VALUE)
+    private final long[][][] precioHora;     // [tramo][día 0..6][franja] -> centavos por hora
+    private final long[][][] acumulado;      // [tramo][día][franja] -> centavos·minuto/hora antes de esa franja
+
+    private Tarifa(int granularidad, long[] inicioTramos, long[][][] precioHora, long[][][] acumulado) {
+        this.granularidad = granularidad;
+        this.franjas = MINUTOS_POR_DIA / granularidad;
+        this.inicioTramos = inicioTramos;
+        this.precioHora = precioHora;
+        this.acumulado = acumulado;
+    }
+
+    /**
+     * Tarifa sin reglas: el mismo precio por hora siempre.
+     */
+    public static Tarifa plana(double precioPorHora) {
+        return compilar(precioPorHora, List.of());
+    }
+
+    /**
+     * Compila las reglas de una cancha.
+     *
+     * @param precioBase Precio por hora de la cancha (donde no aplica ninguna regla, y base de los porcentajes)
+     * @param reglas Reglas de la cancha (puede ser vacía)
+     */
+    public static Tarifa compilar(double precioBase, List<ReglaTarifa> reglas) {
+        long baseCentavos = aCentavos(BigDecimal.valueOf(precioBase));
+
+        // A igual prioridad gana la última de la lista: el orden estable lo conserva
+        List<ReglaTarifa> ordenadas = new ArrayList<>(reglas);
+        ordenadas.sort(Comparator.comparingInt(ReglaTarifa::getPrioridad));
+
+        // Límites de temporada y de franja horaria
+        TreeSet<Long> limites = new TreeSet<>();
+        int granularidad = MINUTOS_POR_DIA;
+        for (ReglaTarifa r : ordenadas) {
+            if (r.getVigenciaDesde() != null) {
+                limites.add(r.getVigenciaDesde().toEpochDay());
+            }
+            if (r.getVigenciaHasta() != null) {
+                limites.add(r.getVigenciaHasta().toEpochDay() + 1);
+            }
+            granularidad = mcd(granularidad, minutoDelDia(r.getHoraDesde()));
+            granularidad = mcd(granularidad, minutoDelDia(r.getHoraHasta()));
+        }
+        int franjas = MINUTOS_POR_DIA / granularidad;
+
+        List<Long> inicios = new ArrayList<>();
+        List<long[][]> precios = new ArrayList<>();
+        inicios.add(Long.MIN_VALUE);
+        inicios.addAll(limites);
+
+        List<Long> iniciosUnidos = new ArrayList<>();
+        for (long inicioTramo : inicios) {
+            long[][] tabla = new long[7][franjas];
+            for (int dia = 0; dia < 7; dia++) {
+                for (int f = 0; f < franjas; f++) {
+                    ReglaTarifa ganadora = null;
+                    for (ReglaTarifa r : ordenadas) {
+                        if (vigenteEnTramo(r, inicioTramo)
+                                && r.getDias().contains(DayOfWeek.of(dia + 1))
+                                && r.incluyeMinuto(f * granularidad)) {
+                            ganadora = r;
+                        }
+                    }
+                    tabla[dia][f] = precioDe(ganadora, baseCentavos);
+                }
+            }
+            // Tramos seguidos con la misma tabla se unen (ej. una regla que no cambia nada)
+            if (!precios.isEmpty() && Arrays.deepEquals(precios.get(precios.size() - 1), tabla)) {
+                continue;
+            }
+            iniciosUnidos.add(inicioTramo);
+            precios.add(tabla);
+        }
+
+        int tramos = precios.size();
+        long[] inicioTramos = new long[tramos];
+        long[][][] precioHora = new long[tramos][][];
+        long[][][] acumulado = new long[tramos][7][franjas + 1];
+        for (int t = 0; t < tramos; t++) {
+            inicioTramos[t] = iniciosUnidos.get(t);
+            precioHora[t] = precios.get(t);
+            for (int dia = 0; dia < 7; dia++) {
+                for (int f = 0; f < franjas; f++) {
+                    acumulado[t][dia][f + 1] = acumulado[t][dia][f] + precioHora[t][dia][f] * granularidad;
+                }
+            }
+        }
+        return new Tarifa(granularidad, inicioTramos, precioHora, acumulado);
+    }
+
+    // -----------------------------------------------------------
+    // Cotización
+    // -----------------------------------------------------------
+
+    /**
+     * Costo de un turno.
+     * @param minutos Duración (1 a 1440; puede pasar la medianoche)
+     */
+    public BigDecimal cotizar(LocalDateTime inicio, int minutos) {
+        return BigDecimal.valueOf(cotizarCentavos(inicio, minutos, null), 2);
+    }
+
+    /**
+     * Costo de un turno con un descuento (0..1) aplicado.
+     */
+    public BigDecimal cotizar(LocalDateTime inicio, int minutos, double descuento) {
+        return BigDecimal.valueOf(cotizarCentavos(inicio, minutos, factorDescuento(descuento)), 2);
+    }
+
+    /**
+     * Costo total de una serie: cada ocurrencia dura 'minutos' desde 'hora', con un descuento
+     * (0..1) por turno. No recorre las fechas de la serie.
+     */
+    public BigDecimal cotizarSerie(Recurrencia serie, LocalTime hora, int minutos, double descuento) {
+        validarDuracion(minutos);
+        BigDecimal factor = factorDescuento(descuento);
+        int minutoInicio = minutoDelDia(hora);
+        boolean cruzaMedianoche = minutoInicio + minutos > MINUTOS_POR_DIA;
+
+        long desde = serie.getInicio().toEpochDay();
+        long hasta = serie.getFinEfectivo().toEpochDay() + 1; // exclusivo
+        long total = 0;
+        for (int t = tramoDe(desde); t < inicioTramos.length && inicioTramos[t] < hasta; t++) {
+            long a = Math.max(desde, inicioTramos[t]);
+            boolean hayOtroTramo = t + 1 < inicioTramos.length;
+            long b = hayOtroTramo ? Math.min(hasta, inicioTramos[t + 1]) : hasta;
+
+            // Si el turno pasa la medianoche, el último día del tramo termina en el siguiente: va aparte
+            long bComun = (cruzaMedianoche && hayOtroTramo && b == inicioTramos[t + 1]) ? b - 1 : b;
+            total += sumarTurnos(serie, a, bComun, minutoInicio, minutos, factor);
+            if (bComun < b) {
+                total += sumarTurnos(serie, bComun, b, minutoInicio, minutos, factor);
+            }
+        }
+        return BigDecimal.valueOf(total, 2);
+    }
+
+    /**
+     * Suma las ocurrencias de [a, b), agrupadas por día de la semana. Dentro del rango
+     * (un mismo tramo) el costo de un turno depende solo del día de la semana.
+     */
+    private long sumarTurnos(Recurrencia serie, long a, long b, int minutoInicio, int minutos, BigDecimal factor) {
+        if (a >= b) {
+            return 0;
+        }
+        long[] cuenta = serie.contarPorDia(LocalDate.ofEpochDay(a), LocalDate.ofEpochDay(b));
+        int diaDeA = diaDeLaSemana(a);
+        long total = 0;
+        for (int dia = 0; dia < 7; dia++) {
+            if (cuenta[dia] == 0) {
+                continue;
+            }
+            long representativo = a + Math.floorMod(dia - diaDeA, 7); // Primer 'dia' del rango
+            long turno = redondear(costoSinRedondear(representativo, minutoInicio, minutos), factor);
+            total += cuenta[dia] * turno;
+        }
+        return total;
+    }
+
+    private long cotizarCentavos(LocalDateTime inicio, int minutos, BigDecimal factor) {
+        validarDuracion(minutos);
+        return redondear(costoSinRedondear(inicio.toLocalDate().toEpochDay(), minutoDelDia(inicio.toLocalTime()), minutos), factor);
+    }
+
+    /**
+     * Costo en centavos·minuto/hora (dividir por 60 para tener centavos), pasando de día si hace falta.
+     */
+    private long costoSinRedondear(long epochDay, int minutoInicio, int minutos) {
+        long total = 0;
+        long dia = epochDay;
+        int desde = minutoInicio;
+        int resto = minutos;
+        while (resto > 0) {
+            int t = tramoDe(dia);
+            int diaSemana = diaDeLaSemana(dia);
+            int hasta = Math.min(MINUTOS_POR_DIA, desde + resto);
+            total += acumuladoHasta(t, diaSemana, hasta) - acumuladoHasta(t, diaSemana, desde);
+            resto -= hasta - desde;
+            desde = 0;
+            dia++;
+        }
+        return total;
+    }
+
+    private long acumuladoHasta(int tramo, int dia, int minuto) {
+        int f = minuto / granularidad;
+        if (f == franjas) {
+            return acumulado[tramo][dia][franjas];
+        }
+        return acumulado[tramo][dia][f] + precioHora[tramo][dia][f] * (minuto - f * granularidad);
+    }
+
+    /** Índice del tramo que contiene ese día (el último que empieza en o antes). */
+    private int tramoDe(long epochDay) {
+        int i = Arrays.binarySearch(inicioTramos, epochDay);
+        return (i >= 0) ? i : -i - 2;
+    }
+
+    // -----------------------------------------------------------
+    // Auxiliares
+    // -----------------------------------------------------------
+
+    private static boolean vigenteEnTramo(ReglaTarifa r, long inicioTramo) {
+        // Los límites del tramo salen de las vigencias: si rige el primer día, rige todo el tramo
+        return (r.getVigenciaDesde() == null || r.getVigenciaDesde().toEpochDay() <= inicioTramo)
+                && (r.getVigenciaHasta() == null || r.getVigenciaHasta().toEpochDay() >= inicioTramo);
+    }
+
+    private static long precioDe(ReglaTarifa regla, long baseCentavos) {
+        if (regla == null) {
+            return baseCentavos;
+        }
+        if (regla.getPrecioPorHora() != null) {
+            return aCentavos(regla.getPrecioPorHora());
+        }
+        return BigDecimal.valueOf(baseCentavos).multiply(BigDecimal.valueOf(regla.getPorcentaje()))
+                .divide(CIEN, 0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static long redondear(long centavosPorMinutoHora, BigDecimal factor) {
+        BigDecimal valor = BigDecimal.valueOf(centavosPorMinutoHora);
+        if (factor != null) {
+            valor = valor.multiply(factor);
+        }
+        return valor.divide(SESENTA, 0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static BigDecimal factorDescuento(double descuento) {
+        if (descuento < 0 || descuento > 1) {
+            throw new IllegalArgumentException("El descuento debe estar entre 0 y 1.");
+        }
+        return BigDecimal.ONE.subtract(BigDecimal.valueOf(descuento));
+    }
+
+    private static void validarDuracion(int minutos) {
+        if (minutos <= 0 || minutos > MINUTOS_POR_DIA) {
+            throw new IllegalArgumentException("La duración debe estar entre 1 y " + MINUTOS_POR_DIA + " minutos.");
+        }
+    }
+
+    /**
+     * Redondea un monto al centavo con el mismo criterio que los turnos (HALF_EVEN).
+     * Es el único redondeo de dinero: lo usan las reservas sin tarifa y el resumen diario.
+     */
+    public static BigDecimal redondearMonto(BigDecimal monto) {
+        return monto.setScale(2, RoundingMode.HALF_EVEN);
+    }
+
+    private static long aCentavos(BigDecimal monto) {
+        return monto.movePointRight(2).setScale(0, RoundingMode.HALF_EVEN).longValueExact();
+    }
+
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    /** 0 = lunes ... 6 = domingo (el epochDay 0, 1970-01-01, fue jueves). */
+    private static int diaDeLaSemana(long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L);
+    }
+
+    private static int mcd(int a, int b) {
+        return (b == 0) ? a : mcd(b, a % b);
+    }
+}
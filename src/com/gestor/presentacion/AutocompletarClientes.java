@@ -0,0 +1,141 @@
+package com.gestor.presentacion;
+
+import com.gestor.datos.ClienteDAO;
+import com.gestor.negocio.Cliente;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import javax.swing.DefaultComboBoxModel;
+import javax.swing.JComboBox;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Convierte un JComboBox de clientes en un autocompletar:
+ * mientras el usuario escribe (nombre o teléfono), después de una pausa corta
+ * se consulta ClienteDAO.buscar() en segundo plano y se muestran las sugerencias.
+ * Reemplaza a cargar TODOS los clientes en el combo al arrancar.
+ */
+class AutocompletarClientes {
+
+    private static final int DEMORA_MS = 300;          // Pausa de tipeo antes de consultar
+    private static final int MAXIMO_SUGERENCIAS = 20;
+
+    private final JComboBox<Cliente> combo;
+    private final ClienteDAO clienteDAO;
+    private final JTextComponent editor;
+    private final Timer demora;
+
+    private boolean ajustando = false;  // true mientras cambiamos el modelo (ignora los eventos del editor)
+    private int consultaActual = 0;     // Para descartar respuestas de consultas viejas
+
+    AutocompletarClientes(JComboBox<Cliente> combo, ClienteDAO clienteDAO) {
+        this.combo = combo;
+        this.clienteDAO = clienteDAO;
+        combo.setEditable(true);
+        this.editor = (JTextComponent) combo.getEditor().getEditorComponent();
+
+        this.demora = new Timer(DEMORA_MS, e -> buscar());
+        this.demora.setRepeats(false);
+
+        editor.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { textoModificado(); }
+            @Override public void removeUpdate(DocumentEvent e) { textoModificado(); }
+            @Override public void changedUpdate(DocumentEvent e) { textoModificado(); }
+        });
+    }
+
+    /**
+     * Devuelve el cliente elegido, o null si el texto no corresponde a ninguna sugerencia.
+     */
+    Cliente getClienteSeleccionado() {
+        Object seleccionado = combo.getSelectedItem();
+        if (seleccionado instanceof Cliente) {
+            return (Cliente) seleccionado;
+        }
+        // Se escribió el nombre completo sin elegirlo de la lista: si coincide con UNA sugerencia, es ese
+        String texto = (seleccionado != null) ? seleccionado.toString().trim() : "";
+        Cliente encontrado = null;
+        for (int i = 0; i < combo.getItemCount(); i++) {
+            Cliente c = combo.getItemAt(i);
+            if (c.getNombreCliente() != null && c.getNombreCliente().equalsIgnoreCase(texto)) {
+                if (encontrado != null) {
+                    return null; // Ambiguo
+                }
+                encontrado = c;
+            }
+        }
+        return encontrado;
+    }
+
+    /**
+     * Vacía el selector.
+     */
+    void limpiar() {
+        ajustando = true;
+        try {
+            combo.setModel(new DefaultComboBoxModel<>());
+            editor.setText("");
+        } finally {
+            ajustando = false;
+        }
+    }
+
+    private void textoModificado() {
+        if (!ajustando) {
+            demora.restart();
+        }
+    }
+
+    private void buscar() {
+        String texto = editor.getText();
+        // Si el texto es el del cliente ya elegido (ej. se eligió de la lista), no hay nada que buscar
+        Object seleccionado = combo.getSelectedItem();
+        if (seleccionado instanceof Cliente && texto.equals(seleccionado.toString())) {
+            return;
+        }
+
+        int consulta = ++consultaActual;
+        new SwingWorker<List<Cliente>, Void>() {
+            @Override
+            protected List<Cliente> doInBackground() {
+                return clienteDAO.buscar(texto, null, MAXIMO_SUGERENCIAS);
+            }
+
+            @Override
+            protected void done() {
+                if (consulta != consultaActual) {
+                    return; // El usuario siguió escribiendo: hay una consulta más nueva
+                }
+                try {
+                    mostrarSugerencias(texto, get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Error al buscar clientes: " + e.getCause());
+                }
+            }
+        }.execute();
+    }
+
+    private void mostrarSugerencias(String texto, List<Cliente> sugerencias) {
+        ajustando = true;
+        try {
+            DefaultComboBoxModel<Cliente> modelo = new DefaultComboBoxModel<>(sugerencias.toArray(new Cliente[0]));
+            modelo.setSelectedItem(texto); // Conserva lo que el usuario está escribiendo
+            combo.setModel(modelo);
+            editor.setText(texto);
+            editor.setCaretPosition(texto.length());
+            if (!sugerencias.isEmpty() && editor.isFocusOwner()) {
+                combo.hidePopup(); // Fuerza a la lista a recalcular su tamaño
+                combo.showPopup();
+            } else {
+                combo.hidePopup();
+            }
+        } finally {
+            ajustando = false;
+        }
+    }
+}
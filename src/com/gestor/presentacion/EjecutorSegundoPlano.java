@@ -0,0 +1,155 @@
+package com.gestor.presentacion;
+
+import java.awt.Component;
+import java.awt.Cursor;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JProgressBar;
+import javax.swing.SwingWorker;
+
+/**
+ * Ejecuta el trabajo de base de datos fuera del EDT (hilo de eventos de Swing).
+ *
+ * Mientras la tarea corre:
+ * - deshabilita los componentes indicados (evita el doble clic / doble envío),
+ * - muestra una barra de progreso y un mensaje en la barra de estado.
+ * Al terminar, el resultado se aplica SIEMPRE en el EDT.
+ * Las tareas largas pueden informar su avance (porcentaje y texto) con ejecutarConAvance().
+ */
+class EjecutorSegundoPlano {
+
+    /**
+     * Avance de una tarea larga. Se llama desde el hilo de la tarea; la barra se
+     * actualiza en el EDT (si llegan muchos avances juntos, solo se muestra el último).
+     */
+    interface Avance {
+        /**
+         * @param porcentaje 0 a 100, o negativo si no se sabe (barra indeterminada)
+         * @param texto Mensaje para la barra de estado
+         */
+        void informar(int porcentaje, String texto);
+    }
+
+    /**
+     * Trabajo de BD que informa su avance.
+     */
+    interface TareaConAvance<T> {
+        T ejecutar(Avance avance) throws Exception;
+    }
+
+    private final Component ventana;
+    private final JProgressBar barraProgreso;
+    private final JLabel lblEstado;
+
+    // Solo se toca desde el EDT
+    private int tareasEnCurso = 0;
+
+    EjecutorSegundoPlano(Component ventana, JProgressBar barraProgreso, JLabel lblEstado) {
+        this.ventana = ventana;
+        this.barraProgreso = barraProgreso;
+        this.lblEstado = lblEstado;
+        this.barraProgreso.setIndeterminate(true);
+        this.barraProgreso.setVisible(false);
+    }
+
+    /**
+     * Lanza una tarea en segundo plano. Debe llamarse desde el EDT.
+     *
+     * @param descripcion Texto para la barra de estado (ej. "Cargando clientes...")
+     * @param bloquear Componentes a deshabilitar mientras dura la tarea (puede ser vacío)
+     * @param trabajo El trabajo de BD (corre fuera del EDT, NO debe tocar componentes Swing)
+     * @param alTerminar Aplica el resultado en la GUI (corre en el EDT)
+     */
+    <T> void ejecutar(String descripcion, JComponent[] bloquear, Callable<T> trabajo, Consumer<T> alTerminar) {
+        ejecutarConAvance(descripcion, bloquear, avance -> trabajo.call(), alTerminar);
+    }
+
+    /**
+     * Como ejecutar(), pero la tarea recibe un Avance para mover la barra de progreso.
+     */
+    <T> void ejecutarConAvance(String descripcion, JComponent[] bloquear, TareaConAvance<T> trabajo, Consumer<T> alTerminar) {
+        for (JComponent c : bloquear) {
+            c.setEnabled(false);
+        }
+        iniciarIndicador(descripcion);
+
+        new SwingWorker<T, Object[]>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return trabajo.ejecutar((porcentaje, texto) -> publish(new Object[]{porcentaje, texto}));
+            }
+
+            @Override
+            protected void process(List<Object[]> avances) {
+                // process() corre en el EDT
+                Object[] ultimo = avances.get(avances.size() - 1);
+                mostrarAvance((Integer) ultimo[0], (String) ultimo[1]);
+            }
+
+            @Override
+            protected void done() {
+                // done() corre en el EDT
+                for (JComponent c : bloquear) {
+                    c.setEnabled(true);
+                }
+                terminarIndicador();
+
+                T resultado;
+                try {
+                    resultado = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    Throwable causa = (e.getCause() != null) ? e.getCause() : e;
+                    System.err.println("Error en tarea '" + descripcion + "': " + causa);
+                    JOptionPane.showMessageDialog(ventana,
+                            "Ocurrió un error inesperado: " + causa.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                alTerminar.accept(resultado);
+            }
+        }.execute();
+    }
+
+    /**
+     * Variante para tareas que no bloquean ningún componente.
+     */
+    <T> void ejecutar(String descripcion, Callable<T> trabajo, Consumer<T> alTerminar) {
+        ejecutar(descripcion, new JComponent[0], trabajo, alTerminar);
+    }
+
+    private void iniciarIndicador(String descripcion) {
+        tareasEnCurso++;
+        lblEstado.setText(descripcion);
+        barraProgreso.setVisible(true);
+        ventana.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    private void mostrarAvance(int porcentaje, String texto) {
+        lblEstado.setText(texto);
+        barraProgreso.setIndeterminate(porcentaje < 0);
+        barraProgreso.setStringPainted(porcentaje >= 0);
+        if (porcentaje >= 0) {
+            barraProgreso.setValue(Math.min(100, porcentaje));
+        }
+    }
+
+    private void terminarIndicador() {
+        tareasEnCurso--;
+        if (tareasEnCurso <= 0) {
+            tareasEnCurso = 0;
+            lblEstado.setText("Listo");
+            barraProgreso.setIndeterminate(true);
+            barraProgreso.setStringPainted(false);
+            barraProgreso.setVisible(false);
+            ventana.setCursor(Cursor.getDefaultCursor());
+        }
+    }
+}
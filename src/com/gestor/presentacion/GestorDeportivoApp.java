@@ -1,27 +1,46 @@
 package com.gestor.presentacion;
 
+import com.gestor.datos.ConexionDB;
+import com.gestor.datos.MantenimientoReservas;
 import com.gestor.datos.SetUpDB;
-import java.time.*;
-import java.util.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.CompletableFuture;
 
 public class GestorDeportivoApp {
 
     public static void main(String[] args) {
-        
-        SetUpDB.verificarYCrearBD();
-        
+        MedicionArranque.iniciar();
+
+        // La verificación del esquema y el precalentado del pool corren en paralelo con
+        // la construcción de la ventana; las cargas iniciales de MainFrame esperan a que terminen
+        CompletableFuture<Void> baseLista = CompletableFuture.runAsync(() -> {
+            SetUpDB.verificarYCrearBD();
+            // Abre las conexiones mínimas del pool
+            ConexionDB.inicializarPool();
+            // Particiones mensuales de reserva: crea las que faltan y archiva las vencidas
+            MantenimientoReservas.programar();
+        }, tarea -> Thread.ofPlatform().name("arranque-bd").start(tarea));
+
         // --- Abrir GUI ---
         /*
         * Se usa invokeLater como una buena práctica para evitar posibles errores
         * Evita que la interfaz se congele y que los botones fallen
         */
-        
+
         javax.swing.SwingUtilities.invokeLater(() -> {
             try {
                 javax.swing.UIManager.setLookAndFeel(
                     javax.swing.UIManager.getSystemLookAndFeelClassName());
             } catch (Exception ignored) {}
-            new MainFrame().setVisible(true);
+            MainFrame ventana = new MainFrame(baseLista);
+            ventana.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    MedicionArranque.ventanaVisible();
+                }
+            });
+            ventana.setVisible(true);
         });
     }
 }
@@ -2,9 +2,13 @@ package com.gestor.presentacion;
 
 import com.gestor.datos.CanchaDAO;
 import com.gestor.datos.ClienteDAO;
+import com.gestor.datos.ExportadorReservas;
+import com.gestor.datos.ImportadorCsv;
 import com.gestor.datos.ReservaDAO;
+import com.gestor.datos.ResultadoImportacion;
 import com.gestor.negocio.Cancha;
 import com.gestor.negocio.Cliente;
+import com.gestor.negocio.GrillaDisponibilidad;
 import com.gestor.negocio.Reserva;
 import com.gestor.negocio.ReservaFija;
 import com.gestor.negocio.ReservaSimple;
@@ -20,6 +24,10 @@ import java.awt.*;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.File;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -27,23 +35,45 @@ import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
 
 public class MainFrame extends JFrame {
 
     // ---- Datos en memoria para la GUI (cacheados de la BD) ----
     private final List<Cancha> canchas = new ArrayList<>();
-    private final List<Cliente> clientes = new ArrayList<>();
-    // Lista para las reservas mostradas en la tabla
-    private final List<Reserva> reservasMostradasEnTabla = new ArrayList<>();
+    // Los clientes NO se cargan todos: se buscan en la BD a demanda (ver AutocompletarClientes)
+    // Se incrementa en cada carga de la tabla de reservas: los lotes de una carga
+    // anterior que lleguen tarde se descartan
+    private int generacionReservas = 0;
+
+    // Reservas que se acumulan en segundo plano antes de pasarlas juntas a la tabla
+    private static final int FILAS_POR_LOTE_TABLA = 2000;
     
     // ---- Atributos para las capas de datos ----
     private final ClienteDAO clienteDAO;
     private final CanchaDAO canchaDAO;
     private final ReservaDAO reservaDAO;
+    private final ExportadorReservas exportadorReservas = new ExportadorReservas();
+    private final ImportadorCsv importadorCsv = new ImportadorCsv();
 
     // ---- Contenedor principal ----
     private final JTabbedPane tabs;
+    // Pestañas que se construyen recién la primera vez que se abren (título -> constructor)
+    private final Map<String, Runnable> pestanasDiferidas = new HashMap<>();
+
+    // Cargas iniciales que faltan terminar para considerar la ventana interactiva
+    private int cargasInicialesPendientes = 0;
+    // Primera página de clientes, precargada al arrancar (se muestra al abrir la pestaña)
+    private final CompletableFuture<List<Cliente>> clientesIniciales = new CompletableFuture<>();
+
+    // ---- Barra de estado y ejecución en segundo plano ----
+    private JLabel lblEstado;
+    private JProgressBar barraProgreso;
+    private final EjecutorSegundoPlano ejecutor;
 
     // ---- Reservas ----
     private JPanel panelReservas;
@@ -51,6 +81,7 @@ public class MainFrame extends JFrame {
     public JComboBox<String> cmbDeporteReserva; 
     public JComboBox<Cancha> cmbCancha;
     public JComboBox<Cliente> cmbCliente;
+    private AutocompletarClientes autocompletarCliente;
     
     // --- INICIO DE CAMPOS MODIFICADOS ---
     // public JFormattedTextField ftfFecha; // Reemplazado
@@ -80,8 +111,9 @@ public class MainFrame extends JFrame {
     public JButton btnRegistrarReserva;
     public JButton btnCancelarReserva;
     public JButton btnListarReservas;
+    public JButton btnExportarReservas;
     public JTable tblReservas;
-    public DefaultTableModel modelReservas;
+    public ModeloTablaReservas modelReservas;
 
     // ---- Disponibilidad ----
     private JPanel panelDisponibilidad;
@@ -93,6 +125,11 @@ public class MainFrame extends JFrame {
     public JButton btnConsultarDisponibilidad;
     public JTable tblHorasLibres;
     public DefaultTableModel modelHoras;
+    // Grilla de todas las canchas (canchas x turnos)
+    public JComboBox<String> cmbDeporteDisp;
+    public JButton btnVerGrilla;
+    public JTable tblGrilla;
+    public DefaultTableModel modelGrilla;
 
     // ---- Canchas ----
     private JPanel panelCanchas;
@@ -105,6 +142,7 @@ public class MainFrame extends JFrame {
     public JButton btnModificarCancha;
     public JButton btnEliminarCancha;
     public JButton btnLimpiarCancha;
+    public JButton btnImportarCanchas;
     // --- FIN NUEVOS BOTONES ---
     public JTable tblCanchas;
     public DefaultTableModel modelCanchas;
@@ -119,9 +157,21 @@ public class MainFrame extends JFrame {
     public JButton btnModificarCliente;
     public JButton btnEliminarCliente;
     public JButton btnLimpiarCliente;
+    public JButton btnImportarClientes;
     // --- FIN NUEVOS CAMPOS ---
     public JTable tblClientes;
     public DefaultTableModel modelClientes;
+    // Paginado de la tabla de clientes (por cursor: último cliente de cada página)
+    private static final int CLIENTES_POR_PAGINA = 100;
+    private JTextField txtBuscarCliente;
+    private JButton btnClientesAnterior;
+    private JButton btnClientesSiguiente;
+    private JLabel lblPaginaClientes;
+    private final java.util.Deque<Cliente> cursoresAnterioresClientes = new java.util.ArrayDeque<>();
+    private Cliente cursorPaginaClientes = null;   // null = primera página
+    private Cliente ultimoDePaginaClientes = null; // Cursor de la página siguiente
+    // Marca de "primera página" en la pila (ArrayDeque no admite null)
+    private static final Cliente SIN_CURSOR = new Cliente(0, "", "");
 
     // ---- Utiles ----
     private static final DateTimeFormatter F_HORA = DateTimeFormatter.ofPattern("HH:mm");
@@ -133,8 +183,21 @@ public class MainFrame extends JFrame {
             
     // Listas de deportes (centralizadas)
     private static final String[] DEPORTES = {"Fútbol", "Pádel", "Tenis", "Básquet"};
+    private static final String TODOS_LOS_DEPORTES = "Todos";
+
+    // Textos de las celdas de la grilla de disponibilidad
+    private static final String CELDA_LIBRE = "Libre";
+    private static final String CELDA_OCUPADA = "Ocupado";
 
     public MainFrame() {
+        this(CompletableFuture.completedFuture(null));
+    }
+
+    /**
+     * @param baseLista Se completa cuando la BD quedó verificada y el pool listo.
+     *                  La ventana se arma y se muestra sin esperarla; las cargas iniciales, sí.
+     */
+    public MainFrame(CompletableFuture<?> baseLista) {
         setTitle("Gestor Deportivo");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(1000, 680);
@@ -145,55 +208,174 @@ public class MainFrame extends JFrame {
         this.canchaDAO = new CanchaDAO();
         this.reservaDAO = new ReservaDAO();
         
-        // 2. Construye la GUI
+        // 2. Construye la GUI: solo la pestaña visible; las demás, al abrirlas por primera vez
         tabs = new JTabbedPane();
         buildPanelReservas();
-        buildPanelDisponibilidad();
-        buildPanelCanchas();
-        buildPanelClientes();
-        setContentPane(tabs);
-        
-        // 3. Carga datos iniciales usando los DAO
-        cargarClientesDesdeDB();
-        cargarCanchasDesdeDB();
+        agregarPestanaDiferida("Disponibilidad", this::buildPanelDisponibilidad);
+        agregarPestanaDiferida("Canchas", this::buildPanelCanchas);
+        agregarPestanaDiferida("Clientes", this::buildPanelClientes);
+        tabs.addChangeListener(e -> construirPestanaSiFalta(tabs.getSelectedIndex()));
+
+        JPanel contenido = new JPanel(new BorderLayout());
+        contenido.add(tabs, BorderLayout.CENTER);
+        contenido.add(buildBarraEstado(), BorderLayout.SOUTH);
+        setContentPane(contenido);
+
+        // Todo acceso a la BD pasa por el ejecutor (fuera del EDT)
+        this.ejecutor = new EjecutorSegundoPlano(this, barraProgreso, lblEstado);
+        
+        // 3. Carga datos iniciales usando los DAO (en segundo plano), apenas la BD esté lista
+        ejecutor.ejecutar("Verificando base de datos...", () -> baseLista.join(), lista -> cargarDatosIniciales());
+    }
+
+    /**
+     * Lanza las tres cargas iniciales a la vez (cada una en su propio SwingWorker).
+     */
+    private void cargarDatosIniciales() {
+        cargasInicialesPendientes = 3;
+        ejecutor.ejecutar("Cargando canchas...", canchaDAO::obtenerTodas, lista -> {
+            mostrarCanchas(lista);
+            cargaInicialTerminada();
+        });
         // Carga las reservas del día actual al iniciar
-        cargarReservasDelDia(LocalDate.now());
+        cargarReservasDelDia(LocalDate.now(), this::cargaInicialTerminada);
+        // La pestaña Clientes todavía no existe: la primera página queda lista para cuando se abra
+        ejecutor.ejecutar("Cargando clientes...",
+                () -> clienteDAO.buscar("", null, CLIENTES_POR_PAGINA + 1),
+                pagina -> {
+                    clientesIniciales.complete(pagina);
+                    cargaInicialTerminada();
+                });
+    }
+
+    private void cargaInicialTerminada() {
+        if (cargasInicialesPendientes > 0 && --cargasInicialesPendientes == 0) {
+            MedicionArranque.interactiva();
+        }
+    }
+
+    /**
+     * Agrega una pestaña vacía que se construye la primera vez que se selecciona.
+     */
+    private void agregarPestanaDiferida(String titulo, Runnable construir) {
+        tabs.addTab(titulo, new JPanel());
+        pestanasDiferidas.put(titulo, construir);
+    }
+
+    private void construirPestanaSiFalta(int indice) {
+        if (indice < 0) {
+            return;
+        }
+        Runnable construir = pestanasDiferidas.remove(tabs.getTitleAt(indice));
+        if (construir != null) {
+            construir.run();
+        }
+    }
+
+    /**
+     * Reemplaza el contenido provisorio de una pestaña diferida por el panel ya construido.
+     */
+    private void instalarPestana(String titulo, JPanel panel) {
+        tabs.setComponentAt(tabs.indexOfTab(titulo), panel);
+    }
+
+    /**
+     * Barra inferior con el estado de las tareas de BD en curso.
+     */
+    private JPanel buildBarraEstado() {
+        JPanel barra = new JPanel(new BorderLayout(8, 0));
+        barra.setBorder(BorderFactory.createEmptyBorder(2, 8, 2, 8));
+        lblEstado = new JLabel("Listo");
+        barraProgreso = new JProgressBar();
+        barraProgreso.setPreferredSize(new Dimension(160, barraProgreso.getPreferredSize().height));
+        barra.add(lblEstado, BorderLayout.CENTER);
+        barra.add(barraProgreso, BorderLayout.EAST);
+        return barra;
     }
 
     /**
-     * Carga clientes desde el DAO y los pone en la GUI.
+     * Recarga (en segundo plano) la página actual de la tabla de clientes.
      */
     private void cargarClientesDesdeDB() {
-        clientes.clear();
-        cmbCliente.removeAllItems();
-        modelClientes.setRowCount(0);
+        cargarPaginaClientes(cursorPaginaClientes);
+    }
+
+    /**
+     * Vuelve a la primera página (ej. al cambiar el texto de búsqueda).
+     */
+    private void cargarPrimeraPaginaClientes() {
+        cursoresAnterioresClientes.clear();
+        cargarPaginaClientes(null);
+    }
+
+    /**
+     * Carga la página que empieza después de 'despuesDe' (null = primera).
+     * Se pide un cliente de más para saber si hay página siguiente.
+     */
+    private void cargarPaginaClientes(Cliente despuesDe) {
+        String filtro = txtBuscarCliente.getText();
+        ejecutor.ejecutar("Cargando clientes...",
+                () -> clienteDAO.buscar(filtro, despuesDe, CLIENTES_POR_PAGINA + 1),
+                pagina -> {
+                    cursorPaginaClientes = despuesDe;
+                    mostrarClientes(pagina);
+                });
+    }
 
-        List<Cliente> clientesDesdeDB = clienteDAO.obtenerTodos();
+    /**
+     * Reemplaza los clientes mostrados en la tabla (se llama en el EDT).
+     */
+    private void mostrarClientes(List<Cliente> pagina) {
+        boolean hayMas = pagina.size() > CLIENTES_POR_PAGINA;
+        List<Cliente> visibles = hayMas ? pagina.subList(0, CLIENTES_POR_PAGINA) : pagina;
 
-        for (Cliente cli : clientesDesdeDB) {
-            clientes.add(cli);
-            cmbCliente.addItem(cli);
+        modelClientes.setRowCount(0);
+        for (Cliente cli : visibles) {
             modelClientes.addRow(new Object[]{cli.getIdCliente(), cli.getNombreCliente(), cli.getTelefono()});
         }
+
+        ultimoDePaginaClientes = visibles.isEmpty() ? null : visibles.get(visibles.size() - 1);
+        btnClientesAnterior.setEnabled(!cursoresAnterioresClientes.isEmpty());
+        btnClientesSiguiente.setEnabled(hayMas);
+        lblPaginaClientes.setText("Página " + (cursoresAnterioresClientes.size() + 1));
+    }
+
+    private void onPaginaSiguienteClientes() {
+        if (ultimoDePaginaClientes == null) {
+            return;
+        }
+        cursoresAnterioresClientes.push(cursorPaginaClientes != null ? cursorPaginaClientes : SIN_CURSOR);
+        cargarPaginaClientes(ultimoDePaginaClientes);
+    }
+
+    private void onPaginaAnteriorClientes() {
+        if (cursoresAnterioresClientes.isEmpty()) {
+            return;
+        }
+        Cliente anterior = cursoresAnterioresClientes.pop();
+        cargarPaginaClientes(anterior == SIN_CURSOR ? null : anterior);
     }
 
     /**
-     * Carga canchas desde el DAO y las pone en la GUI.
+     * Carga canchas desde el DAO (en segundo plano) y las pone en la GUI.
      */
     private void cargarCanchasDesdeDB() {
-        canchas.clear();
-        cmbCancha.removeAllItems();
-        cmbCanchaDisp.removeAllItems();
-        modelCanchas.setRowCount(0);
+        ejecutor.ejecutar("Cargando canchas...", canchaDAO::obtenerTodas, this::mostrarCanchas);
+    }
 
-        List<Cancha> canchasDesdeDB = canchaDAO.obtenerTodas();
+    /**
+     * Reemplaza las canchas mostradas en la GUI (se llama en el EDT).
+     */
+    private void mostrarCanchas(List<Cancha> canchasDesdeDB) {
+        canchas.clear();
+        canchas.addAll(canchasDesdeDB);
 
-        for (Cancha c : canchasDesdeDB) {
-            canchas.add(c);
+        cmbCancha.removeAllItems();
+        for (Cancha c : canchas) {
             cmbCancha.addItem(c);
-            cmbCanchaDisp.addItem(c);
-            modelCanchas.addRow(new Object[]{c.getIdCancha(), c.getNombre(), c.getDeporte(), c.getPrecioPorHora()});
         }
+        llenarCanchasDisponibilidad();
+        llenarTablaCanchas();
         
         // Aplica el filtro inicial
         if (cmbDeporteReserva != null) {
@@ -201,6 +383,32 @@ public class MainFrame extends JFrame {
         }
     }
 
+    /**
+     * Llena el combo de la pestaña Disponibilidad con las canchas en memoria (si ya se construyó).
+     */
+    private void llenarCanchasDisponibilidad() {
+        if (cmbCanchaDisp == null) {
+            return;
+        }
+        cmbCanchaDisp.removeAllItems();
+        for (Cancha c : canchas) {
+            cmbCanchaDisp.addItem(c);
+        }
+    }
+
+    /**
+     * Llena la tabla de la pestaña Canchas con las canchas en memoria (si ya se construyó).
+     */
+    private void llenarTablaCanchas() {
+        if (modelCanchas == null) {
+            return;
+        }
+        modelCanchas.setRowCount(0);
+        for (Cancha c : canchas) {
+            modelCanchas.addRow(new Object[]{c.getIdCancha(), c.getNombre(), c.getDeporte(), c.getPrecioPorHora()});
+        }
+    }
+
     // -----------------------------------------------------------
     // Construcción de pestaña: RESERVAS
     // -----------------------------------------------------------
@@ -226,6 +434,8 @@ public class MainFrame extends JFrame {
         cmbDeporteReserva.addActionListener(e -> filtrarCanchasPorDeporte());
         
         cmbCliente = new JComboBox<>();
+        // Se escribe nombre o teléfono y se eligen las sugerencias que devuelve la BD
+        autocompletarCliente = new AutocompletarClientes(cmbCliente, clienteDAO);
         
         // --- INICIO DE MODIFICACIÓN: Restringir JDateChooser (jdcFecha) ---
         jdcFecha = new JDateChooser();
@@ -311,19 +521,18 @@ public class MainFrame extends JFrame {
         btnRegistrarReserva = new JButton("Registrar");
         btnCancelarReserva = new JButton("Cancelar selección");
         btnListarReservas = new JButton("Listar");
+        btnExportarReservas = new JButton("Exportar CSV...");
         acciones.add(btnCalcularCosto);
         acciones.add(btnRegistrarReserva);
         acciones.add(btnCancelarReserva);
         acciones.add(btnListarReservas);
+        acciones.add(btnExportarReservas);
         addRow(form, gc, 11, new JLabel("Acciones:"), acciones);
 
         panelReservas.add(form, BorderLayout.NORTH);
 
         // Tabla
-        String[] cols = {"ID", "Cancha", "Cliente", "Inicio", "Fin", "Tipo", "Costo"};
-        modelReservas = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        modelReservas = new ModeloTablaReservas(F_FECHA_HORA_MOSTRAR, F_MONEDA_AR);
         tblReservas = new JTable(modelReservas);
         panelReservas.add(new JScrollPane(tblReservas), BorderLayout.CENTER);
 
@@ -331,6 +540,7 @@ public class MainFrame extends JFrame {
         btnRegistrarReserva.addActionListener(e -> onRegistrarReserva());
         btnCancelarReserva.addActionListener(e -> onCancelarReserva());
         btnListarReservas.addActionListener(e -> onListarReservasDia());
+        btnExportarReservas.addActionListener(e -> onExportarReservas());
         btnCalcularCosto.addActionListener(e -> onCalcularCosto());
 
         // Llamada inicial para ocultar los campos al arrancar
@@ -342,6 +552,7 @@ public class MainFrame extends JFrame {
     /**
      * Reemplaza la JList por una JTable para mostrar la disponibilidad.
      * Reemplaza JFormattedTextField por JDateChooser.
+     * Agrega la grilla con la disponibilidad de todas las canchas.
      */
     private void buildPanelDisponibilidad() {
         panelDisponibilidad = new JPanel(new BorderLayout(10,10));
@@ -357,12 +568,26 @@ public class MainFrame extends JFrame {
 
         btnConsultarDisponibilidad = new JButton("Consultar");
 
+        // Filtro de deporte para la grilla ("Todos" = sin filtro)
+        cmbDeporteDisp = new JComboBox<>();
+        cmbDeporteDisp.addItem(TODOS_LOS_DEPORTES);
+        for (String d : DEPORTES) {
+            cmbDeporteDisp.addItem(d);
+        }
+        btnVerGrilla = new JButton("Ver grilla");
+
+        JPanel acciones = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        acciones.add(btnConsultarDisponibilidad);
+        acciones.add(new JLabel("Grilla por deporte:"));
+        acciones.add(cmbDeporteDisp);
+        acciones.add(btnVerGrilla);
+
         addRow(form, gc, 0, new JLabel("Cancha:"), cmbCanchaDisp);
         
         // addRow(form, gc, 1, new JLabel("Fecha (dd/MM/yyyy):"), ftfFechaDisp); // Reemplazado
         addRow(form, gc, 1, new JLabel("Fecha:"), jdcFechaDisp); // Etiqueta simplificada
         
-        addRow(form, gc, 2, new JLabel("Acción:"), btnConsultarDisponibilidad);
+        addRow(form, gc, 2, new JLabel("Acción:"), acciones);
 
         panelDisponibilidad.add(form, BorderLayout.NORTH);
 
@@ -372,12 +597,25 @@ public class MainFrame extends JFrame {
             @Override public boolean isCellEditable(int r, int c) { return false; }
         };
         tblHorasLibres = new JTable(modelHoras);
-        
-        panelDisponibilidad.add(new JScrollPane(tblHorasLibres), BorderLayout.CENTER);
+
+        // Grilla: una fila por cancha, una columna por turno
+        modelGrilla = new DefaultTableModel() {
+            @Override public boolean isCellEditable(int r, int c) { return false; }
+        };
+        tblGrilla = new JTable(modelGrilla);
+        tblGrilla.setAutoResizeMode(JTable.AUTO_RESIZE_OFF); // Muchos turnos: scroll horizontal
+        tblGrilla.setDefaultRenderer(Object.class, new RenderizadorGrilla());
+
+        JScrollPane scrollHoras = new JScrollPane(tblHorasLibres);
+        scrollHoras.setPreferredSize(new Dimension(160, 0));
+        JSplitPane split = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, scrollHoras, new JScrollPane(tblGrilla));
+        panelDisponibilidad.add(split, BorderLayout.CENTER);
 
         btnConsultarDisponibilidad.addActionListener(e -> onConsultarDisponibilidad());
+        btnVerGrilla.addActionListener(e -> onVerGrillaDisponibilidad());
 
-        tabs.addTab("Disponibilidad", panelDisponibilidad);
+        llenarCanchasDisponibilidad();
+        instalarPestana("Disponibilidad", panelDisponibilidad);
     }
 
     /**
@@ -404,12 +642,14 @@ public class MainFrame extends JFrame {
         btnModificarCancha = new JButton("Modificar cancha");
         btnEliminarCancha = new JButton("Eliminar cancha");
         btnLimpiarCancha = new JButton("Limpiar");
+        btnImportarCanchas = new JButton("Importar CSV...");
         
         JPanel acciones = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
         acciones.add(btnAgregarCancha);
         acciones.add(btnModificarCancha);
         acciones.add(btnEliminarCancha);
         acciones.add(btnLimpiarCancha);
+        acciones.add(btnImportarCanchas);
 
         addRow(form, gc, 0, new JLabel("ID:"), txtIdCancha);
         addRow(form, gc, 1, new JLabel("Nombre:"), txtNombreCancha);
@@ -431,6 +671,8 @@ public class MainFrame extends JFrame {
         btnModificarCancha.addActionListener(e -> onModificarCancha());
         btnEliminarCancha.addActionListener(e -> onEliminarCancha());
         btnLimpiarCancha.addActionListener(e -> onLimpiarCancha());
+        btnImportarCanchas.addActionListener(e -> onImportarCsv("Importar canchas", btnImportarCanchas,
+                importadorCsv::importarCanchas, this::cargarCanchasDesdeDB));
 
         // Listener para la tabla (cargar datos al formulario)
         tblCanchas.addMouseListener(new MouseAdapter() {
@@ -443,7 +685,8 @@ public class MainFrame extends JFrame {
         // Estado inicial de los botones
         onLimpiarCancha();
 
-        tabs.addTab("Canchas", panelCanchas);
+        llenarTablaCanchas();
+        instalarPestana("Canchas", panelCanchas);
     }
 
     private void buildPanelClientes() {
@@ -461,12 +704,14 @@ public class MainFrame extends JFrame {
         btnModificarCliente = new JButton("Modificar cliente");
         btnEliminarCliente = new JButton("Eliminar cliente");
         btnLimpiarCliente = new JButton("Limpiar");
+        btnImportarClientes = new JButton("Importar CSV...");
 
         JPanel acciones = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
         acciones.add(btnAgregarCliente);
         acciones.add(btnModificarCliente);
         acciones.add(btnEliminarCliente);
         acciones.add(btnLimpiarCliente);
+        acciones.add(btnImportarClientes);
 
         addRow(form, gc, 0, new JLabel("ID:"), txtIdCliente); // Fila 0: ID
         addRow(form, gc, 1, new JLabel("Nombre:"), txtNombreCliente); // Fila 1: Nombre
@@ -479,13 +724,45 @@ public class MainFrame extends JFrame {
             @Override public boolean isCellEditable(int r, int c) { return false; }
         };
         tblClientes = new JTable(modelClientes);
-        panelClientes.add(new JScrollPane(tblClientes), BorderLayout.CENTER);
+
+        // Búsqueda y paginado (la tabla nunca tiene más de una página en memoria)
+        txtBuscarCliente = new JTextField(18);
+        btnClientesAnterior = new JButton("< Anterior");
+        btnClientesSiguiente = new JButton("Siguiente >");
+        lblPaginaClientes = new JLabel("Página 1");
+        btnClientesAnterior.setEnabled(false);
+        btnClientesSiguiente.setEnabled(false);
+
+        JPanel navegacion = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        navegacion.add(new JLabel("Buscar (nombre o teléfono):"));
+        navegacion.add(txtBuscarCliente);
+        navegacion.add(btnClientesAnterior);
+        navegacion.add(lblPaginaClientes);
+        navegacion.add(btnClientesSiguiente);
+
+        JPanel listado = new JPanel(new BorderLayout(0, 6));
+        listado.add(navegacion, BorderLayout.NORTH);
+        listado.add(new JScrollPane(tblClientes), BorderLayout.CENTER);
+        panelClientes.add(listado, BorderLayout.CENTER);
+
+        // Espera una pausa en el tipeo antes de consultar
+        Timer demoraBusqueda = new Timer(300, e -> cargarPrimeraPaginaClientes());
+        demoraBusqueda.setRepeats(false);
+        txtBuscarCliente.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            @Override public void insertUpdate(javax.swing.event.DocumentEvent e) { demoraBusqueda.restart(); }
+            @Override public void removeUpdate(javax.swing.event.DocumentEvent e) { demoraBusqueda.restart(); }
+            @Override public void changedUpdate(javax.swing.event.DocumentEvent e) { demoraBusqueda.restart(); }
+        });
+        btnClientesAnterior.addActionListener(e -> onPaginaAnteriorClientes());
+        btnClientesSiguiente.addActionListener(e -> onPaginaSiguienteClientes());
 
         // --- Listeners ---
         btnAgregarCliente.addActionListener(e -> onAgregarCliente());
         btnModificarCliente.addActionListener(e -> onModificarCliente());
         btnEliminarCliente.addActionListener(e -> onEliminarCliente());
         btnLimpiarCliente.addActionListener(e -> onLimpiarCliente());
+        btnImportarClientes.addActionListener(e -> onImportarCsv("Importar clientes", btnImportarClientes,
+                importadorCsv::importarClientes, this::cargarPrimeraPaginaClientes));
 
         // Listener para la tabla (cargar datos al formulario)
         tblClientes.addMouseListener(new MouseAdapter() {
@@ -498,7 +775,16 @@ public class MainFrame extends JFrame {
         // Estado inicial de los botones
         onLimpiarCliente();
 
-        tabs.addTab("Clientes", panelClientes);
+        // Primera página: la precargada al arrancar (si todavía no llegó, se muestra al llegar).
+        // Se completa en el EDT, así que thenAccept también corre en el EDT.
+        clientesIniciales.thenAccept(pagina -> {
+            if (cursorPaginaClientes == null && cursoresAnterioresClientes.isEmpty()
+                    && txtBuscarCliente.getText().isEmpty()) {
+                mostrarClientes(pagina);
+            }
+        });
+
+        instalarPestana("Clientes", panelClientes);
     }
 
     // -----------------------------------------------------------
@@ -571,7 +857,7 @@ public class MainFrame extends JFrame {
     private void onRegistrarReserva() {
         // 1. Obtener datos de la GUI
         Cancha cancha = (Cancha) cmbCancha.getSelectedItem();
-        Cliente cliente = (Cliente) cmbCliente.getSelectedItem();
+        Cliente cliente = autocompletarCliente.getClienteSeleccionado();
 
         if (cancha == null || cliente == null) {
             JOptionPane.showMessageDialog(this, "Debe seleccionar un deporte, una cancha y un cliente.");
@@ -630,10 +916,18 @@ public class MainFrame extends JFrame {
             nuevaReserva = fija;
         }
         
-        // 3. Enviar el objeto a la Capa de Datos (DAO)
+        // 3. Enviar el objeto a la Capa de Datos (DAO), fuera del EDT
         // El DAO ahora se encarga de la lógica de expansión o de transacción
-        int resultado = reservaDAO.registrarReserva(nuevaReserva);
+        ejecutor.ejecutar("Registrando reserva...",
+                new JComponent[]{btnRegistrarReserva, btnCancelarReserva},
+                () -> reservaDAO.registrarReserva(nuevaReserva),
+                resultado -> mostrarResultadoRegistro(nuevaReserva, resultado));
+    }
 
+    /**
+     * Informa el resultado de registrarReserva y refresca la tabla (en el EDT).
+     */
+    private void mostrarResultadoRegistro(Reserva nuevaReserva, int resultado) {
         // 4. Actualizar la GUI si el DAO tuvo éxito
         if (resultado != -1) {
             
@@ -659,23 +953,55 @@ public class MainFrame extends JFrame {
     }
 
     /**
-     * Carga las reservas de una fecha, las guarda en la lista interna
-     * y puebla la tabla.
+     * Carga las reservas de una fecha en la tabla.
+     * Las filas llegan de la BD en streaming y se pasan a la tabla de a lotes
+     * (un evento por lote), así la ventana sigue respondiendo con muchas reservas.
      */
     private void cargarReservasDelDia(LocalDate fecha) {
-        // Limpia la tabla y la lista interna
-        modelReservas.setRowCount(0);
-        reservasMostradasEnTabla.clear();
-        
-        // Obtiene las reservas del DAO
-        reservasMostradasEnTabla.addAll(reservaDAO.obtenerReservasPorFecha(fecha));
-        
-        // Puebla la tabla
-        for (Reserva r : reservasMostradasEnTabla) {
-            // El tipo "Fija" lo determinamos si tiene un ID de grupo
-            String tipo = (r.esParteDeGrupo()) ? "Fija" : "Simple";
-            agregarFila(r, tipo, r.calcularCostoTotal()); // (CORREGIDO) Pasa el costo
+        cargarReservasDelDia(fecha, () -> {});
+    }
+
+    /**
+     * @param alTerminar Corre en el EDT cuando terminó la carga (bien o mal)
+     */
+    private void cargarReservasDelDia(LocalDate fecha, Runnable alTerminar) {
+        int generacion = ++generacionReservas;
+        modelReservas.limpiar();
+
+        ejecutor.ejecutar("Cargando reservas del " + fecha + "...",
+                new JComponent[]{btnListarReservas},
+                () -> {
+                    List<Reserva> lote = new ArrayList<>(FILAS_POR_LOTE_TABLA);
+                    boolean ok = reservaDAO.recorrerReservasPorRango(fecha, fecha.plusDays(1), null, r -> {
+                        lote.add(r);
+                        if (lote.size() == FILAS_POR_LOTE_TABLA) {
+                            publicarLote(generacion, new ArrayList<>(lote));
+                            lote.clear();
+                        }
+                    });
+                    publicarLote(generacion, lote);
+                    return ok;
+                },
+                ok -> {
+                    if (!ok && generacion == generacionReservas) {
+                        JOptionPane.showMessageDialog(this, "No se pudieron cargar todas las reservas. Verifique la consola.");
+                    }
+                    alTerminar.run();
+                });
+    }
+
+    /**
+     * Pasa un lote de reservas a la tabla (en el EDT), si sigue siendo de la carga vigente.
+     */
+    private void publicarLote(int generacion, List<Reserva> lote) {
+        if (lote.isEmpty()) {
+            return;
         }
+        SwingUtilities.invokeLater(() -> {
+            if (generacion == generacionReservas) {
+                modelReservas.agregarLote(lote);
+            }
+        });
     }
 
     /**
@@ -689,14 +1015,19 @@ public class MainFrame extends JFrame {
             return;
         }
         
-        // 1. Obtener el objeto Reserva COMPLETO (gracias a la lista interna)
-        Reserva reservaSeleccionada = reservasMostradasEnTabla.get(filaSeleccionada);
-        int idReserva = reservaSeleccionada.getIdReserva();
-        
-        boolean exito = false;
-        int reservasCanceladas = 0;
+        // 1. Obtener los datos de la reserva desde el modelo de la tabla
+        int idReserva = modelReservas.getIdReserva(filaSeleccionada);
+        boolean esParteDeGrupo = modelReservas.esParteDeGrupo(filaSeleccionada);
+        // Los turnos de una serie no tienen ID de reserva: se identifican por serie y fecha
+        int idGrupo = modelReservas.getIdGrupoFija(filaSeleccionada);
+        LocalDateTime inicio = modelReservas.getInicio(filaSeleccionada);
+        boolean esTurnoDeSerie = idReserva == 0;
+
+        // El trabajo de BD se decide aquí (diálogos en el EDT) y se ejecuta en segundo plano.
+        // Devuelve la cantidad de reservas canceladas, o -1 si falló.
+        java.util.concurrent.Callable<Integer> cancelacion;
 
-        if (reservaSeleccionada.esParteDeGrupo()) {
+        if (esParteDeGrupo) {
             // 2. Si es parte de un grupo, PREGUNTAR al usuario
             String[] opciones = {"Cancelar solo este día", "Cancelar TODA la serie", "No hacer nada"};
             int eleccion = JOptionPane.showOptionDialog(
@@ -709,15 +1040,14 @@ public class MainFrame extends JFrame {
                     opciones,
                     opciones[0]);
 
-            if (eleccion == 0) { // "Cancelar solo este día"
-                exito = reservaDAO.cancelarReservaUnica(idReserva);
-                if (exito) reservasCanceladas = 1;
-            } else if (eleccion == 1) { // "Cancelar TODA la serie"
-                int resultado = reservaDAO.cancelarReservaGrupo(idReserva);
-                if (resultado != -1) {
-                    exito = true;
-                    reservasCanceladas = resultado;
-                }
+            if (eleccion == 0 && esTurnoDeSerie) { // "Cancelar solo este día"
+                cancelacion = () -> reservaDAO.cancelarTurnoDeSerie(idGrupo, inicio.toLocalDate()) ? 1 : -1;
+            } else if (eleccion == 0) {
+                cancelacion = () -> reservaDAO.cancelarReservaUnica(idReserva) ? 1 : -1;
+            } else if (eleccion == 1 && esTurnoDeSerie) { // "Cancelar TODA la serie"
+                cancelacion = () -> reservaDAO.cancelarSerie(idGrupo);
+            } else if (eleccion == 1) {
+                cancelacion = () -> reservaDAO.cancelarReservaGrupo(idReserva);
             } else { // "No hacer nada" o cerró el diálogo
                 return; 
             }
@@ -730,27 +1060,32 @@ public class MainFrame extends JFrame {
                     "Cancelar Reserva",
                     JOptionPane.YES_NO_OPTION);
             
-            if (confirm == JOptionPane.YES_OPTION) {
-                exito = reservaDAO.cancelarReservaUnica(idReserva);
-                 if (exito) reservasCanceladas = 1;
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
             }
+            cancelacion = () -> reservaDAO.cancelarReservaUnica(idReserva) ? 1 : -1;
         }
 
-        // 4. Actualizar la GUI si el DAO tuvo éxito
-        if (exito) {
-            if (reservasCanceladas > 1) {
-                JOptionPane.showMessageDialog(this, "Se cancelaron " + reservasCanceladas + " reservas de la serie.");
-                // Recargamos la lista completa
-                onListarReservasDia(); 
-            } else {
-                JOptionPane.showMessageDialog(this, "Reserva ID " + idReserva + " cancelada.");
-                // Solo removemos la fila seleccionada
-                reservasMostradasEnTabla.remove(filaSeleccionada);
-                modelReservas.removeRow(filaSeleccionada);
-            }
-        } else {
-            JOptionPane.showMessageDialog(this, "No se pudo cancelar la reserva.");
-        }
+        ejecutor.ejecutar("Cancelando reserva...",
+                new JComponent[]{btnCancelarReserva, btnRegistrarReserva},
+                cancelacion,
+                reservasCanceladas -> {
+                    // 4. Actualizar la GUI si el DAO tuvo éxito
+                    if (reservasCanceladas == -1) {
+                        JOptionPane.showMessageDialog(this, "No se pudo cancelar la reserva.");
+                    } else if (reservasCanceladas > 1) {
+                        JOptionPane.showMessageDialog(this, "Se cancelaron " + reservasCanceladas + " reservas de la serie.");
+                        // Recargamos la lista completa
+                        onListarReservasDia();
+                    } else if (esTurnoDeSerie) {
+                        JOptionPane.showMessageDialog(this, "Turno del " + inicio.format(F_FECHA_HORA_MOSTRAR) + " cancelado.");
+                        modelReservas.eliminarFila(modelReservas.indiceDeTurno(idGrupo, inicio));
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Reserva ID " + idReserva + " cancelada.");
+                        // Solo removemos la fila (la buscamos de nuevo: la tabla pudo cambiar mientras tanto)
+                        modelReservas.eliminarFila(modelReservas.indiceDe(idReserva));
+                    }
+                });
     }
 
 
@@ -770,13 +1105,133 @@ public class MainFrame extends JFrame {
         cargarReservasDelDia(fecha);
     }
 
+    /**
+     * Exporta el historial de reservas a CSV (rango de fechas, cancha y gzip a elección).
+     * El volcado corre en segundo plano y el avance se ve en la barra de estado.
+     */
+    private void onExportarReservas() {
+        JDateChooser jdcDesde = new JDateChooser();
+        jdcDesde.setDate(Date.from(LocalDate.now().withDayOfYear(1).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        JDateChooser jdcHasta = new JDateChooser();
+        jdcHasta.setDate(new Date());
+        JComboBox<Object> cmbCanchaExp = new JComboBox<>();
+        cmbCanchaExp.addItem("Todas las canchas");
+        for (Cancha c : canchas) {
+            cmbCanchaExp.addItem(c);
+        }
+        JCheckBox chkGzip = new JCheckBox("Comprimir (gzip)");
+
+        JPanel opciones = new JPanel(new GridLayout(0, 2, 6, 6));
+        opciones.add(new JLabel("Desde:"));
+        opciones.add(jdcDesde);
+        opciones.add(new JLabel("Hasta (inclusive):"));
+        opciones.add(jdcHasta);
+        opciones.add(new JLabel("Cancha:"));
+        opciones.add(cmbCanchaExp);
+        opciones.add(new JLabel());
+        opciones.add(chkGzip);
+        if (JOptionPane.showConfirmDialog(this, opciones, "Exportar reservas",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        LocalDate desde = parseDateChooser(jdcDesde);
+        LocalDate hasta = parseDateChooser(jdcHasta);
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            JOptionPane.showMessageDialog(this, "El rango de fechas no es válido.");
+            return;
+        }
+        Integer idCancha = (cmbCanchaExp.getSelectedItem() instanceof Cancha)
+                ? ((Cancha) cmbCanchaExp.getSelectedItem()).getIdCancha() : null;
+        boolean gzip = chkGzip.isSelected();
+
+        JFileChooser selector = new JFileChooser();
+        selector.setSelectedFile(new File("reservas_" + desde + "_" + hasta + (gzip ? ".csv.gz" : ".csv")));
+        if (selector.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path destino = selector.getSelectedFile().toPath();
+        if (Files.exists(destino)
+                && JOptionPane.showConfirmDialog(this, "El archivo ya existe. ¿Reemplazarlo?", "Exportar reservas",
+                        JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+
+        ejecutor.ejecutarConAvance("Exportando reservas...",
+                new JComponent[]{btnExportarReservas},
+                avance -> exportadorReservas.exportar(destino, desde, hasta.plusDays(1), idCancha, gzip,
+                        (filas, total) -> avance.informar(
+                                total > 0 ? (int) Math.min(100, filas * 100 / total) : -1,
+                                "Exportando reservas: " + filas + (total > 0 ? " de " + total : "") + "...")),
+                filas -> {
+                    if (filas < 0) {
+                        JOptionPane.showMessageDialog(this, "No se pudo exportar. Verifique la consola.",
+                                "Exportar reservas", JOptionPane.ERROR_MESSAGE);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Se exportaron " + filas + " reservas a " + destino + ".");
+                    }
+                });
+    }
+
+    /**
+     * Importa clientes o canchas desde un CSV elegido por el usuario (en segundo plano,
+     * con el avance en la barra de estado) y al terminar muestra el resumen y recarga la tabla.
+     */
+    private void onImportarCsv(String titulo, JButton boton,
+                               BiFunction<Path, ImportadorCsv.Avance, ResultadoImportacion> importar,
+                               Runnable recargar) {
+        JFileChooser selector = new JFileChooser();
+        selector.setDialogTitle(titulo);
+        selector.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV (*.csv, *.csv.gz)", "csv", "gz"));
+        if (selector.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        Path origen = selector.getSelectedFile().toPath();
+
+        ejecutor.ejecutarConAvance(titulo + "...",
+                new JComponent[]{boton},
+                avance -> importar.apply(origen, (leidos, porcentaje) ->
+                        avance.informar(porcentaje, "Importando: " + leidos + " registros leídos...")),
+                resultado -> {
+                    mostrarResultadoImportacion(titulo, resultado);
+                    if (resultado.getImportados() > 0) {
+                        recargar.run();
+                    }
+                });
+    }
+
+    private void mostrarResultadoImportacion(String titulo, ResultadoImportacion resultado) {
+        final int rechazosEnPantalla = 20;
+        StringBuilder texto = new StringBuilder()
+                .append("Registros leídos: ").append(resultado.getLeidos())
+                .append("\nImportados: ").append(resultado.getImportados())
+                .append("\nYa existían: ").append(resultado.getDuplicados())
+                .append("\nRechazados: ").append(resultado.getRechazados());
+        List<String> rechazos = resultado.getRechazos();
+        for (int i = 0; i < rechazos.size() && i < rechazosEnPantalla; i++) {
+            texto.append(i == 0 ? "\n\n" : "\n").append(rechazos.get(i));
+        }
+        if (resultado.getRechazados() > rechazosEnPantalla) {
+            texto.append("\n... (la lista completa está en la consola)");
+        }
+        for (String rechazo : rechazos) {
+            System.err.println(titulo + ": " + rechazo);
+        }
+        if (!resultado.isCompleta()) {
+            texto.append("\n\nLa importación se interrumpió: ").append(resultado.getError())
+                 .append("\nLo importado hasta ese punto quedó guardado.");
+        }
+        JOptionPane.showMessageDialog(this, texto.toString(), titulo,
+                resultado.isCompleta() ? JOptionPane.INFORMATION_MESSAGE : JOptionPane.WARNING_MESSAGE);
+    }
+
     /**
      * Calcula el costo (sin guardar) usando el objeto de negocio.
      * Lee la fecha desde JDateChooser.
      */
     private void onCalcularCosto() {
         Cancha cancha = (Cancha) cmbCancha.getSelectedItem();
-        Cliente cliente = (Cliente) cmbCliente.getSelectedItem();
+        Cliente cliente = autocompletarCliente.getClienteSeleccionado();
         if (cancha == null || cliente == null) return;
         
         LocalDate fecha = parseDateChooser(jdcFecha); // Lee del JDateChooser
@@ -805,7 +1260,7 @@ public class MainFrame extends JFrame {
         
         LocalDateTime inicio = LocalDateTime.of(fecha, hora);
 
-        double costo;
+        BigDecimal costo;
         if (rbSimple.isSelected()) {
             ReservaSimple tmp = new ReservaSimple(0, inicio, cancha, cliente, (int) spDuracion.getValue());
             costo = tmp.calcularCostoTotal();
@@ -824,16 +1279,22 @@ public class MainFrame extends JFrame {
                     ((Number) spDescuento.getValue()).doubleValue());
             tmp.setDuracionMinutos((int) spDuracion.getValue());
             
-            // El costo total de una fija se calcula diferente
-            // Aquí mostramos el costo *por turno*
-            costo = tmp.calcularCostoTotal(); 
-            
-            List<LocalDate> ocurrencias = tmp.generarOcurrencias(inicio.toLocalDate(), fechaFin);
-            int numOcurrencias = ocurrencias.isEmpty() ? 1 : ocurrencias.size();
-            
-            JOptionPane.showMessageDialog(this, "Costo por turno: " + F_MONEDA_AR.format(costo) + "\n"
+            // Costo del primer turno, y el total de la serie con la tarifa de cada fecha
+            // (se cuenta por día de la semana y temporada, sin generar las ocurrencias)
+            costo = tmp.calcularCostoTotal();
+            long numOcurrencias;
+            BigDecimal total;
+            try {
+                numOcurrencias = tmp.getRecurrencia().contar();
+                total = tmp.cotizarSerie();
+            } catch (IllegalArgumentException ex) {
+                JOptionPane.showMessageDialog(this, "No se puede calcular el costo de la serie: " + ex.getMessage());
+                return;
+            }
+
+            JOptionPane.showMessageDialog(this, "Costo del primer turno: " + F_MONEDA_AR.format(costo) + "\n"
                     + "Número de ocurrencias: " + numOcurrencias + "\n"
-                    + "Costo TOTAL (serie): " + F_MONEDA_AR.format(costo * numOcurrencias));
+                    + "Costo TOTAL (serie): " + F_MONEDA_AR.format(total));
             return;
         }
         JOptionPane.showMessageDialog(this, "Costo estimado: " + F_MONEDA_AR.format(costo));
@@ -861,13 +1322,99 @@ public class MainFrame extends JFrame {
             return; // Detiene el registro
         }
         
-        // Llama al DAO
-        List<LocalTime> libres = reservaDAO.consultarDisponibilidad(cancha.getIdCancha(), fecha);
-        
-        modelHoras.setRowCount(0); // Limpia la tabla
-        
-        for (LocalTime t : libres) {
-            modelHoras.addRow(new Object[]{ t.format(F_HORA) }); // Añade fila a la tabla
+        // Llama al DAO (fuera del EDT)
+        ejecutor.ejecutar("Consultando disponibilidad...",
+                new JComponent[]{btnConsultarDisponibilidad},
+                () -> reservaDAO.consultarDisponibilidad(cancha.getIdCancha(), fecha),
+                libres -> {
+                    modelHoras.setRowCount(0); // Limpia la tabla
+
+                    for (LocalTime t : libres) {
+                        modelHoras.addRow(new Object[]{ t.format(F_HORA) }); // Añade fila a la tabla
+                    }
+                });
+    }
+
+    /**
+     * Consulta la disponibilidad de todas las canchas (del deporte elegido)
+     * en una sola llamada al DAO y arma la grilla canchas x turnos.
+     */
+    private void onVerGrillaDisponibilidad() {
+        LocalDate fecha = parseDateChooser(jdcFechaDisp);
+        if (fecha == null) {
+            JOptionPane.showMessageDialog(this, "Seleccione una fecha válida para consultar.");
+            return;
+        }
+        if (fecha.isBefore(LocalDate.now())) {
+            JOptionPane.showMessageDialog(this, "No se puede seleccionar una fecha que ya pasó.", "Fecha Inválida", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        String deporte = (String) cmbDeporteDisp.getSelectedItem();
+        if (TODOS_LOS_DEPORTES.equals(deporte)) {
+            deporte = null; // Sin filtro
+        }
+
+        String filtroDeporte = deporte;
+        ejecutor.ejecutar("Consultando disponibilidad de todas las canchas...",
+                new JComponent[]{btnVerGrilla},
+                () -> reservaDAO.consultarDisponibilidadGeneral(fecha, filtroDeporte),
+                this::mostrarGrilla);
+    }
+
+    /**
+     * Arma la tabla canchas x turnos a partir de la grilla (en el EDT).
+     */
+    private void mostrarGrilla(GrillaDisponibilidad grilla) {
+        // Columnas: "Cancha" + un turno por columna
+        List<LocalTime> turnos = grilla.getTurnos();
+        Object[] columnas = new Object[turnos.size() + 1];
+        columnas[0] = "Cancha";
+        for (int t = 0; t < turnos.size(); t++) {
+            columnas[t + 1] = turnos.get(t).format(F_HORA);
+        }
+
+        Object[][] filas = new Object[grilla.getCanchas().size()][];
+        for (int c = 0; c < filas.length; c++) {
+            Object[] fila = new Object[turnos.size() + 1];
+            fila[0] = grilla.getCanchas().get(c).getNombre();
+            for (int t = 0; t < turnos.size(); t++) {
+                fila[t + 1] = grilla.estaLibre(c, t) ? CELDA_LIBRE : CELDA_OCUPADA;
+            }
+            filas[c] = fila;
+        }
+
+        // setDataVector reemplaza todo el modelo con un único evento
+        modelGrilla.setDataVector(filas, columnas);
+        tblGrilla.getColumnModel().getColumn(0).setPreferredWidth(140);
+
+        if (filas.length == 0) {
+            JOptionPane.showMessageDialog(this, "No hay canchas o no hay horario laboral para esa fecha.");
+        }
+    }
+
+    /**
+     * Pinta las celdas de la grilla de disponibilidad (verde libre, rojo ocupado).
+     */
+    private static class RenderizadorGrilla extends javax.swing.table.DefaultTableCellRenderer {
+        private static final Color COLOR_LIBRE = new Color(200, 235, 200);
+        private static final Color COLOR_OCUPADA = new Color(240, 190, 190);
+
+        @Override
+        public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected,
+                                                       boolean hasFocus, int row, int column) {
+            Component c = super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+            if (!isSelected) {
+                if (CELDA_LIBRE.equals(value)) {
+                    c.setBackground(COLOR_LIBRE);
+                } else if (CELDA_OCUPADA.equals(value)) {
+                    c.setBackground(COLOR_OCUPADA);
+                } else {
+                    c.setBackground(table.getBackground());
+                }
+            }
+            setHorizontalAlignment(column == 0 ? LEFT : CENTER);
+            return c;
         }
     }
 
@@ -889,24 +1436,29 @@ public class MainFrame extends JFrame {
         // 1. Crear objeto de negocio
         Cancha c = new Cancha(0, nom, dep, precio); // ID 0, la BD lo genera
 
-        // 2. Enviar al DAO
-        int idGenerado = canchaDAO.agregarCancha(c);
-
-        // 3. Actualizar GUI
-        if (idGenerado != -1) {
-            // El DAO actualizó el ID en el objeto 'c'
-            canchas.add(c);
-            cmbCancha.addItem(c);
-            cmbCanchaDisp.addItem(c);
-            modelCanchas.addRow(new Object[]{c.getIdCancha(), c.getNombre(), c.getDeporte(), c.getPrecioPorHora()});
-            
-            // Refresca el combo de filtro en reservas
-            filtrarCanchasPorDeporte();
-            
-            onLimpiarCancha(); // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, "Error al guardar la cancha.");
-        }
+        // 2. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Guardando cancha...", botonesCancha(),
+                () -> canchaDAO.agregarCancha(c),
+                idGenerado -> {
+                    // 3. Actualizar GUI
+                    if (idGenerado != -1) {
+                        // El DAO actualizó el ID en el objeto 'c'
+                        canchas.add(c);
+                        cmbCancha.addItem(c);
+                        if (cmbCanchaDisp != null) {
+                            cmbCanchaDisp.addItem(c);
+                        }
+                        modelCanchas.addRow(new Object[]{c.getIdCancha(), c.getNombre(), c.getDeporte(), c.getPrecioPorHora()});
+
+                        // Refresca el combo de filtro en reservas
+                        filtrarCanchasPorDeporte();
+
+                        onLimpiarCancha(); // Limpia el formulario
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al guardar la cancha.");
+                        onLimpiarCancha(); // Restaura el estado de los botones
+                    }
+                });
     }
     
     /**
@@ -982,17 +1534,19 @@ public class MainFrame extends JFrame {
         // 1. Crear objeto de negocio
         Cancha canchaModificada = new Cancha(idCancha, nom, dep, precio);
 
-        // 2. Enviar al DAO
-        boolean exito = canchaDAO.modificarCancha(canchaModificada);
-
-        // 3. Actualizar GUI
-        if (exito) {
-            JOptionPane.showMessageDialog(this, "Cancha modificada correctamente.");
-            cargarCanchasDesdeDB(); // Recarga toda la tabla y los combos
-            onLimpiarCancha();     // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, "Error al modificar la cancha.");
-        }
+        // 2. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Modificando cancha...", botonesCancha(),
+                () -> canchaDAO.modificarCancha(canchaModificada),
+                exito -> {
+                    // 3. Actualizar GUI
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cancha modificada correctamente.");
+                        cargarCanchasDesdeDB(); // Recarga toda la tabla y los combos
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al modificar la cancha.");
+                    }
+                    onLimpiarCancha(); // Limpia el formulario y restaura los botones
+                });
     }
     
     /**
@@ -1021,20 +1575,23 @@ public class MainFrame extends JFrame {
             return;
         }
 
-        // 1. Enviar al DAO
-        boolean exito = canchaDAO.eliminarCancha(idCancha);
-
-        // 2. Actualizar GUI
-        if (exito) {
-            JOptionPane.showMessageDialog(this, "Cancha eliminada correctamente.");
-            cargarCanchasDesdeDB(); // Recarga toda la tabla y los combos
-            onLimpiarCancha();     // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, 
-                    "Error al eliminar la cancha.\nEs posible que tenga reservas asociadas.",
-                    "Error de Eliminación",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        // 1. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Eliminando cancha...", botonesCancha(),
+                () -> canchaDAO.eliminarCancha(idCancha),
+                exito -> {
+                    // 2. Actualizar GUI
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cancha eliminada correctamente.");
+                        cargarCanchasDesdeDB(); // Recarga toda la tabla y los combos
+                        onLimpiarCancha();     // Limpia el formulario
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Error al eliminar la cancha.\nEs posible que tenga reservas asociadas.",
+                                "Error de Eliminación",
+                                JOptionPane.ERROR_MESSAGE);
+                        onTablaCanchaSeleccionada(); // Restaura los botones según la selección
+                    }
+                });
     }
 
     /**
@@ -1053,20 +1610,21 @@ public class MainFrame extends JFrame {
         // 1. Crear objeto de negocio
         Cliente cli = new Cliente(0, nom, tel);
 
-        // 2. Enviar al DAO
-        int idGenerado = clienteDAO.agregarCliente(cli);
-
-        // 3. Actualizar GUI
-        if (idGenerado != -1) {
-            // El DAO actualizó el ID en el objeto 'cli'
-            clientes.add(cli);
-            cmbCliente.addItem(cli);
-            modelClientes.addRow(new Object[]{cli.getIdCliente(), cli.getNombreCliente(), cli.getTelefono()});
-            
-            onLimpiarCliente(); // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, "Error al guardar el cliente.");
-        }
+        // 2. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Guardando cliente...", botonesCliente(),
+                () -> clienteDAO.agregarCliente(cli),
+                idGenerado -> {
+                    // 3. Actualizar GUI
+                    if (idGenerado != -1) {
+                        // La tabla está paginada: se recarga la página para ubicarlo en su lugar
+                        cargarClientesDesdeDB();
+
+                        onLimpiarCliente(); // Limpia el formulario
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al guardar el cliente.");
+                        onLimpiarCliente(); // Restaura el estado de los botones
+                    }
+                });
     }
        
     
@@ -1137,17 +1695,19 @@ public class MainFrame extends JFrame {
         // 1. Crear objeto de negocio
         Cliente clienteModificado = new Cliente(idCliente, nom, tel);
 
-        // 2. Enviar al DAO
-        boolean exito = clienteDAO.modificarCliente(clienteModificado);
-
-        // 3. Actualizar GUI
-        if (exito) {
-            JOptionPane.showMessageDialog(this, "Cliente modificado correctamente.");
-            cargarClientesDesdeDB(); // Recarga toda la tabla y los combos
-            onLimpiarCliente();     // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, "Error al modificar el cliente.");
-        }
+        // 2. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Modificando cliente...", botonesCliente(),
+                () -> clienteDAO.modificarCliente(clienteModificado),
+                exito -> {
+                    // 3. Actualizar GUI
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cliente modificado correctamente.");
+                        cargarClientesDesdeDB(); // Recarga la página actual
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al modificar el cliente.");
+                    }
+                    onLimpiarCliente(); // Limpia el formulario y restaura los botones
+                });
     }
     
     /**
@@ -1176,20 +1736,23 @@ public class MainFrame extends JFrame {
             return;
         }
 
-        // 1. Enviar al DAO
-        boolean exito = clienteDAO.eliminarCliente(idCliente);
-
-        // 2. Actualizar GUI
-        if (exito) {
-            JOptionPane.showMessageDialog(this, "Cliente eliminado correctamente.");
-            cargarClientesDesdeDB(); // Recarga toda la tabla y los combos
-            onLimpiarCliente();     // Limpia el formulario
-        } else {
-            JOptionPane.showMessageDialog(this, 
-                    "Error al eliminar el cliente.\nEs posible que tenga reservas asociadas.",
-                    "Error de Eliminación",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        // 1. Enviar al DAO (fuera del EDT)
+        ejecutor.ejecutar("Eliminando cliente...", botonesCliente(),
+                () -> clienteDAO.eliminarCliente(idCliente),
+                exito -> {
+                    // 2. Actualizar GUI
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cliente eliminado correctamente.");
+                        cargarClientesDesdeDB(); // Recarga la página actual
+                        onLimpiarCliente();     // Limpia el formulario
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Error al eliminar el cliente.\nEs posible que tenga reservas asociadas.",
+                                "Error de Eliminación",
+                                JOptionPane.ERROR_MESSAGE);
+                        onTablaClienteSeleccionada(); // Restaura los botones según la selección
+                    }
+                });
     }
     
     
@@ -1197,6 +1760,20 @@ public class MainFrame extends JFrame {
     // Utilidades de la GUI
     // -----------------------------------------------------------
     
+    /**
+     * Botones del formulario de canchas (se deshabilitan mientras se guarda).
+     */
+    private JComponent[] botonesCancha() {
+        return new JComponent[]{btnAgregarCancha, btnModificarCancha, btnEliminarCancha, btnLimpiarCancha};
+    }
+
+    /**
+     * Botones del formulario de clientes (se deshabilitan mientras se guarda).
+     */
+    private JComponent[] botonesCliente() {
+        return new JComponent[]{btnAgregarCliente, btnModificarCliente, btnEliminarCliente, btnLimpiarCliente};
+    }
+
     private GridBagConstraints baseGC() {
         GridBagConstraints gc = new GridBagConstraints();
         gc.gridx = 0; gc.gridy = 0;
@@ -1237,26 +1814,6 @@ public class MainFrame extends JFrame {
         }
     }
     
-    /**
-     * Agrega una fila a la tabla de reservas formateando las fechas y costos.
-     * (CORREGIDO) Acepta el costo como parámetro.
-     */
-    private void agregarFila(Reserva r, String tipo, double costoGuardado) {
-        String inicioStr = r.getFechaHoraInicio().format(F_FECHA_HORA_MOSTRAR);
-        String finStr = r.getFechaHoraFin().format(F_FECHA_HORA_MOSTRAR);
-        String costoStr = F_MONEDA_AR.format(costoGuardado);
-
-        modelReservas.addRow(new Object[]{
-                r.getIdReserva(),
-                r.getCancha() != null ? r.getCancha().getNombre() : "-",
-                r.getCliente() != null ? r.getCliente().getNombreCliente() : "-",
-                inicioStr,
-                finStr,
-                tipo,
-                costoStr
-        });
-    }
-
 }
 
 
@@ -0,0 +1,57 @@
+package com.gestor.presentacion;
+
+import java.time.Instant;
+
+/**
+ * Mide el tiempo de arranque, contado desde que se lanzó el proceso:
+ * - ventana visible: el frame ya se abrió en pantalla,
+ * - interactiva: además terminaron las cargas iniciales (canchas, reservas del día
+ *   y primera página de clientes).
+ *
+ * Se informa por consola una sola vez. El objetivo se ajusta con
+ * -Dgestor.arranque.objetivoMs (1500 por defecto); si se supera se avisa por System.err.
+ * Solo se usa desde el EDT (salvo iniciar(), al principio del main).
+ */
+final class MedicionArranque {
+
+    static final long OBJETIVO_MS = Long.getLong("gestor.arranque.objetivoMs", 1500L);
+
+    private static long inicioMs;
+    private static long visibleMs = -1;
+    private static boolean informado = false;
+
+    private MedicionArranque() {}
+
+    /**
+     * Toma como origen el lanzamiento del proceso (incluye el arranque de la JVM);
+     * si el sistema no lo informa, el momento de esta llamada.
+     */
+    static void iniciar() {
+        inicioMs = ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli)
+                .orElse(System.currentTimeMillis());
+    }
+
+    static void ventanaVisible() {
+        if (visibleMs < 0) {
+            visibleMs = transcurridoMs();
+        }
+    }
+
+    static void interactiva() {
+        if (informado) {
+            return;
+        }
+        informado = true;
+        long interactivaMs = transcurridoMs();
+        System.out.println("Arranque: ventana visible a los " + visibleMs + " ms, interactiva a los "
+                + interactivaMs + " ms (objetivo " + OBJETIVO_MS + " ms).");
+        if (interactivaMs > OBJETIVO_MS) {
+            System.err.println("Arranque lento: " + interactivaMs + " ms supera el objetivo de " + OBJETIVO_MS + " ms.");
+        }
+    }
+
+    private static long transcurridoMs() {
+        return System.currentTimeMillis() - inicioMs;
+    }
+}
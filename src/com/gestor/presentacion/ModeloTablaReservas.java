@@ -0,0 +1,230 @@
+package com.gestor.presentacion;
+
+import com.gestor.negocio.Reserva;
+import com.gestor.negocio.Tarifa;
+import java.math.BigDecimal;
+import java.text.NumberFormat;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Modelo de la tabla de reservas pensado para muchas filas (100k+).
+ *
+ * En lugar de un Object[] por fila (DefaultTableModel), guarda cada columna en
+ * un arreglo primitivo y los nombres de cancha/cliente en un diccionario
+ * (se repiten mucho). Las celdas se formatean recién cuando la JTable las pinta,
+ * o sea solo las visibles. Las filas se agregan por lotes con un único evento
+ * por lote. Todos los métodos deben llamarse desde el EDT.
+ */
+public class ModeloTablaReservas extends AbstractTableModel {
+
+    private static final String[] COLUMNAS = {"ID", "Cancha", "Cliente", "Inicio", "Fin", "Tipo", "Costo"};
+    private static final int CAPACIDAD_INICIAL = 256;
+
+    private final DateTimeFormatter formatoFecha;
+    private final NumberFormat formatoMoneda;
+
+    // ---- Almacenamiento por columnas ----
+    private int filas = 0;
+    private int[] ids = new int[CAPACIDAD_INICIAL];            // 0 = turno de una serie (sin fila propia)
+    private int[] gruposFija = new int[CAPACIDAD_INICIAL];     // 0 = reserva simple
+    private long[] iniciosMin = new long[CAPACIDAD_INICIAL];   // Minutos desde la época (sin zona)
+    private int[] duraciones = new int[CAPACIDAD_INICIAL];
+    private int[] canchas = new int[CAPACIDAD_INICIAL];        // Índice en 'nombres'
+    private int[] clientes = new int[CAPACIDAD_INICIAL];       // Índice en 'nombres'
+    private long[] costos = new long[CAPACIDAD_INICIAL];       // En centavos (exacto)
+
+    // Diccionario de textos repetidos (nombres de cancha y de cliente)
+    private final List<String> nombres = new ArrayList<>();
+    private final Map<String, Integer> indiceNombres = new HashMap<>();
+
+    public ModeloTablaReservas(DateTimeFormatter formatoFecha, NumberFormat formatoMoneda) {
+        this.formatoFecha = formatoFecha;
+        this.formatoMoneda = formatoMoneda;
+    }
+
+    // -----------------------------------------------------------
+    // Carga
+    // -----------------------------------------------------------
+
+    /**
+     * Borra todas las filas.
+     */
+    public void limpiar() {
+        filas = 0;
+        nombres.clear();
+        indiceNombres.clear();
+        fireTableDataChanged();
+    }
+
+    /**
+     * Agrega un lote de reservas al final, con un único evento de inserción.
+     */
+    public void agregarLote(List<? extends Reserva> lote) {
+        if (lote.isEmpty()) {
+            return;
+        }
+        int primera = filas;
+        asegurarCapacidad(filas + lote.size());
+        for (Reserva r : lote) {
+            int i = filas++;
+            ids[i] = r.getIdReserva();
+            gruposFija[i] = r.esParteDeGrupo() ? r.getIdGrupoFija() : 0;
+            iniciosMin[i] = r.getFechaHoraInicio().toEpochSecond(ZoneOffset.UTC) / 60;
+            duraciones[i] = r.getDuracionMinutos();
+            canchas[i] = indiceDeNombre(r.getCancha() != null ? r.getCancha().getNombre() : "-");
+            clientes[i] = indiceDeNombre(r.getCliente() != null ? r.getCliente().getNombreCliente() : "-");
+            costos[i] = Tarifa.redondearMonto(r.calcularCostoTotal()).unscaledValue().longValueExact();
+        }
+        fireTableRowsInserted(primera, filas - 1);
+    }
+
+    /**
+     * Elimina una fila.
+     */
+    public void eliminarFila(int fila) {
+        if (fila < 0 || fila >= filas) {
+            return;
+        }
+        int mover = filas - fila - 1;
+        System.arraycopy(ids, fila + 1, ids, fila, mover);
+        System.arraycopy(gruposFija, fila + 1, gruposFija, fila, mover);
+        System.arraycopy(iniciosMin, fila + 1, iniciosMin, fila, mover);
+        System.arraycopy(duraciones, fila + 1, duraciones, fila, mover);
+        System.arraycopy(canchas, fila + 1, canchas, fila, mover);
+        System.arraycopy(clientes, fila + 1, clientes, fila, mover);
+        System.arraycopy(costos, fila + 1, costos, fila, mover);
+        filas--;
+        fireTableRowsDeleted(fila, fila);
+    }
+
+    // -----------------------------------------------------------
+    // Consultas sobre las filas
+    // -----------------------------------------------------------
+
+    public int getIdReserva(int fila) {
+        return ids[fila];
+    }
+
+    public boolean esParteDeGrupo(int fila) {
+        return gruposFija[fila] != 0;
+    }
+
+    /**
+     * ID de la serie de la fila, o 0 si es una reserva simple.
+     */
+    public int getIdGrupoFija(int fila) {
+        return gruposFija[fila];
+    }
+
+    public LocalDateTime getInicio(int fila) {
+        return fechaHora(iniciosMin[fila]);
+    }
+
+    /**
+     * Fila del turno de una serie (no tiene ID de reserva), o -1 si no está en la tabla.
+     */
+    public int indiceDeTurno(int idGrupoFija, LocalDateTime inicio) {
+        long minutos = inicio.toEpochSecond(ZoneOffset.UTC) / 60;
+        for (int i = 0; i < filas; i++) {
+            if (ids[i] == 0 && gruposFija[i] == idGrupoFija && iniciosMin[i] == minutos) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Fila de una reserva por su ID, o -1 si no está en la tabla.
+     */
+    public int indiceDe(int idReserva) {
+        for (int i = 0; i < filas; i++) {
+            if (ids[i] == idReserva) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // -----------------------------------------------------------
+    // AbstractTableModel
+    // -----------------------------------------------------------
+
+    @Override
+    public int getRowCount() {
+        return filas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return COLUMNAS[columna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columna) {
+        return columna == 0 ? Integer.class : String.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int fila, int columna) {
+        return false;
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        switch (columna) {
+            case 0: return ids[fila] != 0 ? ids[fila] : null; // Los turnos de una serie no tienen ID
+            case 1: return nombres.get(canchas[fila]);
+            case 2: return nombres.get(clientes[fila]);
+            case 3: return fechaHora(iniciosMin[fila]).format(formatoFecha);
+            case 4: return fechaHora(iniciosMin[fila] + duraciones[fila]).format(formatoFecha);
+            case 5: return gruposFija[fila] != 0 ? "Fija" : "Simple";
+            case 6: return formatoMoneda.format(BigDecimal.valueOf(costos[fila], 2));
+            default: return null;
+        }
+    }
+
+    // -----------------------------------------------------------
+    // Utilidades
+    // -----------------------------------------------------------
+
+    private static LocalDateTime fechaHora(long minutosEpoca) {
+        return LocalDateTime.ofEpochSecond(minutosEpoca * 60, 0, ZoneOffset.UTC);
+    }
+
+    private int indiceDeNombre(String nombre) {
+        Integer indice = indiceNombres.get(nombre);
+        if (indice == null) {
+            indice = nombres.size();
+            nombres.add(nombre);
+            indiceNombres.put(nombre, indice);
+        }
+        return indice;
+    }
+
+    private void asegurarCapacidad(int minimo) {
+        if (minimo <= ids.length) {
+            return;
+        }
+        int nueva = Math.max(minimo, ids.length + (ids.length >> 1));
+        ids = Arrays.copyOf(ids, nueva);
+        gruposFija = Arrays.copyOf(gruposFija, nueva);
+        iniciosMin = Arrays.copyOf(iniciosMin, nueva);
+        duraciones = Arrays.copyOf(duraciones, nueva);
+        canchas = Arrays.copyOf(canchas, nueva);
+        clientes = Arrays.copyOf(clientes, nueva);
+        costos = Arrays.copyOf(costos, nueva);
+    }
+}
@@ -0,0 +1,185 @@
+package com.gestor.negocio;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Compara Recurrencia (que salta de una ocurrencia a la siguiente y cuenta sin recorrer)
+ * contra un recorrido ingenuo día por día, en combinaciones de días, intervalos,
+ * fin, máximo y exclusiones alrededor de cambios de año y de años bisiestos.
+ */
+public class RecurrenciaTest {
+
+    private static final LocalDate[] INICIOS = {
+        LocalDate.of(2024, 12, 27), // Viernes, la serie cruza el año
+        LocalDate.of(2024, 12, 30), // Lunes de la semana que cruza el año
+        LocalDate.of(2025, 1, 1),   // Miércoles
+        LocalDate.of(2024, 2, 25),  // Domingo antes del 29/02
+        LocalDate.of(2026, 10, 17)  // Sábado
+    };
+
+    private static final List<Set<DayOfWeek>> DIAS = List.of(
+        EnumSet.of(DayOfWeek.MONDAY),
+        EnumSet.of(DayOfWeek.SUNDAY),
+        EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.THURSDAY),
+        EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY),
+        EnumSet.allOf(DayOfWeek.class)
+    );
+
+    private static final int[] INTERVALOS = {1, 2, 3};
+    private static final int[] MAXIMOS = {0, 1, 7, 25};
+    private static final int[] DIAS_HASTA_FIN = {-1, 0, 6, 45, 400}; // -1 = sin fecha de fin
+
+    @Test
+    public void coincideConElRecorridoDiaPorDia() {
+        for (LocalDate inicio : INICIOS) {
+            for (Set<DayOfWeek> dias : DIAS) {
+                for (int intervalo : INTERVALOS) {
+                    for (int maximo : MAXIMOS) {
+                        for (int hastaFin : DIAS_HASTA_FIN) {
+                            LocalDate fin = (hastaFin < 0) ? null : inicio.plusDays(hastaFin);
+                            if (fin == null && maximo == 0) {
+                                continue; // El constructor lo rechaza (ver constructorRechaza...)
+                            }
+                            for (Set<LocalDate> excluidas : exclusiones(inicio)) {
+                                comparar(inicio, dias, intervalo, fin, maximo, excluidas);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void semanalIncluyeAmbosExtremos() {
+        Recurrencia r = Recurrencia.semanal(DayOfWeek.MONDAY, LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 13));
+        List<LocalDate> fechas = r.stream().collect(Collectors.toList());
+        assertEquals(List.of(LocalDate.of(2024, 12, 30), LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 13)), fechas);
+        assertEquals(3, r.contar());
+    }
+
+    @Test
+    public void unaExcluidaNoCuentaParaElMaximo() {
+        LocalDate inicio = LocalDate.of(2025, 1, 6);
+        Recurrencia r = new Recurrencia(inicio, EnumSet.of(DayOfWeek.MONDAY), 1, null, 3, Set.of(inicio.plusWeeks(1)));
+        assertEquals(List.of(inicio, inicio.plusWeeks(2), inicio.plusWeeks(3)), r.stream().collect(Collectors.toList()));
+        assertEquals(inicio.plusWeeks(3), r.getFinEfectivo());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRechazaSinFinNiMaximo() {
+        new Recurrencia(LocalDate.of(2025, 1, 1), EnumSet.of(DayOfWeek.MONDAY), 1, null, 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRechazaSinDias() {
+        new Recurrencia(LocalDate.of(2025, 1, 1), EnumSet.noneOf(DayOfWeek.class), 1, LocalDate.of(2025, 2, 1), 0, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRechazaIntervaloCero() {
+        new Recurrencia(LocalDate.of(2025, 1, 1), EnumSet.of(DayOfWeek.MONDAY), 0, LocalDate.of(2025, 2, 1), 0, null);
+    }
+
+    // -----------------------------------------------------------
+    // Comparación
+    // -----------------------------------------------------------
+
+    private static void comparar(LocalDate inicio, Set<DayOfWeek> dias, int intervalo, LocalDate fin,
+                                 int maximo, Set<LocalDate> excluidas) {
+        Recurrencia r = new Recurrencia(inicio, dias, intervalo, fin, maximo, excluidas);
+        List<LocalDate> esperadas = ingenua(inicio, dias, intervalo, fin, maximo, excluidas);
+        String caso = r + " excluidas=" + excluidas;
+
+        List<LocalDate> obtenidas = new ArrayList<>();
+        r.iterator().forEachRemaining(obtenidas::add);
+        assertEquals(caso, esperadas, obtenidas);
+        assertEquals(caso, esperadas.size(), r.contar());
+        if (!esperadas.isEmpty()) {
+            assertFalse(caso, r.getFinEfectivo().isBefore(esperadas.get(esperadas.size() - 1)));
+        }
+
+        LocalDate ultima = esperadas.isEmpty() ? inicio : esperadas.get(esperadas.size() - 1);
+        long largo = ChronoUnit.DAYS.between(inicio, ultima) + 10;
+        for (long d = -3; d <= largo; d += 5) {
+            LocalDate desde = inicio.plusDays(d);
+
+            // iteradorDesde / siguienteDesde: la cola de la serie a partir de 'desde'
+            List<LocalDate> cola = esperadas.stream().filter(f -> !f.isBefore(desde)).collect(Collectors.toList());
+            List<LocalDate> colaObtenida = new ArrayList<>();
+            Iterator<LocalDate> it = r.iteradorDesde(desde);
+            it.forEachRemaining(colaObtenida::add);
+            assertEquals(caso + " desde " + desde, cola, colaObtenida);
+            if (cola.isEmpty()) {
+                assertNull(caso + " desde " + desde, r.siguienteDesde(desde));
+            } else {
+                assertEquals(caso + " desde " + desde, cola.get(0), r.siguienteDesde(desde));
+            }
+
+            for (int ancho : new int[]{0, 1, 6, 7, 20, 90}) {
+                LocalDate hasta = desde.plusDays(ancho);
+                assertArrayEquals(caso + " [" + desde + ", " + hasta + ")",
+                        contarIngenuo(esperadas, desde, hasta), r.contarPorDia(desde, hasta));
+            }
+        }
+    }
+
+    /**
+     * Referencia: recorre día por día desde 'inicio' y se queda con los del patrón.
+     */
+    private static List<LocalDate> ingenua(LocalDate inicio, Set<DayOfWeek> dias, int intervalo, LocalDate fin,
+                                           int maximo, Set<LocalDate> excluidas) {
+        LocalDate lunes = inicio.minusDays(inicio.getDayOfWeek().getValue() - 1);
+        List<LocalDate> fechas = new ArrayList<>();
+        for (LocalDate dia = inicio; fin == null || !dia.isAfter(fin); dia = dia.plusDays(1)) {
+            if (maximo > 0 && fechas.size() >= maximo) {
+                break;
+            }
+            long semana = ChronoUnit.DAYS.between(lunes, dia) / 7;
+            if (semana % intervalo == 0 && dias.contains(dia.getDayOfWeek()) && !excluidas.contains(dia)) {
+                fechas.add(dia);
+            }
+        }
+        return fechas;
+    }
+
+    private static long[] contarIngenuo(List<LocalDate> fechas, LocalDate desde, LocalDate hastaExclusivo) {
+        long[] cuenta = new long[7];
+        for (LocalDate f : fechas) {
+            if (!f.isBefore(desde) && f.isBefore(hastaExclusivo)) {
+                cuenta[f.getDayOfWeek().getValue() - 1]++;
+            }
+        }
+        return cuenta;
+    }
+
+    /**
+     * Sin exclusiones; fechas sueltas (del patrón o no, antes del inicio incluso);
+     * y una semana entera excluida.
+     */
+    private static List<Set<LocalDate>> exclusiones(LocalDate inicio) {
+        Set<LocalDate> sueltas = new HashSet<>(Arrays.asList(
+                inicio.minusDays(7), inicio, inicio.plusDays(1), inicio.plusDays(9),
+                inicio.plusDays(15), LocalDate.of(2025, 1, 1), LocalDate.of(2024, 2, 29)));
+        Set<LocalDate> semana = new HashSet<>();
+        for (int i = 14; i < 21; i++) {
+            semana.add(inicio.plusDays(i));
+        }
+        return List.of(Set.of(), sueltas, semana);
+    }
+}
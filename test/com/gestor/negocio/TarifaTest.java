@@ -0,0 +1,136 @@
+package com.gestor.negocio;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compara Tarifa.cotizarSerie (que cuenta ocurrencias por tramo y día de la semana sin
+ * recorrer la serie) contra sumar cotizar() ocurrencia por ocurrencia, en series que
+ * cruzan cambios de temporada, turnos que pasan la medianoche y descuentos que no dan
+ * centavos exactos.
+ */
+public class TarifaTest {
+
+    private static final Set<DayOfWeek> TODOS = EnumSet.allOf(DayOfWeek.class);
+    private static final Set<DayOfWeek> FINDE = EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY);
+
+    // Temporada alta de enero: el 31/01 es el último día (viernes)
+    private static final LocalDate ENERO_DESDE = LocalDate.of(2025, 1, 1);
+    private static final LocalDate ENERO_HASTA = LocalDate.of(2025, 1, 31);
+
+    private static final List<Tarifa> TARIFAS = List.of(
+        Tarifa.plana(1000),
+        // Enero, todo el día, precio fijo
+        Tarifa.compilar(1000, List.of(
+            regla(TODOS, "00:00", "00:00", ENERO_DESDE, ENERO_HASTA, new BigDecimal("1500"), null, 1))),
+        // Enero a la noche (cruza la medianoche), más un finde de febrero con porcentaje y
+        // una franja a la media hora que vale siempre
+        Tarifa.compilar(1000, List.of(
+            regla(TODOS, "22:00", "02:00", ENERO_DESDE, ENERO_HASTA, new BigDecimal("1333.33"), null, 1),
+            regla(FINDE, "00:00", "00:00", LocalDate.of(2025, 2, 8), LocalDate.of(2025, 2, 9), null, 120, 2),
+            regla(EnumSet.of(DayOfWeek.TUESDAY), "18:30", "20:00", null, null, null, 85, 0))),
+        // Temporadas pegadas: la serie pasa de una a otra sin días base en el medio
+        Tarifa.compilar(999.99, List.of(
+            regla(TODOS, "00:00", "00:00", null, LocalDate.of(2024, 12, 31), new BigDecimal("700"), null, 1),
+            regla(TODOS, "00:00", "00:00", ENERO_DESDE, ENERO_HASTA, null, 110, 1),
+            regla(TODOS, "23:00", "01:00", LocalDate.of(2025, 2, 1), null, new BigDecimal("2000.01"), null, 1)))
+    );
+
+    private static final LocalDate[] INICIOS = {
+        LocalDate.of(2024, 12, 20),
+        LocalDate.of(2025, 1, 31),  // Último día de la temporada
+        LocalDate.of(2025, 2, 3)
+    };
+
+    private static final List<Set<DayOfWeek>> DIAS = List.of(
+        EnumSet.of(DayOfWeek.FRIDAY),
+        EnumSet.of(DayOfWeek.TUESDAY, DayOfWeek.SATURDAY),
+        TODOS
+    );
+
+    private static final int[] INTERVALOS = {1, 2};
+    private static final int[] DIAS_HASTA_FIN = {0, 13, 60};
+
+    private static final LocalTime[] HORAS = {
+        LocalTime.of(10, 0), LocalTime.of(18, 20), LocalTime.of(22, 30), LocalTime.of(23, 15)
+    };
+    private static final int[] MINUTOS = {50, 90, 100, 1440};
+    private static final double[] DESCUENTOS = {0, 0.15, 1.0 / 3, 0.125};
+
+    @Test
+    public void coincideConSumarCadaTurno() {
+        for (Tarifa tarifa : TARIFAS) {
+            for (LocalDate inicio : INICIOS) {
+                for (Set<DayOfWeek> dias : DIAS) {
+                    for (int intervalo : INTERVALOS) {
+                        for (int hastaFin : DIAS_HASTA_FIN) {
+                            Recurrencia serie = new Recurrencia(inicio, dias, intervalo,
+                                    inicio.plusDays(hastaFin), 0, Set.of(LocalDate.of(2025, 1, 7)));
+                            for (LocalTime hora : HORAS) {
+                                for (int minutos : MINUTOS) {
+                                    for (double descuento : DESCUENTOS) {
+                                        assertEquals(serie + " " + hora + " " + minutos + "min -" + descuento,
+                                                sumarTurnos(tarifa, serie, hora, minutos, descuento),
+                                                tarifa.cotizarSerie(serie, hora, minutos, descuento));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void turnoQueCruzaLaMedianocheDelUltimoDiaDeTemporada() {
+        Tarifa tarifa = TARIFAS.get(1);
+        // 31/01 23:00 a 01/02 01:00: una hora de enero (1500) y una de precio base (1000)
+        Recurrencia serie = Recurrencia.semanal(DayOfWeek.FRIDAY, LocalDate.of(2025, 1, 24), ENERO_HASTA);
+        assertEquals(new BigDecimal("2500.00"), tarifa.cotizar(LocalDateTime.of(ENERO_HASTA, LocalTime.of(23, 0)), 120));
+        // El 24/01 es todo de enero (3000) y el 31/01 pasa a febrero (2500)
+        assertEquals(new BigDecimal("5500.00"), tarifa.cotizarSerie(serie, LocalTime.of(23, 0), 120, 0));
+        assertEquals(sumarTurnos(tarifa, serie, LocalTime.of(23, 0), 120, 0),
+                tarifa.cotizarSerie(serie, LocalTime.of(23, 0), 120, 0));
+    }
+
+    @Test
+    public void elDescuentoSeRedondeaPorTurno() {
+        Tarifa tarifa = Tarifa.plana(1000);
+        // 50 min a 1000/h = 833,333...; con 1/3 de descuento, 555,555... -> 555,56 por turno
+        Recurrencia serie = Recurrencia.semanal(DayOfWeek.MONDAY, LocalDate.of(2025, 1, 6), LocalDate.of(2025, 1, 20));
+        assertEquals(new BigDecimal("555.56"), tarifa.cotizar(LocalDateTime.of(2025, 1, 6, 10, 0), 50, 1.0 / 3));
+        // Tres turnos: 1666,68 (redondear el total daría 1666,67)
+        assertEquals(new BigDecimal("1666.68"), tarifa.cotizarSerie(serie, LocalTime.of(10, 0), 50, 1.0 / 3));
+    }
+
+    // -----------------------------------------------------------
+    // Referencia
+    // -----------------------------------------------------------
+
+    /**
+     * Referencia: cotiza cada ocurrencia de la serie por separado y suma.
+     */
+    private static BigDecimal sumarTurnos(Tarifa tarifa, Recurrencia serie, LocalTime hora, int minutos, double descuento) {
+        BigDecimal total = BigDecimal.valueOf(0, 2);
+        for (LocalDate fecha : (Iterable<LocalDate>) serie.stream()::iterator) {
+            total = total.add(tarifa.cotizar(LocalDateTime.of(fecha, hora), minutos, descuento));
+        }
+        return total;
+    }
+
+    private static ReglaTarifa regla(Set<DayOfWeek> dias, String desde, String hasta,
+                                     LocalDate vigenciaDesde, LocalDate vigenciaHasta,
+                                     BigDecimal precio, Integer porcentaje, int prioridad) {
+        return new ReglaTarifa(0, dias, LocalTime.parse(desde), LocalTime.parse(hasta),
+                vigenciaDesde, vigenciaHasta, precio, porcentaje, prioridad);
+    }
+}